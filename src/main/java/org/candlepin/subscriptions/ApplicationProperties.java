@@ -88,6 +88,15 @@ public class ApplicationProperties {
    */
   private Duration reportingAccountAllowlistCacheTtl = Duration.ofMinutes(5);
 
+  /** Maximum number of opted-in orgs remembered by each instance. */
+  private long optInCacheMaximumSize = 100000;
+
+  /**
+   * Amount of time to remember that an org is opted in, before checking the database again. This
+   * bounds how long an opt-out done on another instance goes unnoticed.
+   */
+  private Duration optInCacheTtl = Duration.ofMinutes(10);
+
   /**
    * The number of days after the inventory's stale_timestamp that the record will be culled.
    * Currently, HBI is calculating this value and setting it on messages. Right now the default is:
@@ -179,4 +188,13 @@ public class ApplicationProperties {
    * resulting DB insert/update statements.
    */
   private int hourlyTallyEventBatchSize;
+
+  /**
+   * Maximum number of service types of an org that the hourly tally processes concurrently. Each
+   * service type runs in its own virtual thread with its own transactions, so every extra service
+   * type in flight can hold additional database connections. Host updates are still applied one
+   * service type at a time, since service types of an org share hosts. A value of 1 keeps the
+   * service types sequential.
+   */
+  private int hourlyTallyServiceTypeConcurrency = 1;
 }
@@ -30,8 +30,10 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
@@ -234,12 +236,15 @@ public class EventController {
   private ServiceInstancesResult parseServiceInstancesResult(List<String> eventJsonList) {
     LinkedHashMap<String, Integer> indexedEventJson = mapEventsToBatchIndex(eventJsonList);
     ServiceInstancesResult result = new ServiceInstancesResult(indexedEventJson.size());
+    // opt-in state of the orgs seen in this batch, so that each org is only checked once
+    Map<String, Boolean> optInsByOrgId = new HashMap<>();
     for (Entry<String, Integer> entry : indexedEventJson.entrySet()) {
       try {
         Event eventToProcess =
             eventNormalizer.normalizeEvent(objectMapper.readValue(entry.getKey(), Event.class));
         log.info("Event processing in batch: {}", entry.getKey());
-        processEvent(eventToProcess).ifPresent(e -> result.addEvent(e, entry.getValue()));
+        processEvent(eventToProcess, optInsByOrgId)
+            .ifPresent(e -> result.addEvent(e, entry.getValue()));
       } catch (Exception e) {
         log.warn(
             "Issue found {} for the service instance json {} skipping to next: {}",
@@ -255,7 +260,7 @@ public class EventController {
     return result;
   }
 
-  private Optional<Event> processEvent(Event eventToProcess) {
+  private Optional<Event> processEvent(Event eventToProcess, Map<String, Boolean> optInsByOrgId) {
     if (!validateServiceInstanceEvent(eventToProcess)) {
       log.warn(ErrorCode.INVALID_EVENT_CONSUMER_ERROR.toString(), eventToProcess);
       return Optional.empty();
@@ -265,15 +270,18 @@ public class EventController {
     // An org that has not been opted-in will not get tallied nightly, so there is no reason
     // to further process and store the event.
     boolean isHbiEvent = "HBI_HOST".equalsIgnoreCase(eventToProcess.getServiceType());
-    if (isHbiEvent && !optInController.isOptedIn(eventToProcess.getOrgId())) {
+    if (isHbiEvent
+        && !optInsByOrgId.computeIfAbsent(eventToProcess.getOrgId(), optInController::isOptedIn)) {
       log.debug("Skipping HBI event because the org was not opted-in");
       return Optional.empty();
     }
 
-    if (StringUtils.hasText(eventToProcess.getOrgId()) && !isHbiEvent) {
+    if (StringUtils.hasText(eventToProcess.getOrgId())
+        && !isHbiEvent
+        && !Boolean.TRUE.equals(optInsByOrgId.get(eventToProcess.getOrgId()))) {
       log.debug(
           "Ensuring orgId={} has been set up for syncing/reporting.", eventToProcess.getOrgId());
-      ensureOptIn(eventToProcess.getOrgId());
+      optInsByOrgId.put(eventToProcess.getOrgId(), ensureOptIn(eventToProcess.getOrgId()));
     }
 
     Optional<String> azureSubscriptionId = eventToProcess.getAzureSubscriptionId();
@@ -371,11 +379,13 @@ public class EventController {
     return result;
   }
 
-  private void ensureOptIn(String orgId) {
+  private boolean ensureOptIn(String orgId) {
     try {
       optInController.optInByOrgId(orgId, OptInType.PROMETHEUS);
+      return true;
     } catch (Exception e) {
       log.error("Error while attempting to automatically opt-in for orgId={} ", orgId, e);
+      return false;
     }
   }
 
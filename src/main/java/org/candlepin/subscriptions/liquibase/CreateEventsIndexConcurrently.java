@@ -0,0 +1,154 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.liquibase;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import liquibase.database.Database;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.RollbackImpossibleException;
+import liquibase.exception.ValidationErrors;
+
+/**
+ * Creates an index on the events table without blocking the event ingestion while it is built.
+ *
+ * <p>On the partitioned events table, the index is first created on the events table only, which is
+ * immediate and leaves it invalid. The index of each partition is then built concurrently and
+ * attached to it, and the index of the events table becomes valid once every partition has its own.
+ * The indexes of the partitions are named after the partition, e.g. events_2026_10_org_idx for the
+ * events_org_idx index. On a regular events table, the index is built concurrently.
+ *
+ * <p>Concurrent index builds cannot run in a transaction, so the changesets using this task must be
+ * declared with runInTransaction="false". A build interrupted before its completion leaves an
+ * invalid index behind, which is dropped and rebuilt when the changeset is run again.
+ */
+public class CreateEventsIndexConcurrently extends LiquibaseCustomTask {
+  // language=PostgreSQL
+  private static final String IS_PARTITIONED_QUERY =
+      "SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('events')";
+
+  // language=PostgreSQL
+  private static final String PARTITIONS_QUERY =
+      """
+      SELECT c.relname FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = to_regclass('events')
+        ORDER BY c.relname
+      """;
+
+  // language=PostgreSQL
+  private static final String IS_INVALID_INDEX_QUERY =
+      "SELECT 1 FROM pg_index WHERE indexrelid = to_regclass(?) AND NOT indisvalid";
+
+  private static final String TABLE = "events";
+
+  private String indexName;
+  private String definition;
+
+  /**
+   * @param indexName the name of the index, starting with "events_"
+   */
+  public void setIndexName(String indexName) {
+    this.indexName = indexName;
+  }
+
+  /**
+   * @param definition the part of the CREATE INDEX statement that follows the table name, e.g.
+   *     "(org_id, timestamp)" or "USING btree (org_id) WHERE service_type IS NULL"
+   */
+  public void setDefinition(String definition) {
+    this.definition = definition;
+  }
+
+  @Override
+  public ValidationErrors validate(Database database) {
+    ValidationErrors errors = new ValidationErrors();
+    errors.checkRequiredField("indexName", indexName);
+    errors.checkRequiredField("definition", definition);
+    if (indexName != null && !indexName.startsWith(TABLE + "_")) {
+      errors.addError("indexName must start with " + TABLE + "_");
+    }
+    return errors;
+  }
+
+  @Override
+  public void executeTask(Database database) throws DatabaseException, SQLException {
+    if (!exists(IS_PARTITIONED_QUERY)) {
+      createIndexConcurrently(indexName, TABLE);
+      return;
+    }
+
+    executeUpdate(
+        String.format("CREATE INDEX IF NOT EXISTS %s ON ONLY %s %s", indexName, TABLE, definition));
+    for (String partition : partitions()) {
+      String partitionIndex = partition + indexName.substring(TABLE.length());
+      createIndexConcurrently(partitionIndex, partition);
+      executeUpdate(String.format("ALTER INDEX %s ATTACH PARTITION %s", indexName, partitionIndex));
+      logger.info("Attached index " + partitionIndex + " to " + indexName);
+    }
+  }
+
+  private void createIndexConcurrently(String index, String table)
+      throws DatabaseException, SQLException {
+    if (exists(IS_INVALID_INDEX_QUERY, index)) {
+      logger.info("Dropping invalid index " + index + " left by an interrupted build");
+      executeUpdate(String.format("DROP INDEX CONCURRENTLY %s", index));
+    }
+    executeUpdate(
+        String.format(
+            "CREATE INDEX CONCURRENTLY IF NOT EXISTS %s ON %s %s", index, table, definition));
+  }
+
+  private List<String> partitions() throws DatabaseException, SQLException {
+    List<String> partitions = new ArrayList<>();
+    try (ResultSet resultSet = executeQuery(PARTITIONS_QUERY)) {
+      while (resultSet.next()) {
+        partitions.add(resultSet.getString(1));
+      }
+    }
+    return partitions;
+  }
+
+  private boolean exists(String sql, Object... argv) throws DatabaseException, SQLException {
+    try (ResultSet resultSet = executeQuery(sql, argv)) {
+      return resultSet.next();
+    }
+  }
+
+  @Override
+  public boolean disableAutoCommit() {
+    return false;
+  }
+
+  @Override
+  public String getConfirmationMessage() {
+    return "Created index " + indexName + " on " + TABLE;
+  }
+
+  @Override
+  public void rollback(Database database)
+      throws CustomChangeException, RollbackImpossibleException {
+    throw new RollbackImpossibleException("The changeset declares the rollback of the index");
+  }
+}
@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +50,7 @@ import org.candlepin.subscriptions.db.model.InstanceMonthlyTotalKey;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallyInstanceView;
 import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.resource.PageCursor;
 import org.candlepin.subscriptions.resource.ResourceUtils;
 import org.candlepin.subscriptions.resteasy.PageLinkCreator;
 import org.candlepin.subscriptions.security.InsightsUserPrincipal;
@@ -71,7 +73,9 @@ import org.candlepin.subscriptions.utilization.api.v1.model.SortDirection;
 import org.candlepin.subscriptions.utilization.api.v1.model.UsageType;
 import org.candlepin.subscriptions.utilization.api.v1.resources.InstancesApi;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -106,8 +110,12 @@ public class InstancesResource implements InstancesApi {
 
   @Override
   @ReportingAccessRequired
-  public InstanceGuestReport getInstanceGuests(String instanceId, Integer offset, Integer limit) {
+  public InstanceGuestReport getInstanceGuests(
+      String instanceId, Integer offset, Integer limit, String cursor) {
     String orgId = ResourceUtils.getOrgId();
+    if (cursor != null) {
+      return getInstanceGuestsAfter(orgId, instanceId, offset, limit, cursor);
+    }
     Pageable page = ResourceUtils.getPageable(offset, limit);
     Page<Host> guests = hostRepository.getGuestHostsByHypervisorInstanceId(orgId, instanceId, page);
     PageLinks links;
@@ -123,6 +131,35 @@ public class InstancesResource implements InstancesApi {
         .data(guests.getContent().stream().map(mapper::map).toList());
   }
 
+  private InstanceGuestReport getInstanceGuestsAfter(
+      String orgId, String instanceId, Integer offset, Integer limit, String cursor) {
+    PageCursor.validateNotCombinedWithOffset(cursor, offset);
+    // the cursor holds the id of the last guest of the previous page
+    PageCursor pageCursor = PageCursor.decode(cursor, 1);
+    UUID afterId;
+    try {
+      afterId =
+          pageCursor.isFirst()
+              ? HostRepository.FIRST_GUEST_ID
+              : UUID.fromString(pageCursor.value(0));
+    } catch (IllegalArgumentException e) {
+      throw PageCursor.invalidCursor();
+    }
+    Pageable page = PageRequest.of(0, ResourceUtils.getPageable(null, limit).getPageSize());
+    Slice<Host> guests =
+        hostRepository.getGuestHostsByHypervisorInstanceIdAfter(orgId, instanceId, afterId, page);
+    String nextCursor =
+        guests.hasContent()
+            ? PageCursor.of(guests.getContent().get(guests.getNumberOfElements() - 1).getId())
+                .encode()
+            : null;
+
+    return new InstanceGuestReport()
+        .links(mapper.map(pageLinkCreator.getCursorLinks(uriInfo, guests, nextCursor)))
+        .meta(new MetaCount().count(guests.getNumberOfElements()))
+        .data(guests.getContent().stream().map(mapper::map).toList());
+  }
+
   @Override
   @ReportingAccessRequired
   @Transactional(readOnly = true)
@@ -140,9 +177,11 @@ public class InstancesResource implements InstancesApi {
       OffsetDateTime beginning,
       OffsetDateTime ending,
       String sort,
-      SortDirection dir) {
+      SortDirection dir,
+      String cursor) {
 
     String orgId = ResourceUtils.getOrgId();
+    PageCursor.validateNotCombinedWithOffset(cursor, offset);
 
     log.debug("Get instances api called for org_id: {} and product: {}", orgId, productId);
 
@@ -177,7 +216,7 @@ public class InstancesResource implements InstancesApi {
         getHardwareMeasurementTypesFromCategory(reportCategory);
 
     List<InstanceData> payload;
-    Page<? extends TallyInstanceView> instances;
+    Slice<? extends TallyInstanceView> instances;
 
     OffsetDateTime now = OffsetDateTime.now();
     OffsetDateTime start = ofNullable(beginning).orElse(now);
@@ -194,41 +233,75 @@ public class InstancesResource implements InstancesApi {
     String month = productId.isPayg() ? InstanceMonthlyTotalKey.formatMonthId(start) : null;
     MetricId referenceMetricId = metricIdOptional.orElse(null);
 
-    instances =
-        repository.findAllBy(
-            orgId,
-            productId,
-            sanitizedSla,
-            sanitizedUsage,
-            displayNameContains,
-            minCores,
-            minSockets,
-            month,
-            referenceMetricId,
-            sanitizedBillingProvider,
-            sanitizedBillingAccountId,
-            hardwareMeasurementTypes,
-            offset,
-            limit,
-            sort,
-            dir);
+    PageLinks links;
+    int count;
+    if (cursor != null) {
+      instances =
+          repository.findAllAfter(
+              orgId,
+              productId,
+              sanitizedSla,
+              sanitizedUsage,
+              displayNameContains,
+              minCores,
+              minSockets,
+              month,
+              referenceMetricId,
+              sanitizedBillingProvider,
+              sanitizedBillingAccountId,
+              hardwareMeasurementTypes,
+              PageCursor.decode(cursor, TallyInstanceViewRepository.CURSOR_SIZE),
+              limit,
+              sort,
+              dir);
+      String nextCursor =
+          instances.hasContent()
+              ? TallyInstanceViewRepository.cursorAfter(
+                      instances.getContent().get(instances.getNumberOfElements() - 1),
+                      sort,
+                      productId)
+                  .encode()
+              : null;
+      links = mapper.map(pageLinkCreator.getCursorLinks(uriInfo, instances, nextCursor));
+      // counting is what cursor pagination avoids, so only the page is counted
+      count = instances.getNumberOfElements();
+    } else {
+      Page<TallyInstanceView> page =
+          repository.findAllBy(
+              orgId,
+              productId,
+              sanitizedSla,
+              sanitizedUsage,
+              displayNameContains,
+              minCores,
+              minSockets,
+              month,
+              referenceMetricId,
+              sanitizedBillingProvider,
+              sanitizedBillingAccountId,
+              hardwareMeasurementTypes,
+              offset,
+              limit,
+              sort,
+              dir);
+      if (offset != null || limit != null) {
+        links = mapper.map(pageLinkCreator.getPaginationLinks(uriInfo, page));
+      } else {
+        links = null;
+      }
+      count = (int) page.getTotalElements();
+      instances = page;
+    }
     payload =
         instances.getContent().stream()
             .map(tallyInstanceView -> asTallyHostViewApiInstance(tallyInstanceView, measurements))
             .toList();
 
-    PageLinks links;
-    if (offset != null || limit != null) {
-      links = mapper.map(pageLinkCreator.getPaginationLinks(uriInfo, instances));
-    } else {
-      links = null;
-    }
-
     return new InstanceResponse()
         .links(links)
         .meta(
             new InstanceMeta()
-                .count((int) instances.getTotalElements())
+                .count(count)
                 .product(productId.toString())
                 .serviceLevel(sla)
                 .usage(usage)
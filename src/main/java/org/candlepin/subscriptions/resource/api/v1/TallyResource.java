@@ -29,6 +29,7 @@ import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.UriInfo;
 import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -52,6 +53,7 @@ import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallyMeasurementAggregate;
 import org.candlepin.subscriptions.db.model.TallySnapshot;
 import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.resource.PageCursor;
 import org.candlepin.subscriptions.resource.ReportCriteria;
 import org.candlepin.subscriptions.resource.ResourceUtils;
 import org.candlepin.subscriptions.resteasy.PageLinkCreator;
@@ -73,7 +75,9 @@ import org.candlepin.subscriptions.utilization.api.v1.resources.TallyApi;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 /** Tally API implementation. */
@@ -128,12 +132,16 @@ public class TallyResource implements TallyApi {
       Integer offset,
       Integer limit,
       Boolean useRunningTotalsFormat,
-      BillingCategory billingCategory) {
+      BillingCategory billingCategory,
+      String cursor) {
 
     if (Objects.nonNull(billingCategory) && !Boolean.TRUE.equals(useRunningTotalsFormat)) {
       throw new BadRequestException(
           "When `billing_category` is specified, `use_running_totals_format` must be `true`.");
     }
+    PageCursor.validateNotCombinedWithOffset(cursor, offset);
+    // the cursor holds the date of the last data point of the previous page
+    PageCursor pageCursor = cursor == null ? null : PageCursor.decode(cursor, 1);
 
     ReportCriteria reportCriteria =
         extractReportCriteria(
@@ -149,8 +157,11 @@ public class TallyResource implements TallyApi {
             billingAcctId,
             billingCategory,
             offset,
-            limit);
+            limit,
+            pageCursor != null);
 
+    // A cursor page is not aligned with the capacity pages, so the capacity of the whole
+    // period is fetched then.
     Map<OffsetDateTime, Integer> capacityByDate =
         Objects.nonNull(billingCategory)
             ? getCapacityReport(
@@ -160,7 +171,7 @@ public class TallyResource implements TallyApi {
                 beginning,
                 ending,
                 offset,
-                limit,
+                pageCursor == null ? limit : null,
                 billingAcctId,
                 category,
                 sla,
@@ -172,8 +183,8 @@ public class TallyResource implements TallyApi {
     TallyQueryResult queryResult =
         featureFlags.isEnabled(FeatureFlags.ENABLE_PRIMARY_ROW_SEARCHES)
                 && !ReportCategory.HYPERVISOR.equals(category)
-            ? executeAggregateQuery(reportCriteria, metricId, category)
-            : executeSnapshotBasedQuery(reportCriteria, metricId, category);
+            ? executeAggregateQuery(reportCriteria, metricId, category, pageCursor)
+            : executeSnapshotBasedQuery(reportCriteria, metricId, category, pageCursor);
     List<UnroundedTallyReportDataPoint> snaps = queryResult.dataPoints();
 
     // Build report with metadata
@@ -194,9 +205,16 @@ public class TallyResource implements TallyApi {
     }
 
     // Only set page links if we are paging (not filling).
-    if (reportCriteria.getPageable() != null) {
+    if (pageCursor != null) {
+      String nextCursor =
+          snaps.isEmpty() ? null : PageCursor.of(snaps.get(snaps.size() - 1).date()).encode();
+      report.setLinks(
+          mapper.map(
+              pageLinkCreator.getCursorLinks(uriInfo, queryResult.pageForLinks(), nextCursor)));
+    } else if (reportCriteria.getPageable() != null) {
       report.setLinks(
-          mapper.map(pageLinkCreator.getPaginationLinks(uriInfo, queryResult.pageForLinks())));
+          mapper.map(
+              pageLinkCreator.getPaginationLinks(uriInfo, (Page<?>) queryResult.pageForLinks())));
     }
 
     if (Boolean.TRUE.equals(useRunningTotalsFormat)) {
@@ -272,11 +290,12 @@ public class TallyResource implements TallyApi {
       String billingAccountId,
       BillingCategory billingCategory,
       Integer offset,
-      Integer limit) {
-    // When limit and offset are not specified, we will fill the report with placeholder
+      Integer limit,
+      boolean cursorPaging) {
+    // When limit, offset and cursor are not specified, we will fill the report with placeholder
     // records from beginning to ending dates. Otherwise we page as usual.
     Pageable pageable = null;
-    if (limit != null || offset != null) {
+    if (limit != null || offset != null || cursorPaging) {
       pageable = ResourceUtils.getPageable(offset, limit);
     }
 
@@ -405,30 +424,49 @@ public class TallyResource implements TallyApi {
    * @param reportCriteria the report criteria
    * @param metricId the metric ID
    * @param category the report category
+   * @param cursor the cursor of the requested page, null when not using cursor pagination
    * @return the query result containing data points and page for links
    */
   private TallyQueryResult executeAggregateQuery(
-      ReportCriteria reportCriteria, MetricId metricId, ReportCategory category) {
+      ReportCriteria reportCriteria,
+      MetricId metricId,
+      ReportCategory category,
+      PageCursor cursor) {
 
     log.debug("Using primary row searches for tally report");
 
     Set<HardwareMeasurementType> measurementTypes = determineMeasurementTypes(category);
 
-    Page<TallyMeasurementAggregate> summedPage =
-        repository.findSummedMeasurements(
-            true, // isPrimary
-            reportCriteria.getOrgId(),
-            reportCriteria.getProductId(),
-            metricId,
-            reportCriteria.getGranularity(),
-            reportCriteria.getServiceLevel(),
-            reportCriteria.getUsage(),
-            reportCriteria.getBillingProvider(),
-            reportCriteria.getBillingAccountId(),
-            measurementTypes,
-            reportCriteria.getBeginning(),
-            reportCriteria.getEnding(),
-            reportCriteria.getPageable());
+    Slice<TallyMeasurementAggregate> summedPage =
+        cursor != null
+            ? repository.findSummedMeasurementsSlice(
+                true, // isPrimary
+                reportCriteria.getOrgId(),
+                reportCriteria.getProductId(),
+                metricId,
+                reportCriteria.getGranularity(),
+                reportCriteria.getServiceLevel(),
+                reportCriteria.getUsage(),
+                reportCriteria.getBillingProvider(),
+                reportCriteria.getBillingAccountId(),
+                measurementTypes,
+                seekBeginning(reportCriteria, cursor),
+                reportCriteria.getEnding(),
+                reportCriteria.getPageable().getPageSize())
+            : repository.findSummedMeasurements(
+                true, // isPrimary
+                reportCriteria.getOrgId(),
+                reportCriteria.getProductId(),
+                metricId,
+                reportCriteria.getGranularity(),
+                reportCriteria.getServiceLevel(),
+                reportCriteria.getUsage(),
+                reportCriteria.getBillingProvider(),
+                reportCriteria.getBillingAccountId(),
+                measurementTypes,
+                reportCriteria.getBeginning(),
+                reportCriteria.getEnding(),
+                reportCriteria.getPageable());
 
     // Database already grouped by (date, metricId) and summed across measurement types
     // No Java-side grouping needed - create data points directly
@@ -448,23 +486,39 @@ public class TallyResource implements TallyApi {
    * @param reportCriteria the report criteria
    * @param metricId the metric ID
    * @param category the report category
+   * @param cursor the cursor of the requested page, null when not using cursor pagination
    * @return the query result containing data points and page for links
    */
   private TallyQueryResult executeSnapshotBasedQuery(
-      ReportCriteria reportCriteria, MetricId metricId, ReportCategory category) {
-
-    Page<TallySnapshot> page =
-        repository.findSnapshot(
-            reportCriteria.getOrgId(),
-            reportCriteria.getProductId(),
-            reportCriteria.getGranularity(),
-            reportCriteria.getServiceLevel(),
-            reportCriteria.getUsage(),
-            reportCriteria.getBillingProvider(),
-            reportCriteria.getBillingAccountId(),
-            reportCriteria.getBeginning(),
-            reportCriteria.getEnding(),
-            reportCriteria.getPageable());
+      ReportCriteria reportCriteria,
+      MetricId metricId,
+      ReportCategory category,
+      PageCursor cursor) {
+
+    Slice<TallySnapshot> page =
+        cursor != null
+            ? repository.findSnapshotSlice(
+                reportCriteria.getOrgId(),
+                reportCriteria.getProductId(),
+                reportCriteria.getGranularity(),
+                reportCriteria.getServiceLevel(),
+                reportCriteria.getUsage(),
+                reportCriteria.getBillingProvider(),
+                reportCriteria.getBillingAccountId(),
+                seekBeginning(reportCriteria, cursor),
+                reportCriteria.getEnding(),
+                PageRequest.of(0, reportCriteria.getPageable().getPageSize()))
+            : repository.findSnapshot(
+                reportCriteria.getOrgId(),
+                reportCriteria.getProductId(),
+                reportCriteria.getGranularity(),
+                reportCriteria.getServiceLevel(),
+                reportCriteria.getUsage(),
+                reportCriteria.getBillingProvider(),
+                reportCriteria.getBillingAccountId(),
+                reportCriteria.getBeginning(),
+                reportCriteria.getEnding(),
+                reportCriteria.getPageable());
 
     List<UnroundedTallyReportDataPoint> dataPoints =
         page.stream()
@@ -474,6 +528,22 @@ public class TallyResource implements TallyApi {
     return new TallyQueryResult(dataPoints, page);
   }
 
+  /**
+   * Returns the beginning of the range to query for a cursor page: the requested beginning for the
+   * first page, and right after the last data point of the previous page otherwise.
+   */
+  private OffsetDateTime seekBeginning(ReportCriteria reportCriteria, PageCursor cursor) {
+    if (cursor.isFirst()) {
+      return reportCriteria.getBeginning();
+    }
+    try {
+      // snapshot dates are stored with a microsecond precision
+      return OffsetDateTime.parse(cursor.value(0)).plus(1, ChronoUnit.MICROS);
+    } catch (DateTimeParseException e) {
+      throw PageCursor.invalidCursor();
+    }
+  }
+
   /**
    * Checks if the request is for exactly a full month without pagination.
    *
@@ -553,8 +623,9 @@ public class TallyResource implements TallyApi {
 
   /**
    * Encapsulates the result of querying tally data, containing both the data points and the page
-   * object needed for pagination links.
+   * object needed for pagination links. The page is a {@link Page} unless cursor pagination was
+   * requested.
    */
   private record TallyQueryResult(
-      List<UnroundedTallyReportDataPoint> dataPoints, Page<?> pageForLinks) {}
+      List<UnroundedTallyReportDataPoint> dataPoints, Slice<?> pageForLinks) {}
 }
@@ -29,6 +29,7 @@ import org.candlepin.subscriptions.exception.SubscriptionsException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 
 /** Utility to create page links for paginated APIs. */
@@ -60,6 +61,34 @@ public class PageLinkCreator {
     return links;
   }
 
+  /**
+   * Create a PageLinks object with first and next API links for cursor pagination.
+   *
+   * <p>A cursor page does not know the total number of items, so there is neither a last link nor,
+   * as cursors only seek forward, a previous link.
+   *
+   * @param uriInfo pre-existing URI to be used as a template for the page links
+   * @param slice Spring Data slice holding the items of the current page
+   * @param nextCursor cursor pointing after the last item of the slice
+   * @return a populated PageLinks object
+   */
+  public PageLinks getCursorLinks(UriInfo uriInfo, Slice<?> slice, String nextCursor) {
+    PageLinks links = new PageLinks();
+    links.setFirst(formatUri(uriWithCursor(uriInfo, "")));
+    if (slice.hasNext()) {
+      links.setNext(formatUri(uriWithCursor(uriInfo, nextCursor)));
+    }
+    return links;
+  }
+
+  private URI uriWithCursor(UriInfo uriInfo, String cursor) {
+    return uriInfo
+        .getRequestUriBuilder()
+        .replaceQueryParam("offset")
+        .replaceQueryParam("cursor", cursor)
+        .build();
+  }
+
   private URI uriWithOffset(UriInfo uriInfo, long newOffset) {
     return uriInfo.getRequestUriBuilder().replaceQueryParam("offset", newOffset).build();
   }
@@ -20,7 +20,6 @@
  */
 package org.candlepin.subscriptions.security;
 
-import org.candlepin.subscriptions.db.OrgConfigRepository;
 import org.candlepin.subscriptions.security.auth.ReportingAccessRequired;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,15 +39,15 @@ public class AllowlistedAccountReportAccessService {
   private static final Logger log =
       LoggerFactory.getLogger(AllowlistedAccountReportAccessService.class);
 
-  private final OrgConfigRepository orgConfigRepository;
+  private final OptInCache optInCache;
 
-  public AllowlistedAccountReportAccessService(OrgConfigRepository orgConfigRepository) {
-    this.orgConfigRepository = orgConfigRepository;
+  public AllowlistedAccountReportAccessService(OptInCache optInCache) {
+    this.optInCache = optInCache;
   }
 
   public boolean providesAccessTo(Authentication auth) {
     InsightsUserPrincipal principal = (InsightsUserPrincipal) auth.getPrincipal();
-    boolean allowed = orgConfigRepository.existsByOrgId(principal.getOrgId());
+    boolean allowed = optInCache.isOptedIn(principal.getOrgId());
     log.debug(
         "Report access allowlist check for orgId={}: allowed={}", principal.getOrgId(), allowed);
     return allowed;
@@ -0,0 +1,89 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.candlepin.subscriptions.ApplicationProperties;
+import org.candlepin.subscriptions.db.OrgConfigRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-local cache of the orgs known to be opted in.
+ *
+ * <p>Only opted-in orgs are cached, so an org that opts in is seen on its next lookup. An org stays
+ * cached until it opts out or is reset on this instance, or until the configured TTL expires, which
+ * bounds how long an opt-out done on another instance goes unnoticed.
+ */
+@Component
+public class OptInCache {
+  protected static final String CACHE_NAME = "org_opt_in";
+
+  private final OrgConfigRepository orgConfigRepository;
+  private final Cache<String, Boolean> optedInOrgs;
+
+  public OptInCache(
+      OrgConfigRepository orgConfigRepository,
+      ApplicationProperties properties,
+      MeterRegistry meterRegistry) {
+    this.orgConfigRepository = orgConfigRepository;
+    this.optedInOrgs =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getOptInCacheMaximumSize())
+            .expireAfterWrite(properties.getOptInCacheTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, optedInOrgs, CACHE_NAME);
+  }
+
+  /**
+   * Check whether an org is opted in, querying the database on a cache miss.
+   *
+   * @param orgId the org to check
+   * @return true if the org is opted in
+   */
+  public boolean isOptedIn(String orgId) {
+    if (orgId == null) {
+      return false;
+    }
+    if (optedInOrgs.getIfPresent(orgId) != null) {
+      return true;
+    }
+    boolean optedIn = orgConfigRepository.existsByOrgId(orgId);
+    if (optedIn) {
+      optedInOrgs.put(orgId, Boolean.TRUE);
+    }
+    return optedIn;
+  }
+
+  /** Forget the opt-in state of an org, so that its next lookup queries the database. */
+  public void invalidate(String orgId) {
+    if (orgId != null) {
+      optedInOrgs.invalidate(orgId);
+    }
+  }
+
+  public void invalidateAll() {
+    optedInOrgs.invalidateAll();
+  }
+}
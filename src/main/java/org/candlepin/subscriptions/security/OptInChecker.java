@@ -20,7 +20,6 @@
  */
 package org.candlepin.subscriptions.security;
 
-import org.candlepin.subscriptions.db.OrgConfigRepository;
 import org.candlepin.subscriptions.exception.OptInRequiredException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,10 +41,10 @@ public class OptInChecker {
 
   private static final Logger log = LoggerFactory.getLogger(OptInChecker.class);
 
-  private final OrgConfigRepository orgConfigRepository;
+  private final OptInCache optInCache;
 
-  public OptInChecker(OrgConfigRepository orgConfigRepository) {
-    this.orgConfigRepository = orgConfigRepository;
+  public OptInChecker(OptInCache optInCache) {
+    this.optInCache = optInCache;
   }
 
   public boolean checkAccess(Authentication authentication) {
@@ -65,7 +64,7 @@ public class OptInChecker {
     InsightsUserPrincipal insightsUserPrincipal =
         (InsightsUserPrincipal) authentication.getPrincipal();
     String orgId = insightsUserPrincipal.getOrgId();
-    boolean optedIn = orgConfigRepository.existsByOrgId(orgId);
+    boolean optedIn = optInCache.isOptedIn(orgId);
     log.debug("Opt-in check for orgId={}: optedIn={}", orgId, optedIn);
 
     /* If not opted-in, throw an exception.  Ideally we would just return true/false, but if we return
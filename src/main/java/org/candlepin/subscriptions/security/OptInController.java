@@ -49,11 +49,14 @@ public class OptInController {
 
   private final OrgConfigRepository orgConfigRepository;
   private final ApplicationClock clock;
+  private final OptInCache optInCache;
 
   @Autowired
-  public OptInController(ApplicationClock clock, OrgConfigRepository orgConfigRepo) {
+  public OptInController(
+      ApplicationClock clock, OrgConfigRepository orgConfigRepo, OptInCache optInCache) {
     this.clock = clock;
     this.orgConfigRepository = orgConfigRepo;
+    this.optInCache = optInCache;
   }
 
   // Separate isolated transaction needed in order to prevent opt-in errors rolling back metrics
@@ -74,7 +77,7 @@ public class OptInController {
   // updates
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public void optInByOrgId(String orgId, OptInType optInType) {
-    if (!orgConfigRepository.existsByOrgId(orgId)) {
+    if (!optInCache.isOptedIn(orgId)) {
       log.info("Opting in orgId={}", orgId);
       // NOTE Passing null here should be cleaned up once account number
       // support is completely removed from opt-in.
@@ -88,6 +91,7 @@ public class OptInController {
     if (orgConfigRepository.existsById(orgId)) {
       orgConfigRepository.deleteById(orgId);
     }
+    optInCache.invalidate(orgId);
   }
 
   @Transactional
@@ -104,8 +108,7 @@ public class OptInController {
 
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   public boolean isOptedIn(String orgId) {
-    OptInConfig optInConfig = getOptInConfig(orgId);
-    return optInConfig.getData().getOptInComplete();
+    return optInCache.isOptedIn(orgId);
   }
 
   private OptInConfig buildDto(OptInConfigMeta meta, OptInConfigDataOrg orgData) {
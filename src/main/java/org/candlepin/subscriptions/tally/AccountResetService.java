@@ -26,6 +26,7 @@ import org.candlepin.subscriptions.db.EventRecordRepository;
 import org.candlepin.subscriptions.db.HostRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.db.TallyStateRepository;
+import org.candlepin.subscriptions.security.OptInCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -37,6 +38,7 @@ public class AccountResetService {
   private final TallySnapshotRepository tallySnapshotRepository;
   private final AccountServiceInventoryRepository accountServiceInventoryRepository;
   private final TallyStateRepository tallyStateRepository;
+  private final OptInCache optInCache;
 
   @Autowired
   public AccountResetService(
@@ -44,12 +46,14 @@ public class AccountResetService {
       HostRepository hostRepo,
       TallySnapshotRepository tallySnapshotRepository,
       AccountServiceInventoryRepository accountServiceInventoryRepository,
-      TallyStateRepository tallyStateRepository) {
+      TallyStateRepository tallyStateRepository,
+      OptInCache optInCache) {
     this.eventRecordRepo = eventRecordRepo;
     this.hostRepo = hostRepo;
     this.tallySnapshotRepository = tallySnapshotRepository;
     this.accountServiceInventoryRepository = accountServiceInventoryRepository;
     this.tallyStateRepository = tallyStateRepository;
+    this.optInCache = optInCache;
   }
 
   @Transactional
@@ -59,5 +63,6 @@ public class AccountResetService {
     eventRecordRepo.deleteByOrgId(orgId);
     tallySnapshotRepository.deleteByOrgId(orgId);
     tallyStateRepository.deleteByOrgId(orgId);
+    optInCache.invalidate(orgId);
   }
 }
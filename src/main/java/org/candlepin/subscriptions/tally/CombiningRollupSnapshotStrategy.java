@@ -103,8 +103,9 @@ public class CombiningRollupSnapshotStrategy {
         affectedProductTags);
 
     List<TallySnapshot> finestGranularitySnapshots =
-        produceFinestGranularitySnapshots(
-            totalExistingSnapshots, accountCalcs, finestGranularity, affectedRange);
+        saveSnapshots(
+            produceFinestGranularitySnapshots(
+                totalExistingSnapshots, accountCalcs, finestGranularity, affectedRange));
 
     Map<TallySnapshotNaturalKey, List<TallySnapshot>> groupedFinestSnapshots =
         finestGranularitySnapshots.stream()
@@ -113,18 +114,19 @@ public class CombiningRollupSnapshotStrategy {
                     s -> calculateRollupKey(calculateNextGranularity(finestGranularity), s)));
 
     List<TallySnapshot> rollupSnapshots =
-        Arrays.stream(GRANULARITIES)
-            .filter(g -> !Objects.equals(g, finestGranularity))
-            .map(
-                granularity ->
-                    produceRollups(
-                        totalExistingSnapshots,
-                        derivedExistingSnapshots,
-                        granularity,
-                        groupedFinestSnapshots,
-                        reductionFunction))
-            .flatMap(List::stream)
-            .toList();
+        saveSnapshots(
+            Arrays.stream(GRANULARITIES)
+                .filter(g -> !Objects.equals(g, finestGranularity))
+                .map(
+                    granularity ->
+                        produceRollups(
+                            totalExistingSnapshots,
+                            derivedExistingSnapshots,
+                            granularity,
+                            groupedFinestSnapshots,
+                            reductionFunction))
+                .flatMap(List::stream)
+                .toList());
 
     // Only want to send messages for finest granularity snapshots that are within affected range
     var finestGranularitySnapshotsInRange =
@@ -296,13 +298,26 @@ public class CombiningRollupSnapshotStrategy {
                 snapshot, accountCalc.getOrgId(), productCalc, granularity);
 
             snapshot.setSnapshotDate(offset);
-            toSave.add(tallyRepo.save(snapshot));
+            toSave.add(snapshot);
           }
         });
 
     return toSave;
   }
 
+  /**
+   * Persists the snapshots of one granularity pass with a single repository call, so that the
+   * inserts and updates are flushed together as JDBC batches instead of being issued one snapshot
+   * at a time. Measurements are only written when their value changed (see {@link
+   * TallySnapshot#setMeasurement}), so unchanged snapshots do not produce any statement.
+   */
+  private List<TallySnapshot> saveSnapshots(List<TallySnapshot> snapshots) {
+    if (snapshots.isEmpty()) {
+      return snapshots;
+    }
+    return tallyRepo.saveAll(snapshots);
+  }
+
   private boolean snapshotAffectedByRange(TallySnapshot tallySnapshot, DateRange dateRange) {
     // NOTE: we can't simply use contains here, because contains includes a match on the end date
     // e.g. a tally in range 9:00 - 10:00 should match records w/ date 9:00, but not w/ date 10:00
@@ -397,7 +412,7 @@ public class CombiningRollupSnapshotStrategy {
       Granularity granularity,
       Map<UsageCalculation.Key, Map<TallyMeasurementKey, Double>> reducedMeasurements,
       TallySnapshot firstFinestGranularitySnapshot) {
-    List<TallySnapshot> saved = new ArrayList<>();
+    List<TallySnapshot> updated = new ArrayList<>();
 
     reducedMeasurements.forEach(
         (usageKey, measurements) -> {
@@ -433,10 +448,10 @@ public class CombiningRollupSnapshotStrategy {
                       MetricId.fromString(measurementKey.getMetricId()),
                       value));
 
-          saved.add(tallyRepo.save(snapshot));
+          updated.add(snapshot);
         });
 
-    return saved;
+    return updated;
   }
 
   private OffsetDateTime calculateStartOfRange(OffsetDateTime toAdjust, Granularity granularity) {
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -38,6 +39,7 @@ import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
 import org.candlepin.subscriptions.db.HostRepository;
 import org.candlepin.subscriptions.db.HostTallyBucketRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.model.AccountBucketTally;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.Host;
@@ -69,6 +71,7 @@ public class InventoryAccountUsageCollector {
   private final int stalenessOffsetSeconds;
   private final Long hbiReconciliationFlushInterval;
   private final InventorySwatchDataCollator collator;
+  private final TallyInstanceReadModelRepository instanceReadModelRepository;
 
   @Autowired
   public InventoryAccountUsageCollector(
@@ -78,7 +81,8 @@ public class InventoryAccountUsageCollector {
       EntityManager entityManager,
       HostTallyBucketRepository tallyBucketRepository,
       ApplicationProperties props,
-      InventorySwatchDataCollator collator) {
+      InventorySwatchDataCollator collator,
+      TallyInstanceReadModelRepository instanceReadModelRepository) {
     this.factNormalizer = factNormalizer;
     this.accountServiceInventoryRepository = accountServiceInventoryRepository;
     this.collator = collator;
@@ -88,6 +92,7 @@ public class InventoryAccountUsageCollector {
     this.culledOffsetDays = props.getCullingOffsetDays();
     this.stalenessOffsetSeconds = (int) props.getStalenessOffset().toSeconds();
     this.hbiReconciliationFlushInterval = props.getHbiReconciliationFlushInterval();
+    this.instanceReadModelRepository = instanceReadModelRepository;
   }
 
   @Timed("rhsm-subscriptions.tally.inventory.db")
@@ -124,6 +129,9 @@ public class InventoryAccountUsageCollector {
    * batch size. This enables configurable control over the memory characteristics of system data
    * reconciliation.
    *
+   * <p>The instance read model rows of the reconciled systems are rebuilt after each flush. The
+   * rows of the deleted systems are removed with them.
+   *
    * @param orgId orgId to reconcile
    * @param applicableProducts products to update tally buckets for
    */
@@ -132,6 +140,7 @@ public class InventoryAccountUsageCollector {
   public void reconcileSystemDataWithHbi(String orgId, Set<String> applicableProducts) {
     accountServiceInventoryRepository.saveIfDoesNotExist(orgId, HBI_INSTANCE_TYPE);
     List<Host> detachHosts = new ArrayList<>();
+    Set<UUID> refreshedHostIds = new HashSet<>();
     int systemsUpdatedForOrg =
         collator.collateData(
             orgId,
@@ -143,6 +152,7 @@ public class InventoryAccountUsageCollector {
               if (iterationCount % hbiReconciliationFlushInterval == 0) {
                 log.debug("Flushing system changes w/ count={}", iterationCount);
                 hostRepository.flush();
+                refreshInstanceReadModel(detachHosts, refreshedHostIds);
                 if (Objects.nonNull(swatchSystem) && Objects.nonNull(hbiSystem)) {
                   detachHosts.forEach(entityManager::detach);
                   detachHosts.clear();
@@ -150,6 +160,13 @@ public class InventoryAccountUsageCollector {
               }
             });
     log.info("Reconciled {} records for orgId={}", systemsUpdatedForOrg, orgId);
+    entityManager.flush();
+    refreshInstanceReadModel(detachHosts, refreshedHostIds);
+  }
+
+  private void refreshInstanceReadModel(List<Host> hosts, Set<UUID> refreshedHostIds) {
+    instanceReadModelRepository.refreshHosts(
+        hosts.stream().map(Host::getId).filter(refreshedHostIds::add).toList());
   }
 
   /**
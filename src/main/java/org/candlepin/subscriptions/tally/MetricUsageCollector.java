@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -44,6 +45,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.candlepin.clock.ApplicationClock;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
 import org.candlepin.subscriptions.db.HostRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.db.model.AccountServiceInventory;
 import org.candlepin.subscriptions.db.model.AccountServiceInventoryId;
@@ -54,6 +56,7 @@ import org.candlepin.subscriptions.db.model.Host;
 import org.candlepin.subscriptions.db.model.HostBucketKey;
 import org.candlepin.subscriptions.db.model.HostHardwareType;
 import org.candlepin.subscriptions.db.model.HostTallyBucket;
+import org.candlepin.subscriptions.db.model.InstanceMonthlyTotalKey;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallySnapshot;
 import org.candlepin.subscriptions.db.model.Usage;
@@ -71,16 +74,19 @@ public class MetricUsageCollector {
 
   private final HostRepository hostRepository;
   private final TallySnapshotRepository snapshotRepository;
+  private final TallyInstanceReadModelRepository instanceReadModelRepository;
 
   public MetricUsageCollector(
       AccountServiceInventoryRepository accountServiceInventoryRepository,
       ApplicationClock clock,
       HostRepository hostRepository,
-      TallySnapshotRepository snapshotRepository) {
+      TallySnapshotRepository snapshotRepository,
+      TallyInstanceReadModelRepository instanceReadModelRepository) {
     this.accountServiceInventoryRepository = accountServiceInventoryRepository;
     this.clock = clock;
     this.hostRepository = hostRepository;
     this.snapshotRepository = snapshotRepository;
+    this.instanceReadModelRepository = instanceReadModelRepository;
   }
 
   @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -96,14 +102,22 @@ public class MetricUsageCollector {
       accountServiceInventoryRepository.save(new AccountServiceInventory(inventoryId));
     }
 
+    // events only add to the monthly totals of their own month, so the totals of the other months
+    // are not loaded. Duplicated instances are resolved by the repository before the totals are
+    // filtered, with the same preference as handleDuplicates.
     var hosts =
-        hostRepository.findAllByOrgIdAndInstanceIdIn(
-            orgId, events.stream().map(Event::getInstanceId).collect(Collectors.toSet()));
+        hostRepository.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+            orgId,
+            events.stream().map(Event::getInstanceId).collect(Collectors.toSet()),
+            events.stream()
+                .map(event -> InstanceMonthlyTotalKey.formatMonthId(event.getTimestamp()))
+                .collect(Collectors.toSet()));
     // NOTE Checking handleDuplicates here should be cleaned up once we handle de duplication logic
     // https://issues.redhat.com/browse/SWATCH-2145
     var hostsByInstanceId =
-        hosts.collect(
-            Collectors.toMap(Host::getInstanceId, Function.identity(), this::handleDuplicates));
+        hosts.stream()
+            .collect(
+                Collectors.toMap(Host::getInstanceId, Function.identity(), this::handleDuplicates));
 
     for (Event event : events) {
       Host host = hostsByInstanceId.computeIfAbsent(event.getInstanceId(), i -> new Host());
@@ -125,10 +139,14 @@ public class MetricUsageCollector {
       updateInstanceFromEvent(event, host);
     }
 
+    Set<UUID> hostIds = new HashSet<>();
     for (Host host : hostsByInstanceId.values()) {
       host.getBuckets().removeIf(HostTallyBucket::isStale);
       hostRepository.save(host);
+      hostIds.add(host.getId());
     }
+    hostRepository.flush();
+    instanceReadModelRepository.refreshHosts(hostIds);
   }
 
   public Host handleDuplicates(Host hostA, Host hostB) {
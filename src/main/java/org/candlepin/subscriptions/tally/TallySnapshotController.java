@@ -27,12 +27,17 @@ import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import com.redhat.swatch.configuration.registry.Variant;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.time.OffsetDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.clock.ApplicationClock;
@@ -43,6 +48,8 @@ import org.candlepin.subscriptions.db.model.TallySnapshot;
 import org.candlepin.subscriptions.db.model.TallyState;
 import org.candlepin.subscriptions.db.model.TallyStateKey;
 import org.candlepin.subscriptions.event.EventController;
+import org.candlepin.subscriptions.json.Event;
+import org.candlepin.subscriptions.util.LogUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.retry.support.RetryTemplate;
@@ -56,6 +63,8 @@ import org.springframework.transaction.annotation.Transactional;
 public class TallySnapshotController {
 
   protected static final String TALLIED_USAGE_TOTAL_METRIC = "swatch_tally_tallied_usage_total";
+  protected static final String HOURLY_SERVICE_TYPE_TIMER =
+      "rhsm-subscriptions.snapshots.single.hourly.service-type";
 
   private final ApplicationProperties appProps;
   private final InventoryAccountUsageCollector usageCollector;
@@ -134,75 +143,127 @@ public class TallySnapshotController {
     // Set in this situation rather than List. Set enables us to guarantee that each event is
     // fetched by service type just once.
     Set<String> serviceTypes = SubscriptionDefinition.getAllServiceTypes();
-    for (String serviceType : serviceTypes) {
-      log.debug("Producing hourly snapshots for orgId {} for service type {} ", orgId, serviceType);
+    int concurrency =
+        Math.min(appProps.getHourlyTallyServiceTypeConcurrency(), serviceTypes.size());
+    Lock hostUpdateLock = new ReentrantLock();
+    if (concurrency <= 1) {
+      serviceTypes.forEach(
+          serviceType -> produceHourlySnapshotsForServiceType(orgId, serviceType, hostUpdateLock));
+    } else {
+      // Each service type has its own TallyState, calculation cache and product tags, but the
+      // service types of an org can report the same instances, so they share Host rows. Only the
+      // host updates are serialized by the lock. Closing the executor waits for every service type
+      // to finish.
+      try (ExecutorService executor =
+          Executors.newFixedThreadPool(
+              concurrency, Thread.ofVirtual().name("hourly-tally-", 0).factory())) {
+        for (String serviceType : serviceTypes) {
+          executor.execute(
+              () -> {
+                LogUtils.addOrgIdToMdc(orgId);
+                try {
+                  produceHourlySnapshotsForServiceType(orgId, serviceType, hostUpdateLock);
+                } finally {
+                  LogUtils.clearOrgIdFromMdc();
+                }
+              });
+        }
+      }
+    }
+    log.info("Finished producing hourly snapshots for Org ID {}.", orgId);
+  }
 
-      try {
-        TallyState currentState =
-            tallyStateRepository
-                .findById(new TallyStateKey(orgId, serviceType))
-                .orElseGet(() -> initializeTallyState(orgId, serviceType));
+  private void produceHourlySnapshotsForServiceType(
+      String orgId, String serviceType, Lock hostUpdateLock) {
+    Timer.builder(HOURLY_SERVICE_TYPE_TIMER)
+        .tag("service_type", serviceType)
+        .register(meterRegistry)
+        .record(() -> tallyServiceType(orgId, serviceType, hostUpdateLock));
+  }
 
-        AccountUsageCalculationCache calcCache = new AccountUsageCalculationCache();
+  private void tallyServiceType(String orgId, String serviceType, Lock hostUpdateLock) {
+    log.debug("Producing hourly snapshots for orgId {} for service type {} ", orgId, serviceType);
 
-        // We use a functional interface for processing event batches to allow
-        // us to wrap the Event fetch in a read only transaction without needing
-        // to annotate this method with a DB transaction.
-        eventController.processEventsInBatches(
-            orgId,
-            serviceType,
-            currentState.getLatestEventRecordDate(),
-            appProps.getHourlyTallyEventBatchSize(),
-            nextBatch ->
-                retryTemplate.execute(
-                    context -> {
-                      metricUsageCollector.updateHosts(orgId, serviceType, nextBatch);
-                      metricUsageCollector.calculateUsage(nextBatch, calcCache);
-                      currentState.setLatestEventRecordDate(
-                          nextBatch.get(nextBatch.size() - 1).getRecordDate());
-                      return null;
-                    }));
+    try {
+      TallyState currentState =
+          tallyStateRepository
+              .findById(new TallyStateKey(orgId, serviceType))
+              .orElseGet(() -> initializeTallyState(orgId, serviceType));
 
-        if (!calcCache.isEmpty()) {
-          var applicableUsageCalculations =
-              calcCache.getCalculations().entrySet().stream()
-                  .filter(this::isCombiningRollupStrategySupported)
-                  .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+      AccountUsageCalculationCache calcCache = new AccountUsageCalculationCache();
 
-          Set<String> tags =
-              SubscriptionDefinition.findByServiceType(serviceType).stream()
-                  .map(SubscriptionDefinition::getVariants)
-                  .flatMap(Set::stream)
-                  .map(Variant::getTag)
-                  .collect(Collectors.toSet());
+      // We use a functional interface for processing event batches to allow
+      // us to wrap the Event fetch in a read only transaction without needing
+      // to annotate this method with a DB transaction.
+      eventController.processEventsInBatches(
+          orgId,
+          serviceType,
+          currentState.getLatestEventRecordDate(),
+          appProps.getHourlyTallyEventBatchSize(),
+          nextBatch ->
+              retryTemplate.execute(
+                  context -> {
+                    updateHosts(orgId, serviceType, nextBatch, hostUpdateLock);
+                    metricUsageCollector.calculateUsage(nextBatch, calcCache);
+                    currentState.setLatestEventRecordDate(
+                        nextBatch.get(nextBatch.size() - 1).getRecordDate());
+                    return null;
+                  }));
 
-          Map<String, List<TallySnapshot>> totalSnapshots =
-              combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
-                  orgId,
-                  calcCache.getCalculationRange(),
-                  tags,
-                  applicableUsageCalculations,
-                  Granularity.HOURLY,
-                  Double::sum);
+      if (!calcCache.isEmpty()) {
+        var applicableUsageCalculations =
+            calcCache.getCalculations().entrySet().stream()
+                .filter(this::isCombiningRollupStrategySupported)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
-          tallyStateRepository.update(currentState);
-          recordTallyCount(totalSnapshots.values().stream().flatMap(Collection::stream).toList());
-          summaryProducer.produceTallySummaryMessages(
-              totalSnapshots,
-              List.of(Granularity.HOURLY),
-              SnapshotSummaryProducer.HOURLY_SNAP_FILTER);
-        }
+        Set<String> tags =
+            SubscriptionDefinition.findByServiceType(serviceType).stream()
+                .map(SubscriptionDefinition::getVariants)
+                .flatMap(Set::stream)
+                .map(Variant::getTag)
+                .collect(Collectors.toSet());
 
-        log.debug("Finished producing {} hourly snapshots for orgId {}", serviceType, orgId);
-      } catch (Exception e) {
-        log.error(
-            "Could not collect {} metrics and/or produce snapshots for with orgId {}",
-            serviceType,
-            orgId,
-            e);
+        Map<String, List<TallySnapshot>> totalSnapshots =
+            combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
+                orgId,
+                calcCache.getCalculationRange(),
+                tags,
+                applicableUsageCalculations,
+                Granularity.HOURLY,
+                Double::sum);
+
+        tallyStateRepository.update(currentState);
+        recordTallyCount(totalSnapshots.values().stream().flatMap(Collection::stream).toList());
+        summaryProducer.produceTallySummaryMessages(
+            totalSnapshots,
+            List.of(Granularity.HOURLY),
+            SnapshotSummaryProducer.HOURLY_SNAP_FILTER);
       }
+
+      log.debug("Finished producing {} hourly snapshots for orgId {}", serviceType, orgId);
+    } catch (Exception e) {
+      log.error(
+          "Could not collect {} metrics and/or produce snapshots for with orgId {}",
+          serviceType,
+          orgId,
+          e);
+    }
+  }
+
+  /**
+   * Hosts are looked up by instance id and have no version, so two service types updating the same
+   * host at once would overwrite each other's monthly totals or both create a missing host. The
+   * host updates of an org are therefore done one at a time, and each of them is committed by
+   * {@link MetricUsageCollector#updateHosts} before the lock is released.
+   */
+  private void updateHosts(
+      String orgId, String serviceType, List<Event> events, Lock hostUpdateLock) {
+    hostUpdateLock.lock();
+    try {
+      metricUsageCollector.updateHosts(orgId, serviceType, events);
+    } finally {
+      hostUpdateLock.unlock();
     }
-    log.info("Finished producing hourly snapshots for Org ID {}.", orgId);
   }
 
   private void recordTallyCount(List<TallySnapshot> snapshots) {
@@ -32,6 +32,7 @@ import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
 import org.candlepin.subscriptions.db.HostRepository;
 import org.candlepin.subscriptions.db.RhsmSubscriptionsDataSourceConfiguration;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.export.ExportConfiguration;
 import org.candlepin.subscriptions.inventory.db.InventoryDataSourceConfiguration;
@@ -190,9 +191,14 @@ public class TallyWorkerConfiguration {
       AccountServiceInventoryRepository accountServiceInventoryRepository,
       ApplicationClock clock,
       HostRepository hostRepository,
-      TallySnapshotRepository tallySnapshotRepository) {
+      TallySnapshotRepository tallySnapshotRepository,
+      TallyInstanceReadModelRepository instanceReadModelRepository) {
     return new MetricUsageCollector(
-        accountServiceInventoryRepository, clock, hostRepository, tallySnapshotRepository);
+        accountServiceInventoryRepository,
+        clock,
+        hostRepository,
+        tallySnapshotRepository,
+        instanceReadModelRepository);
   }
 
   @Bean
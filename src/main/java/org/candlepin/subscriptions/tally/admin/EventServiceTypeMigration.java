@@ -0,0 +1,102 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.admin;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Types;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Backfills the service_type column of the events stored before the column was introduced (see
+ * liquibase/202610171000-add-service-type-to-events.xml).
+ *
+ * <p>The events are walked in event_id order, so every batch is a range scan of the primary key,
+ * and each batch is committed on its own.
+ */
+@Component
+@Slf4j
+public class EventServiceTypeMigration extends DataMigration {
+
+  private static final SqlRowSetResultSetExtractor SQL_ROW_SET_RESULT_SET_EXTRACTOR =
+      new SqlRowSetResultSetExtractor();
+
+  private static final String EVENT_ID_QUERY =
+      """
+      select event_id from events
+        where (?::uuid is null or event_id > ?::uuid)
+        order by event_id
+        limit ?
+      """;
+
+  private static final String BACKFILL_STATEMENT =
+      """
+      update events set service_type = data->>'service_type'
+        where event_id between ?::uuid and ?::uuid
+          and service_type is null
+      """;
+
+  private final Counter counter;
+
+  public EventServiceTypeMigration(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+    super(jdbcTemplate, meterRegistry);
+    counter = meterRegistry.counter("swatch_event_service_type_migration");
+  }
+
+  @Override
+  public SqlRowSet extract(String recordOffset, int batchSize) {
+    return jdbcTemplate.query(
+        EVENT_ID_QUERY,
+        new Object[] {recordOffset, recordOffset, batchSize},
+        new int[] {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC},
+        SQL_ROW_SET_RESULT_SET_EXTRACTOR);
+  }
+
+  @Transactional
+  @Override
+  public String transformAndLoad(SqlRowSet data) {
+    String firstEventId = null;
+    String lastEventId = null;
+    while (data.next()) {
+      lastEventId = data.getString("event_id");
+      if (firstEventId == null) {
+        firstEventId = lastEventId;
+      }
+    }
+    if (lastEventId == null) {
+      return null;
+    }
+    int updated = jdbcTemplate.update(BACKFILL_STATEMENT, firstEventId, lastEventId);
+    counter.increment(updated);
+    log.debug("Backfilled the service_type of {} events up to event_id={}", updated, lastEventId);
+    return lastEventId;
+  }
+
+  @Override
+  public void recordCompleted() {
+    log.info("Backfill of the events service_type column complete");
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.admin;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Types;
+import lombok.extern.slf4j.Slf4j;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlRowSetResultSetExtractor;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Loads the instance read model of the hosts stored before the read model was introduced (see
+ * liquibase/202610171500-add-tally-instance-read-model.xml).
+ *
+ * <p>The orgs are walked in org_id order and each batch of orgs is rebuilt and committed on its
+ * own. Running it again rebuilds the read model, e.g. after the is_primary column of the host
+ * buckets was updated.
+ */
+@Component
+@Slf4j
+public class InstanceReadModelMigration extends DataMigration {
+
+  private static final SqlRowSetResultSetExtractor SQL_ROW_SET_RESULT_SET_EXTRACTOR =
+      new SqlRowSetResultSetExtractor();
+
+  private static final String ORG_ID_QUERY =
+      """
+      select distinct org_id from hosts
+        where (?::varchar is null or org_id > ?::varchar)
+        order by org_id
+        limit ?
+      """;
+
+  private final TallyInstanceReadModelRepository instanceReadModelRepository;
+  private final Counter counter;
+
+  public InstanceReadModelMigration(
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry,
+      TallyInstanceReadModelRepository instanceReadModelRepository) {
+    super(jdbcTemplate, meterRegistry);
+    this.instanceReadModelRepository = instanceReadModelRepository;
+    counter = meterRegistry.counter("swatch_instance_read_model_migration");
+  }
+
+  @Override
+  public SqlRowSet extract(String recordOffset, int batchSize) {
+    return jdbcTemplate.query(
+        ORG_ID_QUERY,
+        new Object[] {recordOffset, recordOffset, batchSize},
+        new int[] {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC},
+        SQL_ROW_SET_RESULT_SET_EXTRACTOR);
+  }
+
+  @Transactional
+  @Override
+  public String transformAndLoad(SqlRowSet data) {
+    String lastOrgId = null;
+    while (data.next()) {
+      lastOrgId = data.getString("org_id");
+      counter.increment(instanceReadModelRepository.refreshOrg(lastOrgId));
+    }
+    if (lastOrgId != null) {
+      log.debug("Loaded the instance read model up to orgId={}", lastOrgId);
+    }
+    return lastOrgId;
+  }
+
+  @Override
+  public void recordCompleted() {
+    log.info("Load of the instance read model complete");
+  }
+}
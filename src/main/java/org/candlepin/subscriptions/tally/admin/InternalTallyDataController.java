@@ -55,6 +55,8 @@ public class InternalTallyDataController {
   private final EventNormalizer eventNormalizer;
   private final DataMigrationRunner dataMigrationRunner;
   private final MergeHostsMigration mergeHostsMigration;
+  private final EventServiceTypeMigration eventServiceTypeMigration;
+  private final InstanceReadModelMigration instanceReadModelMigration;
 
   public void deleteDataAssociatedWithOrg(String orgId) {
     accountResetService.deleteDataForOrg(orgId);
@@ -131,6 +133,14 @@ public class InternalTallyDataController {
     dataMigrationRunner.migrate(mergeHostsMigration, null, 10);
   }
 
+  public void backfillEventServiceTypes(int batchSize) {
+    dataMigrationRunner.migrate(eventServiceTypeMigration, null, batchSize);
+  }
+
+  public void loadInstanceReadModel(int batchSize) {
+    dataMigrationRunner.migrate(instanceReadModelMigration, null, batchSize);
+  }
+
   public String createOrUpdateOptInConfig(String orgId, OptInType api) {
     OptInConfig config = controller.optIn(orgId, api);
 
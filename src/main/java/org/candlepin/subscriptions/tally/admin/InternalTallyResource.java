@@ -47,6 +47,7 @@ import org.candlepin.subscriptions.tally.admin.api.model.TallyResend;
 import org.candlepin.subscriptions.tally.admin.api.model.TallyResendData;
 import org.candlepin.subscriptions.tally.admin.api.model.TallyResponse;
 import org.candlepin.subscriptions.tally.admin.api.model.UuidList;
+import org.candlepin.subscriptions.tally.events.EventPartitionManager;
 import org.candlepin.subscriptions.tally.events.EventRecordsRetentionProperties;
 import org.candlepin.subscriptions.tally.job.CaptureSnapshotsTaskManager;
 import org.candlepin.subscriptions.task.TaskQueueProperties;
@@ -76,6 +77,7 @@ public class InternalTallyResource implements InternalTallyApi {
   private final SecurityProperties properties;
   private final EventRecordRepository eventRecordRepository;
   private final EventRecordsRetentionProperties eventRecordsRetentionProperties;
+  private final EventPartitionManager eventPartitionManager;
   private final KafkaTemplate<String, Event> eventKafkaTemplate;
   private final ObjectMapper objectMapper;
   private final String eventTopic;
@@ -92,6 +94,7 @@ public class InternalTallyResource implements InternalTallyApi {
       SecurityProperties properties,
       EventRecordRepository eventRecordRepository,
       EventRecordsRetentionProperties eventRecordsRetentionProperties,
+      EventPartitionManager eventPartitionManager,
       ObjectMapper objectMapper,
       KafkaTemplate<String, Event> eventKafkaTemplate,
       IsPrimaryUpdateService isPrimaryUpdateService,
@@ -106,6 +109,7 @@ public class InternalTallyResource implements InternalTallyApi {
     this.properties = properties;
     this.eventRecordRepository = eventRecordRepository;
     this.eventRecordsRetentionProperties = eventRecordsRetentionProperties;
+    this.eventPartitionManager = eventPartitionManager;
     this.eventKafkaTemplate = eventKafkaTemplate;
     this.objectMapper = objectMapper;
     this.eventTopic = serviceInstanceTopicProperties.getTopic();
@@ -173,7 +177,14 @@ public class InternalTallyResource implements InternalTallyApi {
         clock.now().truncatedTo(ChronoUnit.DAYS).minus(eventRetentionDuration);
 
     log.info("Purging event records older than {}", cutoffDate);
-    eventRecordRepository.deleteInBulkEventRecordsByTimestampBefore(cutoffDate);
+    if (eventPartitionManager.isPartitioned()) {
+      // whole partitions are dropped instead of deleting rows, and the partitions of the coming
+      // months are created ahead of the events
+      eventPartitionManager.dropPartitionsBefore(cutoffDate);
+      eventPartitionManager.createFuturePartitions();
+    } else {
+      eventRecordRepository.deleteInBulkEventRecordsByTimestampBefore(cutoffDate);
+    }
     log.info("Event record purge completed successfully");
   }
 
@@ -330,6 +341,36 @@ public class InternalTallyResource implements InternalTallyApi {
     return response;
   }
 
+  /**
+   * Backfill the service_type column of the events in the background.
+   *
+   * @param batchSize the number of events updated per transaction
+   * @return a {@link DefaultResponse}
+   */
+  @Override
+  public DefaultResponse backfillEventServiceTypes(Integer batchSize) {
+    var response = new DefaultResponse();
+    Object principal = ResourceUtils.getPrincipal();
+    log.info("Backfill of the events service_type triggered via API by {}", principal);
+    internalTallyDataController.backfillEventServiceTypes(batchSize);
+    return response;
+  }
+
+  /**
+   * Load the instance read model of all the orgs in the background.
+   *
+   * @param batchSize the number of orgs loaded per transaction
+   * @return a {@link DefaultResponse}
+   */
+  @Override
+  public DefaultResponse loadInstanceReadModel(Integer batchSize) {
+    var response = new DefaultResponse();
+    Object principal = ResourceUtils.getPrincipal();
+    log.info("Load of the instance read model triggered via API by {}", principal);
+    internalTallyDataController.loadInstanceReadModel(batchSize);
+    return response;
+  }
+
   private boolean isFeatureEnabled() {
     if (!properties.isDevMode() && !properties.isManualEventEditingEnabled()) {
       log.error(FEATURE_NOT_ENABLED_MESSSAGE);
@@ -23,9 +23,12 @@ package org.candlepin.subscriptions.tally.admin;
 import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import io.micrometer.core.annotation.Timed;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.db.HostTallyBucketRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
@@ -40,8 +43,11 @@ import org.springframework.transaction.annotation.Transactional;
 @AllArgsConstructor
 public class IsPrimaryUpdateService {
 
+  private static final int READ_MODEL_REFRESH_BATCH_SIZE = 1000;
+
   private final TallySnapshotRepository snapshotRepository;
   private final HostTallyBucketRepository bucketRepository;
+  private final TallyInstanceReadModelRepository instanceReadModelRepository;
 
   /**
    * Set is_primary=true for appropriate rows based on product's PAYG eligibility (asynchronous).
@@ -212,6 +218,30 @@ public class IsPrimaryUpdateService {
         productId,
         isPayg);
 
+    if (totalUpdated > 0) {
+      refreshInstanceReadModel(orgId, productId);
+    }
     return totalUpdated;
   }
+
+  /** The primary instance views only show primary buckets, so the hosts of the product change. */
+  private void refreshInstanceReadModel(String orgId, String productId) {
+    int totalRefreshed = 0;
+    UUID afterHostId = new UUID(0, 0);
+    List<UUID> refreshed;
+    do {
+      refreshed =
+          instanceReadModelRepository.refreshHostsWithProduct(
+              orgId, productId, afterHostId, READ_MODEL_REFRESH_BATCH_SIZE);
+      totalRefreshed += refreshed.size();
+      if (!refreshed.isEmpty()) {
+        afterHostId = refreshed.get(refreshed.size() - 1);
+      }
+    } while (refreshed.size() == READ_MODEL_REFRESH_BATCH_SIZE);
+    log.info(
+        "Refreshed the instance read model of {} hosts (org={}, product={})",
+        totalRefreshed,
+        orgId != null ? orgId : "ALL",
+        productId);
+  }
 }
@@ -31,9 +31,11 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.db.HostRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.model.Host;
 import org.candlepin.subscriptions.db.model.HostTallyBucket;
 import org.candlepin.subscriptions.db.model.InstanceMonthlyTotalKey;
@@ -74,14 +76,19 @@ public class MergeHostsMigration extends DataMigration {
       """;
 
   private HostRepository hostRepository;
+  private final TallyInstanceReadModelRepository instanceReadModelRepository;
   private final Counter counter;
   private String orgId;
 
   public MergeHostsMigration(
-      JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, HostRepository hostRepository) {
+      JdbcTemplate jdbcTemplate,
+      MeterRegistry meterRegistry,
+      HostRepository hostRepository,
+      TallyInstanceReadModelRepository instanceReadModelRepository) {
     super(jdbcTemplate, meterRegistry);
     counter = meterRegistry.counter("swatch_mergeHosts_migration");
     this.hostRepository = hostRepository;
+    this.instanceReadModelRepository = instanceReadModelRepository;
   }
 
   @Override
@@ -110,6 +117,7 @@ public class MergeHostsMigration extends DataMigration {
   public String transformAndLoad(SqlRowSet data) {
     String lastInstanceId = null;
     int hostCount = 0;
+    Set<UUID> mergedHostIds = new HashSet<>();
 
     while (data.next()) {
       List<Host> deleteList = new ArrayList<>();
@@ -142,8 +150,12 @@ public class MergeHostsMigration extends DataMigration {
         throw e;
       }
       hostRepository.deleteAll(deleteList);
+      mergedHostIds.add(primaryHost.getId());
     }
 
+    // the rows of the deleted hosts are removed with them
+    hostRepository.flush();
+    instanceReadModelRepository.refreshHosts(mergedHostIds);
     counter.increment(hostCount);
     return lastInstanceId;
   }
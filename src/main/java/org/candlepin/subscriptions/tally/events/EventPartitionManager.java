@@ -0,0 +1,245 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.events;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.candlepin.clock.ApplicationClock;
+import org.candlepin.subscriptions.db.EventRecordRepository;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains the monthly partitions of the events table.
+ *
+ * <p>A partition named events_YYYY_MM holds the events whose timestamp falls in that month (UTC).
+ * Events outside of the existing partitions land in the events_default partition. The events stored
+ * before the table was partitioned are kept in the events_historic partition, which covers every
+ * timestamp before the first monthly partition. See
+ * liquibase/202610161200-partition-events-by-month.xml for the conversion of the table.
+ *
+ * <p>Callers are expected to run these operations in a transaction. The events table is only
+ * partitioned on PostgreSQL; check {@link #isPartitioned()} first.
+ */
+@Slf4j
+@Component
+public class EventPartitionManager {
+
+  static final String DEFAULT_PARTITION = "events_default";
+  static final String HISTORIC_PARTITION = "events_historic";
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+  private static final Pattern PARTITION_NAME = Pattern.compile("events_(\\d{4})_(\\d{2})");
+
+  private static final String IS_PARTITIONED_QUERY =
+      "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass('events'))";
+  private static final String PARTITIONS_QUERY =
+      """
+      select c.relname from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = to_regclass('events')
+      """;
+  private static final String HISTORIC_PARTITION_END_QUERY =
+      """
+      select (regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''(.+)''\\)'))[1]::timestamptz
+        from pg_inherits i
+        join pg_class c on c.oid = i.inhrelid
+        where i.inhparent = to_regclass('events') and c.relname = 'events_historic'
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EventRecordRepository eventRecordRepository;
+  private final ApplicationClock clock;
+  private final EventRecordsRetentionProperties properties;
+
+  public EventPartitionManager(
+      JdbcTemplate jdbcTemplate,
+      EventRecordRepository eventRecordRepository,
+      ApplicationClock clock,
+      EventRecordsRetentionProperties properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventRecordRepository = eventRecordRepository;
+    this.clock = clock;
+    this.properties = properties;
+  }
+
+  /**
+   * @return true when the events table is partitioned, false when it is a regular table (e.g. on
+   *     HSQLDB).
+   */
+  public boolean isPartitioned() {
+    Boolean postgres =
+        jdbcTemplate.execute(
+            (ConnectionCallback<Boolean>)
+                connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+    return Boolean.TRUE.equals(postgres)
+        && Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_QUERY, Boolean.class));
+  }
+
+  /**
+   * Create the partitions of the current month and of the configured number of months ahead of it
+   * that do not exist yet. The months still covered by the historic partition are skipped: it
+   * covers the month in which the table was partitioned, and later months if events had future
+   * timestamps.
+   *
+   * @return the names of the created partitions
+   */
+  public List<String> createFuturePartitions() {
+    Set<YearMonth> existing = partitionMonths();
+    YearMonth current = YearMonth.from(clock.now().withOffsetSameInstant(ZoneOffset.UTC));
+    YearMonth first =
+        historicPartitionEnd()
+            .map(end -> YearMonth.from(end.withOffsetSameInstant(ZoneOffset.UTC)))
+            .filter(historicEnd -> historicEnd.isAfter(current))
+            .orElse(current);
+    List<String> created = new ArrayList<>();
+    for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+      YearMonth month = current.plusMonths(i);
+      if (!month.isBefore(first) && !existing.contains(month)) {
+        createPartition(month);
+        created.add(partitionName(month));
+      }
+    }
+    return created;
+  }
+
+  /**
+   * Detach and drop the partitions that only hold events older than the cutoff date. Expired events
+   * in the default partition are deleted.
+   *
+   * <p>The partition containing the cutoff date is kept, so events are retained up to one month
+   * longer than the cutoff date.
+   *
+   * <p>The historic partition is dropped once all of its events are expired. Until then its expired
+   * events are deleted in batches, each committed on its own, so this must be called before the
+   * calling transaction locks the events table.
+   *
+   * @param cutoffDate events before this timestamp are expired
+   * @return the names of the dropped partitions
+   */
+  public List<String> dropPartitionsBefore(OffsetDateTime cutoffDate) {
+    List<String> dropped = new ArrayList<>();
+    Optional<OffsetDateTime> historicEnd = historicPartitionEnd();
+    if (historicEnd.isPresent() && historicEnd.get().isAfter(cutoffDate)) {
+      deleteExpiredHistoricEvents(cutoffDate);
+    } else if (historicEnd.isPresent()) {
+      dropPartition(HISTORIC_PARTITION);
+      dropped.add(HISTORIC_PARTITION);
+    }
+    for (YearMonth month : partitionMonths()) {
+      if (!startOf(month.plusMonths(1)).isAfter(cutoffDate)) {
+        String partition = partitionName(month);
+        dropPartition(partition);
+        dropped.add(partition);
+      }
+    }
+    int deleted =
+        jdbcTemplate.update(
+            String.format("delete from %s where timestamp < ?", DEFAULT_PARTITION), cutoffDate);
+    log.info("Deleted {} expired events from {}", deleted, DEFAULT_PARTITION);
+    return dropped;
+  }
+
+  private void dropPartition(String partition) {
+    log.info("Dropping events partition {}", partition);
+    jdbcTemplate.execute(String.format("alter table events detach partition %s", partition));
+    jdbcTemplate.execute(String.format("drop table %s", partition));
+  }
+
+  private void deleteExpiredHistoricEvents(OffsetDateTime cutoffDate) {
+    int batchSize = properties.getHistoricPurgeBatchSize();
+    long deleted = 0;
+    int batch;
+    do {
+      batch = eventRecordRepository.deleteHistoricEventsBefore(cutoffDate, batchSize);
+      deleted += batch;
+    } while (batch == batchSize);
+    log.info("Deleted {} expired events from {}", deleted, HISTORIC_PARTITION);
+  }
+
+  private Optional<OffsetDateTime> historicPartitionEnd() {
+    return jdbcTemplate.queryForList(HISTORIC_PARTITION_END_QUERY, OffsetDateTime.class).stream()
+        .findFirst();
+  }
+
+  /**
+   * Creating the partition directly with "partition of" fails if the default partition already
+   * holds events of that month, so the table is created detached, the events are moved over from
+   * the default partition and the table is then attached.
+   */
+  private void createPartition(YearMonth month) {
+    String partition = partitionName(month);
+    OffsetDateTime start = startOf(month);
+    OffsetDateTime end = startOf(month.plusMonths(1));
+    log.info("Creating events partition {}", partition);
+    jdbcTemplate.execute(
+        String.format("create table %s (like events including defaults)", partition));
+    int moved =
+        jdbcTemplate.update(
+            String.format(
+                "insert into %s select * from %s where timestamp >= ? and timestamp < ?",
+                partition, DEFAULT_PARTITION),
+            start,
+            end);
+    if (moved > 0) {
+      jdbcTemplate.update(
+          String.format("delete from %s where timestamp >= ? and timestamp < ?", DEFAULT_PARTITION),
+          start,
+          end);
+      log.info("Moved {} events from {} to {}", moved, DEFAULT_PARTITION, partition);
+    }
+    jdbcTemplate.execute(
+        String.format(
+            "alter table events attach partition %s for values from ('%s') to ('%s')",
+            partition, start, end));
+  }
+
+  private Set<YearMonth> partitionMonths() {
+    Set<YearMonth> months = new TreeSet<>();
+    for (String name : jdbcTemplate.queryForList(PARTITIONS_QUERY, String.class)) {
+      Matcher matcher = PARTITION_NAME.matcher(name);
+      if (matcher.matches()) {
+        months.add(
+            YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+      }
+    }
+    return months;
+  }
+
+  static String partitionName(YearMonth month) {
+    return "events_" + PARTITION_SUFFIX.format(month);
+  }
+
+  private static OffsetDateTime startOf(YearMonth month) {
+    return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+  }
+}
@@ -32,4 +32,10 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "rhsm-subscriptions.event-retention-policy")
 public class EventRecordsRetentionProperties {
   private Period eventRetentionDuration = Period.ofMonths(6);
+
+  /** Number of monthly events partitions to create ahead of the current month. */
+  private int partitionsAhead = 3;
+
+  /** Number of expired events deleted per transaction from the historic events partition. */
+  private int historicPurgeBatchSize = 10000;
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import jakarta.persistence.EntityManager;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.candlepin.subscriptions.db.model.EventKey;
+import org.candlepin.subscriptions.db.model.EventRecord;
+import org.candlepin.subscriptions.json.Event;
+import org.candlepin.subscriptions.test.ExtendWithSwatchDatabase;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Compares the latency of resolving a batch of event keys with {@link
+ * EventRecordRepository#findConflictingEvents} against the previous implementation, which inlined
+ * every (org_id, instance_id, timestamp) tuple in the statement text (the "literal" query).
+ *
+ * <p>Not executed as part of the unit tests because of its runtime. Run it with:
+ *
+ * <pre>
+ * ./mvnw -pl swatch-tally test -Dtest=EventConflictLookupBenchmark
+ * </pre>
+ */
+@Slf4j
+@SpringBootTest
+@Transactional
+@ActiveProfiles({"worker", "test-inventory"})
+class EventConflictLookupBenchmark implements ExtendWithSwatchDatabase {
+
+  private static final int WARMUP_ITERATIONS = 3;
+  private static final int MEASURED_ITERATIONS = 10;
+  private static final OffsetDateTime BASE_TIME =
+      OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  @Autowired private EventRecordRepository repository;
+  @Autowired private EntityManager entityManager;
+
+  @ParameterizedTest
+  @ValueSource(ints = {100, 1000, 10000})
+  void compareBatchResolutionLatency(int keyCount) {
+    Set<EventKey> keys = givenStoredEvents(keyCount);
+
+    double literal = medianMillis(() -> findWithLiteralTuples(keys), keyCount);
+    double arrays = medianMillis(() -> repository.findConflictingEvents(keys), keyCount);
+
+    log.info(
+        "keys={} literal tuples median={}ms typed arrays median={}ms", keyCount, literal, arrays);
+  }
+
+  private Set<EventKey> givenStoredEvents(int count) {
+    List<EventRecord> records = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Event event = new Event();
+      event.setEventId(UUID.randomUUID());
+      event.setOrgId("org" + i % 10);
+      event.setInstanceId("instance" + i);
+      event.setTimestamp(BASE_TIME.plusHours(i % 24));
+      event.setServiceType("RHEL System");
+      event.setEventSource("benchmark");
+      event.setEventType("benchmark");
+      event.setDisplayName(Optional.empty());
+      records.add(new EventRecord(event));
+    }
+    repository.saveAllAndFlush(records);
+    entityManager.clear();
+    return records.stream()
+        .map(r -> EventKey.fromEvent(r.getEvent()))
+        .collect(Collectors.toCollection(HashSet::new));
+  }
+
+  private double medianMillis(Supplier<List<EventRecord>> lookup, int expectedCount) {
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      assertEquals(expectedCount, lookup.get().size());
+      entityManager.clear();
+    }
+    double[] millis = new double[MEASURED_ITERATIONS];
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      long start = System.nanoTime();
+      List<EventRecord> found = lookup.get();
+      millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+      assertEquals(expectedCount, found.size());
+      entityManager.clear();
+    }
+    Arrays.sort(millis);
+    return millis[MEASURED_ITERATIONS / 2];
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<EventRecord> findWithLiteralTuples(Set<EventKey> keys) {
+    String tuples =
+        keys.stream()
+            .map(
+                e ->
+                    String.format(
+                        "('%s', '%s', '%s')", e.getOrgId(), e.getInstanceId(), e.getTimestamp()))
+            .collect(Collectors.joining(","));
+    String query =
+        String.format(
+            """
+            select * from events
+            where (org_id, instance_id, timestamp)
+            in (%s)
+            order by record_date
+            """,
+            tuples);
+    return entityManager.createNativeQuery(query, EventRecord.class).getResultList();
+  }
+}
@@ -30,9 +30,11 @@ import java.time.Clock;
 import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.candlepin.subscriptions.db.model.EventKey;
 import org.candlepin.subscriptions.db.model.EventRecord;
@@ -45,6 +47,8 @@ import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -53,9 +57,13 @@ import org.springframework.transaction.annotation.Transactional;
 @ActiveProfiles({"worker", "test-inventory"})
 @Import(TestClockConfiguration.class)
 class EventRecordRepositoryTest implements ExtendWithSwatchDatabase {
+  private static final Pattern SORT_NODE =
+      Pattern.compile("(?m)^\\s*(->\\s+)?(Incremental )?Sort\\s+\\(cost");
   private static final Clock CLOCK = new TestClockConfiguration().adjustableClock().getClock();
 
   @Autowired private EventRecordRepository repository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
 
   @Test
   void saveAndUpdate() {
@@ -271,6 +279,33 @@ class EventRecordRepositoryTest implements ExtendWithSwatchDatabase {
     assertTrue(match3.contains(eventRecord4));
   }
 
+  @Test
+  void testFindConflictingEventsForManyKeys() {
+    OffsetDateTime now = OffsetDateTime.now(CLOCK);
+    Event event1 = event("org1", "source", "type", "instance1", now);
+    Event event2 = event("org1", "source", "type", "instance2", now);
+    Event event3 = event("org2", "source", "type", "instance1", now.minusHours(1));
+    EventRecord eventRecord1 = new EventRecord(event1);
+    EventRecord eventRecord2 = new EventRecord(event2);
+    repository.saveAllAndFlush(List.of(eventRecord1, eventRecord2, new EventRecord(event3)));
+
+    List<EventRecord> matches =
+        repository.findConflictingEvents(
+            Set.of(
+                EventKey.fromEvent(event1),
+                EventKey.fromEvent(event2),
+                // same org and instance as event3, but another timestamp
+                new EventKey("org2", "instance1", now)));
+
+    assertEquals(2, matches.size());
+    assertTrue(matches.containsAll(List.of(eventRecord1, eventRecord2)));
+  }
+
+  @Test
+  void testFindConflictingEventsWithoutKeys() {
+    assertTrue(repository.findConflictingEvents(Set.of()).isEmpty());
+  }
+
   @Test
   void testFindConflictingEventsOrderedByRecordDate() throws InterruptedException {
     OffsetDateTime baseTime = OffsetDateTime.now(CLOCK);
@@ -332,6 +367,70 @@ class EventRecordRepositoryTest implements ExtendWithSwatchDatabase {
     assertEquals(eventRecord3, results.get(2));
   }
 
+  @Test
+  void testFetchOrderedEventStreamFindsEventsWithoutServiceTypeColumn() {
+    EventRecord backfilled =
+        new EventRecord(event("org123", "SOURCE", "TYPE", "INSTANCE1", OffsetDateTime.now(CLOCK)));
+    EventRecord notBackfilled =
+        new EventRecord(event("org123", "SOURCE", "TYPE", "INSTANCE2", OffsetDateTime.now(CLOCK)));
+    EventRecord otherServiceType =
+        new EventRecord(event("org123", "SOURCE", "TYPE", "INSTANCE3", OffsetDateTime.now(CLOCK)));
+    otherServiceType.getEvent().setServiceType("OTHER");
+    repository.saveAndFlush(notBackfilled);
+    repository.saveAndFlush(backfilled);
+    repository.saveAndFlush(otherServiceType);
+    // events stored before the service_type column existed
+    jdbcTemplate.update(
+        "update events set service_type = null where event_id in (?, ?)",
+        notBackfilled.getEventId(),
+        otherServiceType.getEventId());
+
+    List<UUID> found =
+        repository
+            .fetchOrderedEventStream(
+                "org123", "SERVICE_TYPE", OffsetDateTime.now(CLOCK).minusYears(1))
+            .map(EventRecord::getEventId)
+            .toList();
+
+    assertEquals(List.of(notBackfilled.getEventId(), backfilled.getEventId()), found);
+  }
+
+  @Test
+  void testFetchOrderedEventStreamIsAnOrderedIndexRangeScan() {
+    jdbcTemplate.update(
+        """
+        insert into events
+          (event_id, org_id, event_type, event_source, instance_id, service_type, timestamp,
+           record_date, data)
+        select gen_random_uuid(), 'org' || (i % 100), 'type', 'source', 'instance' || i,
+            'service' || (i % 5), now() - (i % 720) * interval '1 hour',
+            now() - (i % 720) * interval '1 hour',
+            jsonb_build_object('service_type', 'service' || (i % 5))
+          from generate_series(1, 20000) i
+        """);
+    jdbcTemplate.execute("analyze events");
+    // make the planner pick the same plan as on a large table, where scanning and sorting the
+    // events of an org is never the cheapest option
+    jdbcTemplate.execute("set local enable_seqscan = off");
+    jdbcTemplate.execute("set local enable_sort = off");
+
+    String plan =
+        String.join(
+            "\n",
+            namedParameterJdbcTemplate.queryForList(
+                "explain " + EventRecordRepository.ORDERED_EVENT_STREAM_QUERY,
+                Map.of(
+                    "orgId", "org1",
+                    "serviceType", "service1",
+                    "after", OffsetDateTime.now(CLOCK).minusDays(1)),
+                String.class));
+
+    assertTrue(plan.contains("service_type_record_date_idx"), plan);
+    assertFalse(plan.contains("Seq Scan"), plan);
+    // a Merge Append has a "Sort Key", but no Sort node is needed below it
+    assertFalse(SORT_NODE.matcher(plan).find(), plan);
+  }
+
   private Event event(
       String orgId, String source, String type, String instanceId, OffsetDateTime time) {
     UUID eventId = UUID.randomUUID();
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.util.MetricIdUtils;
+import jakarta.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -37,6 +38,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -52,6 +54,7 @@ import org.candlepin.subscriptions.db.model.HostApiProjection;
 import org.candlepin.subscriptions.db.model.HostBucketKey;
 import org.candlepin.subscriptions.db.model.HostHardwareType;
 import org.candlepin.subscriptions.db.model.HostTallyBucket;
+import org.candlepin.subscriptions.db.model.InstanceMonthlyTotalKey;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallyHostView;
 import org.candlepin.subscriptions.db.model.Usage;
@@ -88,6 +91,7 @@ class HostRepositoryTest {
   @Autowired private HostRepository repo;
   @Autowired private ApplicationClock clock;
   @Autowired private AccountServiceInventoryRepository accountServiceInventoryRepository;
+  @Autowired private EntityManager entityManager;
 
   private Map<String, Host> existingHostsByInventoryId;
 
@@ -353,6 +357,76 @@ class HostRepositoryTest {
     assertNull(updated.getMonthlyTotal("2021-02", MetricIdUtils.getSockets()));
   }
 
+  @Transactional
+  @Test
+  void testFindAllByOrgIdAndInstanceIdInWithMonthlyTotalsOfLoadsOnlyGivenMonths() {
+    MetricId cores = MetricIdUtils.getCores();
+    Host host = createHost("INV1", "org1");
+    addBucketToHost(host, RHEL, ServiceLevel.PREMIUM, Usage.PRODUCTION);
+    host.addToMonthlyTotal("2021-01", cores, 1.0);
+    host.addToMonthlyTotal("2021-02", cores, 2.0);
+    host.addToMonthlyTotal("2021-03", cores, 3.0);
+    persistHosts(host);
+    entityManager.clear();
+
+    List<Host> hosts =
+        repo.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+            "ORG_org1", Set.of("INV1"), Set.of("2021-02", "2021-03"));
+
+    assertEquals(1, hosts.size());
+    Host found = hosts.get(0);
+    assertEquals(1, found.getBuckets().size());
+    assertEquals(1.0, found.getMeasurement(cores.toString()));
+    assertEquals(
+        Map.of(
+            new InstanceMonthlyTotalKey("2021-02", cores),
+            2.0,
+            new InstanceMonthlyTotalKey("2021-03", cores),
+            3.0),
+        found.getMonthlyTotals());
+
+    // the totals of the months that were not loaded are kept
+    found.addToMonthlyTotal("2021-03", cores, 1.0);
+    repo.saveAndFlush(found);
+    entityManager.clear();
+    Host updated = repo.findById(found.getId()).orElseThrow();
+    assertEquals(1.0, updated.getMonthlyTotal("2021-01", cores));
+    assertEquals(4.0, updated.getMonthlyTotal("2021-03", cores));
+  }
+
+  @Transactional
+  @Test
+  void testFindAllByOrgIdAndInstanceIdInWithMonthlyTotalsOfKeepsDuplicateWithTotalsInOtherMonths() {
+    MetricId cores = MetricIdUtils.getCores();
+    // the service inventory maps hosts by instance ID, so duplicates are saved directly
+    Host withoutTotals = createHost("INV1", "org1");
+    withoutTotals.setInstanceId("instance1");
+    withoutTotals.setDisplayName(DEFAULT_DISPLAY_NAME);
+    Host withTotals = createHost("INV2", "org1");
+    withTotals.setInstanceId("instance1");
+    withTotals.setDisplayName(DEFAULT_DISPLAY_NAME);
+    withTotals.addToMonthlyTotal("2021-01", cores, 1.0);
+    repo.saveAllAndFlush(List.of(withoutTotals, withTotals));
+    entityManager.clear();
+
+    List<Host> hosts =
+        repo.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+            "ORG_org1", Set.of("instance1"), Set.of("2021-03"));
+
+    assertEquals(1, hosts.size());
+    assertEquals(withTotals.getId(), hosts.get(0).getId());
+    assertTrue(hosts.get(0).getMonthlyTotals().isEmpty());
+  }
+
+  @Transactional
+  @Test
+  void testFindAllByOrgIdAndInstanceIdInWithMonthlyTotalsOfWithoutMatches() {
+    assertTrue(
+        repo.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+                "ORG_org1", Set.of("unknown"), Set.of("2021-02"))
+            .isEmpty());
+  }
+
   @Transactional
   @Test
   void testFindHostsWhenAccountIsDifferent() {
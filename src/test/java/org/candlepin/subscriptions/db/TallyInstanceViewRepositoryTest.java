@@ -26,12 +26,14 @@ import static org.candlepin.subscriptions.util.TallyHostBucketFactory.createBuck
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.registry.ProductId;
 import com.redhat.swatch.configuration.util.MetricIdUtils;
+import jakarta.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -54,6 +56,8 @@ import org.candlepin.subscriptions.db.model.InstanceMonthlyTotalKey;
 import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallyInstanceView;
 import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.exception.SubscriptionsException;
+import org.candlepin.subscriptions.resource.PageCursor;
 import org.candlepin.subscriptions.test.ExtendWithSwatchDatabase;
 import org.candlepin.subscriptions.util.PrimaryRecordUtils;
 import org.candlepin.subscriptions.utilization.api.v1.model.SortDirection;
@@ -65,6 +69,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.transaction.annotation.Transactional;
@@ -89,6 +94,8 @@ class TallyInstanceViewRepositoryTest implements ExtendWithSwatchDatabase {
   @Autowired private TallyInstanceViewRepository repo;
   @Autowired private HostRepository hostRepo;
   @Autowired private AccountServiceInventoryRepository accountServiceInventoryRepository;
+  @Autowired private TallyInstanceReadModelRepository readModelRepo;
+  @Autowired private EntityManager entityManager;
 
   private List<Host> defaultHosts;
 
@@ -180,6 +187,107 @@ class TallyInstanceViewRepositoryTest implements ExtendWithSwatchDatabase {
       assertEquals(2, results.getTotalElements());
     }
 
+    @Transactional
+    @ParameterizedTest
+    @MethodSource(
+        "org.candlepin.subscriptions.db.TallyInstanceViewRepositoryTest#instanceSortParams")
+    void testCursorPagesFollowTheOrderOfOffsetPages(String sort) {
+      Host host = createBaseHost("inventory11", DEFAULT_ORG_ID);
+      addMeasurementsToMonthlyTotals(
+          host, OffsetDateTime.of(LocalDateTime.of(2021, 1, 1, 0, 0, 0), ZoneOffset.UTC));
+      withPayGoBuckets(
+          host,
+          HardwareMeasurementType.PHYSICAL,
+          ROSA,
+          ServiceLevel.PREMIUM,
+          Usage.PRODUCTION,
+          1,
+          1);
+      persistHosts(host);
+
+      for (SortDirection dir : SortDirection.values()) {
+        List<String> expected =
+            repo.findAllBy(
+                    DEFAULT_ORG_ID,
+                    ROSA,
+                    ServiceLevel._ANY,
+                    Usage._ANY,
+                    "",
+                    0,
+                    0,
+                    "2021-01",
+                    MetricIdUtils.getCores(),
+                    BillingProvider._ANY,
+                    BILLING_ACCOUNT_ID_ANY,
+                    null,
+                    0,
+                    10,
+                    sort,
+                    dir)
+                .map(TallyInstanceView::getId)
+                .toList();
+
+        List<String> actual = new ArrayList<>();
+        PageCursor cursor = PageCursor.FIRST;
+        Slice<TallyInstanceView> slice;
+        do {
+          slice =
+              repo.findAllAfter(
+                  DEFAULT_ORG_ID,
+                  ROSA,
+                  ServiceLevel._ANY,
+                  Usage._ANY,
+                  "",
+                  0,
+                  0,
+                  "2021-01",
+                  MetricIdUtils.getCores(),
+                  BillingProvider._ANY,
+                  BILLING_ACCOUNT_ID_ANY,
+                  null,
+                  cursor,
+                  1,
+                  sort,
+                  dir);
+          slice.forEach(instance -> actual.add(instance.getId()));
+          if (slice.hasContent()) {
+            String token =
+                TallyInstanceViewRepository.cursorAfter(slice.getContent().get(0), sort, ROSA)
+                    .encode();
+            cursor = PageCursor.decode(token, TallyInstanceViewRepository.CURSOR_SIZE);
+          }
+        } while (slice.hasNext());
+
+        assertEquals(3, actual.size());
+        assertEquals(expected, actual);
+      }
+    }
+
+    @Test
+    void testCursorPagesCannotBeSortedByMetric() {
+      String sort = MetricIdUtils.getCores().toString();
+      assertThrows(
+          SubscriptionsException.class,
+          () ->
+              repo.findAllAfter(
+                  DEFAULT_ORG_ID,
+                  ROSA,
+                  ServiceLevel._ANY,
+                  Usage._ANY,
+                  "",
+                  0,
+                  0,
+                  "2021-01",
+                  null,
+                  BillingProvider._ANY,
+                  BILLING_ACCOUNT_ID_ANY,
+                  null,
+                  PageCursor.FIRST,
+                  1,
+                  sort,
+                  SortDirection.ASC));
+    }
+
     @Transactional
     @Test
     void testCanSortByMetricsForNonPayg() {
@@ -948,6 +1056,76 @@ class TallyInstanceViewRepositoryTest implements ExtendWithSwatchDatabase {
     }
   }
 
+  @Nested
+  class WithInstanceReadModelEnabled extends FeatureFlagTests {
+    @BeforeEach
+    void setup() {
+      when(featureFlags.isEnabled(FeatureFlags.ENABLE_HTB_PRIMARY_ROW_SEARCHES, false))
+          .thenReturn(true);
+      when(featureFlags.isEnabled(FeatureFlags.ENABLE_INSTANCE_READ_MODEL, false)).thenReturn(true);
+    }
+
+    @Test
+    @Transactional
+    void testRowsOfHostsRebuiltOnRefresh() {
+      Host host = givenRenamedHostAfterPersist("org-read-model");
+
+      readModelRepo.refreshHosts(List.of(host.getId()));
+      assertEquals("renamed", findPhysicalRhel("org-read-model").get(0).getDisplayName());
+    }
+
+    @Test
+    @Transactional
+    void testRowsOfOrgRebuiltOnRefresh() {
+      givenRenamedHostAfterPersist("org-read-model");
+
+      readModelRepo.refreshOrg("org-read-model");
+      assertEquals("renamed", findPhysicalRhel("org-read-model").get(0).getDisplayName());
+    }
+
+    private Host givenRenamedHostAfterPersist(String orgId) {
+      Host host = createHost("inv-read-model", orgId);
+      addBucketToHost(
+          host,
+          RHEL,
+          ServiceLevel.PREMIUM,
+          Usage.PRODUCTION,
+          HardwareMeasurementType.PHYSICAL,
+          BillingProvider._ANY,
+          2,
+          4);
+      host = persistHosts(host).get(0);
+      host.setDisplayName("renamed");
+      hostRepo.saveAndFlush(host);
+
+      // the read model is only rebuilt on refresh
+      assertEquals(DEFAULT_DISPLAY_NAME, findPhysicalRhel(orgId).get(0).getDisplayName());
+      entityManager.clear();
+      return host;
+    }
+
+    private List<TallyInstanceView> findPhysicalRhel(String orgId) {
+      return repo.findAllBy(
+              orgId,
+              RHEL,
+              null,
+              null,
+              "",
+              0,
+              0,
+              null,
+              MetricIdUtils.getCores(),
+              BillingProvider._ANY,
+              BILLING_ACCOUNT_ID_ANY,
+              List.of(HardwareMeasurementType.PHYSICAL),
+              0,
+              10,
+              SORT_BY_CORES,
+              SortDirection.ASC)
+          .getContent();
+    }
+  }
+
   private List<Host> persistHosts(Host... hosts) {
     List<Host> toSave = Arrays.asList(hosts);
     toSave.stream()
@@ -970,6 +1148,7 @@ class TallyInstanceViewRepositoryTest implements ExtendWithSwatchDatabase {
               results.add(accountServiceInventory.getServiceInstances().get(host.getInstanceId()));
             });
     accountServiceInventoryRepository.flush();
+    readModelRepo.refreshHosts(results.stream().map(Host::getId).toList());
     return results;
   }
 
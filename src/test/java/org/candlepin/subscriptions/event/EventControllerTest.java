@@ -273,6 +273,24 @@ class EventControllerTest {
     assertEquals(2, events.size());
   }
 
+  @Test
+  void testPersistServiceInstancesOptsInEachOrgOncePerBatch() {
+    List<String> eventRecords = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      eventRecords.add(
+          eventRecord1.replace(
+              "e3a62bd1-fd00-405c-9401-f2288808588d", UUID.randomUUID().toString()));
+    }
+    eventRecords.add(eventRecord2);
+
+    eventController.persistServiceInstances(eventRecords);
+
+    verify(optInController, times(1)).optInByOrgId("4", OptInType.PROMETHEUS);
+    verify(optInController, times(1)).optInByOrgId("6", OptInType.PROMETHEUS);
+    verify(eventRecordRepository).saveAll(eventsSaved.capture());
+    assertEquals(6, eventsSaved.getValue().size());
+  }
+
   @Test
   void testPersistServiceInstancesSkipEventsWithNegativeMeasurements() throws Exception {
     List<String> eventRecords = new ArrayList<>();
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -53,7 +54,9 @@ import org.candlepin.subscriptions.db.model.Host;
 import org.candlepin.subscriptions.db.model.HostHardwareType;
 import org.candlepin.subscriptions.db.model.TallyInstanceNonPaygView;
 import org.candlepin.subscriptions.db.model.TallyInstancePaygView;
+import org.candlepin.subscriptions.resource.PageCursor;
 import org.candlepin.subscriptions.resource.ResourceUtils;
+import org.candlepin.subscriptions.resteasy.PageLinkCreator;
 import org.candlepin.subscriptions.security.WithMockAssociatePrincipal;
 import org.candlepin.subscriptions.security.WithMockRedHatPrincipal;
 import org.candlepin.subscriptions.utilization.api.v1.model.BillingAccountIdResponse;
@@ -71,6 +74,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.test.context.ActiveProfiles;
@@ -91,6 +96,7 @@ class InstancesResourceTest {
   @MockitoBean OrgConfigRepository orgConfigRepository;
   @MockitoBean HostRepository hostRepository;
   @MockitoBean HostTallyBucketRepository hostTallyBucketRepository;
+  @MockitoBean PageLinkCreator pageLinkCreator;
   @Autowired AccountServiceInventoryRepository accountServiceInventoryRepository;
   @Autowired InstancesResource resource;
 
@@ -182,6 +188,7 @@ class InstancesResourceTest {
             null,
             null,
             SORT_BY_DISPLAY_NAME,
+            null,
             null);
 
     assertEquals(expected, report);
@@ -280,6 +287,7 @@ class InstancesResourceTest {
             null,
             null,
             SORT_BY_DISPLAY_NAME,
+            null,
             null);
 
     assertEquals(expected, report);
@@ -358,6 +366,7 @@ class InstancesResourceTest {
             null,
             null,
             SORT_BY_DISPLAY_NAME,
+            null,
             null);
 
     assertEquals(expected, report);
@@ -425,6 +434,7 @@ class InstancesResourceTest {
         OffsetDateTime.now(),
         OffsetDateTime.now(),
         SORT_BY_DISPLAY_NAME,
+        null,
         null);
 
     Mockito.when(
@@ -480,9 +490,47 @@ class InstancesResourceTest {
                 eq(host.getOrgId()), eq(host.getInstanceId()), any()))
         .thenReturn(new PageImpl<>(List.of(host)));
 
-    var response = resource.getInstanceGuests(host.getInstanceId(), null, null);
+    var response = resource.getInstanceGuests(host.getInstanceId(), null, null, null);
+
+    assertEquals(1, response.getData().size());
+  }
+
+  @WithMockRedHatPrincipal("123456")
+  @Test
+  void testGetInstanceGuestsWithCursorSeeksAfterLastGuest() {
+    var host = new Host();
+    host.setId(UUID.randomUUID());
+    host.setOrgId("owner123456");
+    host.setInstanceId("instance123");
+    host.setHardwareType(HostHardwareType.PHYSICAL);
+    UUID previousGuestId = UUID.randomUUID();
+
+    Mockito.when(
+            hostRepository.getGuestHostsByHypervisorInstanceIdAfter(
+                eq(host.getOrgId()), eq("hypervisor"), eq(previousGuestId), any()))
+        .thenReturn(new SliceImpl<>(List.of(host), PageRequest.of(0, 1), true));
+
+    var response =
+        resource.getInstanceGuests("hypervisor", null, 1, PageCursor.of(previousGuestId).encode());
 
     assertEquals(1, response.getData().size());
+    assertEquals(1, response.getMeta().getCount());
+    verify(pageLinkCreator).getCursorLinks(any(), any(), eq(PageCursor.of(host.getId()).encode()));
+    verify(hostRepository, never()).getGuestHostsByHypervisorInstanceId(any(), any(), any());
+  }
+
+  @WithMockRedHatPrincipal("123456")
+  @Test
+  void testGetInstanceGuestsWithEmptyCursorStartsAtFirstGuest() {
+    Mockito.when(
+            hostRepository.getGuestHostsByHypervisorInstanceIdAfter(any(), any(), any(), any()))
+        .thenReturn(new SliceImpl<>(List.of()));
+
+    resource.getInstanceGuests("hypervisor", null, null, "");
+
+    verify(hostRepository)
+        .getGuestHostsByHypervisorInstanceIdAfter(
+            ORG_ID, "hypervisor", HostRepository.FIRST_GUEST_ID, PageRequest.of(0, 50));
   }
 
   @WithMockRedHatPrincipal("123456")
@@ -534,6 +582,7 @@ class InstancesResourceTest {
         OffsetDateTime.now(),
         OffsetDateTime.now(),
         SORT_BY_DISPLAY_NAME,
+        null,
         null);
 
     verify(repository)
@@ -605,6 +654,7 @@ class InstancesResourceTest {
         OffsetDateTime.now(),
         OffsetDateTime.now(),
         SORT_BY_DISPLAY_NAME,
+        null,
         null);
 
     verify(repository)
@@ -647,6 +697,7 @@ class InstancesResourceTest {
                 null,
                 null,
                 SORT_BY_DISPLAY_NAME,
+                null,
                 null));
   }
 
@@ -669,6 +720,7 @@ class InstancesResourceTest {
                 null,
                 null,
                 SORT_BY_DISPLAY_NAME,
+                null,
                 null));
   }
 
@@ -676,7 +728,7 @@ class InstancesResourceTest {
   void testGetInstanceGuestsThrowsAuthenticationCredentialsNotFoundExceptionWhenNoSecurity() {
     assertThrows(
         AuthenticationCredentialsNotFoundException.class,
-        () -> resource.getInstanceGuests("instance123", null, null));
+        () -> resource.getInstanceGuests("instance123", null, null, null));
   }
 
   @Test
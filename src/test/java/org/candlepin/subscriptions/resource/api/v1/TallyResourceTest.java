@@ -64,6 +64,8 @@ import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallyMeasurementAggregate;
 import org.candlepin.subscriptions.db.model.TallySnapshot;
 import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.exception.SubscriptionsException;
+import org.candlepin.subscriptions.resource.PageCursor;
 import org.candlepin.subscriptions.resteasy.PageLinkCreator;
 import org.candlepin.subscriptions.security.WithMockRedHatPrincipal;
 import org.candlepin.subscriptions.test.TestClock;
@@ -88,6 +90,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
@@ -188,6 +192,7 @@ class TallyResourceTest {
               null,
               null,
               true,
+              null,
               null);
       int expected = TEST_DATE.getMonth().length(false);
       assertEquals(expected, response.getMeta().getCount());
@@ -273,6 +278,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
 
       assertEquals(4, response.getData().size());
@@ -312,6 +318,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -343,6 +350,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -394,6 +402,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
 
       assertEquals(4, response.getData().size());
@@ -453,6 +462,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
 
       // Verify monthly total: (24 + 24) = 48 cores
@@ -494,6 +504,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -525,6 +536,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -557,6 +569,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(30, response.getMeta().getCount());
       assertEquals(30, response.getData().size());
@@ -583,6 +596,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertNull(response.getMeta().getTotalMonthly());
     }
@@ -608,6 +622,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertNull(response.getMeta().getTotalMonthly());
     }
@@ -633,6 +648,7 @@ class TallyResourceTest {
               0,
               10,
               false,
+              null,
               null);
       assertNull(response.getMeta().getTotalMonthly());
     }
@@ -658,6 +674,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       TallyReportTotalMonthly expectedTotalMonthly =
           new TallyReportTotalMonthly().date(null).value(0).hasData(false);
@@ -693,6 +710,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       TallyReportTotalMonthly expectedTotalMonthly =
           new TallyReportTotalMonthly()
@@ -732,6 +750,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       TallyReportTotalMonthly expectedTotalMonthly =
           new TallyReportTotalMonthly()
@@ -783,6 +802,7 @@ class TallyResourceTest {
               null,
               null,
               true,
+              null,
               null);
       assertEquals(31, report.getData().size());
 
@@ -843,6 +863,7 @@ class TallyResourceTest {
               null,
               null,
               true,
+              null,
               null);
       assertEquals(31, report.getData().size());
 
@@ -878,7 +899,8 @@ class TallyResourceTest {
                 null,
                 null,
                 null,
-                BillingCategory.ON_DEMAND);
+                BillingCategory.ON_DEMAND,
+                null);
           });
     }
 
@@ -903,7 +925,8 @@ class TallyResourceTest {
                 null,
                 null,
                 false,
-                BillingCategory.ON_DEMAND);
+                BillingCategory.ON_DEMAND,
+                null);
           });
     }
 
@@ -964,7 +987,8 @@ class TallyResourceTest {
               null,
               null,
               true,
-              BillingCategory.ON_DEMAND);
+              BillingCategory.ON_DEMAND,
+              null);
       assertEquals(31, report.getData().size());
 
       int snapshotIndex = 2; //
@@ -1043,7 +1067,8 @@ class TallyResourceTest {
               null,
               null,
               true,
-              BillingCategory.PREPAID);
+              BillingCategory.PREPAID,
+              null);
       assertEquals(31, report.getData().size());
 
       int snapshotIndex = 2; //
@@ -1131,6 +1156,7 @@ class TallyResourceTest {
               null,
               null,
               true,
+              null,
               null);
       int expected = TEST_DATE.getMonth().length(false);
       assertEquals(expected, response.getMeta().getCount());
@@ -1189,6 +1215,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -1217,6 +1244,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -1248,6 +1276,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(
           4.0, response.getData().stream().mapToDouble(TallyReportDataPoint::getValue).sum());
@@ -1273,6 +1302,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertEquals(30, response.getMeta().getCount());
       assertEquals(30, response.getData().size());
@@ -1298,6 +1328,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertNull(response.getMeta().getTotalMonthly());
     }
@@ -1322,6 +1353,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       assertNull(response.getMeta().getTotalMonthly());
     }
@@ -1346,6 +1378,7 @@ class TallyResourceTest {
               0,
               10,
               false,
+              null,
               null);
       assertNull(response.getMeta().getTotalMonthly());
     }
@@ -1370,6 +1403,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       TallyReportTotalMonthly expectedTotalMonthly =
           new TallyReportTotalMonthly().date(null).value(0).hasData(false);
@@ -1404,6 +1438,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       TallyReportTotalMonthly expectedTotalMonthly =
           new TallyReportTotalMonthly()
@@ -1443,6 +1478,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
       TallyReportTotalMonthly expectedTotalMonthly =
           new TallyReportTotalMonthly()
@@ -1493,6 +1529,7 @@ class TallyResourceTest {
               null,
               null,
               true,
+              null,
               null);
       assertEquals(31, report.getData().size());
 
@@ -1552,6 +1589,7 @@ class TallyResourceTest {
               null,
               null,
               true,
+              null,
               null);
       assertEquals(31, report.getData().size());
 
@@ -1587,7 +1625,8 @@ class TallyResourceTest {
                 null,
                 null,
                 null,
-                BillingCategory.ON_DEMAND);
+                BillingCategory.ON_DEMAND,
+                null);
           });
     }
 
@@ -1612,7 +1651,8 @@ class TallyResourceTest {
                 null,
                 null,
                 false,
-                BillingCategory.ON_DEMAND);
+                BillingCategory.ON_DEMAND,
+                null);
           });
     }
 
@@ -1674,7 +1714,8 @@ class TallyResourceTest {
               null,
               null,
               true,
-              BillingCategory.ON_DEMAND);
+              BillingCategory.ON_DEMAND,
+              null);
       assertEquals(31, report.getData().size());
 
       int snapshotIndex = 2; //
@@ -1754,7 +1795,8 @@ class TallyResourceTest {
               null,
               null,
               true,
-              BillingCategory.PREPAID);
+              BillingCategory.PREPAID,
+              null);
       assertEquals(31, report.getData().size());
 
       int snapshotIndex = 2; //
@@ -1811,6 +1853,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
 
       assertEquals(1, response.getData().size());
@@ -1855,6 +1898,7 @@ class TallyResourceTest {
               null,
               null,
               false,
+              null,
               null);
 
       assertEquals(2, response.getData().size());
@@ -1867,6 +1911,77 @@ class TallyResourceTest {
       assertTrue(response.getData().get(1).getHasData());
       assertEquals(8, response.getData().get(1).getValue());
     }
+
+    @Test
+    void testCursorPageSeeksAfterLastSnapshotDateWithoutCounting() {
+      TallySnapshot snapshot = new TallySnapshot();
+      snapshot.setSnapshotDate(OffsetDateTime.parse("2021-10-06T00:00Z"));
+      snapshot.setMeasurement(HardwareMeasurementType.TOTAL, MetricIdUtils.getCores(), 4.0);
+      when(repository.findSnapshotSlice(
+              any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+          .thenReturn(new SliceImpl<>(List.of(snapshot), PageRequest.of(0, 1), true));
+      String cursor = PageCursor.of(OffsetDateTime.parse("2021-10-05T00:00Z")).encode();
+
+      TallyReportData response =
+          resource.getTallyReportData(
+              RHEL_FOR_X86,
+              METRIC_ID_CORES,
+              GranularityType.DAILY,
+              OffsetDateTime.parse("2021-10-01T00:00Z"),
+              OffsetDateTime.parse("2021-10-30T00:00Z"),
+              null,
+              null,
+              null,
+              null,
+              null,
+              null,
+              1,
+              false,
+              null,
+              cursor);
+
+      assertEquals(1, response.getMeta().getCount());
+      Mockito.verify(repository)
+          .findSnapshotSlice(
+              any(),
+              any(),
+              any(),
+              any(),
+              any(),
+              any(),
+              any(),
+              eq(OffsetDateTime.parse("2021-10-05T00:00:00.000001Z")),
+              any(),
+              eq(PageRequest.of(0, 1)));
+      Mockito.verify(repository, Mockito.never())
+          .findSnapshot(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+      Mockito.verify(pageLinkCreator)
+          .getCursorLinks(
+              any(), any(), eq(PageCursor.of(OffsetDateTime.parse("2021-10-06T00:00Z")).encode()));
+    }
+
+    @Test
+    void testBadRequestWhenCursorCombinedWithOffset() {
+      assertThrows(
+          SubscriptionsException.class,
+          () ->
+              resource.getTallyReportData(
+                  RHEL_FOR_X86,
+                  METRIC_ID_CORES,
+                  GranularityType.DAILY,
+                  OffsetDateTime.parse("2021-10-01T00:00Z"),
+                  OffsetDateTime.parse("2021-10-30T00:00Z"),
+                  null,
+                  null,
+                  null,
+                  null,
+                  null,
+                  0,
+                  1,
+                  false,
+                  null,
+                  ""));
+    }
   }
 
   private void mockCapacity(
@@ -37,6 +37,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 @ExtendWith(MockitoExtension.class)
 class PageLinkCreatorTest {
@@ -93,4 +95,24 @@ class PageLinkCreatorTest {
     assertEquals("/?offset=0", links.getPrevious());
     assertEquals("/?offset=2", links.getNext());
   }
+
+  @Test
+  void testCursorLinksWithNextPage() {
+    Slice<Object> slice =
+        new SliceImpl<>(Arrays.asList(new Object(), new Object()), PageRequest.of(0, 2), true);
+    PageLinks links = new PageLinkCreator().getCursorLinks(uriInfo, slice, "abc");
+    assertEquals("/?cursor=", links.getFirst());
+    assertEquals("/?cursor=abc", links.getNext());
+    assertNull(links.getPrevious());
+    assertNull(links.getLast());
+  }
+
+  @Test
+  void testCursorLinksOnLastPage() {
+    Slice<Object> slice =
+        new SliceImpl<>(Arrays.asList(new Object(), new Object()), PageRequest.of(0, 2), false);
+    PageLinks links = new PageLinkCreator().getCursorLinks(uriInfo, slice, "abc");
+    assertEquals("/?cursor=", links.getFirst());
+    assertNull(links.getNext());
+  }
 }
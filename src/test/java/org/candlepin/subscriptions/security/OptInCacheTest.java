@@ -0,0 +1,89 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.candlepin.subscriptions.ApplicationProperties;
+import org.candlepin.subscriptions.db.OrgConfigRepository;
+import org.junit.jupiter.api.Test;
+
+class OptInCacheTest {
+
+  private final OrgConfigRepository repository = mock(OrgConfigRepository.class);
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final OptInCache cache =
+      new OptInCache(repository, new ApplicationProperties(), meterRegistry);
+
+  @Test
+  void testOptedInOrgIsOnlyQueriedOnce() {
+    when(repository.existsByOrgId("org123")).thenReturn(true);
+
+    assertTrue(cache.isOptedIn("org123"));
+    assertTrue(cache.isOptedIn("org123"));
+
+    verify(repository, times(1)).existsByOrgId("org123");
+    assertEquals(1.0, cacheGets("hit"));
+    assertEquals(1.0, cacheGets("miss"));
+  }
+
+  @Test
+  void testOrgNotOptedInIsNotCached() {
+    when(repository.existsByOrgId("org123")).thenReturn(false, true);
+
+    assertFalse(cache.isOptedIn("org123"));
+    assertTrue(cache.isOptedIn("org123"));
+
+    verify(repository, times(2)).existsByOrgId("org123");
+  }
+
+  @Test
+  void testInvalidatedOrgIsQueriedAgain() {
+    when(repository.existsByOrgId("org123")).thenReturn(true, false);
+
+    assertTrue(cache.isOptedIn("org123"));
+    cache.invalidate("org123");
+
+    assertFalse(cache.isOptedIn("org123"));
+  }
+
+  @Test
+  void testNullOrgIsNotOptedIn() {
+    assertFalse(cache.isOptedIn(null));
+  }
+
+  private double cacheGets(String result) {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("cache", OptInCache.CACHE_NAME)
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+}
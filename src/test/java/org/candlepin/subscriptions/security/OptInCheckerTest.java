@@ -31,6 +31,7 @@ import org.candlepin.subscriptions.db.OrgConfigRepository;
 import org.candlepin.subscriptions.exception.OptInRequiredException;
 import org.candlepin.subscriptions.utilization.api.v1.model.OptInConfig;
 import org.candlepin.subscriptions.utilization.api.v1.model.OptInConfigData;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -44,9 +45,15 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 class OptInCheckerTest {
 
   @Autowired OptInChecker checker;
+  @Autowired OptInCache optInCache;
 
   @MockitoBean OrgConfigRepository orgConfigRepository;
 
+  @BeforeEach
+  void setup() {
+    optInCache.invalidateAll();
+  }
+
   @Test
   @WithInvalidPrincipal
   void testBadPrincipal() {
@@ -25,9 +25,11 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.OffsetDateTime;
 import java.util.TimeZone;
 import org.candlepin.clock.ApplicationClock;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.OrgConfigRepository;
 import org.candlepin.subscriptions.db.model.config.OptInType;
 import org.candlepin.subscriptions.db.model.config.OrgConfig;
@@ -52,12 +54,14 @@ class OptInControllerTest {
 
   @Autowired private ApplicationClock clock;
 
+  private OptInCache optInCache;
   private OptInController controller;
 
   @BeforeEach
   void setupTest() {
     TimeZone.setDefault(TimeZone.getTimeZone(clock.getClock().getZone()));
-    controller = new OptInController(clock, orgRepo);
+    optInCache = new OptInCache(orgRepo, new ApplicationProperties(), new SimpleMeterRegistry());
+    controller = new OptInController(clock, orgRepo, optInCache);
   }
 
   @Test
@@ -137,7 +141,7 @@ class OptInControllerTest {
     orgConfig.setUpdated(OffsetDateTime.parse("2021-04-06T00:00:00Z"));
     orgRepo.save(orgConfig);
 
-    OptInController controllerWithMockApi = new OptInController(clock, orgRepo);
+    OptInController controllerWithMockApi = new OptInController(clock, orgRepo, optInCache);
     controllerWithMockApi.optInByOrgId("org123", OptInType.API);
 
     assertTrue(orgRepo.existsById("org123"));
@@ -151,6 +155,16 @@ class OptInControllerTest {
     assertTrue(orgRepo.findById(expectedOrgId).isEmpty());
   }
 
+  @Test
+  void testOptOutForgetsCachedOptIn() {
+    controller.optInByOrgId("org123", OptInType.API);
+    assertTrue(controller.isOptedIn("org123"));
+
+    controller.optOut("org123");
+
+    assertFalse(controller.isOptedIn("org123"));
+  }
+
   @Test
   void testGetOptInConfig() {
     String expectedOrg = "owner123456";
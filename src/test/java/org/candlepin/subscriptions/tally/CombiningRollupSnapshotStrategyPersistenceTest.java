@@ -0,0 +1,173 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.redhat.swatch.configuration.util.MetricIdUtils;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntToDoubleFunction;
+import org.candlepin.subscriptions.db.TallySnapshotRepository;
+import org.candlepin.subscriptions.db.model.BillingProvider;
+import org.candlepin.subscriptions.db.model.Granularity;
+import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
+import org.candlepin.subscriptions.db.model.ServiceLevel;
+import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.util.DateRange;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Counts the statements issued by {@link CombiningRollupSnapshotStrategy} against the real
+ * repository for an org with many billing accounts. The writes rely on the {@code
+ * hibernate.jdbc.batch_size}, {@code order_inserts} and {@code order_updates} settings of
+ * swatch-core.
+ */
+@SpringBootTest
+@ActiveProfiles({"worker", "test"})
+class CombiningRollupSnapshotStrategyPersistenceTest {
+
+  private static final String ORG_ID = "org-many-accounts";
+  private static final String PRODUCT = "OpenShift-metrics";
+  private static final int BILLING_ACCOUNTS = 10;
+  private static final int HOURS = 24;
+  private static final OffsetDateTime START = OffsetDateTime.parse("2021-02-25T00:00:00Z");
+
+  @Autowired CombiningRollupSnapshotStrategy strategy;
+  @Autowired TallySnapshotRepository repository;
+  @Autowired EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.setStatisticsEnabled(true);
+    statistics.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    statistics.setStatisticsEnabled(false);
+    repository.deleteAll();
+  }
+
+  @Test
+  void testFirstTallyInsertsEverySnapshot() {
+    tally(givenCalculations(4.0));
+
+    // one hourly snapshot per billing account and hour, plus one daily rollup per billing account
+    assertEquals(BILLING_ACCOUNTS * HOURS + BILLING_ACCOUNTS, statistics.getEntityInsertCount());
+  }
+
+  @Test
+  void testFirstTallyFlushesSnapshotsInStatementBatches() {
+    tally(givenCalculations(4.0));
+
+    // Each JDBC batch prepares its statement once, so the snapshot and measurement inserts only
+    // add a handful of prepared statements to the lookups of existing snapshots. Without
+    // batching, every snapshot and every measurement row would prepare its own statement.
+    long rowsInserted = statistics.getEntityInsertCount();
+    assertTrue(
+        statistics.getPrepareStatementCount() < rowsInserted / 5,
+        () ->
+            statistics.getPrepareStatementCount()
+                + " statements prepared for "
+                + rowsInserted
+                + " snapshots");
+  }
+
+  @Test
+  void testRetallyWithSameUsageDoesNotWriteAnything() {
+    tally(givenCalculations(4.0));
+    statistics.clear();
+
+    tally(givenCalculations(4.0));
+
+    assertEquals(0, statistics.getEntityInsertCount());
+    assertEquals(0, statistics.getEntityUpdateCount());
+    assertEquals(0, statistics.getCollectionUpdateCount());
+    assertEquals(0, statistics.getCollectionRecreateCount());
+  }
+
+  @Test
+  void testRetallyOnlyRewritesChangedMeasurements() {
+    tally(givenCalculations(4.0));
+    statistics.clear();
+
+    Map<OffsetDateTime, AccountUsageCalculation> calcs = givenCalculations(4.0);
+    calcs.put(START.plusHours(5), accountCalculation(account -> account == 0 ? 6.0 : 4.0));
+    tally(calcs);
+
+    assertEquals(0, statistics.getEntityInsertCount());
+    // the hourly snapshot of the changed account and its daily rollup
+    assertEquals(2, statistics.getCollectionUpdateCount());
+  }
+
+  private void tally(Map<OffsetDateTime, AccountUsageCalculation> calcs) {
+    strategy.produceSnapshotsFromCalculations(
+        ORG_ID,
+        new DateRange(START, START.plusHours(HOURS)),
+        Set.of(PRODUCT),
+        calcs,
+        Granularity.HOURLY,
+        Double::sum);
+  }
+
+  private Map<OffsetDateTime, AccountUsageCalculation> givenCalculations(double value) {
+    Map<OffsetDateTime, AccountUsageCalculation> calcs = new HashMap<>();
+    for (int hour = 0; hour < HOURS; hour++) {
+      calcs.put(START.plusHours(hour), accountCalculation(account -> value));
+    }
+    return calcs;
+  }
+
+  private AccountUsageCalculation accountCalculation(IntToDoubleFunction valueByAccount) {
+    AccountUsageCalculation calc = new AccountUsageCalculation(ORG_ID);
+    for (int account = 0; account < BILLING_ACCOUNTS; account++) {
+      UsageCalculation.Key key =
+          new UsageCalculation.Key(
+              PRODUCT,
+              ServiceLevel.PREMIUM,
+              Usage.PRODUCTION,
+              BillingProvider.AWS,
+              "account" + account);
+      calc.addUsage(
+          key,
+          HardwareMeasurementType.PHYSICAL,
+          MetricIdUtils.getCores(),
+          valueByAccount.applyAsDouble(account));
+    }
+    calc.getProducts().add(PRODUCT);
+    return calc;
+  }
+}
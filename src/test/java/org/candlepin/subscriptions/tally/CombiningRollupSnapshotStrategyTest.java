@@ -27,8 +27,8 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.eq;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +36,7 @@ import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import com.redhat.swatch.configuration.registry.Variant;
 import com.redhat.swatch.configuration.util.MetricIdUtils;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -95,7 +96,7 @@ class CombiningRollupSnapshotStrategyTest {
             Usage.PRODUCTION,
             BillingProvider._ANY,
             "_ANY");
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
     AccountUsageCalculation noonUsage = createAccountUsageCalculation(usageKey, 4.0);
     AccountUsageCalculation afternoonUsage = createAccountUsageCalculation(usageKey, 3.0);
     combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
@@ -119,9 +120,7 @@ class CombiningRollupSnapshotStrategyTest {
     TallySnapshot dailySnapshot =
         createTallySnapshot(Granularity.DAILY, "2021-02-25T00:00:00Z", 7.0);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(3)).save(talliesSavedCaptor.capture());
-    List<TallySnapshot> talliesSaved = talliesSavedCaptor.getAllValues();
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(3);
     TallySnapshot actual =
         talliesSaved.stream()
             .filter(s -> s.getGranularity() == Granularity.DAILY)
@@ -150,7 +149,7 @@ class CombiningRollupSnapshotStrategyTest {
             Usage.PRODUCTION,
             BillingProvider._ANY,
             "_ANY");
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
     AccountUsageCalculation day1Usage = createAccountUsageCalculation(usageKey, 4.0);
     AccountUsageCalculation day2Usage = createAccountUsageCalculation(usageKey, 3.0);
     combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
@@ -170,9 +169,7 @@ class CombiningRollupSnapshotStrategyTest {
     TallySnapshot dailySnapshot1 = createTallySnapshot(Granularity.DAILY, dailyTimestamp1, 4.0);
     TallySnapshot dailySnapshot2 = createTallySnapshot(Granularity.DAILY, dailyTimestamp2, 3.0);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(4)).save(talliesSavedCaptor.capture());
-    List<TallySnapshot> talliesSaved = talliesSavedCaptor.getAllValues();
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(4);
     TallySnapshot actual1 =
         talliesSaved.stream()
             .filter(
@@ -220,7 +217,7 @@ class CombiningRollupSnapshotStrategyTest {
             Usage.PRODUCTION,
             BillingProvider._ANY,
             "_ANY");
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
     AccountUsageCalculation noonUsage = createAccountUsageCalculation(usageKey, 4.0);
     AccountUsageCalculation afternoonUsage = createAccountUsageCalculation(usageKey, 3.0);
     combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
@@ -242,9 +239,7 @@ class CombiningRollupSnapshotStrategyTest {
     TallySnapshot dailySnapshot =
         createTallySnapshot(Granularity.DAILY, "2021-02-25T00:00:00Z", 7.0);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(3)).save(talliesSavedCaptor.capture());
-    List<TallySnapshot> talliesSaved = talliesSavedCaptor.getAllValues();
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(3);
     TallySnapshot actual =
         talliesSaved.stream()
             .filter(s -> Objects.equals(noonSnapshot.getId(), s.getId()))
@@ -272,7 +267,7 @@ class CombiningRollupSnapshotStrategyTest {
             Usage.PRODUCTION,
             BillingProvider._ANY,
             "_ANY");
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     AccountUsageCalculation noonUsage = createAccountUsageCalculation(usageKey, 4.0);
     AccountUsageCalculation afternoonUsage = createAccountUsageCalculation(usageKey, 3.0);
@@ -296,9 +291,7 @@ class CombiningRollupSnapshotStrategyTest {
     TallySnapshot afternoonSnapshot =
         createTallySnapshot(Granularity.HOURLY, "2021-02-25T13:00:00Z", 3.0);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(3)).save(talliesSavedCaptor.capture());
-    List<TallySnapshot> talliesSaved = talliesSavedCaptor.getAllValues();
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(3);
     TallySnapshot actual =
         talliesSaved.stream()
             .filter(s -> Objects.equals(dailySnapshot.getId(), s.getId()))
@@ -325,7 +318,7 @@ class CombiningRollupSnapshotStrategyTest {
             any(), any(), eq(Granularity.DAILY), any(), any()))
         .thenReturn(Stream.of(dailySnapshot));
 
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     UsageCalculation.Key usageKey =
         new UsageCalculation.Key(
@@ -347,12 +340,9 @@ class CombiningRollupSnapshotStrategyTest {
         Granularity.HOURLY,
         Double::sum);
 
-    ArgumentCaptor<TallySnapshot> tallySaveCapture = ArgumentCaptor.forClass(TallySnapshot.class);
     // 1 - afternoonSnapshot that was updated.
     // 1 - daily snapshot that was updated.
-    verify(repo, times(2)).save(tallySaveCapture.capture());
-
-    List<TallySnapshot> talliesSaved = tallySaveCapture.getAllValues();
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(2);
     assertThat(talliesSaved, containsInAnyOrder(afternoonSnapshot, dailySnapshot));
 
     // Any hourly tallies that were not represented by a calculation should NOT have been reset.
@@ -410,7 +400,7 @@ class CombiningRollupSnapshotStrategyTest {
     accountCalc.addUsage(
         snapUsageKey2, HardwareMeasurementType.PHYSICAL, MetricIdUtils.getCores(), 2.0);
 
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
         "org123",
@@ -439,9 +429,7 @@ class CombiningRollupSnapshotStrategyTest {
     expectedDaily2.setBillingProvider(existingDailySnapshot2.getBillingProvider());
     expectedDaily2.setId(existingDailySnapshot2.getId());
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(4)).save(talliesSavedCaptor.capture());
-    List<TallySnapshot> talliesSaved = talliesSavedCaptor.getAllValues();
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(4);
     assertThat(
         talliesSaved,
         containsInAnyOrder(expectedHourly1, expectedHourly2, expectedDaily1, expectedDaily2));
@@ -459,7 +447,7 @@ class CombiningRollupSnapshotStrategyTest {
             Usage.PRODUCTION,
             BillingProvider._ANY,
             "_ANY");
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
     AccountUsageCalculation noonUsage = createAccountUsageCalculation(usageKey, 4.0);
     AccountUsageCalculation afternoonUsage = createAccountUsageCalculation(usageKey, 3.0);
     Map<String, List<TallySnapshot>> talliesToSendByAccount =
@@ -543,7 +531,7 @@ class CombiningRollupSnapshotStrategyTest {
     when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
             any(), any(), any(), any(), any()))
         .then(invocation -> Stream.of(existingSnapshot));
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
     Map<String, List<TallySnapshot>> snaps =
         combiningRollupSnapshotStrategy.produceSnapshotsFromCalculations(
             "org123",
@@ -565,6 +553,16 @@ class CombiningRollupSnapshotStrategyTest {
         existingSnapshot.getMeasurement(HardwareMeasurementType.TOTAL, MetricIdUtils.getCores()));
   }
 
+  private List<TallySnapshot> captureSavedSnapshots(int expectedCount) {
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Iterable<TallySnapshot>> captor = ArgumentCaptor.forClass(Iterable.class);
+    verify(repo, atLeastOnce()).saveAll(captor.capture());
+    List<TallySnapshot> saved = new ArrayList<>();
+    captor.getAllValues().forEach(batch -> batch.forEach(saved::add));
+    assertEquals(expectedCount, saved.size());
+    return saved;
+  }
+
   private AccountUsageCalculation createAccountUsageCalculation(
       UsageCalculation.Key usageKey, double v) {
     AccountUsageCalculation usage = new AccountUsageCalculation("org123");
@@ -607,7 +605,7 @@ class CombiningRollupSnapshotStrategyTest {
     when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
             any(), any(), any(), any(), any()))
         .then(invocation -> Stream.empty());
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     // Use a PAYG product with all fields specified to create a primary record
     UsageCalculation.Key usageKey =
@@ -632,11 +630,10 @@ class CombiningRollupSnapshotStrategyTest {
         Granularity.HOURLY,
         Double::sum);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(2)).save(talliesSavedCaptor.capture());
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(2);
 
     TallySnapshot hourlySnapshot =
-        talliesSavedCaptor.getAllValues().stream()
+        talliesSaved.stream()
             .filter(s -> s.getGranularity() == Granularity.HOURLY)
             .findFirst()
             .orElseThrow();
@@ -649,7 +646,7 @@ class CombiningRollupSnapshotStrategyTest {
     when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
             any(), any(), any(), any(), any()))
         .then(invocation -> Stream.empty());
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     // Use SLA _ANY to create a non-primary record
     UsageCalculation.Key usageKey =
@@ -674,11 +671,10 @@ class CombiningRollupSnapshotStrategyTest {
         Granularity.HOURLY,
         Double::sum);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(2)).save(talliesSavedCaptor.capture());
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(2);
 
     TallySnapshot hourlySnapshot =
-        talliesSavedCaptor.getAllValues().stream()
+        talliesSaved.stream()
             .filter(s -> s.getGranularity() == Granularity.HOURLY)
             .findFirst()
             .orElseThrow();
@@ -692,7 +688,7 @@ class CombiningRollupSnapshotStrategyTest {
     when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
             any(), any(), any(), any(), any()))
         .then(invocation -> Stream.empty());
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     // Use a PAYG product with all fields specified to create a primary record
     UsageCalculation.Key usageKey =
@@ -717,12 +713,11 @@ class CombiningRollupSnapshotStrategyTest {
         Granularity.HOURLY,
         Double::sum);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(2)).save(talliesSavedCaptor.capture());
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(2);
 
     // Verify the DAILY rollup snapshot is also marked as primary
     TallySnapshot dailySnapshot =
-        talliesSavedCaptor.getAllValues().stream()
+        talliesSaved.stream()
             .filter(s -> s.getGranularity() == Granularity.DAILY)
             .findFirst()
             .orElseThrow();
@@ -737,7 +732,7 @@ class CombiningRollupSnapshotStrategyTest {
     when(repo.findByOrgIdAndProductIdInAndGranularityAndSnapshotDateBetween(
             any(), any(), any(), any(), any()))
         .then(invocation -> Stream.empty());
-    when(repo.save(any())).then(invocation -> invocation.getArgument(0));
+    when(repo.saveAll(any())).then(invocation -> invocation.getArgument(0));
 
     // Use Usage _ANY to create a non-primary record
     UsageCalculation.Key usageKey =
@@ -762,12 +757,11 @@ class CombiningRollupSnapshotStrategyTest {
         Granularity.HOURLY,
         Double::sum);
 
-    ArgumentCaptor<TallySnapshot> talliesSavedCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    verify(repo, times(2)).save(talliesSavedCaptor.capture());
+    List<TallySnapshot> talliesSaved = captureSavedSnapshots(2);
 
     // Verify the DAILY rollup snapshot is not marked as primary
     TallySnapshot dailySnapshot =
-        talliesSavedCaptor.getAllValues().stream()
+        talliesSaved.stream()
             .filter(s -> s.getGranularity() == Granularity.DAILY)
             .findFirst()
             .orElseThrow();
@@ -27,18 +27,23 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import jakarta.persistence.EntityManager;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
 import org.candlepin.subscriptions.db.HostRepository;
 import org.candlepin.subscriptions.db.HostTallyBucketRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
 import org.candlepin.subscriptions.db.model.Host;
@@ -64,6 +69,7 @@ class InventoryAccountUsageCollectorReconcileTest {
   @Mock HostTallyBucketRepository tallyBucketRepository;
   @Mock ApplicationProperties props;
   @Mock InventorySwatchDataCollator collator;
+  @Mock TallyInstanceReadModelRepository instanceReadModelRepository;
 
   InventoryAccountUsageCollector setupCollector() {
     return new InventoryAccountUsageCollector(
@@ -73,7 +79,8 @@ class InventoryAccountUsageCollectorReconcileTest {
         entityManager,
         tallyBucketRepository,
         props,
-        collator);
+        collator,
+        instanceReadModelRepository);
   }
 
   @Test
@@ -98,6 +105,39 @@ class InventoryAccountUsageCollectorReconcileTest {
     verify(hostRepository, times(2)).flush();
   }
 
+  @Test
+  void testInstanceReadModelOfReconciledSystemsRefreshedAfterEachFlush() {
+    when(props.getHbiReconciliationFlushInterval()).thenReturn(2L);
+    when(factNormalizer.normalize(any(), any())).thenReturn(new NormalizedFacts());
+    when(entityManager.merge(any(Host.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    List<Host> swatchSystems = List.of(givenHostWithId(), givenHostWithId(), givenHostWithId());
+    when(collator.collateData(any(), anyInt(), anyInt(), any()))
+        .thenAnswer(
+            invocation -> {
+              InventorySwatchDataCollator.Processor processor = invocation.getArgument(3);
+              for (int i = 0; i < swatchSystems.size(); i++) {
+                processor.accept(
+                    InventoryHostFactTestHelper.createHypervisor("org123", 1),
+                    swatchSystems.get(i),
+                    new OrgHostsData("placeholder"),
+                    i + 1);
+              }
+              return swatchSystems.size();
+            });
+
+    var collector = setupCollector();
+    collector.reconcileSystemDataWithHbi("org123", Set.of("RHEL for x86"));
+
+    var inOrder = inOrder(hostRepository, entityManager, instanceReadModelRepository);
+    inOrder.verify(hostRepository).flush();
+    inOrder
+        .verify(instanceReadModelRepository)
+        .refreshHosts(List.of(swatchSystems.get(0).getId(), swatchSystems.get(1).getId()));
+    inOrder.verify(entityManager).flush();
+    inOrder.verify(instanceReadModelRepository).refreshHosts(List.of(swatchSystems.get(2).getId()));
+    verify(instanceReadModelRepository, never()).refreshOrg(any());
+  }
+
   @Test
   void testCreate() {
     when(factNormalizer.normalize(any(), any())).thenReturn(new NormalizedFacts());
@@ -426,4 +466,10 @@ class InventoryAccountUsageCollectorReconcileTest {
         hbiSystem, hypervisorCopy1, orgHostsData, Set.of("RHEL for x86"), new ArrayList<>());
     assertTrue(hypervisorCopy1.getBuckets().isEmpty(), "buckets added to hypervisor copy");
   }
+
+  private Host givenHostWithId() {
+    Host host = new Host();
+    host.setId(UUID.randomUUID());
+    return host;
+  }
 }
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -37,6 +38,7 @@ import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.util.MetricIdUtils;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -50,6 +52,7 @@ import java.util.stream.Stream;
 import org.candlepin.clock.ApplicationClock;
 import org.candlepin.subscriptions.db.AccountServiceInventoryRepository;
 import org.candlepin.subscriptions.db.HostRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.TallySnapshotRepository;
 import org.candlepin.subscriptions.db.model.AccountServiceInventory;
 import org.candlepin.subscriptions.db.model.BillingProvider;
@@ -106,12 +109,19 @@ class MetricUsageCollectorTest {
 
   @Mock TallySnapshotRepository tallySnapshotRepository;
 
+  @Mock TallyInstanceReadModelRepository instanceReadModelRepository;
+
   ApplicationClock clock = new TestClockConfiguration().adjustableClock();
 
   @BeforeEach
   void setup() {
     metricUsageCollector =
-        new MetricUsageCollector(accountRepo, clock, hostRepository, tallySnapshotRepository);
+        new MetricUsageCollector(
+            accountRepo,
+            clock,
+            hostRepository,
+            tallySnapshotRepository,
+            instanceReadModelRepository);
   }
 
   @Test
@@ -170,6 +180,32 @@ class MetricUsageCollectorTest {
     verify(hostRepository, times(1)).save(any());
   }
 
+  @Test
+  void testUpdateHostsRefreshesInstanceReadModelOfUpdatedHosts() {
+    Measurement measurement =
+        new Measurement().withMetricId(MetricIdUtils.getCores().toString()).withValue(42.0);
+    Event event =
+        createEvent()
+            .withEventId(UUID.randomUUID())
+            .withTimestamp(OffsetDateTime.parse("2021-02-26T00:00:00Z"))
+            .withOrgId(ORG_ID)
+            .withServiceType(SERVICE_TYPE)
+            .withMeasurements(Collections.singletonList(measurement));
+    Host existing = new Host();
+    existing.setId(UUID.randomUUID());
+    existing.setInstanceId(event.getInstanceId());
+    existing.setInstanceType(SERVICE_TYPE);
+    when(hostRepository.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(any(), any(), any()))
+        .thenReturn(List.of(existing));
+
+    metricUsageCollector.updateHosts(ORG_ID, SERVICE_TYPE, List.of(event));
+
+    var inOrder = inOrder(hostRepository, instanceReadModelRepository);
+    inOrder.verify(hostRepository).save(existing);
+    inOrder.verify(hostRepository).flush();
+    inOrder.verify(instanceReadModelRepository).refreshHosts(Set.of(existing.getId()));
+  }
+
   @Test
   void updateHostsOnlyUpdatesLastSeenAndMeasurementsWhenEventTimestampMostRecent() {
     Measurement coresMeasurement =
@@ -217,9 +253,10 @@ class MetricUsageCollectorTest {
     activeInstance.setInstanceType(SERVICE_TYPE);
     activeInstance.setLastSeen(instanceDate);
 
-    doAnswer(invocation -> Stream.of(activeInstance))
+    doAnswer(invocation -> List.of(activeInstance))
         .when(hostRepository)
-        .findAllByOrgIdAndInstanceIdIn(ORG_ID, Set.of(event1.getInstanceId()));
+        .findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+            ORG_ID, Set.of(event1.getInstanceId()), monthsOf(event1));
 
     // First update should change the date.
     metricUsageCollector.updateHosts(ORG_ID, SERVICE_TYPE, List.of(event1));
@@ -876,9 +913,9 @@ class MetricUsageCollectorTest {
     activeInstance.addToMonthlyTotal(monthId, MetricIdUtils.getCores(), 200.0);
 
     List<Host> activeInstances = List.of(activeInstance);
-    when(hostRepository.findAllByOrgIdAndInstanceIdIn(
-            ORG_ID, Set.of(activeInstance.getInstanceId())))
-        .thenReturn(activeInstances.stream());
+    when(hostRepository.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+            ORG_ID, Set.of(activeInstance.getInstanceId()), monthsOf(event1, olderEvent)))
+        .thenReturn(activeInstances);
 
     metricUsageCollector.updateHosts(ORG_ID, SERVICE_TYPE, List.of(event1, olderEvent));
     assertEquals(
@@ -932,9 +969,9 @@ class MetricUsageCollectorTest {
     activeInstance2.setInstanceType("HBI_HOST");
 
     List<Host> activeInstances = List.of(activeInstance1, activeInstance2);
-    when(hostRepository.findAllByOrgIdAndInstanceIdIn(
-            ORG_ID, Set.of(activeInstance1.getInstanceId())))
-        .thenReturn(activeInstances.stream());
+    when(hostRepository.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+            ORG_ID, Set.of(activeInstance1.getInstanceId()), monthsOf(event1, olderEvent)))
+        .thenReturn(activeInstances);
 
     metricUsageCollector.updateHosts(ORG_ID, SERVICE_TYPE, List.of(event1, olderEvent));
     assertEquals(
@@ -1111,8 +1148,8 @@ class MetricUsageCollectorTest {
   void testRemovesStaleBuckets() {
     var host = new Host();
     host.setInstanceId("instanceId");
-    when(hostRepository.findAllByOrgIdAndInstanceIdIn(any(), any()))
-        .thenAnswer(i -> Stream.of(host));
+    when(hostRepository.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(any(), any(), any()))
+        .thenAnswer(i -> List.of(host));
     for (var value : Set.of(1, 2)) {
       var billingAccountId = "billingAccount" + value;
       Measurement measurement =
@@ -1160,8 +1197,8 @@ class MetricUsageCollectorTest {
     host.setInstanceId("instance1");
     host.setInstanceType(hostInstanceType);
 
-    when(hostRepository.findAllByOrgIdAndInstanceIdIn(any(), any()))
-        .thenAnswer(i -> Stream.of(host));
+    when(hostRepository.findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(any(), any(), any()))
+        .thenAnswer(i -> List.of(host));
 
     Event event =
         createEvent()
@@ -1255,6 +1292,12 @@ class MetricUsageCollectorTest {
         .withBillingAccountId(Optional.of("sellerAcct"));
   }
 
+  private static Set<String> monthsOf(Event... events) {
+    return Arrays.stream(events)
+        .map(event -> InstanceMonthlyTotalKey.formatMonthId(event.getTimestamp()))
+        .collect(Collectors.toSet());
+  }
+
   private TallySnapshot createSnapshot(OffsetDateTime snapshotDate, double value) {
     return createSnapshot(snapshotDate, MetricIdUtils.getCores(), value);
   }
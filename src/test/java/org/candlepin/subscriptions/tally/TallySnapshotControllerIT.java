@@ -367,6 +367,7 @@ class TallySnapshotControllerIT implements ExtendWithSwatchDatabase, ExtendWithE
               null,
               null,
               true,
+              null,
               null);
 
       expectedReport.assertReport(product, granularity, report);
@@ -22,14 +22,18 @@ package org.candlepin.subscriptions.tally;
 
 import static org.candlepin.subscriptions.tally.TallySnapshotController.TALLIED_USAGE_TOTAL_METRIC;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Sets;
+import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
@@ -37,7 +41,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import org.candlepin.subscriptions.ApplicationProperties;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.Granularity;
 import org.candlepin.subscriptions.db.model.HardwareMeasurementType;
@@ -66,6 +72,7 @@ class TallySnapshotControllerMetricsTest {
 
   @Autowired TallySnapshotController controller;
   @Autowired MeterRegistry registry;
+  @Autowired ApplicationProperties appProps;
 
   @Test
   void produceSnapshotsForOrg() {
@@ -139,6 +146,67 @@ class TallySnapshotControllerMetricsTest {
     }
   }
 
+  @Test
+  void produceHourlySnapshotsForOrgTalliesServiceTypesConcurrently() {
+    int previousConcurrency = appProps.getHourlyTallyServiceTypeConcurrency();
+    appProps.setHourlyTallyServiceTypeConcurrency(4);
+    try {
+      controller.produceHourlySnapshotsForOrg("456");
+    } finally {
+      appProps.setHourlyTallyServiceTypeConcurrency(previousConcurrency);
+    }
+
+    for (String serviceType : SubscriptionDefinition.getAllServiceTypes()) {
+      verify(eventController)
+          .processEventsInBatches(eq("456"), eq(serviceType), any(), anyInt(), any());
+      assertTrue(
+          registry
+                  .get(TallySnapshotController.HOURLY_SERVICE_TYPE_TIMER)
+                  .tag("service_type", serviceType)
+                  .timer()
+                  .count()
+              > 0);
+    }
+  }
+
+  @Test
+  void produceHourlySnapshotsForOrgUpdatesHostsOfOneServiceTypeAtATime() {
+    doAnswer(
+            AdditionalAnswers.answerVoid(
+                (orgId, serviceType, eventRecordDate, batchSize, batchConsumer) -> {
+                  var event = new Event();
+                  event.setTimestamp(OffsetDateTime.now());
+                  event.setRecordDate(OffsetDateTime.now());
+                  ((Consumer) batchConsumer).accept(List.of(event));
+                }))
+        .when(eventController)
+        .processEventsInBatches(eq("789"), any(), any(), anyInt(), any());
+
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+    doAnswer(
+            invocation -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              inFlight.decrementAndGet();
+              return null;
+            })
+        .when(usageCollector)
+        .updateHosts(eq("789"), any(), anyList());
+
+    int previousConcurrency = appProps.getHourlyTallyServiceTypeConcurrency();
+    appProps.setHourlyTallyServiceTypeConcurrency(4);
+    try {
+      controller.produceHourlySnapshotsForOrg("789");
+    } finally {
+      appProps.setHourlyTallyServiceTypeConcurrency(previousConcurrency);
+    }
+
+    verify(usageCollector, times(SubscriptionDefinition.getAllServiceTypes().size()))
+        .updateHosts(eq("789"), any(), anyList());
+    assertEquals(1, maxInFlight.get());
+  }
+
   private ArrayList<TallySnapshot> createSnaps(
       int numSnaps, Granularity granularity, String productId) {
     var snapList = new ArrayList<TallySnapshot>(numSnaps);
@@ -32,6 +32,7 @@ import jakarta.persistence.EntityManager;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -64,7 +65,6 @@ import org.candlepin.subscriptions.test.ExtendWithEmbeddedKafka;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -167,8 +167,15 @@ class TallySnapshotControllerTest implements ExtendWithEmbeddedKafka {
         .thenReturn(Stream.empty())
         .thenReturn(Stream.empty());
 
-    ArgumentCaptor<TallySnapshot> snapshotCaptor = ArgumentCaptor.forClass(TallySnapshot.class);
-    when(snapshotRepo.save(snapshotCaptor.capture())).thenAnswer(input -> input.getArgument(0));
+    List<TallySnapshot> createdSnapshots = new ArrayList<>();
+    when(snapshotRepo.saveAll(any()))
+        .thenAnswer(
+            input -> {
+              List<TallySnapshot> saved = new ArrayList<>();
+              input.<Iterable<TallySnapshot>>getArgument(0).forEach(saved::add);
+              createdSnapshots.addAll(saved);
+              return saved;
+            });
 
     AccountServiceInventoryId inventoryId =
         AccountServiceInventoryId.builder().orgId(ORG_ID).serviceType(SERVICE_TYPE).build();
@@ -243,7 +250,6 @@ class TallySnapshotControllerTest implements ExtendWithEmbeddedKafka {
         instance2.getLastAppliedEventRecordDate(instance2Event1.getEvent().getServiceType()),
         instance2Event1.getRecordDate());
 
-    List<TallySnapshot> createdSnapshots = snapshotCaptor.getAllValues();
     // 48 is from:
     // - 16 snapshots using granularity hourly from event "instance1Event1" that uses current hour
     // - 16 snapshots using granularity hourly from event "instance2Event1" that uses current hour
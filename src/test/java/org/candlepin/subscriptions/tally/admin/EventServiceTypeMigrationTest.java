@@ -0,0 +1,92 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.admin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.candlepin.subscriptions.db.EventRecordRepository;
+import org.candlepin.subscriptions.db.model.EventRecord;
+import org.candlepin.subscriptions.json.Event;
+import org.candlepin.subscriptions.test.ExtendWithSwatchDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles({"worker", "test-inventory"})
+class EventServiceTypeMigrationTest implements ExtendWithSwatchDatabase {
+
+  @Autowired EventServiceTypeMigration migration;
+  @Autowired EventRecordRepository repository;
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testBackfillsServiceTypeInBatches() {
+    List<EventRecord> events =
+        List.of(givenEvent("RHEL System"), givenEvent("OpenShift Cluster"), givenEvent("rosa"));
+    jdbcTemplate.update("update events set service_type = null");
+
+    String lastEventId = null;
+    int batches = 0;
+    do {
+      lastEventId = migration.transformAndLoad(migration.extract(lastEventId, 2));
+      batches++;
+    } while (lastEventId != null);
+
+    // two batches of events and the empty batch that ends the migration
+    assertEquals(3, batches);
+    for (EventRecord event : events) {
+      assertEquals(
+          event.getEvent().getServiceType(),
+          jdbcTemplate.queryForObject(
+              "select service_type from events where event_id = ?",
+              String.class,
+              event.getEventId()));
+    }
+  }
+
+  @Test
+  void testEmptyTableEndsMigration() {
+    assertNull(migration.transformAndLoad(migration.extract(null, 10)));
+  }
+
+  private EventRecord givenEvent(String serviceType) {
+    Event event = new Event();
+    event.setEventId(UUID.randomUUID());
+    event.setOrgId("org123");
+    event.setInstanceId(UUID.randomUUID().toString());
+    event.setTimestamp(OffsetDateTime.now());
+    event.setEventSource("source");
+    event.setEventType("type");
+    event.setServiceType(serviceType);
+    event.setDisplayName(Optional.empty());
+    return repository.saveAndFlush(new EventRecord(event));
+  }
+}
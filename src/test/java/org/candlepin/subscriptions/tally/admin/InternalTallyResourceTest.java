@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -49,6 +50,7 @@ import org.candlepin.subscriptions.json.Event;
 import org.candlepin.subscriptions.retention.TallyRetentionController;
 import org.candlepin.subscriptions.security.SecurityProperties;
 import org.candlepin.subscriptions.tally.MarketplaceResendTallyController;
+import org.candlepin.subscriptions.tally.events.EventPartitionManager;
 import org.candlepin.subscriptions.tally.events.EventRecordsRetentionProperties;
 import org.candlepin.subscriptions.tally.job.CaptureSnapshotsTaskManager;
 import org.candlepin.subscriptions.task.TaskQueueProperties;
@@ -71,6 +73,7 @@ class InternalTallyResourceTest {
   @Mock private InternalTallyDataController internalTallyDataController;
   @Mock private SecurityProperties properties;
   @Mock private EventRecordRepository eventRecordRepository;
+  @Mock private EventPartitionManager eventPartitionManager;
   @Mock private KafkaTemplate<String, Event> kafkaTemplate;
   @Mock private IsPrimaryUpdateService isPrimaryUpdateService;
 
@@ -98,6 +101,7 @@ class InternalTallyResourceTest {
             properties,
             eventRecordRepository,
             eventRecordsRetentionProperties,
+            eventPartitionManager,
             objectMapper(appProps),
             kafkaTemplate,
             isPrimaryUpdateService,
@@ -213,6 +217,17 @@ class InternalTallyResourceTest {
         .deleteInBulkEventRecordsByTimestampBefore(expectedRetentionTarget);
   }
 
+  @Test
+  void testPurgeEventRecordsDropsPartitionsWhenEventsArePartitioned() {
+    when(eventPartitionManager.isPartitioned()).thenReturn(true);
+    OffsetDateTime expectedRetentionTarget =
+        clock.now().truncatedTo(ChronoUnit.DAYS).minusMonths(6);
+    resource.purgeEventRecords();
+    verify(eventPartitionManager).dropPartitionsBefore(expectedRetentionTarget);
+    verify(eventPartitionManager).createFuturePartitions();
+    verify(eventRecordRepository, never()).deleteInBulkEventRecordsByTimestampBefore(any());
+  }
+
   @Test
   void testUpdateIsPrimaryAsyncWithValidProduct() {
     // Given: Request parameters for ROSA product
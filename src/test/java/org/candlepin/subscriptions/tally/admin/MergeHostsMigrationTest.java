@@ -36,6 +36,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.db.HostRepository;
+import org.candlepin.subscriptions.db.TallyInstanceReadModelRepository;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.Host;
 import org.candlepin.subscriptions.db.model.HostBucketKey;
@@ -55,12 +56,14 @@ class MergeHostsMigrationTest {
   @Mock HostRepository hostRepository;
   @Mock JdbcTemplate jdbcTemplate;
   @Mock MeterRegistry meterRegistry;
+  @Mock TallyInstanceReadModelRepository instanceReadModelRepository;
 
   @Test
   void transformAndLoadTwoHostsOneInstanceId() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, false);
     when(data.getString("instance_id")).thenReturn("instance-1");
@@ -86,13 +89,15 @@ class MergeHostsMigrationTest {
     assertEquals("instance-1", mergeHostsMigration.transformAndLoad(data));
     verify(hostRepository).save(host1);
     verify(hostRepository).deleteAll(List.of(host2));
+    verify(instanceReadModelRepository).refreshHosts(Set.of(host1.getId()));
   }
 
   @Test
   void transformAndLoadFourHostsTwoInstanceIds() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, true, false);
     when(data.getString("instance_id")).thenReturn("instance-1", "instance-2");
@@ -140,7 +145,8 @@ class MergeHostsMigrationTest {
   void transformAndLoadFieldUpdates() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, false);
     when(data.getString("instance_id")).thenReturn("instance-1");
@@ -195,7 +201,8 @@ class MergeHostsMigrationTest {
   void transformAndLoadInstanceTypeUpdates() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, false);
     when(data.getString("instance_id")).thenReturn("instance-1");
@@ -258,7 +265,8 @@ class MergeHostsMigrationTest {
   void transformAndLoadDiffentTallyBucketUpdates() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, false);
     when(data.getString("instance_id")).thenReturn("instance-1");
@@ -312,7 +320,8 @@ class MergeHostsMigrationTest {
   void transformAndLoadMeasurementUpdate() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, false);
     when(data.getString("instance_id")).thenReturn("instance-1");
@@ -348,7 +357,8 @@ class MergeHostsMigrationTest {
   void transformAndLoadMonthlyTotalUpdate() {
     when(meterRegistry.counter(any(String.class))).thenReturn(mock(Counter.class));
     MergeHostsMigration mergeHostsMigration =
-        new MergeHostsMigration(jdbcTemplate, meterRegistry, hostRepository);
+        new MergeHostsMigration(
+            jdbcTemplate, meterRegistry, hostRepository, instanceReadModelRepository);
     SqlRowSet data = mock(SqlRowSet.class);
     when(data.next()).thenReturn(true, false);
     when(data.getString("instance_id")).thenReturn("instance-1");
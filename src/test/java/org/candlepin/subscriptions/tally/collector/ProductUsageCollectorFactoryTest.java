@@ -26,10 +26,16 @@ import com.redhat.swatch.configuration.registry.SubscriptionDefinition;
 import com.redhat.swatch.configuration.registry.SubscriptionDefinitionRegistry;
 import com.redhat.swatch.configuration.registry.Variant;
 import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 class ProductUsageCollectorFactoryTest {
 
+  @AfterEach
+  void tearDown() {
+    SubscriptionDefinitionRegistry.reset();
+  }
+
   @Test
   void getRHELProductUsageCollector() {
     SubscriptionDefinition testDef = new SubscriptionDefinition();
@@ -37,7 +43,7 @@ class ProductUsageCollectorFactoryTest {
     Variant testVariant = new Variant();
     testVariant.setTag("testProd1");
     testDef.setVariants(Set.of(testVariant));
-    SubscriptionDefinitionRegistry.getInstance().getSubscriptions().add(testDef);
+    givenSubscriptionDefinition(testDef);
     assertThat(ProductUsageCollectorFactory.get("testProd1") instanceof RHELProductUsageCollector);
   }
 
@@ -48,7 +54,7 @@ class ProductUsageCollectorFactoryTest {
     Variant testVariant = new Variant();
     testVariant.setTag("testProd2");
     testDef.setVariants(Set.of(testVariant));
-    SubscriptionDefinitionRegistry.getInstance().getSubscriptions().add(testDef);
+    givenSubscriptionDefinition(testDef);
     assertThat(
         ProductUsageCollectorFactory.get("testProd2") instanceof DefaultProductUsageCollector);
   }
@@ -60,8 +66,14 @@ class ProductUsageCollectorFactoryTest {
     Variant testVariant = new Variant();
     testVariant.setTag("testProd3");
     testDef.setVariants(Set.of(testVariant));
-    SubscriptionDefinitionRegistry.getInstance().getSubscriptions().add(testDef);
+    givenSubscriptionDefinition(testDef);
     assertThat(
         ProductUsageCollectorFactory.get("testProd3") instanceof DefaultProductUsageCollector);
   }
+
+  /** The registry indexes its definitions on the first lookup, so it is reset before adding. */
+  private static void givenSubscriptionDefinition(SubscriptionDefinition definition) {
+    SubscriptionDefinitionRegistry.reset();
+    SubscriptionDefinitionRegistry.getInstance().getSubscriptions().add(definition);
+  }
 }
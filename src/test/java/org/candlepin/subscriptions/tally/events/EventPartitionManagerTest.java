@@ -0,0 +1,163 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.tally.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.candlepin.subscriptions.db.EventRecordRepository;
+import org.candlepin.subscriptions.db.model.EventRecord;
+import org.candlepin.subscriptions.test.ExtendWithSwatchDatabase;
+import org.candlepin.subscriptions.test.TestClockConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles({"worker", "test-inventory"})
+@Import(TestClockConfiguration.class)
+class EventPartitionManagerTest implements ExtendWithSwatchDatabase {
+
+  // the test clock is set to 2019-05-24
+  private static final List<String> FUTURE_PARTITIONS =
+      List.of("events_2019_05", "events_2019_06", "events_2019_07", "events_2019_08");
+
+  @Autowired private EventPartitionManager manager;
+  @Autowired private EventRecordRepository repository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private EventRecordsRetentionProperties properties;
+
+  @Test
+  void testEventsTableIsPartitioned() {
+    assertTrue(manager.isPartitioned());
+  }
+
+  @Test
+  void testCreateFuturePartitions() {
+    assertEquals(FUTURE_PARTITIONS, manager.createFuturePartitions());
+    assertEquals(List.of(), manager.createFuturePartitions());
+  }
+
+  @Test
+  void testCreateFuturePartitionsSkipsMonthsCoveredByHistoricPartition() {
+    // the table was partitioned in the current month, whose events are in the historic partition
+    jdbcTemplate.execute(
+        "create table events_historic (like events including defaults including constraints)");
+    jdbcTemplate.execute(
+        "alter table events attach partition events_historic"
+            + " for values from (minvalue) to ('2019-06-01 00:00:00+00')");
+
+    assertEquals(FUTURE_PARTITIONS.subList(1, 4), manager.createFuturePartitions());
+    assertEquals(List.of(), manager.createFuturePartitions());
+  }
+
+  @Test
+  void testCreateFuturePartitionsMovesEventsOutOfDefaultPartition() {
+    givenEventAt(OffsetDateTime.parse("2019-06-10T10:00:00Z"));
+    assertEquals(1, countEventsIn(EventPartitionManager.DEFAULT_PARTITION));
+
+    manager.createFuturePartitions();
+
+    assertEquals(0, countEventsIn(EventPartitionManager.DEFAULT_PARTITION));
+    assertEquals(1, countEventsIn("events_2019_06"));
+    assertEquals(1, repository.count());
+  }
+
+  @Test
+  void testDropPartitionsBefore() {
+    manager.createFuturePartitions();
+    givenEventAt(OffsetDateTime.parse("2019-05-24T10:00:00Z"));
+    givenEventAt(OffsetDateTime.parse("2019-06-20T10:00:00Z"));
+
+    List<String> dropped = manager.dropPartitionsBefore(OffsetDateTime.parse("2019-06-15T00:00Z"));
+
+    assertEquals(List.of("events_2019_05"), dropped);
+    assertEquals(1, repository.count());
+    assertEquals(1, countEventsIn("events_2019_06"));
+  }
+
+  @Test
+  void testDropPartitionsBeforeDeletesExpiredEventsFromDefaultPartition() {
+    givenEventAt(OffsetDateTime.parse("2018-01-10T10:00:00Z"));
+    givenEventAt(OffsetDateTime.parse("2018-03-10T10:00:00Z"));
+
+    manager.dropPartitionsBefore(OffsetDateTime.parse("2018-02-01T00:00Z"));
+
+    assertEquals(1, countEventsIn(EventPartitionManager.DEFAULT_PARTITION));
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void testDropPartitionsBeforeExpiresHistoricPartition() {
+    int batchSize = properties.getHistoricPurgeBatchSize();
+    jdbcTemplate.execute(
+        "create table events_historic (like events including defaults including constraints)");
+    jdbcTemplate.execute(
+        "alter table events attach partition events_historic"
+            + " for values from (minvalue) to ('2018-03-01 00:00:00+00')");
+    try {
+      properties.setHistoricPurgeBatchSize(1);
+      givenEventAt(OffsetDateTime.parse("2018-01-10T10:00:00Z"));
+      givenEventAt(OffsetDateTime.parse("2018-01-20T10:00:00Z"));
+      givenEventAt(OffsetDateTime.parse("2018-02-10T10:00:00Z"));
+
+      List<String> dropped =
+          manager.dropPartitionsBefore(OffsetDateTime.parse("2018-02-01T00:00Z"));
+
+      assertEquals(List.of(), dropped);
+      assertEquals(1, countEventsIn(EventPartitionManager.HISTORIC_PARTITION));
+
+      dropped = manager.dropPartitionsBefore(OffsetDateTime.parse("2018-03-01T00:00Z"));
+
+      assertEquals(List.of(EventPartitionManager.HISTORIC_PARTITION), dropped);
+      assertEquals(0, repository.count());
+    } finally {
+      properties.setHistoricPurgeBatchSize(batchSize);
+      jdbcTemplate.execute("drop table if exists events_historic");
+      repository.deleteAll();
+    }
+  }
+
+  private void givenEventAt(OffsetDateTime timestamp) {
+    repository.saveAndFlush(
+        EventRecord.builder()
+            .eventId(UUID.randomUUID())
+            .orgId("org123")
+            .eventSource("source")
+            .eventType("type")
+            .instanceId("instance")
+            .timestamp(timestamp)
+            .build());
+  }
+
+  private int countEventsIn(String partition) {
+    return jdbcTemplate.queryForObject("select count(*) from " + partition, Integer.class);
+  }
+}
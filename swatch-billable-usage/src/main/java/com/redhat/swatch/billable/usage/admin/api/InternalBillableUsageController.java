@@ -25,11 +25,13 @@ import static java.util.Optional.ofNullable;
 import com.redhat.swatch.billable.usage.configuration.ApplicationConfiguration;
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceFilter;
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceRepository;
+import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceTotalKey;
 import com.redhat.swatch.billable.usage.data.RemittanceErrorCode;
 import com.redhat.swatch.billable.usage.data.RemittanceStatus;
 import com.redhat.swatch.billable.usage.data.RemittanceSummaryProjection;
 import com.redhat.swatch.billable.usage.model.RemittanceMapper;
 import com.redhat.swatch.billable.usage.openapi.model.MonthlyRemittance;
+import com.redhat.swatch.billable.usage.openapi.model.RemittanceTotalsReconciliation;
 import com.redhat.swatch.billable.usage.openapi.model.TallyRemittance;
 import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -37,7 +39,10 @@ import jakarta.transaction.Transactional;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import lombok.AllArgsConstructor;
@@ -51,6 +56,9 @@ public class InternalBillableUsageController {
       "rhsm-subscriptions.swatch-billable-usage-push-in-progress-to-failed-status";
   public static final String USAGE_STATUS_PUSH_TO_UNKNOWN_METRIC =
       "rhsm-subscriptions.swatch-billable-usage-push-sent-to-unknown-status";
+  public static final String REMITTANCE_TOTAL_DRIFT_METRIC =
+      "rhsm-subscriptions.swatch-billable-usage-remittance-total-drift";
+  private static final double REMITTANCE_TOTAL_TOLERANCE = 1e-6;
 
   private final BillableUsageRemittanceRepository remittanceRepository;
   private final RemittanceMapper remittanceMapper;
@@ -122,6 +130,43 @@ public class InternalBillableUsageController {
     }
   }
 
+  /**
+   * Recompute the running remittance totals from the remittances, and correct the ones that
+   * drifted.
+   *
+   * @param orgId the org to reconcile, or null for all the orgs
+   */
+  @Transactional
+  public RemittanceTotalsReconciliation reconcileRemittanceTotals(String orgId) {
+    Map<BillableUsageRemittanceTotalKey, Double> expected = remittanceRepository.sumTotals(orgId);
+    Map<BillableUsageRemittanceTotalKey, Double> actual = new HashMap<>();
+    remittanceRepository
+        .findTotals(orgId)
+        .forEach(total -> actual.put(total.getKey(), total.getTotalRemittedPendingValue()));
+
+    Set<BillableUsageRemittanceTotalKey> keys = new HashSet<>(expected.keySet());
+    keys.addAll(actual.keySet());
+    int drifted = 0;
+    for (var key : keys) {
+      double expectedTotal = expected.getOrDefault(key, 0.0);
+      double actualTotal = actual.getOrDefault(key, 0.0);
+      if (Math.abs(expectedTotal - actualTotal) > REMITTANCE_TOTAL_TOLERANCE) {
+        log.warn(
+            "Remittance total {} drifted: expected {} but was {}. Correcting it.",
+            key,
+            expectedTotal,
+            actualTotal);
+        remittanceRepository.setTotal(key, expectedTotal);
+        drifted++;
+      }
+    }
+    if (drifted > 0) {
+      meterRegistry.counter(REMITTANCE_TOTAL_DRIFT_METRIC).increment(drifted);
+    }
+    log.info("Reconciled {} remittance totals, {} of them had drifted", keys.size(), drifted);
+    return new RemittanceTotalsReconciliation().checked(keys.size()).drifted(drifted);
+  }
+
   @Transactional
   public void deleteDataForOrg(String orgId) {
     remittanceRepository.deleteByOrgId(orgId);
@@ -25,6 +25,7 @@ import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceFilter;
 import com.redhat.swatch.billable.usage.kafka.streams.FlushTopicService;
 import com.redhat.swatch.billable.usage.openapi.model.DefaultResponse;
 import com.redhat.swatch.billable.usage.openapi.model.MonthlyRemittance;
+import com.redhat.swatch.billable.usage.openapi.model.RemittanceTotalsReconciliation;
 import com.redhat.swatch.billable.usage.openapi.model.TallyRemittance;
 import com.redhat.swatch.billable.usage.openapi.resource.DefaultApi;
 import com.redhat.swatch.billable.usage.services.EnabledOrgsProducer;
@@ -164,6 +165,11 @@ public class InternalBillableUsageResource implements DefaultApi {
     return getDefaultResponse(SUCCESS_STATUS);
   }
 
+  @Override
+  public RemittanceTotalsReconciliation reconcileRemittanceTotals(String orgId) {
+    return billingController.reconcileRemittanceTotals(orgId);
+  }
+
   private DefaultResponse getDefaultResponse(String status) {
     var response = new DefaultResponse();
     response.setStatus(status);
@@ -23,10 +23,12 @@ package com.redhat.swatch.billable.usage.data;
 import com.redhat.swatch.panache.PanacheSpecificationSupport;
 import com.redhat.swatch.panache.Specification;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,11 +36,125 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+/**
+ * Stores the billable usage remittances along with their running totals.
+ *
+ * <p>Every write done through this repository keeps billable_usage_remittance_total in step with
+ * the remittances, in the same transaction: persisted remittances are added to their total, and the
+ * bulk status changes, resets and deletes move the value of the affected remittances in or out of
+ * the totals. A remittance counts towards its total unless it has failed. Changing a managed
+ * remittance through its setters bypasses the totals.
+ */
 @ApplicationScoped
 public class BillableUsageRemittanceRepository
     implements PanacheSpecificationSupport<BillableUsageRemittanceEntity, UUID> {
 
+  private static final String COUNTED = "(bu.status is null or bu.status != :failed)";
+  private static final String NOT_COUNTED = "bu.status = :failed";
+  private static final String TOTAL_KEY_COLUMNS =
+      "bu.orgId, bu.productId, bu.metricId, bu.accumulationPeriod, bu.sla, bu.usage, "
+          + "bu.billingProvider, bu.billingAccountId";
+
+  @Override
+  public void persist(BillableUsageRemittanceEntity remittance) {
+    var entityManager = getEntityManager();
+    if (!entityManager.contains(remittance)) {
+      entityManager.persist(remittance);
+      addToTotal(
+          BillableUsageRemittanceTotalKey.from(remittance),
+          countedValue(remittance.getStatus(), remittance.getRemittedPendingValue()));
+    }
+  }
+
+  @Override
+  public void persist(Iterable<BillableUsageRemittanceEntity> remittances) {
+    remittances.forEach(this::persist);
+  }
+
+  @Override
+  public void persist(Stream<BillableUsageRemittanceEntity> remittances) {
+    remittances.forEach(this::persist);
+  }
+
+  @Override
+  public void persist(
+      BillableUsageRemittanceEntity remittance, BillableUsageRemittanceEntity... remittances) {
+    persist(remittance);
+    Arrays.stream(remittances).forEach(this::persist);
+  }
+
+  @Override
+  public void persistAndFlush(BillableUsageRemittanceEntity remittance) {
+    persist(remittance);
+    flush();
+  }
+
+  @Override
+  public long deleteAll() {
+    var entityManager = getEntityManager();
+    entityManager.createQuery("delete from BillableUsageRemittanceTotalEntity").executeUpdate();
+    return entityManager.createQuery("delete from BillableUsageRemittanceEntity").executeUpdate();
+  }
+
+  /**
+   * Get the running total remitted for a key. The total is locked until the end of the transaction,
+   * so that concurrent usages of the same key are remitted one after the other.
+   *
+   * @param key the key of the total
+   * @return the total remitted, excluding failed remittances
+   */
+  @Transactional
+  public double getTotalRemitted(BillableUsageRemittanceTotalKey key) {
+    var total = findTotalForUpdate(key);
+    return total == null ? 0.0 : total.getTotalRemittedPendingValue();
+  }
+
+  /**
+   * Get the running totals stored for an org.
+   *
+   * @param orgId the org, or null for all the orgs
+   */
+  public List<BillableUsageRemittanceTotalEntity> findTotals(String orgId) {
+    String query = "from BillableUsageRemittanceTotalEntity";
+    if (orgId == null) {
+      return getEntityManager()
+          .createQuery(query, BillableUsageRemittanceTotalEntity.class)
+          .getResultList();
+    }
+    return getEntityManager()
+        .createQuery(query + " where orgId = :orgId", BillableUsageRemittanceTotalEntity.class)
+        .setParameter("orgId", orgId)
+        .getResultList();
+  }
+
+  /**
+   * Recompute the running totals of an org from the remittances.
+   *
+   * @param orgId the org, or null for all the orgs
+   * @return the totals by key
+   */
+  public Map<BillableUsageRemittanceTotalKey, Double> sumTotals(String orgId) {
+    Map<String, Object> parameters = new HashMap<>();
+    String where = "1 = 1";
+    if (orgId != null) {
+      where = "bu.orgId = :orgId";
+      parameters.put("orgId", orgId);
+    }
+    return sumRemittedByKey(where + " and " + COUNTED, parameters);
+  }
+
+  /** Overwrite the running total of a key. */
+  public void setTotal(BillableUsageRemittanceTotalKey key, double value) {
+    var total = findTotalForUpdate(key);
+    if (total == null) {
+      insertTotal(key, value);
+    } else {
+      total.setTotalRemittedPendingValue(value);
+    }
+  }
+
   public Optional<BillableUsageRemittanceEntity> findOne(BillableUsageRemittanceFilter filter) {
     return findOne(BillableUsageRemittanceEntity.class, buildSearchSpecification(filter));
   }
@@ -89,11 +205,31 @@ public class BillableUsageRemittanceRepository
 
   public void deleteAllByOrgIdAndRemittancePendingDateBefore(
       String orgId, OffsetDateTime cutoffDate) {
+    Map<String, Object> parameters = new HashMap<>();
+    parameters.put("orgId", orgId);
+    parameters.put("cutoffDate", cutoffDate);
+    removeFromTotals("bu.orgId = :orgId and bu.remittancePendingDate < :cutoffDate", parameters);
     delete("orgId = ?1 AND remittancePendingDate < ?2", orgId, cutoffDate);
+    // drop the totals whose remittances have all been purged
+    getEntityManager()
+        .createQuery(
+            "delete from BillableUsageRemittanceTotalEntity t where t.orgId = :orgId "
+                + "and not exists (select 1 from BillableUsageRemittanceEntity bu "
+                + "where bu.orgId = t.orgId and bu.productId = t.productId "
+                + "and bu.metricId = t.metricId and bu.accumulationPeriod = t.accumulationPeriod "
+                + "and bu.sla = t.sla and bu.usage = t.usage "
+                + "and bu.billingProvider = t.billingProvider "
+                + "and bu.billingAccountId = t.billingAccountId)")
+        .setParameter("orgId", orgId)
+        .executeUpdate();
   }
 
   @Transactional
   public void deleteByOrgId(String orgId) {
+    getEntityManager()
+        .createQuery("delete from BillableUsageRemittanceTotalEntity where orgId = :orgId")
+        .setParameter("orgId", orgId)
+        .executeUpdate();
     delete("orgId = ?1", orgId);
   }
 
@@ -110,6 +246,7 @@ public class BillableUsageRemittanceRepository
       RemittanceErrorCode errorCode,
       String licenseId) {
     List<UUID> uuidList = uuids.stream().map(UUID::fromString).toList();
+    moveTotalsForStatusChange("bu.uuid in (:uuids)", Map.of("uuids", uuidList), status);
     update(
         "status = ?1, billedOn=?2, errorCode=?3, updatedAt=?4, licenseId=?5 where uuid in (?6)",
         status,
@@ -126,9 +263,7 @@ public class BillableUsageRemittanceRepository
       OffsetDateTime end,
       Set<String> orgIds,
       Set<String> billingAccountIds) {
-    String query =
-        "update BillableUsageRemittanceEntity bu set bu.remittedPendingValue=0.0 "
-            + "where bu.productId = :productId and bu.remittancePendingDate between :start and :end";
+    String where = "bu.productId = :productId and bu.remittancePendingDate between :start and :end";
 
     Map<String, Object> parameters = new HashMap<>();
     parameters.put("productId", productId);
@@ -136,13 +271,16 @@ public class BillableUsageRemittanceRepository
     parameters.put("end", end);
 
     if (orgIds != null && !orgIds.isEmpty()) {
-      query += " and bu.orgId in :orgIds";
+      where += " and bu.orgId in :orgIds";
       parameters.put("orgIds", orgIds);
     } else if (billingAccountIds != null && !billingAccountIds.isEmpty()) {
-      query += " and bu.billingAccountId in :billingAccountIds";
+      where += " and bu.billingAccountId in :billingAccountIds";
       parameters.put("billingAccountIds", billingAccountIds);
     }
-    return update(query, parameters);
+    removeFromTotals(where, parameters);
+    return update(
+        "update BillableUsageRemittanceEntity bu set bu.remittedPendingValue=0.0 where " + where,
+        parameters);
   }
 
   @Transactional
@@ -153,22 +291,116 @@ public class BillableUsageRemittanceRepository
       RemittanceErrorCode errorCode) {
     OffsetDateTime cutoffDate = OffsetDateTime.now(ZoneOffset.UTC).minus(stuckDuration);
 
-    String query;
+    String where = "bu.status = :oldStatus and bu.updatedAt <= :cutoffDate";
     Map<String, Object> parameters = new HashMap<>();
-    query =
+    parameters.put("oldStatus", oldStatus);
+    parameters.put("cutoffDate", cutoffDate);
+    if (oldStatus != newStatus) {
+      moveTotalsForStatusChange(where, parameters, newStatus);
+    }
+
+    String query =
         "update BillableUsageRemittanceEntity bu "
             + "set bu.status = :newStatus, "
             + "bu.errorCode = :errorCode "
-            + "where bu.status = :oldStatus "
-            + "and bu.updatedAt <= :cutoffDate";
+            + "where "
+            + where;
     parameters.put("errorCode", errorCode);
     parameters.put("newStatus", newStatus);
-    parameters.put("oldStatus", oldStatus);
-    parameters.put("cutoffDate", cutoffDate);
 
     return update(query, parameters);
   }
 
+  /**
+   * Update the running totals for the remittances matching a condition moving to a new status: the
+   * remittances that fail are taken out of their totals and the failed ones that are retried are
+   * put back.
+   */
+  private void moveTotalsForStatusChange(
+      String where, Map<String, Object> parameters, RemittanceStatus newStatus) {
+    if (newStatus == RemittanceStatus.FAILED) {
+      removeFromTotals(where, parameters);
+    } else {
+      sumRemittedByKey("(" + where + ") and " + NOT_COUNTED, parameters).forEach(this::addToTotal);
+    }
+  }
+
+  /** Take the remittances matching a condition out of their running totals. */
+  private void removeFromTotals(String where, Map<String, Object> parameters) {
+    sumRemittedByKey("(" + where + ") and " + COUNTED, parameters)
+        .forEach((key, value) -> addToTotal(key, -value));
+  }
+
+  /**
+   * Sum the remittances matching a condition by running total. The condition must filter on the
+   * status with {@link #COUNTED} or {@link #NOT_COUNTED}.
+   */
+  private Map<BillableUsageRemittanceTotalKey, Double> sumRemittedByKey(
+      String where, Map<String, Object> parameters) {
+    var query =
+        getEntityManager()
+            .createQuery(
+                "select "
+                    + TOTAL_KEY_COLUMNS
+                    + ", sum(bu.remittedPendingValue) from BillableUsageRemittanceEntity bu where "
+                    + where
+                    + " group by "
+                    + TOTAL_KEY_COLUMNS,
+                Object[].class);
+    parameters.forEach(query::setParameter);
+    query.setParameter("failed", RemittanceStatus.FAILED);
+    Map<BillableUsageRemittanceTotalKey, Double> sums = new HashMap<>();
+    for (Object[] row : query.getResultList()) {
+      var key =
+          new BillableUsageRemittanceTotalKey(
+              (String) row[0],
+              (String) row[1],
+              (String) row[2],
+              (String) row[3],
+              (String) row[4],
+              (String) row[5],
+              (String) row[6],
+              (String) row[7]);
+      sums.put(key, row[8] == null ? 0.0 : ((Number) row[8]).doubleValue());
+    }
+    return sums;
+  }
+
+  private void addToTotal(BillableUsageRemittanceTotalKey key, double delta) {
+    if (delta == 0.0) {
+      return;
+    }
+    var total = findTotalForUpdate(key);
+    if (total == null) {
+      insertTotal(key, delta);
+    } else {
+      total.setTotalRemittedPendingValue(total.getTotalRemittedPendingValue() + delta);
+    }
+  }
+
+  private BillableUsageRemittanceTotalEntity findTotalForUpdate(
+      BillableUsageRemittanceTotalKey key) {
+    return getEntityManager()
+        .find(BillableUsageRemittanceTotalEntity.class, key, LockModeType.PESSIMISTIC_WRITE);
+  }
+
+  /**
+   * Insert a new running total. It is flushed right away, so that the row exists when it is locked
+   * again in the same transaction, and so that a concurrent insert of the same key fails here with
+   * a constraint violation and rolls the transaction back.
+   */
+  private void insertTotal(BillableUsageRemittanceTotalKey key, double value) {
+    var entityManager = getEntityManager();
+    entityManager.persist(BillableUsageRemittanceTotalEntity.of(key, value));
+    entityManager.flush();
+  }
+
+  private static double countedValue(RemittanceStatus status, Double remittedPendingValue) {
+    return status == RemittanceStatus.FAILED || remittedPendingValue == null
+        ? 0.0
+        : remittedPendingValue;
+  }
+
   private Specification<BillableUsageRemittanceEntity> buildSearchSpecification(
       BillableUsageRemittanceFilter filter) {
 
@@ -0,0 +1,122 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running total of the remitted value of the billable_usage_remittance rows sharing a key, failed
+ * remittances excluded. {@link BillableUsageRemittanceRepository} keeps it in step with the
+ * remittances in the transaction that writes them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@IdClass(BillableUsageRemittanceTotalKey.class)
+@Table(name = "billable_usage_remittance_total")
+public class BillableUsageRemittanceTotalEntity implements Serializable {
+
+  @Id
+  @Column(name = "org_id", nullable = false, length = 32)
+  private String orgId;
+
+  @Id
+  @Column(name = "product_id", nullable = false, length = 32)
+  private String productId;
+
+  @Id
+  @Column(name = "metric_id", nullable = false)
+  private String metricId;
+
+  @Id
+  @Column(name = "accumulation_period", nullable = false)
+  private String accumulationPeriod;
+
+  @Id
+  @Column(name = "sla", nullable = false)
+  private String sla;
+
+  @Id
+  @Column(name = "usage", nullable = false)
+  private String usage;
+
+  @Id
+  @Column(name = "billing_provider", nullable = false)
+  private String billingProvider;
+
+  @Id
+  @Column(name = "billing_account_id", nullable = false)
+  private String billingAccountId;
+
+  @Column(name = "total_remitted_pending_value", nullable = false)
+  private double totalRemittedPendingValue;
+
+  @Column(name = "updated_at")
+  private OffsetDateTime updatedAt;
+
+  public static BillableUsageRemittanceTotalEntity of(
+      BillableUsageRemittanceTotalKey key, double totalRemittedPendingValue) {
+    return BillableUsageRemittanceTotalEntity.builder()
+        .orgId(key.getOrgId())
+        .productId(key.getProductId())
+        .metricId(key.getMetricId())
+        .accumulationPeriod(key.getAccumulationPeriod())
+        .sla(key.getSla())
+        .usage(key.getUsage())
+        .billingProvider(key.getBillingProvider())
+        .billingAccountId(key.getBillingAccountId())
+        .totalRemittedPendingValue(totalRemittedPendingValue)
+        .build();
+  }
+
+  public BillableUsageRemittanceTotalKey getKey() {
+    return new BillableUsageRemittanceTotalKey(
+        orgId,
+        productId,
+        metricId,
+        accumulationPeriod,
+        sla,
+        usage,
+        billingProvider,
+        billingAccountId);
+  }
+
+  @PreUpdate
+  @PrePersist
+  public void onCreateOrUpdate() {
+    this.updatedAt = OffsetDateTime.now(ZoneId.of("UTC"));
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.data;
+
+import com.redhat.swatch.configuration.registry.MetricId;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.candlepin.subscriptions.billable.usage.AccumulationPeriodFormatter;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+
+/** Identifies a {@link BillableUsageRemittanceTotalEntity}. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BillableUsageRemittanceTotalKey implements Serializable {
+  private String orgId;
+  private String productId;
+  private String metricId;
+  private String accumulationPeriod;
+  private String sla;
+  private String usage;
+  private String billingProvider;
+  private String billingAccountId;
+
+  /** Key of the total that the remittances of the given usage count towards. */
+  public static BillableUsageRemittanceTotalKey from(BillableUsage usage) {
+    return BillableUsageRemittanceTotalKey.builder()
+        .orgId(usage.getOrgId())
+        .productId(usage.getProductId())
+        .metricId(MetricId.fromString(usage.getMetricId()).getValue())
+        .accumulationPeriod(AccumulationPeriodFormatter.toMonthId(usage.getSnapshotDate()))
+        .sla(usage.getSla().value())
+        .usage(usage.getUsage().value())
+        .billingProvider(usage.getBillingProvider().value())
+        .billingAccountId(usage.getBillingAccountId())
+        .build();
+  }
+
+  public static BillableUsageRemittanceTotalKey from(BillableUsageRemittanceEntity remittance) {
+    return BillableUsageRemittanceTotalKey.builder()
+        .orgId(remittance.getOrgId())
+        .productId(remittance.getProductId())
+        .metricId(remittance.getMetricId())
+        .accumulationPeriod(remittance.getAccumulationPeriod())
+        .sla(remittance.getSla())
+        .usage(remittance.getUsage())
+        .billingProvider(remittance.getBillingProvider())
+        .billingAccountId(remittance.getBillingAccountId())
+        .build();
+  }
+}
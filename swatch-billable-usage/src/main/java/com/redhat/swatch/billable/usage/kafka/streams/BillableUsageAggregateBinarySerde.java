@@ -0,0 +1,121 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka.streams;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregate;
+
+/** Binary serde for the aggregates held by the window store and the pending aggregates store. */
+public class BillableUsageAggregateBinarySerde
+    extends VersionedBinarySerde<BillableUsageAggregate> {
+
+  private static final int VERSION = 1;
+
+  private final BillableUsageAggregateKeyBinarySerde keySerde;
+
+  public BillableUsageAggregateBinarySerde(ObjectMapper objectMapper, SerdeFormat format) {
+    super(BillableUsageAggregate.class, objectMapper, format);
+    // the nested key is always binary, since it is never read by anything else
+    this.keySerde = new BillableUsageAggregateKeyBinarySerde(objectMapper, SerdeFormat.BINARY);
+  }
+
+  @Override
+  protected int version() {
+    return VERSION;
+  }
+
+  @Override
+  protected void write(BillableUsageAggregate aggregate, DataOutput out) throws IOException {
+    writeBigDecimal(out, aggregate.getTotalValue());
+    writeOffsetDateTime(out, aggregate.getWindowTimestamp());
+    writeUuid(out, aggregate.getAggregateId());
+    // length-prefixed, so that the key layout can evolve on its own
+    byte[] key = keySerde.serialize(aggregate.getAggregateKey());
+    out.writeInt(key == null ? -1 : key.length);
+    if (key != null) {
+      out.write(key);
+    }
+    Set<OffsetDateTime> snapshotDates = aggregate.getSnapshotDates();
+    out.writeInt(snapshotDates == null ? -1 : snapshotDates.size());
+    if (snapshotDates != null) {
+      for (var snapshotDate : snapshotDates) {
+        writeOffsetDateTime(out, snapshotDate);
+      }
+    }
+    writeEnum(out, aggregate.getStatus());
+    writeEnum(out, aggregate.getErrorCode());
+    writeOffsetDateTime(out, aggregate.getBilledOn());
+    List<String> remittanceUuids = aggregate.getRemittanceUuids();
+    out.writeInt(remittanceUuids == null ? -1 : remittanceUuids.size());
+    if (remittanceUuids != null) {
+      for (String remittanceUuid : remittanceUuids) {
+        writeString(out, remittanceUuid);
+      }
+    }
+    writeString(out, aggregate.getLicenseId());
+  }
+
+  @Override
+  protected BillableUsageAggregate read(DataInput in, int version) throws IOException {
+    BillableUsageAggregate aggregate = new BillableUsageAggregate();
+    aggregate.setTotalValue(readBigDecimal(in));
+    aggregate.setWindowTimestamp(readOffsetDateTime(in));
+    aggregate.setAggregateId(readUuid(in));
+    int keyLength = in.readInt();
+    if (keyLength >= 0) {
+      byte[] key = new byte[keyLength];
+      in.readFully(key);
+      aggregate.setAggregateKey(keySerde.deserialize(key));
+    }
+    int snapshotDateCount = in.readInt();
+    Set<OffsetDateTime> snapshotDates = null;
+    if (snapshotDateCount >= 0) {
+      snapshotDates = new HashSet<>(snapshotDateCount * 2);
+      for (int i = 0; i < snapshotDateCount; i++) {
+        snapshotDates.add(readOffsetDateTime(in));
+      }
+    }
+    aggregate.setSnapshotDates(snapshotDates);
+    aggregate.setStatus(readEnum(in, BillableUsage.Status::fromValue));
+    aggregate.setErrorCode(readEnum(in, BillableUsage.ErrorCode::fromValue));
+    aggregate.setBilledOn(readOffsetDateTime(in));
+    int remittanceUuidCount = in.readInt();
+    List<String> remittanceUuids = null;
+    if (remittanceUuidCount >= 0) {
+      remittanceUuids = new ArrayList<>(remittanceUuidCount);
+      for (int i = 0; i < remittanceUuidCount; i++) {
+        remittanceUuids.add(readString(in));
+      }
+    }
+    aggregate.setRemittanceUuids(remittanceUuids);
+    aggregate.setLicenseId(readString(in));
+    return aggregate;
+  }
+}
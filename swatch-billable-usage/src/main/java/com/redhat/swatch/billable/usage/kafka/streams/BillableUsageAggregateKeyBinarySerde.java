@@ -0,0 +1,66 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka.streams;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregateKey;
+
+/** Binary serde for the repartition, window store and pending aggregates store keys. */
+public class BillableUsageAggregateKeyBinarySerde
+    extends VersionedBinarySerde<BillableUsageAggregateKey> {
+
+  private static final int VERSION = 1;
+
+  public BillableUsageAggregateKeyBinarySerde(ObjectMapper objectMapper, SerdeFormat format) {
+    super(BillableUsageAggregateKey.class, objectMapper, format);
+  }
+
+  @Override
+  protected int version() {
+    return VERSION;
+  }
+
+  @Override
+  protected void write(BillableUsageAggregateKey key, DataOutput out) throws IOException {
+    writeString(out, key.getOrgId());
+    writeString(out, key.getProductId());
+    writeString(out, key.getMetricId());
+    writeString(out, key.getSla());
+    writeString(out, key.getUsage());
+    writeString(out, key.getBillingProvider());
+    writeString(out, key.getBillingAccountId());
+  }
+
+  @Override
+  protected BillableUsageAggregateKey read(DataInput in, int version) throws IOException {
+    return new BillableUsageAggregateKey(
+        readString(in),
+        readString(in),
+        readString(in),
+        readString(in),
+        readString(in),
+        readString(in),
+        readString(in));
+  }
+}
@@ -32,8 +32,9 @@ public class BillableUsageAggregationStreamProperties {
   @ConfigProperty(name = "KSTREAM_BILLABLE_USAGE_STORE")
   String billableUsageStoreName;
 
-  @ConfigProperty(name = "KSTREAM_BILLABLE_USAGE_SUPPRESS_STORE")
-  String billableUsageSuppressStoreName;
+  /** Store holding the aggregates of the windows that are not closed yet. */
+  @ConfigProperty(name = "KSTREAM_BILLABLE_USAGE_PENDING_STORE")
+  String billableUsagePendingStoreName;
 
   @ConfigProperty(name = "BILLABLE_USAGE_TOPIC")
   String billableUsageTopicName;
@@ -46,4 +47,12 @@ public class BillableUsageAggregationStreamProperties {
 
   @ConfigProperty(name = "KSTREAM_BILLABLE_USAGE_AGGREGATION_GRACE_DURATION")
   Duration gradeDuration;
+
+  /**
+   * Format written to the repartition topic and the state stores, both formats are read. Defaults
+   * to JSON so that instances still running the previous deployment can read what is written
+   * during a rollout.
+   */
+  @ConfigProperty(name = "KSTREAM_BILLABLE_USAGE_SERDE_FORMAT")
+  SerdeFormat serdeFormat = SerdeFormat.JSON;
 }
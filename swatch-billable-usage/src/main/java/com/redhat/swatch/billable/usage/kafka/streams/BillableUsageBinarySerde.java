@@ -0,0 +1,91 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka.streams;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+
+/**
+ * Binary serde for the billable usages on the repartition topic. Every property of {@link
+ * BillableUsage} must be written here, new ones appended with a new version.
+ */
+public class BillableUsageBinarySerde extends VersionedBinarySerde<BillableUsage> {
+
+  private static final int VERSION = 1;
+
+  public BillableUsageBinarySerde(ObjectMapper objectMapper, SerdeFormat format) {
+    super(BillableUsage.class, objectMapper, format);
+  }
+
+  @Override
+  protected int version() {
+    return VERSION;
+  }
+
+  @Override
+  protected void write(BillableUsage usage, DataOutput out) throws IOException {
+    writeUuid(out, usage.getUuid());
+    writeString(out, usage.getOrgId());
+    writeUuid(out, usage.getTallyId());
+    writeEnum(out, usage.getBillingProvider());
+    writeString(out, usage.getBillingAccountId());
+    writeOffsetDateTime(out, usage.getSnapshotDate());
+    writeString(out, usage.getProductId());
+    writeEnum(out, usage.getSla());
+    writeEnum(out, usage.getUsage());
+    writeEnum(out, usage.getStatus());
+    writeEnum(out, usage.getErrorCode());
+    writeOffsetDateTime(out, usage.getBilledOn());
+    writeString(out, usage.getMetricId());
+    writeDouble(out, usage.getValue());
+    writeDouble(out, usage.getBillingFactor());
+    writeString(out, usage.getVendorProductCode());
+    writeDouble(out, usage.getCurrentTotal());
+    writeString(out, usage.getLicenseId());
+  }
+
+  @Override
+  protected BillableUsage read(DataInput in, int version) throws IOException {
+    BillableUsage usage = new BillableUsage();
+    usage.setUuid(readUuid(in));
+    usage.setOrgId(readString(in));
+    usage.setTallyId(readUuid(in));
+    usage.setBillingProvider(readEnum(in, BillableUsage.BillingProvider::fromValue));
+    usage.setBillingAccountId(readString(in));
+    usage.setSnapshotDate(readOffsetDateTime(in));
+    usage.setProductId(readString(in));
+    usage.setSla(readEnum(in, BillableUsage.Sla::fromValue));
+    usage.setUsage(readEnum(in, BillableUsage.Usage::fromValue));
+    usage.setStatus(readEnum(in, BillableUsage.Status::fromValue));
+    usage.setErrorCode(readEnum(in, BillableUsage.ErrorCode::fromValue));
+    usage.setBilledOn(readOffsetDateTime(in));
+    usage.setMetricId(readString(in));
+    usage.setValue(readDouble(in));
+    usage.setBillingFactor(readDouble(in));
+    usage.setVendorProductCode(readString(in));
+    usage.setCurrentTotal(readDouble(in));
+    usage.setLicenseId(readString(in));
+    return usage;
+  }
+}
@@ -32,10 +32,9 @@ import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
 /**
- * Kafka Streams suppress functionality uses event timestamps in order to advance the internal
- * clock. If no messages come through for some time then the aggregates will remain suppressed. This
- * service publishes a message to every partition of the topic in order to publish the suppressed
- * aggregates.
+ * {@link WindowCloseProcessor} uses event timestamps in order to advance the internal clock. If no
+ * messages come through for some time then the aggregates will remain pending. This service
+ * publishes a message to every partition of the topic in order to publish the pending aggregates.
  */
 @ApplicationScoped
 public class FlushTopicService {
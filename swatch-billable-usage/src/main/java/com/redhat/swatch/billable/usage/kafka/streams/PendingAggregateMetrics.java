@@ -0,0 +1,126 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka.streams;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.streams.processor.TaskId;
+
+/**
+ * Metrics of the aggregates held by {@link WindowCloseProcessor} until their window closes. Every
+ * stream task owns one {@link TaskBuffer}, and the gauges report the totals over all of them.
+ */
+public class PendingAggregateMetrics {
+
+  public static final String PENDING_AGGREGATES_METRIC = "swatch_billable_usage_pending_aggregates";
+  public static final String PENDING_AGGREGATES_BYTES_METRIC =
+      "swatch_billable_usage_pending_aggregates_bytes";
+  public static final String OLDEST_PENDING_WINDOW_AGE_METRIC =
+      "swatch_billable_usage_oldest_pending_window_age_seconds";
+  public static final String EMITTED_AGGREGATES_METRIC =
+      "swatch_billable_usage_emitted_aggregates_total";
+
+  private final Map<TaskId, TaskBuffer> buffers = new ConcurrentHashMap<>();
+  private final Clock clock;
+  private final Counter emitted;
+
+  public PendingAggregateMetrics(MeterRegistry meterRegistry, Clock clock) {
+    this.clock = clock;
+    Gauge.builder(PENDING_AGGREGATES_METRIC, this, PendingAggregateMetrics::pendingAggregates)
+        .description("Aggregates waiting for their window to close")
+        .register(meterRegistry);
+    Gauge.builder(PENDING_AGGREGATES_BYTES_METRIC, this, PendingAggregateMetrics::pendingBytes)
+        .description("Serialized size of the aggregates waiting for their window to close")
+        .register(meterRegistry);
+    Gauge.builder(
+            OLDEST_PENDING_WINDOW_AGE_METRIC, this, PendingAggregateMetrics::oldestWindowAgeSeconds)
+        .description("Age of the start of the oldest window that was not emitted yet")
+        .register(meterRegistry);
+    this.emitted =
+        Counter.builder(EMITTED_AGGREGATES_METRIC)
+            .description("Aggregates emitted because their window closed")
+            .register(meterRegistry);
+  }
+
+  TaskBuffer register(TaskId taskId) {
+    TaskBuffer buffer = new TaskBuffer();
+    buffers.put(taskId, buffer);
+    return buffer;
+  }
+
+  void unregister(TaskId taskId) {
+    buffers.remove(taskId);
+  }
+
+  double pendingAggregates() {
+    return buffers.values().stream().mapToLong(b -> b.records.get()).sum();
+  }
+
+  double pendingBytes() {
+    return buffers.values().stream().mapToLong(b -> b.bytes.get()).sum();
+  }
+
+  double oldestWindowAgeSeconds() {
+    long oldest =
+        buffers.values().stream()
+            .mapToLong(b -> b.oldestWindowStart.get())
+            .min()
+            .orElse(Long.MAX_VALUE);
+    if (oldest == Long.MAX_VALUE) {
+      return 0;
+    }
+    return Math.max(0, clock.millis() - oldest) / 1000.0;
+  }
+
+  /** Pending aggregates of a single stream task. */
+  class TaskBuffer {
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong oldestWindowStart = new AtomicLong(Long.MAX_VALUE);
+
+    void added(long size) {
+      records.incrementAndGet();
+      bytes.addAndGet(size);
+    }
+
+    void replaced(long sizeDelta) {
+      bytes.addAndGet(sizeDelta);
+    }
+
+    void emitted(long size) {
+      records.decrementAndGet();
+      bytes.addAndGet(-size);
+      emitted.increment();
+    }
+
+    /**
+     * @param windowStart start of the oldest pending window, or {@link Long#MAX_VALUE} if none
+     */
+    void oldestWindowStart(long windowStart) {
+      oldestWindowStart.set(windowStart);
+    }
+  }
+}
@@ -31,6 +31,7 @@ import io.quarkus.arc.profile.UnlessBuildProfile;
 import io.quarkus.kafka.client.serialization.ObjectMapperSerde;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
+import java.time.Clock;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.common.utils.Bytes;
@@ -39,10 +40,11 @@ import org.apache.kafka.streams.Topology;
 import org.apache.kafka.streams.kstream.Consumed;
 import org.apache.kafka.streams.kstream.Grouped;
 import org.apache.kafka.streams.kstream.Materialized;
-import org.apache.kafka.streams.kstream.Suppressed;
-import org.apache.kafka.streams.kstream.Suppressed.BufferConfig;
+import org.apache.kafka.streams.kstream.Produced;
 import org.apache.kafka.streams.kstream.TimeWindows;
 import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.WindowedSerdes.TimeWindowedSerde;
+import org.apache.kafka.streams.state.Stores;
 import org.apache.kafka.streams.state.WindowStore;
 import org.candlepin.subscriptions.billable.usage.BillableUsage;
 import org.candlepin.subscriptions.billable.usage.BillableUsageAggregate;
@@ -59,6 +61,7 @@ public class StreamTopologyProducer {
   private final BillableUsageAggregationStreamProperties properties;
   private final ObjectMapper objectMapper;
   private final MeterProvider<Counter> usageTotalAggregatedCounter;
+  private final PendingAggregateMetrics pendingAggregateMetrics;
 
   public StreamTopologyProducer(
       BillableUsageAggregationStreamProperties properties,
@@ -68,25 +71,41 @@ public class StreamTopologyProducer {
     this.objectMapper = objectMapper;
     this.usageTotalAggregatedCounter =
         Counter.builder(USAGE_TOTAL_AGGREGATED_METRIC).withRegistry(meterRegistry);
+    this.pendingAggregateMetrics = new PendingAggregateMetrics(meterRegistry, Clock.systemUTC());
   }
 
   @Produces
   public Topology buildTopology() {
     StreamsBuilder builder = new StreamsBuilder();
 
+    // the input and output topics are shared with other services and stay JSON
     ObjectMapperSerde<BillableUsage> billableUsageSerde =
         new ObjectMapperSerde<>(BillableUsage.class, objectMapper);
-    ObjectMapperSerde<BillableUsageAggregateKey> aggregationKeySerde =
+    ObjectMapperSerde<BillableUsageAggregateKey> outputKeySerde =
         new ObjectMapperSerde<>(BillableUsageAggregateKey.class, objectMapper);
-    ObjectMapperSerde<BillableUsageAggregate> aggregationSerde =
+    ObjectMapperSerde<BillableUsageAggregate> outputSerde =
         new ObjectMapperSerde<>(BillableUsageAggregate.class, objectMapper);
 
+    // the repartition topic and the state stores are internal to this topology
+    SerdeFormat format = properties.getSerdeFormat();
+    var repartitionSerde = new BillableUsageBinarySerde(objectMapper, format);
+    var aggregationKeySerde = new BillableUsageAggregateKeyBinarySerde(objectMapper, format);
+    var aggregationSerde = new BillableUsageAggregateBinarySerde(objectMapper, format);
+
+    // holds the latest aggregate of every open window on disk, restored from its changelog
+    String pendingStoreName = properties.getBillableUsagePendingStoreName();
+    builder.addStateStore(
+        Stores.keyValueStoreBuilder(
+            Stores.persistentKeyValueStore(pendingStoreName), Serdes.Bytes(), Serdes.ByteArray()));
+    long windowSizeMs = properties.getWindowDuration().toMillis();
+    long graceMs = properties.getGradeDuration().toMillis();
+
     builder.stream(
             properties.getBillableUsageTopicName(),
             Consumed.with(Serdes.String(), billableUsageSerde))
         .groupBy(
             (k, v) -> new BillableUsageAggregateKey(v),
-            Grouped.with(aggregationKeySerde, billableUsageSerde))
+            Grouped.with(aggregationKeySerde, repartitionSerde))
         .windowedBy(
             TimeWindows.ofSizeAndGrace(
                 properties.getWindowDuration(), properties.getGradeDuration()))
@@ -99,15 +118,23 @@ public class StreamTopologyProducer {
                 .withKeySerde(aggregationKeySerde)
                 .withValueSerde(aggregationSerde)
                 // we don't need a changelog topic for this since they will be stored in the
-                // suppress state store
+                // pending state store
                 .withLoggingDisabled())
-        // Need some analysis on BufferConfig size
-        .suppress(
-            Suppressed.untilWindowCloses(BufferConfig.unbounded())
-                .withName(properties.getBillableUsageSuppressStoreName()))
         .toStream()
+        .process(
+            () ->
+                new WindowCloseProcessor(
+                    pendingStoreName,
+                    windowSizeMs,
+                    graceMs,
+                    aggregationKeySerde,
+                    aggregationSerde,
+                    pendingAggregateMetrics),
+            pendingStoreName)
         .peek(this::traceAggregate)
-        .to(properties.getBillableUsageHourlyAggregateTopicName());
+        .to(
+            properties.getBillableUsageHourlyAggregateTopicName(),
+            Produced.with(new TimeWindowedSerde<>(outputKeySerde, windowSizeMs), outputSerde));
 
     return builder.build();
   }
@@ -0,0 +1,214 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka.streams;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.function.Function;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Base class for the compact binary serdes used by the billable usage aggregation topology.
+ *
+ * <p>A binary record starts with {@link #MAGIC} followed by the version of the layout that wrote
+ * it. New fields are only ever appended to the layout, with a version bump, so a reader skips the
+ * trailing fields of a newer version and leaves the fields missing from an older version unset.
+ *
+ * <p>Records that do not start with {@link #MAGIC} are read as JSON, which is how the topology
+ * serialized its repartition topic, window store and suppress buffer before. This lets the topology
+ * drain the records written by a previous deployment. When {@link SerdeFormat#JSON} is configured,
+ * the serde keeps writing JSON while still reading both formats.
+ *
+ * @param <T> the type of the serialized records
+ */
+public abstract class VersionedBinarySerde<T> implements Serde<T> {
+
+  /** JSON documents never start with this byte. */
+  static final byte MAGIC = 0x00;
+
+  private final Class<T> type;
+  private final ObjectMapper objectMapper;
+  private final SerdeFormat format;
+
+  protected VersionedBinarySerde(Class<T> type, ObjectMapper objectMapper, SerdeFormat format) {
+    this.type = type;
+    this.objectMapper = objectMapper;
+    this.format = format;
+  }
+
+  /** Version of the layout written by {@link #write}. */
+  protected abstract int version();
+
+  protected abstract void write(T data, DataOutput out) throws IOException;
+
+  /**
+   * Reads a record.
+   *
+   * @param in the input positioned after the version
+   * @param version the layout version the record was written with
+   * @return the record
+   */
+  protected abstract T read(DataInput in, int version) throws IOException;
+
+  @Override
+  public Serializer<T> serializer() {
+    return (topic, data) -> serialize(data);
+  }
+
+  @Override
+  public Deserializer<T> deserializer() {
+    return (topic, data) -> deserialize(data);
+  }
+
+  byte[] serialize(T data) {
+    if (data == null) {
+      return null;
+    }
+    try {
+      if (format == SerdeFormat.JSON) {
+        return objectMapper.writeValueAsBytes(data);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeByte(MAGIC);
+      out.writeByte(version());
+      write(data, out);
+      out.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new SerializationException("Cannot serialize " + type.getSimpleName(), e);
+    }
+  }
+
+  T deserialize(byte[] data) {
+    if (data == null) {
+      return null;
+    }
+    try {
+      if (data.length > 0 && data[0] == MAGIC) {
+        DataInputStream in =
+            new DataInputStream(new ByteArrayInputStream(data, 1, data.length - 1));
+        return read(in, in.readUnsignedByte());
+      }
+      return objectMapper.readValue(data, type);
+    } catch (IOException e) {
+      throw new SerializationException("Cannot deserialize " + type.getSimpleName(), e);
+    }
+  }
+
+  protected static void writeString(DataOutput out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  protected static String readString(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  /** Enums are written by their JSON value, so that reordering the constants is harmless. */
+  protected static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+    writeString(out, value == null ? null : value.toString());
+  }
+
+  protected static <E> E readEnum(DataInput in, Function<String, E> fromValue) throws IOException {
+    String value = readString(in);
+    return value == null ? null : fromValue.apply(value);
+  }
+
+  protected static void writeUuid(DataOutput out, UUID value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value.getMostSignificantBits());
+      out.writeLong(value.getLeastSignificantBits());
+    }
+  }
+
+  protected static UUID readUuid(DataInput in) throws IOException {
+    return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+  }
+
+  protected static void writeDouble(DataOutput out, Double value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeDouble(value);
+    }
+  }
+
+  protected static Double readDouble(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readDouble() : null;
+  }
+
+  protected static void writeBigDecimal(DataOutput out, BigDecimal value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      byte[] unscaled = value.unscaledValue().toByteArray();
+      out.writeInt(value.scale());
+      out.writeShort(unscaled.length);
+      out.write(unscaled);
+    }
+  }
+
+  protected static BigDecimal readBigDecimal(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    int scale = in.readInt();
+    byte[] unscaled = new byte[in.readUnsignedShort()];
+    in.readFully(unscaled);
+    return new BigDecimal(new BigInteger(unscaled), scale);
+  }
+
+  /** Keeps the offset, so that a read value is equal to the written one. */
+  protected static void writeOffsetDateTime(DataOutput out, OffsetDateTime value)
+      throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeLong(value.toEpochSecond());
+      out.writeInt(value.getNano());
+      out.writeInt(value.getOffset().getTotalSeconds());
+    }
+  }
+
+  protected static OffsetDateTime readOffsetDateTime(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+    return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.readInt()));
+  }
+}
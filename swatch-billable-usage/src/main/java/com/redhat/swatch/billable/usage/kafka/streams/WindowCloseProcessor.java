@@ -0,0 +1,192 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka.streams;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.kstream.WindowedSerdes.TimeWindowedSerde;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregate;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregateKey;
+
+/**
+ * Forwards the final aggregate of every window once the window is closed, like {@code
+ * suppress(untilWindowCloses(...))}, but keeps the pending aggregates in a persistent key value
+ * store instead of an in-memory buffer, so they are held on disk and restored from its changelog.
+ *
+ * <p>The store keys are prefixed with the big-endian window start, so iterating the store visits
+ * the oldest windows first and stops at the first window that is still open. The start of the
+ * oldest pending window is kept in memory, so the store is only read when stream time closes that
+ * window. The iteration then starts at that window, which skips the tombstones left by the windows
+ * already emitted, and the first window still open becomes the new oldest one.
+ */
+public class WindowCloseProcessor
+    implements Processor<
+        Windowed<BillableUsageAggregateKey>,
+        BillableUsageAggregate,
+        Windowed<BillableUsageAggregateKey>,
+        BillableUsageAggregate> {
+
+  private final String storeName;
+  private final long windowSizeMs;
+  private final long graceMs;
+  private final TimeWindowedSerde<BillableUsageAggregateKey> keySerde;
+  private final Serde<BillableUsageAggregate> valueSerde;
+  private final PendingAggregateMetrics metrics;
+
+  private ProcessorContext<Windowed<BillableUsageAggregateKey>, BillableUsageAggregate> context;
+  private KeyValueStore<Bytes, byte[]> store;
+  private PendingAggregateMetrics.TaskBuffer buffer;
+  private long streamTime = -1;
+  private long oldestWindowStart = Long.MAX_VALUE;
+
+  public WindowCloseProcessor(
+      String storeName,
+      long windowSizeMs,
+      long graceMs,
+      Serde<BillableUsageAggregateKey> keySerde,
+      Serde<BillableUsageAggregate> valueSerde,
+      PendingAggregateMetrics metrics) {
+    this.storeName = storeName;
+    this.windowSizeMs = windowSizeMs;
+    this.graceMs = graceMs;
+    this.keySerde = new TimeWindowedSerde<>(keySerde, windowSizeMs);
+    this.valueSerde = valueSerde;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void init(
+      ProcessorContext<Windowed<BillableUsageAggregateKey>, BillableUsageAggregate> context) {
+    this.context = context;
+    this.store = context.getStateStore(storeName);
+    this.buffer = metrics.register(context.taskId());
+    // account for the aggregates restored from the changelog
+    try (KeyValueIterator<Bytes, byte[]> pending = store.all()) {
+      while (pending.hasNext()) {
+        KeyValue<Bytes, byte[]> entry = pending.next();
+        buffer.added(size(entry.key, entry.value));
+      }
+    }
+    try (KeyValueIterator<Bytes, byte[]> pending = store.all()) {
+      if (pending.hasNext()) {
+        oldestWindowStart = windowStart(pending.next().key);
+      }
+    }
+    buffer.oldestWindowStart(oldestWindowStart);
+  }
+
+  @Override
+  public void process(Record<Windowed<BillableUsageAggregateKey>, BillableUsageAggregate> record) {
+    Windowed<BillableUsageAggregateKey> windowedKey = record.key();
+    Bytes key = storeKey(windowedKey);
+    byte[] value = valueSerde.serializer().serialize(storeName, record.value());
+    byte[] previous = store.get(key);
+    store.put(key, value);
+    if (previous == null) {
+      buffer.added(size(key, value));
+    } else {
+      buffer.replaced((long) value.length - previous.length);
+    }
+    long windowStart = windowedKey.window().start();
+    if (windowStart < oldestWindowStart) {
+      oldestWindowStart = windowStart;
+      buffer.oldestWindowStart(oldestWindowStart);
+    }
+    streamTime = Math.max(streamTime, record.timestamp());
+    // a window is closed once stream time reaches its end plus the grace period
+    long lastClosedWindowStart = streamTime - windowSizeMs - graceMs;
+    if (oldestWindowStart <= lastClosedWindowStart) {
+      emitClosedWindows(lastClosedWindowStart);
+    }
+  }
+
+  @Override
+  public void close() {
+    metrics.unregister(context.taskId());
+  }
+
+  private void emitClosedWindows(long lastClosedWindowStart) {
+    List<KeyValue<Bytes, byte[]>> closed = new ArrayList<>();
+    long nextOldestWindowStart = Long.MAX_VALUE;
+    try (KeyValueIterator<Bytes, byte[]> pending =
+        store.range(windowPrefix(oldestWindowStart), null)) {
+      while (pending.hasNext()) {
+        KeyValue<Bytes, byte[]> entry = pending.next();
+        long windowStart = windowStart(entry.key);
+        if (windowStart > lastClosedWindowStart) {
+          nextOldestWindowStart = windowStart;
+          break;
+        }
+        closed.add(entry);
+      }
+    }
+    for (KeyValue<Bytes, byte[]> entry : closed) {
+      context.forward(
+          new Record<>(
+              windowedKey(entry.key),
+              valueSerde.deserializer().deserialize(storeName, entry.value),
+              streamTime));
+      store.delete(entry.key);
+      buffer.emitted(size(entry.key, entry.value));
+    }
+    oldestWindowStart = nextOldestWindowStart;
+    buffer.oldestWindowStart(oldestWindowStart);
+  }
+
+  private static Bytes windowPrefix(long windowStart) {
+    return Bytes.wrap(ByteBuffer.allocate(Long.BYTES).putLong(windowStart).array());
+  }
+
+  private Bytes storeKey(Windowed<BillableUsageAggregateKey> windowedKey) {
+    byte[] key = keySerde.serializer().serialize(storeName, windowedKey);
+    return Bytes.wrap(
+        ByteBuffer.allocate(Long.BYTES + key.length)
+            .putLong(windowedKey.window().start())
+            .put(key)
+            .array());
+  }
+
+  private Windowed<BillableUsageAggregateKey> windowedKey(Bytes storeKey) {
+    byte[] key = storeKey.get();
+    return keySerde
+        .deserializer()
+        .deserialize(storeName, Arrays.copyOfRange(key, Long.BYTES, key.length));
+  }
+
+  private static long windowStart(Bytes storeKey) {
+    return ByteBuffer.wrap(storeKey.get()).getLong();
+  }
+
+  private static long size(Bytes key, byte[] value) {
+    return (long) key.get().length + value.length;
+  }
+}
@@ -23,10 +23,9 @@ package com.redhat.swatch.billable.usage.services;
 import static java.util.Optional.ofNullable;
 
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceEntity;
-import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceFilter;
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceRepository;
+import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceTotalKey;
 import com.redhat.swatch.billable.usage.data.RemittanceStatus;
-import com.redhat.swatch.billable.usage.data.RemittanceSummaryProjection;
 import com.redhat.swatch.billable.usage.exceptions.ContractCoverageException;
 import com.redhat.swatch.billable.usage.exceptions.ContractMissingException;
 import com.redhat.swatch.billable.usage.exceptions.ErrorCode;
@@ -185,11 +184,8 @@ public class BillableUsageService {
   }
 
   protected double getTotalRemitted(BillableUsage billableUsage) {
-    var filter = BillableUsageRemittanceFilter.totalRemittedFilter(billableUsage);
-    return billableUsageRemittanceRepository.getRemittanceSummaries(filter).stream()
-        .map(RemittanceSummaryProjection::getTotalRemittedPendingValue)
-        .reduce(Double::sum)
-        .orElse(0.0);
+    return billableUsageRemittanceRepository.getTotalRemitted(
+        BillableUsageRemittanceTotalKey.from(billableUsage));
   }
 
   /**
@@ -0,0 +1,164 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redhat.swatch.billable.usage.exceptions.ContractMissingException;
+import com.redhat.swatch.billable.usage.exceptions.ExternalServiceException;
+import com.redhat.swatch.clients.contracts.api.model.Contract;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded cache of the valid contracts of a billable usage, used by {@link
+ * ContractCoverageService}.
+ *
+ * <p>Contracts are keyed by the dimensions of the contracts lookup and the usage snapshot date, and
+ * are fresh for {@code CONTRACT_COVERAGE_CACHE_TTL}. Concurrent lookups of the same key share a
+ * single call to swatch-contracts. When swatch-contracts fails, the last contracts fetched for the
+ * key are served for up to {@code CONTRACT_COVERAGE_CACHE_STALE_TTL}. Missing contracts are not
+ * cached.
+ *
+ * <p>swatch-contracts does not publish an event once the contracts of an org are synced, so a
+ * contract change is only seen once the cached contracts expire: the TTL bounds how stale the
+ * contract coverage can be.
+ */
+@Slf4j
+@ApplicationScoped
+public class ContractCoverageCache {
+  protected static final String CACHE_NAME = "contract_coverage";
+  protected static final String STALE_COUNTER = "swatch_contract_coverage_stale_served";
+
+  /** Identifies the contracts of a usage. */
+  public record Key(
+      String orgId,
+      String productId,
+      String vendorProductCode,
+      BillableUsage.BillingProvider billingProvider,
+      String billingAccountId,
+      OffsetDateTime snapshotDate) {
+
+    public static Key from(BillableUsage usage) {
+      return new Key(
+          usage.getOrgId(),
+          usage.getProductId(),
+          usage.getVendorProductCode(),
+          usage.getBillingProvider(),
+          usage.getBillingAccountId(),
+          usage.getSnapshotDate());
+    }
+  }
+
+  /** Fetches the valid contracts from swatch-contracts. */
+  @FunctionalInterface
+  public interface Loader {
+    List<Contract> load() throws ContractMissingException;
+  }
+
+  private final Cache<Key, List<Contract>> contracts;
+  private final Cache<Key, List<Contract>> lastKnownContracts;
+  private final Counter staleCounter;
+
+  public ContractCoverageCache(
+      @ConfigProperty(name = "CONTRACT_COVERAGE_CACHE_TTL") Duration ttl,
+      @ConfigProperty(name = "CONTRACT_COVERAGE_CACHE_STALE_TTL") Duration staleTtl,
+      @ConfigProperty(name = "CONTRACT_COVERAGE_CACHE_MAXIMUM_SIZE") long maximumSize,
+      MeterRegistry meterRegistry) {
+    this.contracts =
+        Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+    this.lastKnownContracts =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(staleTtl.compareTo(ttl) >= 0 ? staleTtl : ttl)
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, contracts, CACHE_NAME);
+    this.staleCounter =
+        Counter.builder(STALE_COUNTER)
+            .description("Stale contracts served because swatch-contracts failed")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Get the valid contracts of a usage, calling swatch-contracts on a cache miss.
+   *
+   * @param usage the usage
+   * @param loader fetches the valid contracts of the usage from swatch-contracts
+   * @return the valid contracts
+   * @throws ContractMissingException if swatch-contracts does not know any contract for the usage
+   * @throws ExternalServiceException if swatch-contracts failed and no stale contracts are
+   *     available
+   */
+  public List<Contract> get(BillableUsage usage, Loader loader) throws ContractMissingException {
+    Key key = Key.from(usage);
+    try {
+      return contracts.get(key, k -> load(k, loader));
+    } catch (LoadFailedException e) {
+      throw e.getCause();
+    } catch (ExternalServiceException e) {
+      List<Contract> stale = lastKnownContracts.getIfPresent(key);
+      if (stale == null) {
+        throw e;
+      }
+      log.warn(
+          "Serving cached contracts for orgId={} after swatch-contracts failure: {}",
+          key.orgId(),
+          e.getMessage());
+      staleCounter.increment();
+      return stale;
+    }
+  }
+
+  public void invalidateAll() {
+    contracts.invalidateAll();
+    lastKnownContracts.invalidateAll();
+  }
+
+  private List<Contract> load(Key key, Loader loader) {
+    try {
+      List<Contract> loaded = List.copyOf(loader.load());
+      lastKnownContracts.put(key, loaded);
+      return loaded;
+    } catch (ContractMissingException e) {
+      throw new LoadFailedException(e);
+    }
+  }
+
+  /** Carries the checked missing contract failure through the cache loader. */
+  private static class LoadFailedException extends RuntimeException {
+    LoadFailedException(ContractMissingException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized ContractMissingException getCause() {
+      return (ContractMissingException) super.getCause();
+    }
+  }
+}
@@ -38,10 +38,15 @@ import org.candlepin.subscriptions.billable.usage.BillableUsage;
 public class ContractCoverageService {
 
   private final ContractsController contractsController;
+  private final ContractCoverageCache contractCoverageCache;
   private final ApplicationClock clock;
 
-  public ContractCoverageService(ContractsController contractsController, ApplicationClock clock) {
+  public ContractCoverageService(
+      ContractsController contractsController,
+      ContractCoverageCache contractCoverageCache,
+      ApplicationClock clock) {
     this.contractsController = contractsController;
+    this.contractCoverageCache = contractCoverageCache;
     this.clock = clock;
   }
 
@@ -52,7 +57,8 @@ public class ContractCoverageService {
     String licenseId = null;
     OffsetDateTime newestStartDate = null;
 
-    List<Contract> contracts = contractsController.getValidContracts(usage);
+    List<Contract> contracts =
+        contractCoverageCache.get(usage, () -> contractsController.getValidContracts(usage));
     for (Contract contract : contracts) {
       total += getValueByContractMetricId(contract, contractMetricId);
       isGratis &= isContractCompatibleWithGratis(contract, usage);
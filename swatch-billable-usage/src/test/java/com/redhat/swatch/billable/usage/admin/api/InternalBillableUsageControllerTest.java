@@ -30,6 +30,7 @@ import com.redhat.swatch.billable.usage.configuration.ApplicationConfiguration;
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceEntity;
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceFilter;
 import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceRepository;
+import com.redhat.swatch.billable.usage.data.BillableUsageRemittanceTotalKey;
 import com.redhat.swatch.billable.usage.data.RemittanceErrorCode;
 import com.redhat.swatch.billable.usage.data.RemittanceStatus;
 import com.redhat.swatch.billable.usage.openapi.model.MonthlyRemittance;
@@ -374,6 +375,52 @@ class InternalBillableUsageControllerTest {
         "Expected no entities to have UNKNOWN status");
   }
 
+  @Transactional
+  @Test
+  void testReconcileRemittanceTotalsCorrectsDrift() {
+    var drifted =
+        totalKey(
+            remittance(
+                "org345",
+                "product2",
+                BillableUsage.BillingProvider.RED_HAT,
+                8.0,
+                clock.startOfCurrentMonth(),
+                RemittanceStatus.PENDING));
+    var orphan =
+        totalKey(
+            remittance(
+                "org999",
+                "product2",
+                BillableUsage.BillingProvider.RED_HAT,
+                8.0,
+                clock.startOfCurrentMonth(),
+                RemittanceStatus.PENDING));
+    remittanceRepo.setTotal(drifted, 20.0);
+    remittanceRepo.setTotal(orphan, 5.0);
+
+    var result = controller.reconcileRemittanceTotals(null);
+
+    // six totals from the setup, the failed remittance does not have any, plus the orphan one
+    assertEquals(7, result.getChecked());
+    assertEquals(2, result.getDrifted());
+    assertEquals(8.0, remittanceRepo.getTotalRemitted(drifted));
+    assertEquals(0.0, remittanceRepo.getTotalRemitted(orphan));
+  }
+
+  @Transactional
+  @Test
+  void testReconcileRemittanceTotalsForOrgWithoutDrift() {
+    var result = controller.reconcileRemittanceTotals("org345");
+
+    assertEquals(1, result.getChecked());
+    assertEquals(0, result.getDrifted());
+  }
+
+  private static BillableUsageRemittanceTotalKey totalKey(BillableUsageRemittanceEntity entity) {
+    return BillableUsageRemittanceTotalKey.from(entity);
+  }
+
   private void setupRemittances(int inProgressCount, String orgIdPrefix, RemittanceStatus status) {
     for (int i = 0; i < inProgressCount; i++) {
       BillableUsageRemittanceEntity entity =
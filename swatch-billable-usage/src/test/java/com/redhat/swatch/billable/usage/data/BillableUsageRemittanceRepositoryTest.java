@@ -37,7 +37,9 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
 import org.candlepin.clock.ApplicationClock;
@@ -686,6 +688,123 @@ class BillableUsageRemittanceRepositoryTest {
     assertFalse(staleInProgressResults.contains(freshInProgressOldRemittanceDate));
   }
 
+  @Test
+  void testTotalRemittedIsKeptOnPersist() {
+    var start = clock.startOfCurrentMonth();
+    var remittance1 = remittance("org123", "product1", BILLING_PROVIDER_AWS, 12.0, start);
+    var remittance2 =
+        remittance("org123", "product1", BILLING_PROVIDER_AWS, 3.0, start.plusDays(2));
+    var failed = remittance("org123", "product1", BILLING_PROVIDER_AWS, 5.0, start.plusDays(3));
+    failed.setStatus(RemittanceStatus.FAILED);
+    var otherProduct = remittance("org123", "product2", BILLING_PROVIDER_AWS, 7.0, start);
+
+    repository.persist(List.of(remittance1, remittance2, failed, otherProduct));
+
+    assertEquals(15.0, totalRemitted(remittance1));
+    assertEquals(7.0, totalRemitted(otherProduct));
+  }
+
+  @Test
+  void testTotalRemittedFollowsStatusChanges() {
+    var start = clock.startOfCurrentMonth();
+    var remittance1 = remittance("org123", "product1", BILLING_PROVIDER_AWS, 10.0, start);
+    var remittance2 =
+        remittance("org123", "product1", BILLING_PROVIDER_AWS, 4.0, start.plusDays(1));
+    repository.persist(List.of(remittance1, remittance2));
+    repository.flush();
+    var uuids = List.of(remittance1.getUuid().toString());
+
+    repository.updateStatusByIdIn(
+        uuids, RemittanceStatus.FAILED, null, RemittanceErrorCode.UNKNOWN, null);
+    assertEquals(4.0, totalRemitted(remittance1));
+
+    // failing an already failed remittance again does not take it out twice
+    repository.updateStatusByIdIn(
+        uuids, RemittanceStatus.FAILED, null, RemittanceErrorCode.UNKNOWN, null);
+    assertEquals(4.0, totalRemitted(remittance1));
+
+    repository.updateStatusByIdIn(uuids, RemittanceStatus.SUCCEEDED, start, null, null);
+    assertEquals(14.0, totalRemitted(remittance1));
+  }
+
+  @Test
+  void testTotalRemittedExcludesStaleRemittancesMovedToFailed() {
+    var now = OffsetDateTime.now(ZoneOffset.UTC);
+    var stale = Mockito.spy(remittance("org1", "product1", BILLING_PROVIDER_AWS, 12.0, now));
+    stale.setStatus(RemittanceStatus.IN_PROGRESS);
+    stale.setUpdatedAt(now.minusDays(10));
+    Mockito.doNothing().when(stale).onCreateOrUpdate();
+    var fresh = remittance("org1", "product1", BILLING_PROVIDER_AWS, 2.0, now);
+    fresh.setStatus(RemittanceStatus.IN_PROGRESS);
+    repository.persist(List.of(stale, fresh));
+    repository.flush();
+
+    repository.updateStatusForStaleRemittances(
+        Duration.ofDays(7),
+        RemittanceStatus.IN_PROGRESS,
+        RemittanceStatus.FAILED,
+        RemittanceErrorCode.SENDING_TO_AGGREGATE_TOPIC);
+
+    assertEquals(2.0, totalRemitted(fresh));
+  }
+
+  @Test
+  void testTotalRemittedIsClearedOnReset() {
+    var start = clock.startOfCurrentMonth();
+    var remittance = remittance("org123", "product1", BILLING_PROVIDER_AWS, 12.0, start);
+    repository.persist(remittance);
+    repository.flush();
+
+    repository.resetBillableUsageRemittance(
+        "product1", start, start.plusDays(1), Set.of("org123"), null);
+
+    assertEquals(0.0, totalRemitted(remittance));
+  }
+
+  @Test
+  void testPurgeDropsTheTotalsOfPurgedRemittances() {
+    var start = clock.startOfCurrentMonth();
+    var old = remittance("org123", "product1", BILLING_PROVIDER_AWS, 12.0, start.minusMonths(2));
+    var recent = remittance("org123", "product1", BILLING_PROVIDER_AWS, 4.0, start);
+    repository.persist(List.of(old, recent));
+    repository.flush();
+
+    repository.deleteAllByOrgIdAndRemittancePendingDateBefore("org123", start.minusMonths(1));
+
+    assertEquals(0.0, totalRemitted(old));
+    assertEquals(4.0, totalRemitted(recent));
+    assertEquals(1, repository.findTotals("org123").size());
+  }
+
+  @Test
+  void testDeleteByOrgIdDeletesTheTotals() {
+    var remittance =
+        remittance("org123", "product1", BILLING_PROVIDER_AWS, 12.0, clock.startOfCurrentMonth());
+    repository.persist(remittance);
+
+    repository.deleteByOrgId("org123");
+
+    assertTrue(repository.findTotals("org123").isEmpty());
+  }
+
+  @Test
+  void testSumTotalsMatchesTheRunningTotals() {
+    var start = clock.startOfCurrentMonth();
+    var remittance1 = remittance("org123", "product1", BILLING_PROVIDER_AWS, 12.0, start);
+    var remittance2 = remittance("org123", "product1", BILLING_PROVIDER_AWS, 3.0, start);
+    var otherOrg = remittance("org555", "product1", BILLING_PROVIDER_AWS, 6.0, start);
+    repository.persist(List.of(remittance1, remittance2, otherOrg));
+
+    var sums = repository.sumTotals("org123");
+
+    assertEquals(Map.of(BillableUsageRemittanceTotalKey.from(remittance1), 15.0), sums);
+    assertEquals(2, repository.sumTotals(null).size());
+  }
+
+  private double totalRemitted(BillableUsageRemittanceEntity remittance) {
+    return repository.getTotalRemitted(BillableUsageRemittanceTotalKey.from(remittance));
+  }
+
   // In memory DB does not save same length of decimals so truncate to make sure they equal
   OffsetDateTime truncateDate(OffsetDateTime date) {
     return date.truncatedTo(ChronoUnit.MILLIS);
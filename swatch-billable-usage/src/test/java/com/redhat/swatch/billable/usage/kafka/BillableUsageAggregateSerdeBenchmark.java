@@ -0,0 +1,157 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redhat.swatch.billable.usage.kafka.streams.BillableUsageAggregationStreamProperties;
+import com.redhat.swatch.billable.usage.kafka.streams.SerdeFormat;
+import com.redhat.swatch.billable.usage.kafka.streams.StreamTopologyProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.kafka.client.serialization.ObjectMapperSerde;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Properties;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregate;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Compares the throughput and the bytes written to the repartition topic and the pending aggregates
+ * changelog of the aggregation topology for each {@link SerdeFormat}.
+ *
+ * <p>Not executed as part of the unit tests. Run it with:
+ *
+ * <pre>
+ * ./mvnw -pl swatch-billable-usage test -Dtest=BillableUsageAggregateSerdeBenchmark
+ * </pre>
+ */
+@Slf4j
+class BillableUsageAggregateSerdeBenchmark {
+
+  private static final String APPLICATION_ID = "benchmark";
+  private static final String INPUT_TOPIC = "billable-usage";
+  private static final String OUTPUT_TOPIC = "billable-usage-hourly-aggregate";
+  private static final String STORE = "billable-usage-store";
+  private static final String PENDING_STORE = "billable-usage-pending";
+  private static final Duration WINDOW_DURATION = Duration.ofHours(1);
+  private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+  private static final int WARMUP_RECORDS = 20_000;
+  private static final int RECORDS = 100_000;
+  private static final int AGGREGATE_KEYS = 500;
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  @ParameterizedTest
+  @EnumSource(SerdeFormat.class)
+  void compareSerdeFormats(SerdeFormat format) {
+    run(format, WARMUP_RECORDS);
+    Result result = run(format, RECORDS);
+    log.info(
+        "format={} records/s={} repartition bytes/record={} pending changelog bytes={}",
+        format,
+        Math.round(RECORDS / (result.nanos() / 1_000_000_000.0)),
+        result.repartitionBytes() / RECORDS,
+        result.changelogBytes());
+  }
+
+  private Result run(SerdeFormat format, int records) {
+    Properties config = new Properties();
+    config.put(StreamsConfig.APPLICATION_ID_CONFIG, APPLICATION_ID);
+    config.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:1234");
+    try (TopologyTestDriver driver = new TopologyTestDriver(topology(format), config, START)) {
+      TestInputTopic<String, BillableUsage> input =
+          driver.createInputTopic(
+              INPUT_TOPIC,
+              new StringSerializer(),
+              new ObjectMapperSerde<>(BillableUsage.class, objectMapper).serializer());
+
+      long start = System.nanoTime();
+      for (int i = 0; i < records; i++) {
+        input.pipeInput("org" + i % AGGREGATE_KEYS, usage(i), START);
+      }
+      var flush = new BillableUsage();
+      flush.setOrgId(BillableUsageAggregate.FLUSH_ORG);
+      input.pipeInput(
+          BillableUsageAggregate.FLUSH_ORG, flush, START.plus(WINDOW_DURATION.multipliedBy(2)));
+      long nanos = System.nanoTime() - start;
+
+      return new Result(
+          nanos,
+          bytesWrittenTo(driver, APPLICATION_ID + "-" + STORE + "-repartition"),
+          bytesWrittenTo(driver, APPLICATION_ID + "-" + PENDING_STORE + "-changelog"));
+    }
+  }
+
+  private Topology topology(SerdeFormat format) {
+    var properties = new BillableUsageAggregationStreamProperties();
+    properties.setBillableUsageTopicName(INPUT_TOPIC);
+    properties.setBillableUsageHourlyAggregateTopicName(OUTPUT_TOPIC);
+    properties.setBillableUsageStoreName(STORE);
+    properties.setBillableUsagePendingStoreName(PENDING_STORE);
+    properties.setWindowDuration(WINDOW_DURATION);
+    properties.setGradeDuration(Duration.ZERO);
+    properties.setSerdeFormat(format);
+    return new StreamTopologyProducer(properties, objectMapper, new SimpleMeterRegistry())
+        .buildTopology();
+  }
+
+  private static long bytesWrittenTo(TopologyTestDriver driver, String topic) {
+    return driver
+        .createOutputTopic(topic, new ByteArrayDeserializer(), new ByteArrayDeserializer())
+        .readRecordsToList()
+        .stream()
+        .mapToLong(
+            r ->
+                (r.key() == null ? 0 : r.key().length) + (r.value() == null ? 0 : r.value().length))
+        .sum();
+  }
+
+  private static BillableUsage usage(int i) {
+    var usage = new BillableUsage();
+    usage.setUuid(UUID.randomUUID());
+    usage.setTallyId(UUID.randomUUID());
+    usage.setOrgId("org" + i % AGGREGATE_KEYS);
+    usage.setProductId("rosa");
+    usage.setMetricId("Cores");
+    usage.setSla(BillableUsage.Sla.PREMIUM);
+    usage.setUsage(BillableUsage.Usage.PRODUCTION);
+    usage.setBillingProvider(BillableUsage.BillingProvider.AWS);
+    usage.setBillingAccountId("account" + i % AGGREGATE_KEYS);
+    usage.setSnapshotDate(START.atOffset(ZoneOffset.UTC).plusMinutes(i % 60));
+    usage.setStatus(BillableUsage.Status.PENDING);
+    usage.setValue(1.5);
+    usage.setCurrentTotal(10.0 + i);
+    return usage;
+  }
+
+  private record Result(long nanos, long repartitionBytes, long changelogBytes) {}
+}
@@ -20,6 +20,10 @@
  */
 package com.redhat.swatch.billable.usage.kafka;
 
+import static com.redhat.swatch.billable.usage.kafka.streams.PendingAggregateMetrics.EMITTED_AGGREGATES_METRIC;
+import static com.redhat.swatch.billable.usage.kafka.streams.PendingAggregateMetrics.OLDEST_PENDING_WINDOW_AGE_METRIC;
+import static com.redhat.swatch.billable.usage.kafka.streams.PendingAggregateMetrics.PENDING_AGGREGATES_BYTES_METRIC;
+import static com.redhat.swatch.billable.usage.kafka.streams.PendingAggregateMetrics.PENDING_AGGREGATES_METRIC;
 import static com.redhat.swatch.billable.usage.kafka.streams.StreamTopologyProducer.USAGE_TOTAL_AGGREGATED_METRIC;
 import static org.candlepin.subscriptions.billable.usage.BillableUsageAggregate.FLUSH_ORG;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -31,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.redhat.swatch.billable.usage.kafka.streams.BillableUsageAggregationStreamProperties;
+import com.redhat.swatch.billable.usage.kafka.streams.SerdeFormat;
 import com.redhat.swatch.billable.usage.kafka.streams.StreamTopologyProducer;
 import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.util.MetricIdUtils;
@@ -55,6 +60,7 @@ import org.apache.kafka.streams.TopologyTestDriver;
 import org.candlepin.subscriptions.billable.usage.BillableUsage;
 import org.candlepin.subscriptions.billable.usage.BillableUsageAggregate;
 import org.candlepin.subscriptions.billable.usage.BillableUsageAggregateKey;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -63,7 +69,7 @@ class BillableUsageAggregateStreamTopologyTest {
   private static final String BILLABLE_USAGE_TOPIC = "billable-usage-topic";
   private static final String BILLABLE_USAGE_AGGREGATE_TOPIC = "billable-usage-aggregate-topic";
   private static final String BILLABLE_USAGE_STORE = "billable-usage-store";
-  private static final String BILLABLE_USAGE_SUPPRESS_STORE = "billable-usage-suppress-store";
+  private static final String BILLABLE_USAGE_PENDING_STORE = "billable-usage-pending";
   private static final Duration WINDOW_DURATION = Duration.ofSeconds(1);
   private static final Duration GRACE_DURATION = Duration.ofSeconds(0);
   private static final String PRODUCT = "OpenShift-metrics";
@@ -79,15 +85,25 @@ class BillableUsageAggregateStreamTopologyTest {
 
   @BeforeEach
   void initializeTopology() {
+    initializeTopology(SerdeFormat.BINARY);
+  }
+
+  @AfterEach
+  void closeTopology() {
+    testDriver.close();
+  }
+
+  private void initializeTopology(SerdeFormat serdeFormat) {
     meterRegistry.clear();
     BillableUsageAggregationStreamProperties properties =
         new BillableUsageAggregationStreamProperties();
-    properties.setBillableUsageSuppressStoreName(BILLABLE_USAGE_SUPPRESS_STORE);
+    properties.setBillableUsagePendingStoreName(BILLABLE_USAGE_PENDING_STORE);
     properties.setBillableUsageTopicName(BILLABLE_USAGE_TOPIC);
     properties.setBillableUsageHourlyAggregateTopicName(BILLABLE_USAGE_AGGREGATE_TOPIC);
     properties.setBillableUsageStoreName(BILLABLE_USAGE_STORE);
     properties.setWindowDuration(WINDOW_DURATION);
     properties.setGradeDuration(GRACE_DURATION);
+    properties.setSerdeFormat(serdeFormat);
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.registerModule(new JavaTimeModule());
     StreamTopologyProducer topologyProducer =
@@ -203,11 +219,51 @@ class BillableUsageAggregateStreamTopologyTest {
     assertUsageTotalAggregatedMetricIs(11.0);
   }
 
+  @Test
+  void testAggregateWithJsonSerdeFormat() {
+    testDriver.close();
+    initializeTopology(SerdeFormat.JSON);
+    var usage1 = createBillableUsage(ACCOUNT_ID, 1, snapshotAtHour(1));
+    var usage2 = createBillableUsage(ACCOUNT_ID, 3, snapshotAtHour(2));
+
+    whenUsagesAreAggregated(usage1, usage2);
+
+    var aggregate = thenAggregateIsEmittedFor(usage1);
+    assertEquals(4.0, aggregate.getTotalValue().doubleValue());
+    assertIterableEquals(remittanceUuidsOf(usage1, usage2), aggregate.getRemittanceUuids());
+  }
+
+  @Test
+  void testAggregateIsNotEmittedBeforeWindowCloses() {
+    var usage = createBillableUsage(ACCOUNT_ID, 36, snapshotAtHour(1));
+
+    inputTopic.pipeInput(ORG_ID, usage);
+
+    assertTrue(outputTopic.isEmpty());
+    assertEquals(1.0, meterRegistry.get(PENDING_AGGREGATES_METRIC).gauge().value());
+    assertTrue(meterRegistry.get(PENDING_AGGREGATES_BYTES_METRIC).gauge().value() > 0);
+    assertTrue(meterRegistry.get(OLDEST_PENDING_WINDOW_AGE_METRIC).gauge().value() >= 0);
+    assertEquals(0.0, meterRegistry.get(EMITTED_AGGREGATES_METRIC).counter().count());
+  }
+
+  @Test
+  void testPendingAggregateMetricsAfterWindowCloses() {
+    var usage1 = createBillableUsage("testAccountId1", 1, snapshotAtHour(1));
+    var usage2 = createBillableUsage("testAccountId2", 3, snapshotAtHour(1));
+
+    whenUsagesAreAggregated(usage1, usage2);
+
+    assertEquals(2, outputTopic.readKeyValuesToList().size());
+    assertEquals(2.0, meterRegistry.get(EMITTED_AGGREGATES_METRIC).counter().count());
+    // only the aggregate of the flush record is still pending
+    assertEquals(1.0, meterRegistry.get(PENDING_AGGREGATES_METRIC).gauge().value());
+  }
+
   private void whenUsagesAreAggregated(BillableUsage... usages) {
     for (BillableUsage usage : usages) {
       inputTopic.pipeInput(ORG_ID, usage);
     }
-    // Advance past the window, then publish the flush org to emit suppressed aggregates.
+    // Advance past the window, then publish the flush org to emit pending aggregates.
     inputTopic.advanceTime(WINDOW_DURATION.plusSeconds(5));
     var flushUsage = new BillableUsage();
     flushUsage.setOrgId(FLUSH_ORG);
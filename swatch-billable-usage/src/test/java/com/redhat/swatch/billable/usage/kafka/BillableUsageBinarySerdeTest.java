@@ -0,0 +1,221 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.redhat.swatch.billable.usage.kafka.streams.BillableUsageAggregateBinarySerde;
+import com.redhat.swatch.billable.usage.kafka.streams.BillableUsageAggregateKeyBinarySerde;
+import com.redhat.swatch.billable.usage.kafka.streams.BillableUsageBinarySerde;
+import com.redhat.swatch.billable.usage.kafka.streams.SerdeFormat;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.apache.kafka.common.serialization.Serde;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregate;
+import org.candlepin.subscriptions.billable.usage.BillableUsageAggregateKey;
+import org.junit.jupiter.api.Test;
+
+class BillableUsageBinarySerdeTest {
+
+  private static final String TOPIC = "topic";
+  private static final OffsetDateTime SNAPSHOT_DATE =
+      OffsetDateTime.of(2024, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+  @Test
+  void testBillableUsageRoundTrip() {
+    var usage = billableUsage();
+
+    assertEquals(
+        usage, roundTrip(new BillableUsageBinarySerde(objectMapper, SerdeFormat.BINARY), usage));
+  }
+
+  @Test
+  void testBillableUsageWithoutValuesRoundTrip() {
+    var usage = new BillableUsage();
+
+    assertEquals(
+        usage, roundTrip(new BillableUsageBinarySerde(objectMapper, SerdeFormat.BINARY), usage));
+  }
+
+  @Test
+  void testAggregateRoundTrip() {
+    var aggregate = aggregate();
+
+    assertEquals(
+        aggregate,
+        roundTrip(
+            new BillableUsageAggregateBinarySerde(objectMapper, SerdeFormat.BINARY), aggregate));
+  }
+
+  @Test
+  void testAggregateKeyRoundTrip() {
+    var key = new BillableUsageAggregateKey(billableUsage());
+
+    assertEquals(
+        key,
+        roundTrip(new BillableUsageAggregateKeyBinarySerde(objectMapper, SerdeFormat.BINARY), key));
+  }
+
+  @Test
+  void testLegacyJsonIsRead() throws Exception {
+    var usage = billableUsage();
+    var aggregate = aggregate();
+    var key = aggregate.getAggregateKey();
+
+    assertEquals(
+        usage,
+        new BillableUsageBinarySerde(objectMapper, SerdeFormat.BINARY)
+            .deserializer()
+            .deserialize(TOPIC, objectMapper.writeValueAsBytes(usage)));
+    assertEquals(
+        aggregate,
+        new BillableUsageAggregateBinarySerde(objectMapper, SerdeFormat.BINARY)
+            .deserializer()
+            .deserialize(TOPIC, objectMapper.writeValueAsBytes(aggregate)));
+    assertEquals(
+        key,
+        new BillableUsageAggregateKeyBinarySerde(objectMapper, SerdeFormat.BINARY)
+            .deserializer()
+            .deserialize(TOPIC, objectMapper.writeValueAsBytes(key)));
+  }
+
+  @Test
+  void testJsonFormatWritesJson() throws Exception {
+    var aggregate = aggregate();
+
+    byte[] data =
+        new BillableUsageAggregateBinarySerde(objectMapper, SerdeFormat.JSON)
+            .serializer()
+            .serialize(TOPIC, aggregate);
+
+    assertEquals(aggregate, objectMapper.readValue(data, BillableUsageAggregate.class));
+  }
+
+  @Test
+  void testBinaryIsSmallerThanJson() throws Exception {
+    var aggregate = aggregate();
+
+    byte[] binary =
+        new BillableUsageAggregateBinarySerde(objectMapper, SerdeFormat.BINARY)
+            .serializer()
+            .serialize(TOPIC, aggregate);
+
+    assertTrue(binary.length < objectMapper.writeValueAsBytes(aggregate).length);
+  }
+
+  @Test
+  void testTrailingFieldsOfNewerVersionAreSkipped() {
+    var serde = new BillableUsageAggregateKeyBinarySerde(objectMapper, SerdeFormat.BINARY);
+    var key = new BillableUsageAggregateKey(billableUsage());
+    byte[] current = serde.serializer().serialize(TOPIC, key);
+    byte[] newer = Arrays.copyOf(current, current.length + 3);
+    newer[1] = (byte) (current[1] + 1);
+
+    assertEquals(key, serde.deserializer().deserialize(TOPIC, newer));
+  }
+
+  /** Fails when a property is added to the schema without being added to the binary layout. */
+  @Test
+  void testEveryBillableUsagePropertyIsWritten() {
+    Set<String> properties =
+        Arrays.stream(BillableUsage.class.getDeclaredFields())
+            .filter(f -> !Modifier.isStatic(f.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toSet());
+
+    assertEquals(
+        Set.of(
+            "uuid",
+            "orgId",
+            "tallyId",
+            "billingProvider",
+            "billingAccountId",
+            "snapshotDate",
+            "productId",
+            "sla",
+            "usage",
+            "status",
+            "errorCode",
+            "billedOn",
+            "metricId",
+            "value",
+            "billingFactor",
+            "vendorProductCode",
+            "currentTotal",
+            "licenseId"),
+        properties);
+  }
+
+  private static <T> T roundTrip(Serde<T> serde, T value) {
+    return serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, value));
+  }
+
+  private static BillableUsage billableUsage() {
+    var usage = new BillableUsage();
+    usage.setUuid(UUID.randomUUID());
+    usage.setOrgId("org123");
+    usage.setTallyId(UUID.randomUUID());
+    usage.setBillingProvider(BillableUsage.BillingProvider.AWS);
+    usage.setBillingAccountId("account123");
+    usage.setSnapshotDate(SNAPSHOT_DATE);
+    usage.setProductId("rosa");
+    usage.setSla(BillableUsage.Sla.PREMIUM);
+    usage.setUsage(BillableUsage.Usage.__EMPTY__);
+    usage.setStatus(BillableUsage.Status.PENDING);
+    usage.setErrorCode(BillableUsage.ErrorCode.UNKNOWN);
+    usage.setBilledOn(SNAPSHOT_DATE.plusHours(1));
+    usage.setMetricId("Cores");
+    usage.setValue(4.5);
+    usage.setBillingFactor(0.25);
+    usage.setVendorProductCode("code");
+    usage.setCurrentTotal(10.0);
+    usage.setLicenseId("arn:aws:license-manager:us-east-1:1:license:a");
+    return usage;
+  }
+
+  private static BillableUsageAggregate aggregate() {
+    var aggregate = new BillableUsageAggregate();
+    aggregate.updateFrom(billableUsage());
+    var usage = billableUsage();
+    usage.setSnapshotDate(SNAPSHOT_DATE.plusHours(2));
+    aggregate.updateFrom(usage);
+    aggregate.setStatus(BillableUsage.Status.FAILED);
+    aggregate.setErrorCode(BillableUsage.ErrorCode.MARKETPLACE_RATE_LIMIT);
+    aggregate.setBilledOn(SNAPSHOT_DATE.plusHours(3));
+    aggregate.setTotalValue(new BigDecimal("9.000"));
+    // JSON dates are read back in UTC
+    aggregate.setWindowTimestamp(SNAPSHOT_DATE);
+    return aggregate;
+  }
+}
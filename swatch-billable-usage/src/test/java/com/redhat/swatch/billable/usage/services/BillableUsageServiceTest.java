@@ -98,11 +98,9 @@ class BillableUsageServiceTest {
 
   @Inject ApplicationClock clock;
   @Inject BillableUsageService service;
+  @Inject ContractCoverageCache contractCoverageCache;
   @Inject MeterRegistry meterRegistry;
 
-  private final SubscriptionDefinitionRegistry mockSubscriptionDefinitionRegistry =
-      mock(SubscriptionDefinitionRegistry.class);
-
   @BeforeAll
   static void setupClass() {
     originalReference = SubscriptionDefinitionRegistry.getInstance();
@@ -112,6 +110,7 @@ class BillableUsageServiceTest {
   @BeforeEach
   void setup() {
     remittanceRepo.deleteAll();
+    contractCoverageCache.invalidateAll();
     // reset original subscription definition registry
     setSubscriptionDefinitionRegistry(originalReference);
     meterRegistry.clear();
@@ -794,8 +793,7 @@ class BillableUsageServiceTest {
 
     metric.setEnableGratisUsage(true);
 
-    setSubscriptionDefinitionRegistry(mockSubscriptionDefinitionRegistry);
-    when(mockSubscriptionDefinitionRegistry.getSubscriptions()).thenReturn(List.of(definition));
+    givenSubscriptionDefinitions(List.of(definition));
   }
 
   private void performRemittanceTesting(
@@ -813,7 +811,6 @@ class BillableUsageServiceTest {
     // Enable contracts for the current product.
     givenExistingRemittanceForUsage(usage, CLOCK.now().minusHours(1), currentRemittance);
 
-    setSubscriptionDefinitionRegistry(mockSubscriptionDefinitionRegistry);
     stubSubscriptionDefinition(
         usage.getProductId(), usage.getMetricId(), billingFactor, isContractEnabledTest);
 
@@ -970,8 +967,14 @@ class BillableUsageServiceTest {
             .metrics(Set.of(awsMetric))
             .build();
     variant.setSubscription(subscriptionDefinition);
-    when(mockSubscriptionDefinitionRegistry.getSubscriptions())
-        .thenReturn(List.of(subscriptionDefinition));
+    givenSubscriptionDefinitions(List.of(subscriptionDefinition));
+  }
+
+  /** Uses a new registry for every stub, because a registry indexes its definitions once. */
+  private static void givenSubscriptionDefinitions(List<SubscriptionDefinition> definitions) {
+    var registry = mock(SubscriptionDefinitionRegistry.class);
+    when(registry.getSubscriptions()).thenReturn(definitions);
+    setSubscriptionDefinitionRegistry(registry);
   }
 
   private static void setSubscriptionDefinitionRegistry(SubscriptionDefinitionRegistry instance) {
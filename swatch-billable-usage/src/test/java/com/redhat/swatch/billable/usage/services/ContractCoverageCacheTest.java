@@ -0,0 +1,183 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.billable.usage.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.redhat.swatch.billable.usage.exceptions.ContractMissingException;
+import com.redhat.swatch.billable.usage.exceptions.ErrorCode;
+import com.redhat.swatch.billable.usage.exceptions.ExternalServiceException;
+import com.redhat.swatch.clients.contracts.api.model.Contract;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.candlepin.subscriptions.billable.usage.BillableUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ContractCoverageCacheTest {
+
+  private static final OffsetDateTime SNAPSHOT_DATE = OffsetDateTime.parse("2024-01-01T10:00Z");
+
+  private SimpleMeterRegistry meterRegistry;
+  private ContractCoverageCache cache;
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cache =
+        new ContractCoverageCache(Duration.ofMinutes(15), Duration.ofHours(6), 100, meterRegistry);
+  }
+
+  @Test
+  void testContractsAreLoadedOncePerKey() throws Exception {
+    List<Contract> contracts = List.of(new Contract().orgId("org1"));
+
+    cache.get(usage("org1", SNAPSHOT_DATE), () -> load(contracts));
+    var cached = cache.get(usage("org1", SNAPSHOT_DATE), () -> load(List.of()));
+
+    assertEquals(contracts, cached);
+    assertEquals(1, calls.get());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", ContractCoverageCache.CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void testOtherSnapshotDateIsLoadedAgain() throws Exception {
+    cache.get(usage("org1", SNAPSHOT_DATE), () -> load(List.of(new Contract())));
+    cache.get(usage("org1", SNAPSHOT_DATE.plusHours(1)), () -> load(List.of(new Contract())));
+
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testConcurrentGetsOfSameKeyShareOneLoad() throws Exception {
+    List<Contract> contracts = List.of(new Contract().orgId("org1"));
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<Contract>> first =
+          executor.submit(
+              () ->
+                  cache.get(
+                      usage("org1", SNAPSHOT_DATE),
+                      () -> {
+                        loading.countDown();
+                        awaitQuietly(release);
+                        return load(contracts);
+                      }));
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      Future<List<Contract>> second =
+          executor.submit(() -> cache.get(usage("org1", SNAPSHOT_DATE), () -> load(List.of())));
+
+      // the second get waits for the load in flight instead of loading the contracts again
+      assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS));
+      release.countDown();
+
+      assertEquals(contracts, first.get(5, TimeUnit.SECONDS));
+      assertEquals(contracts, second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, calls.get());
+    } finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void testMissingContractsAreNotCached() {
+    BillableUsage usage = usage("org1", SNAPSHOT_DATE);
+    ContractCoverageCache.Loader missing =
+        () -> {
+          calls.incrementAndGet();
+          throw new ContractMissingException("missing");
+        };
+
+    assertThrows(ContractMissingException.class, () -> cache.get(usage, missing));
+    assertThrows(ContractMissingException.class, () -> cache.get(usage, missing));
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testStaleContractsAreServedWhenContractsServiceFails() throws Exception {
+    // contracts are never fresh, but stay available when the contracts service fails
+    cache = new ContractCoverageCache(Duration.ofNanos(1), Duration.ofHours(6), 100, meterRegistry);
+    List<Contract> contracts = List.of(new Contract().orgId("org1"));
+    cache.get(usage("org1", SNAPSHOT_DATE), () -> load(contracts));
+
+    var served = cache.get(usage("org1", SNAPSHOT_DATE), this::fail);
+
+    assertSame(contracts.get(0), served.get(0));
+    assertEquals(1.0, meterRegistry.get(ContractCoverageCache.STALE_COUNTER).counter().count());
+  }
+
+  @Test
+  void testFailureIsThrownWithoutStaleContracts() {
+    assertThrows(
+        ExternalServiceException.class, () -> cache.get(usage("org1", SNAPSHOT_DATE), this::fail));
+  }
+
+  private List<Contract> load(List<Contract> contracts) {
+    calls.incrementAndGet();
+    return contracts;
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<Contract> fail() {
+    throw new ExternalServiceException(ErrorCode.CONTRACTS_SERVICE_ERROR, "down", null);
+  }
+
+  private static BillableUsage usage(String orgId, OffsetDateTime snapshotDate) {
+    return new BillableUsage()
+        .withOrgId(orgId)
+        .withProductId("rosa")
+        .withVendorProductCode("code")
+        .withBillingProvider(BillableUsage.BillingProvider.AWS)
+        .withBillingAccountId("account")
+        .withSnapshotDate(snapshotDate);
+  }
+}
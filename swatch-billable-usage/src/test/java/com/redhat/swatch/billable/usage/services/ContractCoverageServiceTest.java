@@ -25,7 +25,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.redhat.swatch.billable.usage.services.model.ContractCoverage;
@@ -62,6 +65,7 @@ class ContractCoverageServiceTest {
   @InjectMock @RestClient DefaultApi contractsApi;
   @Inject ApplicationClock clock;
   @Inject ContractCoverageService contractCoverageService;
+  @Inject ContractCoverageCache contractCoverageCache;
   private SubscriptionDefinitionRegistry subscriptionDefinitionRegistry;
 
   @BeforeAll
@@ -80,6 +84,7 @@ class ContractCoverageServiceTest {
   void setupTest() {
     subscriptionDefinitionRegistry = mock(SubscriptionDefinitionRegistry.class);
     setMock(subscriptionDefinitionRegistry);
+    contractCoverageCache.invalidateAll();
   }
 
   @AfterEach
@@ -376,6 +381,25 @@ class ContractCoverageServiceTest {
     assertEquals(125, contractCoverage.getTotal());
   }
 
+  @Test
+  void testContractsAreLookedUpOnceUntilTheCachedContractsAreGone() throws Exception {
+    BillableUsage usage = defaultUsage();
+    Contract contract = contractFromUsage(usage);
+    contract.addMetricsItem(new Metric().metricId(CONTRACT_METRIC_ID).value(100));
+    givenContractHasMetricWithContractEnabled(usage);
+    stubContracts(usage, List.of(contract));
+
+    contractCoverageService.getContractCoverage(usage);
+    contractCoverageService.getContractCoverage(usage);
+    verify(contractsApi, times(1))
+        .getContract(any(), any(), any(), any(), any(), any(OffsetDateTime.class));
+
+    contractCoverageCache.invalidateAll();
+    contractCoverageService.getContractCoverage(usage);
+    verify(contractsApi, times(2))
+        .getContract(any(), any(), any(), any(), any(), any(OffsetDateTime.class));
+  }
+
   private void stubContracts(BillableUsage usage, List<Contract> contracts) throws Exception {
     when(contractsApi.getContract(
             usage.getOrgId(),
@@ -89,6 +89,7 @@ class TallySummaryMessageConsumerTest {
   @InjectSpy BillingProducer billingProducer;
   @InjectSpy BillableUsageRemittanceRepository usageRemittanceRepository;
   @Inject @Any InMemoryConnector connector;
+  @Inject ContractCoverageCache contractCoverageCache;
 
   private InMemorySource<TallySummary> source;
   private InMemorySink<BillableUsage> target;
@@ -109,6 +110,7 @@ class TallySummaryMessageConsumerTest {
     target = connector.sink(BILLABLE_USAGE_OUT);
     snapshotDate = OffsetDateTime.now();
     usageRemittanceRepository.deleteAll();
+    contractCoverageCache.invalidateAll();
     snapshots.clear();
     target.clear();
     Mockito.reset(billingProducer, billableUsageMapper, usageRemittanceRepository);
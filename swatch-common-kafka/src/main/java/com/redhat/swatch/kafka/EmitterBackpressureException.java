@@ -18,18 +18,16 @@
  * granted to use or replicate Red Hat trademarks that are incorporated
  * in this software or its documentation.
  */
-package com.redhat.swatch.aws.exception;
+package com.redhat.swatch.kafka;
 
-import lombok.Getter;
-import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResultStatus;
+/** Thrown when messages cannot be handed over to, or acknowledged by, an emitter. */
+public class EmitterBackpressureException extends RuntimeException {
 
-@Getter
-public class AwsUsageNotAcceptedException extends AwsProducerException {
-
-  private final UsageRecordResultStatus resultStatus;
+  public EmitterBackpressureException(String message) {
+    super(message);
+  }
 
-  public AwsUsageNotAcceptedException(UsageRecordResultStatus resultStatus) {
-    super(ErrorCode.AWS_USAGE_NOT_ACCEPTED, String.format("status=%s", resultStatus));
-    this.resultStatus = resultStatus;
+  public EmitterBackpressureException(String message, Throwable cause) {
+    super(message, cause);
   }
 }
@@ -20,8 +20,23 @@
  */
 package com.redhat.swatch.kafka;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.smallrye.common.annotation.Blocking;
-import lombok.extern.slf4j.Slf4j;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
 
@@ -29,18 +44,59 @@ import org.eclipse.microprofile.reactive.messaging.Message;
  * Emitter service that implements back-pressure capabilities to deal with sending messages via an
  * emitter.
  *
+ * <p>When the emitter has no demand, the sending thread parks until a message sent to the same
+ * channel through this class is acknowledged or nacked, which is when the downstream connector
+ * frees up capacity, or until {@value #BACKPRESSURE_TIMEOUT_PROPERTY} elapses. The time spent
+ * waiting for demand is exported as the {@value #BACKPRESSURE_WAIT_METRIC} timer tagged with the
+ * channel.
+ *
  * @param <T> messages to be sent.
  */
-@Slf4j
 @Blocking
 public class EmitterService<T> {
 
-  private static final long WAIT_MILLISECONDS = 50;
+  public static final String BACKPRESSURE_TIMEOUT_PROPERTY =
+      "swatch.kafka.emitter.backpressure-timeout";
+  public static final String BACKPRESSURE_WAIT_METRIC = "swatch_kafka_emitter_backpressure_wait";
+  private static final Duration DEFAULT_BACKPRESSURE_TIMEOUT = Duration.ofMinutes(1);
+
+  /**
+   * Upper bound of a park when no message sent to the channel is in flight anymore. No ack is left
+   * to signal demand then: the connector is about to request more after the last ack, or the demand
+   * is held by messages that were not sent through this class.
+   */
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  /** The emitters of a channel can be wrapped by several services, which share the signal. */
+  private static final Map<String, DemandSignal> DEMAND_SIGNALS = new ConcurrentHashMap<>();
 
   private final Emitter<T> emitter;
+  private final String channel;
+  private final Duration backpressureTimeout;
+  private final Timer backpressureWait;
+  private final DemandSignal demandSignal;
 
-  public EmitterService(Emitter<T> emitter) {
+  public EmitterService(Emitter<T> emitter, String channel, MeterRegistry meterRegistry) {
+    this(
+        emitter,
+        channel,
+        meterRegistry,
+        ConfigProvider.getConfig()
+            .getOptionalValue(BACKPRESSURE_TIMEOUT_PROPERTY, Duration.class)
+            .orElse(DEFAULT_BACKPRESSURE_TIMEOUT));
+  }
+
+  public EmitterService(
+      Emitter<T> emitter, String channel, MeterRegistry meterRegistry, Duration timeout) {
     this.emitter = emitter;
+    this.channel = channel;
+    this.backpressureTimeout = timeout;
+    this.backpressureWait =
+        Timer.builder(BACKPRESSURE_WAIT_METRIC)
+            .description("Time spent waiting for the emitter to have demand")
+            .tag("channel", channel)
+            .register(meterRegistry);
+    this.demandSignal = DEMAND_SIGNALS.computeIfAbsent(channel, c -> new DemandSignal());
   }
 
   /**
@@ -48,21 +104,147 @@ public class EmitterService<T> {
    * the emitter capacity is exceeded, we wait until it's freed up.
    *
    * @param message message to be sent.
+   * @throws EmitterBackpressureException if the emitter has no demand before the timeout, or if the
+   *     thread is interrupted while waiting for it.
    */
   public void send(Message<T> message) {
-    while (!emitter.hasRequests()) {
-      sleep();
+    awaitDemand();
+    demandSignal.sent();
+    try {
+      emitter.send(withDemandSignal(message));
+    } catch (RuntimeException e) {
+      demandSignal.settled();
+      throw e;
     }
+  }
 
-    emitter.send(message);
+  /**
+   * Sends a batch of messages, waiting for demand as {@link #send} does.
+   *
+   * @param messages messages to be sent.
+   * @return a future that completes once all the messages are acknowledged, or completes
+   *     exceptionally as soon as a message is nacked.
+   * @throws EmitterBackpressureException if a message cannot be sent, in which case the remaining
+   *     messages are not sent.
+   */
+  public CompletableFuture<Void> sendAll(Collection<Message<T>> messages) {
+    List<CompletableFuture<Void>> acks = new ArrayList<>(messages.size());
+    for (Message<T> message : messages) {
+      CompletableFuture<Void> ack = new CompletableFuture<>();
+      send(
+          message
+              .withAck(() -> message.ack().thenRun(() -> ack.complete(null)))
+              .withNack(
+                  failure ->
+                      message.nack(failure).thenRun(() -> ack.completeExceptionally(failure))));
+      acks.add(ack);
+    }
+    CompletableFuture<Void> all = CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new));
+    // fail fast on the first nack instead of waiting for the rest of the batch
+    acks.forEach(ack -> ack.exceptionally(failure -> failAll(all, failure)));
+    return all;
+  }
+
+  /**
+   * Sends a batch of messages and waits until all of them are acknowledged.
+   *
+   * @param messages messages to be sent.
+   * @param timeout how long to wait for the acknowledgements.
+   * @throws EmitterBackpressureException if a message is nacked or not acknowledged in time.
+   */
+  public void sendAndAwait(Collection<Message<T>> messages, Duration timeout) {
+    try {
+      sendAll(messages).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EmitterBackpressureException(
+          "Interrupted while waiting for the acks of channel " + channel, e);
+    } catch (ExecutionException e) {
+      throw new EmitterBackpressureException(
+          "Messages sent to channel " + channel + " were nacked", e.getCause());
+    } catch (TimeoutException e) {
+      throw new EmitterBackpressureException(
+          "Messages sent to channel " + channel + " were not acknowledged in " + timeout, e);
+    }
   }
 
-  private void sleep() {
+  private void awaitDemand() {
+    if (emitter.hasRequests()) {
+      return;
+    }
+    long start = System.nanoTime();
     try {
-      Thread.sleep(WAIT_MILLISECONDS);
-    } catch (InterruptedException ex) {
-      log.warn("Thread was interrupted to send messages to the Kafka topic. ", ex);
+      demandSignal.await(emitter, start + backpressureTimeout.toNanos());
+    } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
+      throw new EmitterBackpressureException(
+          "Interrupted while waiting for demand on channel " + channel, e);
+    } catch (TimeoutException e) {
+      throw new EmitterBackpressureException(
+          "No demand on channel " + channel + " after " + backpressureTimeout, e);
+    } finally {
+      backpressureWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Message<T> withDemandSignal(Message<T> message) {
+    AtomicBoolean settled = new AtomicBoolean();
+    Runnable settle =
+        () -> {
+          if (settled.compareAndSet(false, true)) {
+            demandSignal.settled();
+          }
+        };
+    return message
+        .withAck(() -> message.ack().whenComplete((r, e) -> settle.run()))
+        .withNack(failure -> message.nack(failure).whenComplete((r, e) -> settle.run()));
+  }
+
+  private static Void failAll(CompletableFuture<Void> all, Throwable failure) {
+    all.completeExceptionally(failure);
+    return null;
+  }
+
+  /** Counts the messages in flight on a channel and wakes up the senders when one is settled. */
+  private static final class DemandSignal {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition demandAvailable = lock.newCondition();
+    private int inFlight;
+
+    void sent() {
+      lock.lock();
+      try {
+        inFlight++;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void settled() {
+      lock.lock();
+      try {
+        inFlight--;
+        demandAvailable.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void await(Emitter<?> emitter, long deadline) throws InterruptedException, TimeoutException {
+      lock.lock();
+      try {
+        while (!emitter.hasRequests()) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            throw new TimeoutException();
+          }
+          // an ack or nack of a message in flight is signalled, so only wait for one of them
+          demandAvailable.awaitNanos(
+              inFlight > 0 ? remaining : Math.min(remaining, IDLE_PARK_NANOS));
+        }
+      } finally {
+        lock.unlock();
+      }
     }
   }
 }
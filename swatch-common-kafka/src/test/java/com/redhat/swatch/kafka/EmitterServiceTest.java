@@ -0,0 +1,150 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInfo;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EmitterServiceTest {
+
+  @Mock Emitter<String> emitter;
+
+  private final AtomicBoolean demand = new AtomicBoolean(true);
+  private final List<Message<String>> sent = new CopyOnWriteArrayList<>();
+  private String channel;
+
+  @BeforeEach
+  void setup(TestInfo testInfo) {
+    // the demand signal is shared by the services of a channel
+    channel = testInfo.getDisplayName();
+    when(emitter.hasRequests()).thenAnswer(invocation -> demand.get());
+  }
+
+  @Test
+  void testSendWaitsUntilAMessageInFlightIsAcknowledged() throws Exception {
+    givenEmitterCollectsMessages();
+    EmitterService<String> service = givenService(Duration.ofMinutes(1));
+    service.send(Message.of("first"));
+    demand.set(false);
+
+    CompletableFuture<Void> second =
+        CompletableFuture.runAsync(() -> service.send(Message.of("second")));
+    Thread.sleep(100);
+    assertFalse(second.isDone());
+
+    demand.set(true);
+    sent.get(0).ack().toCompletableFuture().get(1, TimeUnit.SECONDS);
+
+    second.get(5, TimeUnit.SECONDS);
+    assertEquals(2, sent.size());
+  }
+
+  @Test
+  void testSendThrowsWhenThereIsNoDemandBeforeTheTimeout() {
+    demand.set(false);
+    EmitterService<String> service = givenService(Duration.ofMillis(50));
+
+    assertThrows(EmitterBackpressureException.class, () -> service.send(Message.of("message")));
+    verify(emitter, never()).send(any(Message.class));
+  }
+
+  @Test
+  void testSendThrowsAndKeepsTheInterruptFlagWhenInterrupted() {
+    demand.set(false);
+    EmitterService<String> service = givenService(Duration.ofMinutes(1));
+
+    Thread.currentThread().interrupt();
+    try {
+      assertThrows(EmitterBackpressureException.class, () -> service.send(Message.of("message")));
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+    verify(emitter, never()).send(any(Message.class));
+  }
+
+  @Test
+  void testSendAllStopsSendingOnTheFirstFailure() {
+    EmitterService<String> service = givenService(Duration.ofMillis(50));
+    doAnswer(
+            invocation -> {
+              sent.add(invocation.getArgument(0));
+              demand.set(false);
+              return null;
+            })
+        .when(emitter)
+        .send(any(Message.class));
+
+    assertThrows(
+        EmitterBackpressureException.class,
+        () -> service.sendAll(List.of(Message.of("first"), Message.of("second"))));
+    assertEquals(1, sent.size());
+  }
+
+  @Test
+  void testSendAllFailsOnTheFirstNack() {
+    givenEmitterCollectsMessages();
+    EmitterService<String> service = givenService(Duration.ofMinutes(1));
+
+    CompletableFuture<Void> acks =
+        service.sendAll(List.of(Message.of("first"), Message.of("second")));
+    sent.get(0).nack(new IllegalStateException("nacked"));
+
+    ExecutionException e =
+        assertThrows(ExecutionException.class, () -> acks.get(1, TimeUnit.SECONDS));
+    assertEquals("nacked", e.getCause().getMessage());
+  }
+
+  private EmitterService<String> givenService(Duration timeout) {
+    return new EmitterService<>(emitter, channel, new SimpleMeterRegistry(), timeout);
+  }
+
+  private void givenEmitterCollectsMessages() {
+    doAnswer(invocation -> sent.add(invocation.getArgument(0)))
+        .when(emitter)
+        .send(any(Message.class));
+  }
+}
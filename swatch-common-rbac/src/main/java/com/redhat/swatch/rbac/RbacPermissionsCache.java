@@ -0,0 +1,151 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.rbac;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import java.time.Duration;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded cache of the RBAC permissions of an identity, shared by the Spring Boot and Quarkus
+ * services.
+ *
+ * <p>Permissions are fresh for the given TTL. Concurrent lookups of the same identity share a
+ * single RBAC call. When RBAC fails, the last permissions fetched for the identity are served for
+ * up to the given stale TTL. RBAC fails when the loader throws a checked exception, a JAX-RS {@link
+ * ProcessingException} (e.g. connection refused or timeout) or a {@link WebApplicationException}
+ * with a server error status. Other runtime exceptions are rethrown as is.
+ */
+@Slf4j
+public class RbacPermissionsCache {
+  public static final String CACHE_NAME = "rbac_permissions";
+  public static final String LOOKUP_TIMER = "swatch_rbac_permissions_lookup";
+  public static final String STALE_COUNTER = "swatch_rbac_permissions_stale_served";
+
+  /** Identifies whose permissions are cached. */
+  public record Key(String applicationName, String orgId, String principalId) {}
+
+  /**
+   * Fetches the permissions from RBAC.
+   *
+   * @param <E> the checked exception thrown by the RBAC client
+   */
+  @FunctionalInterface
+  public interface Loader<E extends Exception> {
+    List<String> load() throws E;
+  }
+
+  private final Cache<Key, List<String>> permissions;
+  private final Cache<Key, List<String>> lastKnownPermissions;
+  private final Timer lookupTimer;
+  private final Counter staleCounter;
+
+  public RbacPermissionsCache(
+      Duration ttl, Duration staleTtl, long maximumSize, MeterRegistry meterRegistry) {
+    this.permissions =
+        Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build();
+    this.lastKnownPermissions =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(staleTtl.compareTo(ttl) >= 0 ? staleTtl : ttl)
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, permissions, CACHE_NAME);
+    this.lookupTimer =
+        Timer.builder(LOOKUP_TIMER)
+            .description("Latency of the RBAC permission lookups on cache misses")
+            .register(meterRegistry);
+    this.staleCounter =
+        Counter.builder(STALE_COUNTER)
+            .description("Stale permissions served because RBAC failed")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Get the permissions of an identity, calling RBAC on a cache miss.
+   *
+   * @param key the identity
+   * @param loader fetches the permissions of the identity from RBAC
+   * @return the permissions
+   * @param <E> the checked exception thrown by the loader
+   * @throws E if RBAC failed and no stale permissions are available
+   */
+  @SuppressWarnings("unchecked")
+  public <E extends Exception> List<String> get(Key key, Loader<E> loader) throws E {
+    try {
+      return permissions.get(key, k -> load(k, loader));
+    } catch (LoadFailedException e) {
+      List<String> stale = lastKnownPermissions.getIfPresent(key);
+      if (stale == null) {
+        // the cause is either E or an unchecked exception
+        throw (E) e.getCause();
+      }
+      log.warn(
+          "Serving cached permissions for orgId={} after RBAC failure: {}",
+          key.orgId(),
+          e.getCause().getMessage());
+      staleCounter.increment();
+      return stale;
+    }
+  }
+
+  private List<String> load(Key key, Loader<?> loader) {
+    Timer.Sample sample = Timer.start();
+    try {
+      List<String> loaded = List.copyOf(loader.load());
+      lastKnownPermissions.put(key, loaded);
+      return loaded;
+    } catch (ProcessingException e) {
+      throw new LoadFailedException(e);
+    } catch (WebApplicationException e) {
+      if (isServerError(e)) {
+        throw new LoadFailedException(e);
+      }
+      throw e;
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new LoadFailedException(e);
+    } finally {
+      sample.stop(lookupTimer);
+    }
+  }
+
+  private static boolean isServerError(WebApplicationException e) {
+    return e.getResponse() != null
+        && e.getResponse().getStatusInfo().getFamily() == Response.Status.Family.SERVER_ERROR;
+  }
+
+  /** Carries the RBAC failure through the cache loader. */
+  private static class LoadFailedException extends RuntimeException {
+    LoadFailedException(Exception cause) {
+      super(cause);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.rbac;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.ws.rs.ProcessingException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class RbacPermissionsCacheTest {
+
+  private static final RbacPermissionsCache.Key KEY =
+      new RbacPermissionsCache.Key("subscriptions", "org123", "user123");
+  private static final List<String> PERMISSIONS = List.of("subscriptions:reports:read");
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void testPermissionsAreCachedPerIdentity() throws RbacUnavailableException {
+    var cache = permissionsCache(Duration.ofMinutes(1));
+
+    assertEquals(PERMISSIONS, cache.get(KEY, this::countedLoad));
+    assertEquals(PERMISSIONS, cache.get(KEY, this::countedLoad));
+    cache.get(new RbacPermissionsCache.Key("subscriptions", "org123", "other"), this::countedLoad);
+
+    assertEquals(2, calls.get());
+    assertEquals(2, meterRegistry.get(RbacPermissionsCache.LOOKUP_TIMER).timer().count());
+  }
+
+  @Test
+  void testConcurrentMissesShareOneCall() throws Exception {
+    var cache = permissionsCache(Duration.ofMinutes(1));
+    var release = new CountDownLatch(1);
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<String>>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(
+            executor.submit(
+                () ->
+                    cache.get(
+                        KEY,
+                        () -> {
+                          release.await(5, TimeUnit.SECONDS);
+                          return countedLoad();
+                        })));
+      }
+      release.countDown();
+      for (Future<List<String>> result : results) {
+        assertEquals(PERMISSIONS, result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testStalePermissionsAreServedWhenRbacFails() throws RbacUnavailableException {
+    var cache = permissionsCache(Duration.ZERO);
+    cache.get(KEY, this::countedLoad);
+
+    assertEquals(PERMISSIONS, cache.get(KEY, RbacPermissionsCacheTest::failingLoad));
+    assertEquals(1.0, meterRegistry.get(RbacPermissionsCache.STALE_COUNTER).counter().count());
+  }
+
+  @Test
+  void testStalePermissionsAreServedWhenRbacIsUnreachable() throws RbacUnavailableException {
+    var cache = permissionsCache(Duration.ZERO);
+    cache.get(KEY, this::countedLoad);
+
+    assertEquals(
+        PERMISSIONS,
+        cache.get(
+            KEY,
+            () -> {
+              throw new ProcessingException("Connection refused");
+            }));
+    assertEquals(1.0, meterRegistry.get(RbacPermissionsCache.STALE_COUNTER).counter().count());
+  }
+
+  @Test
+  void testProgrammingErrorsAreThrownDespiteStalePermissions() throws RbacUnavailableException {
+    var cache = permissionsCache(Duration.ZERO);
+    cache.get(KEY, this::countedLoad);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.get(
+                KEY,
+                () -> {
+                  throw new IllegalStateException("bug");
+                }));
+  }
+
+  @Test
+  void testFailureIsThrownWithoutStalePermissions() {
+    var cache = permissionsCache(Duration.ofMinutes(1));
+    var failure = new RbacUnavailableException();
+
+    var thrown =
+        assertThrows(
+            RbacUnavailableException.class,
+            () ->
+                cache.get(
+                    KEY,
+                    () -> {
+                      throw failure;
+                    }));
+    assertSame(failure, thrown);
+  }
+
+  @Test
+  void testFailuresAreNotCached() throws RbacUnavailableException {
+    var cache = permissionsCache(Duration.ofMinutes(1));
+    assertThrows(
+        RbacUnavailableException.class,
+        () -> cache.get(KEY, RbacPermissionsCacheTest::failingLoad));
+
+    assertEquals(PERMISSIONS, cache.get(KEY, this::countedLoad));
+  }
+
+  private List<String> countedLoad() {
+    calls.incrementAndGet();
+    return PERMISSIONS;
+  }
+
+  private RbacPermissionsCache permissionsCache(Duration ttl) {
+    return new RbacPermissionsCache(ttl, Duration.ofMinutes(15), 100, meterRegistry);
+  }
+
+  private static List<String> failingLoad() throws RbacUnavailableException {
+    throw new RbacUnavailableException();
+  }
+
+  private static class RbacUnavailableException extends Exception {
+    RbacUnavailableException() {
+      super("RBAC unavailable");
+    }
+  }
+}
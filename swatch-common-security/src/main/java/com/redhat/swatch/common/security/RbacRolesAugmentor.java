@@ -23,18 +23,23 @@ package com.redhat.swatch.common.security;
 import com.redhat.swatch.clients.rbac.api.model.Access;
 import com.redhat.swatch.clients.rbac.api.resources.AccessApi;
 import com.redhat.swatch.clients.rbac.api.resources.ApiException;
+import com.redhat.swatch.rbac.RbacPermissionsCache;
 import io.getunleash.Unleash;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.quarkus.arc.properties.IfBuildProperty;
 import io.quarkus.security.identity.AuthenticationRequestContext;
 import io.quarkus.security.identity.SecurityIdentity;
 import io.quarkus.security.identity.SecurityIdentityAugmentor;
 import io.quarkus.security.runtime.QuarkusSecurityIdentity;
 import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.security.Principal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
@@ -55,8 +60,30 @@ public class RbacRolesAugmentor implements SecurityIdentityAugmentor {
   @ConfigProperty(name = "RBAC_ENABLED", defaultValue = "true")
   boolean rbacEnabled;
 
+  @ConfigProperty(name = "RBAC_PERMISSIONS_CACHE_TTL")
+  Duration permissionsCacheTtl;
+
+  @ConfigProperty(name = "RBAC_PERMISSIONS_CACHE_STALE_TTL")
+  Duration permissionsCacheStaleTtl;
+
+  @ConfigProperty(name = "RBAC_PERMISSIONS_CACHE_MAXIMUM_SIZE")
+  long permissionsCacheMaximumSize;
+
   @Inject Unleash unleash;
   @Inject @RestClient AccessApi accessApi;
+  @Inject MeterRegistry meterRegistry;
+
+  RbacPermissionsCache permissionsCache;
+
+  @PostConstruct
+  void initPermissionsCache() {
+    permissionsCache =
+        new RbacPermissionsCache(
+            permissionsCacheTtl,
+            permissionsCacheStaleTtl,
+            permissionsCacheMaximumSize,
+            meterRegistry);
+  }
 
   @Override
   public Uni<SecurityIdentity> augment(
@@ -142,6 +169,17 @@ public class RbacRolesAugmentor implements SecurityIdentityAugmentor {
   }
 
   public List<String> getPermissions(RhIdentityPrincipal principal) throws ApiException {
+    Optional<String> principalId = KesselPrincipalIds.fromRhIdentityPrincipal(principal);
+    if (principalId.isEmpty()) {
+      return fetchPermissions(principal);
+    }
+    return permissionsCache.get(
+        new RbacPermissionsCache.Key(
+            RBAC_APP_NAME, principal.getIdentity().getOrgId(), principalId.get()),
+        () -> fetchPermissions(principal));
+  }
+
+  private List<String> fetchPermissions(RhIdentityPrincipal principal) throws ApiException {
     // Get all permissions for the hardcoded application name.
     return accessApi
         .getPrincipalAccess(RBAC_APP_NAME, null, principal.getHeaderValue(), null, null)
@@ -20,7 +20,10 @@
  */
 package com.redhat.swatch.common.security;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
@@ -29,7 +32,10 @@ import com.redhat.swatch.clients.rbac.api.model.Access;
 import com.redhat.swatch.clients.rbac.api.model.AccessPagination;
 import com.redhat.swatch.clients.rbac.api.resources.AccessApi;
 import com.redhat.swatch.clients.rbac.api.resources.ApiException;
+import com.redhat.swatch.rbac.RbacPermissionsCache;
 import io.getunleash.Unleash;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.quarkus.security.AuthenticationFailedException;
 import io.quarkus.security.identity.AuthenticationRequestContext;
 import io.quarkus.security.identity.SecurityIdentity;
@@ -37,6 +43,7 @@ import io.quarkus.security.runtime.QuarkusSecurityIdentity;
 import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.helpers.test.UniAssertSubscriber;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,6 +60,8 @@ class RbacRolesAugmentorTest {
   @Mock AccessApi rbacApi;
   @Mock Unleash unleash;
 
+  MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
   AuthenticationRequestContext context = Uni.createFrom()::item;
 
   @BeforeEach
@@ -61,11 +70,26 @@ class RbacRolesAugmentorTest {
     augmentor.rbacEnabled = true;
     augmentor.unleash = unleash;
     augmentor.accessApi = rbacApi;
+    augmentor.permissionsCache = permissionsCache(Duration.ofMinutes(1));
 
     identityFactory = new RhIdentityPrincipalFactory();
     identityFactory.mapper = new ObjectMapper();
   }
 
+  private RbacPermissionsCache permissionsCache(Duration ttl) {
+    return new RbacPermissionsCache(ttl, Duration.ofMinutes(15), 100, meterRegistry);
+  }
+
+  private Set<String> rolesOf(String json) {
+    return augmentor
+        .augment(securityIdentityForRhIdentityJson(json), context)
+        .map(SecurityIdentity::getRoles)
+        .subscribe()
+        .withSubscriber(UniAssertSubscriber.create())
+        .assertCompleted()
+        .getItem();
+  }
+
   private QuarkusSecurityIdentity securityIdentityForRhIdentityJson(String json) {
     try {
       return QuarkusSecurityIdentity.builder().setPrincipal(identityFactory.fromJson(json)).build();
@@ -133,6 +157,41 @@ class RbacRolesAugmentorTest {
     subscriber.assertCompleted().assertItem(Set.of());
   }
 
+  @Test
+  void rbacPermissionsAreCachedPerIdentity() throws ApiException {
+    when(rbacApi.getPrincipalAccess(any(), any(), any(), any(), any()))
+        .thenReturn(
+            new AccessPagination().data(List.of(new Access().permission("subscriptions:*:*"))));
+
+    assertEquals(Set.of("customer"), rolesOf(RhIdentityUtils.CUSTOMER_IDENTITY_JSON));
+    assertEquals(Set.of("customer"), rolesOf(RhIdentityUtils.CUSTOMER_IDENTITY_JSON));
+
+    verify(rbacApi, times(1)).getPrincipalAccess(any(), any(), any(), any(), any());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", RbacPermissionsCache.CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void cachedRbacPermissionsAreServedWhenRbacCallFails() throws ApiException {
+    augmentor.permissionsCache = permissionsCache(Duration.ZERO);
+    when(rbacApi.getPrincipalAccess(any(), any(), any(), any(), any()))
+        .thenReturn(
+            new AccessPagination().data(List.of(new Access().permission("subscriptions:*:*"))))
+        .thenThrow(new ApiException());
+
+    assertEquals(Set.of("customer"), rolesOf(RhIdentityUtils.CUSTOMER_IDENTITY_JSON));
+    assertEquals(Set.of("customer"), rolesOf(RhIdentityUtils.CUSTOMER_IDENTITY_JSON));
+
+    verify(rbacApi, times(2)).getPrincipalAccess(any(), any(), any(), any(), any());
+    assertEquals(1.0, meterRegistry.get(RbacPermissionsCache.STALE_COUNTER).counter().count());
+  }
+
   @Test
   void noRbacInteractionWhenRbacNotEnabled() {
     augmentor.rbacEnabled = false;
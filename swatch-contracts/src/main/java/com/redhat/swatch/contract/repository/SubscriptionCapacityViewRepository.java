@@ -33,6 +33,7 @@ import com.redhat.swatch.configuration.registry.ProductId;
 import com.redhat.swatch.panache.PanacheSpecificationSupport;
 import com.redhat.swatch.panache.Specification;
 import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.stream.Stream;
 
@@ -48,6 +49,31 @@ public class SubscriptionCapacityViewRepository
     return find(SubscriptionCapacityView.class, criteria).stream();
   }
 
+  /**
+   * Streams the capacities matching the criteria together with the product tag of their view row.
+   *
+   * <p>The view has a row per product tag of a subscription, but all of them map to the same entity
+   * instance in the persistence context, so the product tag of the entity is only meaningful when a
+   * single product tag is queried.
+   *
+   * @param criteria the criteria of the capacities
+   * @return the matching capacities and product tags
+   */
+  public Stream<ProductTagCapacity> streamWithProductTagBy(
+      Specification<SubscriptionCapacityView> criteria) {
+    var entityManager = getEntityManager();
+    var builder = entityManager.getCriteriaBuilder();
+    var query = builder.createTupleQuery();
+    var root = query.from(SubscriptionCapacityView.class);
+    var productTag = root.get(SubscriptionCapacityView_.productTag);
+    query.multiselect(root, productTag);
+    query.where(criteria.toPredicate(root, query, builder));
+    return entityManager
+        .createQuery(query)
+        .getResultStream()
+        .map(tuple -> new ProductTagCapacity(tuple.get(productTag), tuple.get(root)));
+  }
+
   public static Specification<SubscriptionCapacityView> buildSearchSpecification(String orgId) {
     return buildSearchSpecification(orgId, null, null, null, null, null, null, null);
   }
@@ -169,6 +195,15 @@ public class SubscriptionCapacityViewRepository
         builder.equal(root.get(SubscriptionCapacityView_.orgId), orgId);
   }
 
+  public static Specification<SubscriptionCapacityView> orgIdIn(Collection<String> orgIds) {
+    return (root, query, builder) -> root.get(SubscriptionCapacityView_.orgId).in(orgIds);
+  }
+
+  public static Specification<SubscriptionCapacityView> productTagIn(
+      Collection<String> productTags) {
+    return (root, query, builder) -> root.get(SubscriptionCapacityView_.productTag).in(productTags);
+  }
+
   private static Specification<SubscriptionCapacityView> handleMetricsFilter(
       String key, String value) {
     return (root, query, builder) ->
@@ -224,11 +259,14 @@ public class SubscriptionCapacityViewRepository
         cb.equal(root.get(SubscriptionCapacityView_.billingAccountId), expected);
   }
 
-  private static boolean hasConcreteServiceLevel(ServiceLevel s) {
+  public static boolean hasConcreteServiceLevel(ServiceLevel s) {
     return s != null && s != ServiceLevel._ANY && s != ServiceLevel.EMPTY;
   }
 
-  private static boolean hasConcreteUsage(Usage u) {
+  public static boolean hasConcreteUsage(Usage u) {
     return u != null && u != Usage._ANY && u != Usage.EMPTY;
   }
+
+  /** A capacity and the product tag of the view row it was read from. */
+  public record ProductTagCapacity(String productTag, SubscriptionCapacityView capacity) {}
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.contract.resource;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the capacity of a report timeline in a single pass over the subscriptions.
+ *
+ * <p>Instead of checking every subscription against every period, the start and end of each
+ * subscription are mapped onto the sorted period dates and recorded as +value/-value entries of a
+ * difference array. The running total over that array gives the capacity of each period, so a
+ * report costs O(periods + subscriptions &times; log periods).
+ *
+ * <p>The bounds keep the semantics of the capacity report: a subscription contributes capacity to
+ * the periods in [start, end], while an unlimited subscription only marks the periods in (start,
+ * end) as having infinite quantity. A missing end date means the subscription never ends.
+ */
+public class CapacityTimeline {
+
+  /** Capacity of one period of the timeline. */
+  public record Period(
+      OffsetDateTime date, int capacity, boolean hasData, boolean hasInfiniteQuantity) {}
+
+  private final List<OffsetDateTime> dates;
+  private final Instant[] instants;
+  private final int[] capacity;
+  private final int[] active;
+  private final int[] unlimited;
+
+  /**
+   * @param dates the start dates of the periods in the timeline, in ascending order
+   */
+  public CapacityTimeline(List<OffsetDateTime> dates) {
+    this.dates = dates;
+    this.instants = dates.stream().map(OffsetDateTime::toInstant).toArray(Instant[]::new);
+    this.capacity = new int[instants.length + 1];
+    this.active = new int[instants.length + 1];
+    this.unlimited = new int[instants.length + 1];
+  }
+
+  /** Adds the capacity of a subscription to the periods in [start, end]. */
+  public void addCapacity(OffsetDateTime start, OffsetDateTime end, int value) {
+    int from = firstIndexNotBefore(start.toInstant());
+    int to = end == null ? instants.length : firstIndexAfter(end.toInstant());
+    if (from < to) {
+      capacity[from] += value;
+      capacity[to] -= value;
+      active[from]++;
+      active[to]--;
+    }
+  }
+
+  /** Marks the periods in (start, end) as having infinite quantity. */
+  public void addUnlimited(OffsetDateTime start, OffsetDateTime end) {
+    int from = firstIndexAfter(start.toInstant());
+    int to = end == null ? instants.length : firstIndexNotBefore(end.toInstant());
+    if (from < to) {
+      unlimited[from]++;
+      unlimited[to]--;
+    }
+  }
+
+  /** Runs the totals over the timeline. */
+  public List<Period> periods() {
+    List<Period> result = new ArrayList<>(instants.length);
+    int runningCapacity = 0;
+    int runningActive = 0;
+    int runningUnlimited = 0;
+    for (int i = 0; i < instants.length; i++) {
+      runningCapacity += capacity[i];
+      runningActive += active[i];
+      runningUnlimited += unlimited[i];
+      result.add(
+          new Period(dates.get(i), runningCapacity, runningActive > 0, runningUnlimited > 0));
+    }
+    return result;
+  }
+
+  /** Index of the first period that does not start before the given instant. */
+  private int firstIndexNotBefore(Instant instant) {
+    int low = 0;
+    int high = instants.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (instants[mid].isBefore(instant)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /** Index of the first period that starts after the given instant. */
+  private int firstIndexAfter(Instant instant) {
+    int low = 0;
+    int high = instants.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (instants[mid].isAfter(instant)) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+    return low;
+  }
+}
@@ -42,6 +42,7 @@ import com.redhat.swatch.contract.repository.Granularity;
 import com.redhat.swatch.contract.repository.HypervisorReportCategory;
 import com.redhat.swatch.contract.repository.SubscriptionEntity;
 import com.redhat.swatch.contract.repository.SubscriptionRepository;
+import com.redhat.swatch.contract.resource.CapacityTimeline;
 import com.redhat.swatch.contract.resource.InMemoryPager;
 import com.redhat.swatch.contract.resource.ResourceUtils;
 import com.redhat.swatch.contract.resteasy.Page;
@@ -63,7 +64,6 @@ import java.time.OffsetDateTime;
 import java.time.temporal.TemporalAmount;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.clock.ApplicationClock;
@@ -187,16 +187,6 @@ public class CapacityResourceV1 implements CapacityApi {
     return report;
   }
 
-  private boolean hasInfiniteQuantity(
-      OffsetDateTime date, List<SubscriptionEntity> unlimitedSubscriptions) {
-    for (SubscriptionEntity subscription : unlimitedSubscriptions) {
-      if (subscription.getStartDate().isBefore(date) && subscription.getEndDate().isAfter(date)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
   @SuppressWarnings("java:S107")
   protected List<CapacitySnapshotByMetricId> getCapacitiesByMetricId(
       String orgId,
@@ -239,62 +229,65 @@ public class CapacityResourceV1 implements CapacityApi {
     OffsetDateTime end = timeAdjuster.adjustToPeriodEnd(reportEnd);
     TemporalAmount offset = timeAdjuster.getSnapshotOffset();
 
-    List<CapacitySnapshotByMetricId> result = new ArrayList<>();
+    List<OffsetDateTime> dates = new ArrayList<>();
     OffsetDateTime next = OffsetDateTime.from(start);
-
     while (next.isBefore(end) || next.isEqual(end)) {
-      CapacitySnapshotByMetricId snapshot =
-          createCapacitySnapshotWithMetricId(
-              next, subscriptions, metricId, Optional.ofNullable(hypervisorReportCategory));
-      snapshot.setHasInfiniteQuantity(hasInfiniteQuantity(next, unlimitedSubscriptions));
-      result.add(snapshot);
+      dates.add(next);
       next = timeAdjuster.adjustToPeriodStart(next.plus(offset));
     }
 
-    return result;
+    CapacityTimeline timeline = new CapacityTimeline(dates);
+    Optional<HypervisorReportCategory> category = Optional.ofNullable(hypervisorReportCategory);
+    for (SubscriptionEntity subscription : subscriptions) {
+      timeline.addCapacity(
+          subscription.getStartDate(),
+          subscription.getEndDate(),
+          getCapacityWithMetricId(subscription, metricId, category));
+    }
+    for (SubscriptionEntity subscription : unlimitedSubscriptions) {
+      timeline.addUnlimited(subscription.getStartDate(), subscription.getEndDate());
+    }
+
+    return timeline.periods().stream()
+        .map(
+            period ->
+                new CapacitySnapshotByMetricId()
+                    .date(period.date())
+                    .value(period.capacity())
+                    .hasData(period.hasData())
+                    .hasInfiniteQuantity(period.hasInfiniteQuantity()))
+        .toList();
   }
 
-  @SuppressWarnings("java:S3776")
-  protected CapacitySnapshotByMetricId createCapacitySnapshotWithMetricId(
-      OffsetDateTime date,
-      List<SubscriptionEntity> subscriptions,
+  protected int getCapacityWithMetricId(
+      SubscriptionEntity subscription,
       MetricId metricId,
       Optional<HypervisorReportCategory> hypervisorReportCategory) {
     int value = 0;
-    boolean hasData = false;
-
-    for (SubscriptionEntity subscription : subscriptions) {
-      var begin = subscription.getStartDate();
-      var end = subscription.getEndDate();
-      if (!begin.isAfter(date) && (Objects.isNull(end) || !date.isAfter(end))) {
-        hasData = true;
-        for (var entry : subscription.getSubscriptionMeasurements().entrySet()) {
-          var measurementKey = entry.getKey();
-          var measurementValue = entry.getValue();
-          if (metricId.toString().equalsIgnoreCase(measurementKey.getMetricId())) {
-            if (hypervisorReportCategory.isEmpty()) {
-              value += measurementValue.intValue();
-              continue;
-            }
+    for (var entry : subscription.getSubscriptionMeasurements().entrySet()) {
+      var measurementKey = entry.getKey();
+      var measurementValue = entry.getValue();
+      if (metricId.toString().equalsIgnoreCase(measurementKey.getMetricId())) {
+        if (hypervisorReportCategory.isEmpty()) {
+          value += measurementValue.intValue();
+          continue;
+        }
 
-            var measurementType = measurementKey.getMeasurementType();
-            var isNonHypervisorMeasurement = PHYSICAL.equals(measurementType);
-            var isHypervisorMeasurement = HYPERVISOR.equals(measurementType);
+        var measurementType = measurementKey.getMeasurementType();
+        var isNonHypervisorMeasurement = PHYSICAL.equals(measurementType);
+        var isHypervisorMeasurement = HYPERVISOR.equals(measurementType);
 
-            var category = hypervisorReportCategory.get();
-            var isHypervisorCategory = category.equals(HypervisorReportCategory.HYPERVISOR);
-            var isNonHypervisorCategory = category.equals(HypervisorReportCategory.NON_HYPERVISOR);
+        var category = hypervisorReportCategory.get();
+        var isHypervisorCategory = category.equals(HypervisorReportCategory.HYPERVISOR);
+        var isNonHypervisorCategory = category.equals(HypervisorReportCategory.NON_HYPERVISOR);
 
-            if ((isHypervisorCategory && isHypervisorMeasurement)
-                || (isNonHypervisorCategory && isNonHypervisorMeasurement)) {
-              value += measurementValue.intValue();
-            }
-          }
+        if ((isHypervisorCategory && isHypervisorMeasurement)
+            || (isNonHypervisorCategory && isNonHypervisorMeasurement)) {
+          value += measurementValue.intValue();
         }
       }
     }
-
-    return new CapacitySnapshotByMetricId().date(date).value(value).hasData(hasData);
+    return value;
   }
 
   private void validateGranularity(ProductId productId, Granularity granularity) {
@@ -20,13 +20,10 @@
  */
 package com.redhat.swatch.contract.service;
 
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.hasBillingProviderId;
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.orgIdEquals;
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.productIdEquals;
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.whereBillingAccountIdNullSafeEqual;
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.whereBillingProviderNullSafeEqual;
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.whereServiceLevelAnyOrEqualTo;
-import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.whereUsageAnyOrEqualTo;
+import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.hasConcreteServiceLevel;
+import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.hasConcreteUsage;
+import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.orgIdIn;
+import static com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.productTagIn;
 
 import com.redhat.swatch.common.model.ServiceLevel;
 import com.redhat.swatch.common.model.Usage;
@@ -36,14 +33,18 @@ import com.redhat.swatch.contract.model.TallySummary;
 import com.redhat.swatch.contract.repository.BillingProvider;
 import com.redhat.swatch.contract.repository.SubscriptionCapacityView;
 import com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository;
+import com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.ProductTagCapacity;
 import com.redhat.swatch.panache.Specification;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 
@@ -61,62 +62,163 @@ public class SubscriptionCapacityService {
   @Transactional
   public Map<TallySnapshot, List<SubscriptionCapacityView>> getCapacityForTallySummary(
       TallySummary tallySummary) {
+    return getCapacityForTallySummaries(List.of(tallySummary));
+  }
+
+  /**
+   * Resolves the capacities of the snapshots of all the tally summaries with a single query. The
+   * capacities of every org and product of the summaries are fetched at once, and then matched to
+   * each snapshot by its service level, usage and billing criteria. The snapshots of a product that
+   * is not defined in the configuration are logged and left without capacity, so that they do not
+   * fail the other summaries of the batch.
+   *
+   * @param tallySummaries the tally summaries
+   * @return the matching capacities by snapshot, without the snapshots that have no capacity
+   */
+  @Transactional
+  public Map<TallySnapshot, List<SubscriptionCapacityView>> getCapacityForTallySummaries(
+      List<TallySummary> tallySummaries) {
+    List<SnapshotCriteria> criteria = new ArrayList<>();
+    for (var tallySummary : tallySummaries) {
+      if (tallySummary.getTallySnapshots() != null) {
+        for (var tallySnapshot : tallySummary.getTallySnapshots()) {
+          addCriteria(criteria, tallySummary.getOrgId(), tallySnapshot);
+        }
+      }
+    }
+    if (criteria.isEmpty()) {
+      return new HashMap<>();
+    }
+
+    var candidates = findCandidates(criteria);
     var capacities = new HashMap<TallySnapshot, List<SubscriptionCapacityView>>();
-    for (var tallySnapshot : tallySummary.getTallySnapshots()) {
-      try (Stream<SubscriptionCapacityView> resultStream =
-          streamCapacities(tallySummary, tallySnapshot)) {
-        resultStream.forEach(
-            capacity ->
-                capacities.computeIfAbsent(tallySnapshot, k -> new ArrayList<>()).add(capacity));
+    for (var snapshotCriteria : criteria) {
+      for (var candidate : candidates.getOrDefault(snapshotCriteria.candidateKey(), List.of())) {
+        if (snapshotCriteria.matches(candidate)) {
+          capacities
+              .computeIfAbsent(snapshotCriteria.snapshot(), k -> new ArrayList<>())
+              .add(candidate.capacity());
+        }
       }
     }
 
     return capacities;
   }
 
-  private Stream<SubscriptionCapacityView> streamCapacities(
-      TallySummary tallySummary, TallySnapshot tallySnapshot) {
-    Specification<SubscriptionCapacityView> criteria =
-        buildSpecificationForSnapshot(tallySummary.getOrgId(), tallySnapshot);
-    return capacityRepository.streamBy(criteria);
+  private static void addCriteria(
+      List<SnapshotCriteria> criteria, String orgId, TallySnapshot tallySnapshot) {
+    try {
+      criteria.add(SnapshotCriteria.of(orgId, tallySnapshot));
+    } catch (IllegalArgumentException e) {
+      log.warn(
+          "Skipping capacity lookup of tally snapshot {} for orgId={}: {}",
+          tallySnapshot.getId(),
+          orgId,
+          e.getMessage());
+    }
   }
 
-  private Specification<SubscriptionCapacityView> buildSpecificationForSnapshot(
-      String orgId, TallySnapshot snapshot) {
-    ProductId productId = ProductId.fromString(snapshot.getProductId());
-    BillingProvider billingProvider = mapBillingProvider(snapshot.getBillingProvider());
-    ServiceLevel serviceLevel = mapServiceLevel(snapshot.getSla());
-    Usage usage = mapUsage(snapshot.getUsage());
-
-    Specification<SubscriptionCapacityView> spec = Specification.where(orgIdEquals(orgId));
-    spec = spec.and(productIdEquals(productId));
-    if (productId.isOnDemand()) {
-      spec = spec.and(hasBillingProviderId());
+  private Map<CandidateKey, List<ProductTagCapacity>> findCandidates(
+      List<SnapshotCriteria> criteria) {
+    Set<String> orgIds = new HashSet<>();
+    Set<String> productTags = new HashSet<>();
+    for (var snapshotCriteria : criteria) {
+      orgIds.add(snapshotCriteria.orgId());
+      productTags.add(snapshotCriteria.productId().getValue());
     }
-    spec = spec.and(whereServiceLevelAnyOrEqualTo(serviceLevel));
-    spec = spec.and(whereUsageAnyOrEqualTo(usage));
-    if (productId.isPayg()) {
-      spec = spec.and(whereBillingProviderNullSafeEqual(billingProvider));
-      spec = spec.and(whereBillingAccountIdNullSafeEqual(snapshot.getBillingAccountId()));
+
+    Specification<SubscriptionCapacityView> spec =
+        Specification.where(orgIdIn(orgIds)).and(productTagIn(productTags));
+    var candidates = new HashMap<CandidateKey, List<ProductTagCapacity>>();
+    try (Stream<ProductTagCapacity> resultStream =
+        capacityRepository.streamWithProductTagBy(spec)) {
+      resultStream.forEach(
+          candidate ->
+              candidates
+                  .computeIfAbsent(
+                      new CandidateKey(candidate.capacity().getOrgId(), candidate.productTag()),
+                      k -> new ArrayList<>())
+                  .add(candidate));
+    }
+    return candidates;
+  }
+
+  private record CandidateKey(String orgId, String productTag) {}
+
+  /**
+   * The criteria of the capacities of a snapshot. It matches the capacities of the org and product
+   * of the snapshot whose service level and usage are unset or equal to the ones of the snapshot.
+   * On-demand products also require a billing provider ID, and PAYG products the same billing
+   * provider and billing account as the snapshot.
+   */
+  private record SnapshotCriteria(
+      TallySnapshot snapshot,
+      String orgId,
+      ProductId productId,
+      ServiceLevel serviceLevel,
+      Usage usage,
+      BillingProvider billingProvider) {
+
+    static SnapshotCriteria of(String orgId, TallySnapshot snapshot) {
+      return new SnapshotCriteria(
+          snapshot,
+          orgId,
+          ProductId.fromString(snapshot.getProductId()),
+          mapServiceLevel(snapshot.getSla()),
+          mapUsage(snapshot.getUsage()),
+          mapBillingProvider(snapshot.getBillingProvider()));
+    }
+
+    CandidateKey candidateKey() {
+      return new CandidateKey(orgId, productId.getValue());
+    }
+
+    boolean matches(ProductTagCapacity candidate) {
+      var capacity = candidate.capacity();
+      if (productId.isOnDemand()
+          && (capacity.getBillingProviderId() == null
+              || capacity.getBillingProviderId().isEmpty())) {
+        return false;
+      }
+      if (hasConcreteServiceLevel(serviceLevel)
+          && !isAnyOr(capacity.getServiceLevel(), serviceLevel)) {
+        return false;
+      }
+      if (hasConcreteUsage(usage) && !isAnyOr(capacity.getUsage(), usage)) {
+        return false;
+      }
+      return !productId.isPayg()
+          || (billingProvider == capacity.getBillingProvider()
+              && Objects.equals(snapshot.getBillingAccountId(), capacity.getBillingAccountId()));
+    }
+
+    private static boolean isAnyOr(ServiceLevel actual, ServiceLevel requested) {
+      return actual == null
+          || actual == ServiceLevel._ANY
+          || actual == ServiceLevel.EMPTY
+          || actual == requested;
+    }
+
+    private static boolean isAnyOr(Usage actual, Usage requested) {
+      return actual == null || actual == Usage._ANY || actual == Usage.EMPTY || actual == requested;
     }
-    return spec;
   }
 
-  private ServiceLevel mapServiceLevel(TallySnapshot.Sla sla) {
+  private static ServiceLevel mapServiceLevel(TallySnapshot.Sla sla) {
     if (sla == null) {
       return ServiceLevel._ANY;
     }
     return ServiceLevel.fromString(sla.toString());
   }
 
-  private Usage mapUsage(TallySnapshot.Usage usage) {
+  private static Usage mapUsage(TallySnapshot.Usage usage) {
     if (usage == null) {
       return Usage._ANY;
     }
     return Usage.fromString(usage.toString());
   }
 
-  private BillingProvider mapBillingProvider(TallySnapshot.BillingProvider billingProvider) {
+  private static BillingProvider mapBillingProvider(TallySnapshot.BillingProvider billingProvider) {
     if (billingProvider == null) {
       return null;
     }
@@ -42,7 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
 
 /**
- * Consumes one {@link TallySummary} at a time from the channel, enriches each TallySnapshot with
+ * Consumes batches of {@link TallySummary} from the channel, enriches each TallySnapshot with
  * capacity from the subscription view, and emits the corresponding {@link UtilizationSummary}
  * messages.
  */
@@ -60,22 +60,39 @@ public class TallySnapshotSummaryConsumer {
     this.utilizationProducer = utilizationProducer;
   }
 
+  /**
+   * Resolves the capacities of all the snapshots of the polled tally summaries with a single query
+   * and sends the utilization summaries of the whole batch in a single transaction. The utilization
+   * summaries are sent in the order of the tally summaries, so that the ordering per org is
+   * preserved.
+   */
   @Blocking
   @Incoming(TALLY_IN)
-  public Uni<Void> process(TallySummary tallySummary) {
-    var capacities = capacityService.getCapacityForTallySummary(tallySummary);
-    var utilizationSummaries = createUtilizationSummaries(tallySummary, capacities);
+  public Uni<Void> process(List<TallySummary> tallySummaries) {
+    // deserialization failures are skipped as null records
+    List<TallySummary> summaries = tallySummaries.stream().filter(Objects::nonNull).toList();
+    if (summaries.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+
+    var capacities = capacityService.getCapacityForTallySummaries(summaries);
+    List<UtilizationSummary> utilizationSummaries = new ArrayList<>();
+    for (TallySummary tallySummary : summaries) {
+      addUtilizationSummaries(utilizationSummaries, tallySummary, capacities);
+    }
     return utilizationProducer.send(utilizationSummaries);
   }
 
-  private List<UtilizationSummary> createUtilizationSummaries(
-      TallySummary tallySummary, Map<TallySnapshot, List<SubscriptionCapacityView>> capacities) {
-    List<UtilizationSummary> utilizationSummaries = new ArrayList<>();
+  private void addUtilizationSummaries(
+      List<UtilizationSummary> utilizationSummaries,
+      TallySummary tallySummary,
+      Map<TallySnapshot, List<SubscriptionCapacityView>> capacities) {
+    if (tallySummary.getTallySnapshots() == null) {
+      return;
+    }
     for (TallySnapshot snapshot : tallySummary.getTallySnapshots()) {
       utilizationSummaries.add(createUtilizationSummary(tallySummary, snapshot, capacities));
     }
-
-    return utilizationSummaries;
   }
 
   private UtilizationSummary createUtilizationSummary(
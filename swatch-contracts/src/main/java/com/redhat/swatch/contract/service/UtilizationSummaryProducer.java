@@ -24,12 +24,14 @@ import static com.redhat.swatch.contract.config.Channels.UTILIZATION_OUT;
 
 import com.redhat.swatch.contract.model.UtilizationSummary;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
 import io.smallrye.reactive.messaging.kafka.transactions.KafkaTransactions;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Message;
 
 @Slf4j
 @ApplicationScoped
@@ -42,10 +44,21 @@ public class UtilizationSummaryProducer {
     this.producer = producer;
   }
 
+  /**
+   * Sends the utilization summaries in a single transaction. The messages are keyed by org ID, so
+   * that the summaries of an org land in the same partition in the order they are given.
+   */
   public Uni<Void> send(List<UtilizationSummary> utilizationSummaries) {
     return producer.withTransaction(
         emitter -> {
-          utilizationSummaries.forEach(emitter::send);
+          utilizationSummaries.forEach(
+              summary ->
+                  emitter.send(
+                      Message.of(summary)
+                          .addMetadata(
+                              OutgoingKafkaRecordMetadata.builder()
+                                  .withKey(summary.getOrgId())
+                                  .build())));
           log.info("Sent {} utilization summaries", utilizationSummaries.size());
           return Uni.createFrom().voidItem();
         });
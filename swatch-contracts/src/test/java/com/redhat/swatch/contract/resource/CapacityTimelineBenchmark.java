@@ -0,0 +1,122 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.contract.resource;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the cost of a daily capacity report over a year computed by {@link CapacityTimeline}
+ * against the previous implementation, which checked every subscription for every period (the
+ * "scan" benchmark), for synthetic orgs of different sizes.
+ *
+ * <p>Not executed as part of the unit tests. Run it with:
+ *
+ * <pre>
+ * ./mvnw -pl swatch-contracts test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *   -Dexec.args=CapacityTimelineBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapacityTimelineBenchmark {
+
+  private static final OffsetDateTime START = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+  private static final int DAYS = 365;
+
+  record Subscription(OffsetDateTime start, OffsetDateTime end, int capacity, boolean unlimited) {}
+
+  @Param({"10", "1000", "10000"})
+  public int subscriptionCount;
+
+  private List<OffsetDateTime> dates;
+  private List<Subscription> subscriptions;
+
+  @Setup
+  public void setup() {
+    dates = IntStream.range(0, DAYS).mapToObj(START::plusDays).toList();
+    Random random = new Random(subscriptionCount);
+    subscriptions = new ArrayList<>(subscriptionCount);
+    for (int i = 0; i < subscriptionCount; i++) {
+      OffsetDateTime start = START.plusHours(random.nextInt(DAYS * 24) - DAYS * 12L);
+      OffsetDateTime end =
+          random.nextInt(10) == 0 ? null : start.plusDays(30 + random.nextInt(DAYS));
+      subscriptions.add(
+          new Subscription(start, end, 1 + random.nextInt(64), random.nextInt(50) == 0));
+    }
+  }
+
+  @Benchmark
+  public List<CapacityTimeline.Period> timeline() {
+    CapacityTimeline timeline = new CapacityTimeline(dates);
+    for (Subscription subscription : subscriptions) {
+      if (subscription.unlimited()) {
+        timeline.addUnlimited(subscription.start(), subscription.end());
+      } else {
+        timeline.addCapacity(subscription.start(), subscription.end(), subscription.capacity());
+      }
+    }
+    return timeline.periods();
+  }
+
+  @Benchmark
+  public List<CapacityTimeline.Period> scan() {
+    List<CapacityTimeline.Period> result = new ArrayList<>(dates.size());
+    for (OffsetDateTime date : dates) {
+      int capacity = 0;
+      boolean hasData = false;
+      boolean hasInfiniteQuantity = false;
+      for (Subscription subscription : subscriptions) {
+        if (subscription.unlimited()) {
+          hasInfiniteQuantity |=
+              subscription.start().isBefore(date)
+                  && (subscription.end() == null || subscription.end().isAfter(date));
+        } else if (!subscription.start().isAfter(date)
+            && (subscription.end() == null || !date.isAfter(subscription.end()))) {
+          hasData = true;
+          capacity += subscription.capacity();
+        }
+      }
+      result.add(new CapacityTimeline.Period(date, capacity, hasData, hasInfiniteQuantity));
+    }
+    return result;
+  }
+}
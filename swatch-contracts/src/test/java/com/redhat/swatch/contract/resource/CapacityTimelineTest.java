@@ -0,0 +1,84 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.contract.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class CapacityTimelineTest {
+
+  private static final OffsetDateTime START = OffsetDateTime.parse("2024-01-01T00:00:00Z");
+  private static final List<OffsetDateTime> DAYS =
+      IntStream.range(0, 5).mapToObj(START::plusDays).toList();
+
+  @Test
+  void testCapacityIncludesStartAndEndPeriods() {
+    CapacityTimeline timeline = new CapacityTimeline(DAYS);
+    timeline.addCapacity(day(1), day(3), 4);
+
+    assertEquals(List.of(0, 4, 4, 4, 0), capacities(timeline));
+    assertEquals(
+        List.of(false, true, true, true, false),
+        timeline.periods().stream().map(CapacityTimeline.Period::hasData).toList());
+  }
+
+  @Test
+  void testOverlappingSubscriptionsAreSummed() {
+    CapacityTimeline timeline = new CapacityTimeline(DAYS);
+    timeline.addCapacity(day(0).plusHours(12), day(2), 2);
+    timeline.addCapacity(day(2), null, 3);
+    timeline.addCapacity(day(-10), day(-5), 100);
+
+    assertEquals(List.of(0, 2, 5, 3, 3), capacities(timeline));
+  }
+
+  @Test
+  void testSubscriptionWithoutCapacityStillHasData() {
+    CapacityTimeline timeline = new CapacityTimeline(DAYS);
+    timeline.addCapacity(day(2), day(2), 0);
+
+    assertEquals(
+        List.of(false, false, true, false, false),
+        timeline.periods().stream().map(CapacityTimeline.Period::hasData).toList());
+  }
+
+  @Test
+  void testUnlimitedExcludesStartAndEndPeriods() {
+    CapacityTimeline timeline = new CapacityTimeline(DAYS);
+    timeline.addUnlimited(day(1), day(4));
+
+    assertEquals(
+        List.of(false, false, true, true, false),
+        timeline.periods().stream().map(CapacityTimeline.Period::hasInfiniteQuantity).toList());
+  }
+
+  private static OffsetDateTime day(int day) {
+    return START.plusDays(day);
+  }
+
+  private static List<Integer> capacities(CapacityTimeline timeline) {
+    return timeline.periods().stream().map(CapacityTimeline.Period::capacity).toList();
+  }
+}
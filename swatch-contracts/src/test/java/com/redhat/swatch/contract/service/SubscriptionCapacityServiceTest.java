@@ -24,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.redhat.swatch.configuration.registry.ProductId;
@@ -34,9 +35,9 @@ import com.redhat.swatch.contract.repository.BillingProvider;
 import com.redhat.swatch.contract.repository.SubscriptionCapacityView;
 import com.redhat.swatch.contract.repository.SubscriptionCapacityViewMetric;
 import com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository;
+import com.redhat.swatch.contract.repository.SubscriptionCapacityViewRepository.ProductTagCapacity;
 import com.redhat.swatch.panache.Specification;
 import java.time.OffsetDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -94,14 +95,45 @@ class SubscriptionCapacityServiceTest {
     TallySummary msg1 = createTallySummary("org123", RHEL);
     TallySummary msg2 = createTallySummary("org456", ROSA);
 
-    // When: each Kafka message (one TallySummary) is processed individually
-    var r1 = subscriptionCapacityService.getCapacityForTallySummary(msg1);
-    var r2 = subscriptionCapacityService.getCapacityForTallySummary(msg2);
-    var result = new HashMap<TallySnapshot, List<SubscriptionCapacityView>>(r1);
-    result.putAll(r2);
+    // When the summaries are resolved together
+    var result = subscriptionCapacityService.getCapacityForTallySummaries(List.of(msg1, msg2));
 
-    // Then returns capacity data for both
+    // Then returns capacity data for both with a single query
     assertMultipleCapacityResults(result, List.of("sub123", "sub456"));
+    assertEquals("sub123", result.get(msg1.getTallySnapshots().get(0)).get(0).getSubscriptionId());
+    assertEquals("sub456", result.get(msg2.getTallySnapshots().get(0)).get(0).getSubscriptionId());
+    verify(capacityRepository).streamWithProductTagBy(any());
+  }
+
+  @Test
+  void testCapacityOfSubscriptionWithSeveralProductTagsMatchesEachProduct() {
+    // Given the rows of a subscription with two product tags share the same entity instance
+    SubscriptionCapacityView capacity = createCapacityView("sub123", "org123", RHEL);
+    when(capacityRepository.streamWithProductTagBy(any()))
+        .thenReturn(
+            Stream.of(
+                new ProductTagCapacity(RHEL.getValue(), capacity),
+                new ProductTagCapacity(ROSA.getValue(), capacity)));
+
+    TallySummary tallySummary = createTallySummaryWithMultipleSnapshots("org123", RHEL, ROSA);
+
+    var result = subscriptionCapacityService.getCapacityForTallySummary(tallySummary);
+
+    // Then the capacity is matched to the snapshots of both products
+    assertEquals(2, result.size());
+  }
+
+  @Test
+  void testCapacityOfAnotherOrgIsNotMatched() {
+    // Given capacity for the same product in another org
+    givenExistingCapacityViews(
+        createCapacityView("sub123", "org123", RHEL), createCapacityView("sub456", "org456", RHEL));
+
+    TallySummary tallySummary = createTallySummary("org123", RHEL);
+
+    var result = subscriptionCapacityService.getCapacityForTallySummary(tallySummary);
+
+    assertSingleCapacityResult(result, "sub123", "org123", RHEL);
   }
 
   @Test
@@ -188,9 +220,7 @@ class SubscriptionCapacityServiceTest {
     selfSupportCapacity.setServiceLevel(com.redhat.swatch.common.model.ServiceLevel.SELF_SUPPORT);
     selfSupportCapacity.setUsage(com.redhat.swatch.common.model.Usage.DEVELOPMENT_TEST);
 
-    when(capacityRepository.streamBy(any()))
-        .thenReturn(Stream.of(premiumCapacity, selfSupportCapacity))
-        .thenReturn(Stream.of(selfSupportCapacity));
+    givenExistingCapacityViews(premiumCapacity, selfSupportCapacity);
 
     // Given two snapshots: one _ANY and one Self-Support
     TallySnapshot anySnapshot = createTallySnapshot(RHEL);
@@ -215,11 +245,30 @@ class SubscriptionCapacityServiceTest {
     assertEquals("sub-self-support", result.get(selfSupportSnapshot).get(0).getSubscriptionId());
   }
 
+  @Test
+  void testSnapshotOfUnknownProductIsSkippedWithoutFailingTheBatch() {
+    // Given a batch where one summary has a product that is not in the configuration
+    givenExistingCapacityViews(createCapacityView("sub123", "org123", RHEL));
+    TallySummary valid = createTallySummary("org123", RHEL);
+    TallySummary unknownProduct = createTallySummary("org456", RHEL);
+    unknownProduct.getTallySnapshots().get(0).setProductId("unknown-product");
+
+    // When the summaries are resolved together
+    var result =
+        subscriptionCapacityService.getCapacityForTallySummaries(List.of(valid, unknownProduct));
+
+    // Then only the snapshot of the unknown product is left without capacity
+    assertSingleCapacityResult(result, "sub123", "org123", RHEL);
+    assertTrue(result.containsKey(valid.getTallySnapshots().get(0)));
+    verify(capacityRepository).streamWithProductTagBy(any());
+  }
+
   @Test
   void testGetCapacityForTallySummariesWithNoCapacityFound() {
     // Given tally summary but no matching capacity data
     TallySummary tallyMessage = createTallySummary("org123", RHEL);
-    when(capacityRepository.streamBy(any(Specification.class))).thenReturn(Stream.empty());
+    when(capacityRepository.streamWithProductTagBy(any(Specification.class)))
+        .thenReturn(Stream.empty());
 
     // When
     var result = subscriptionCapacityService.getCapacityForTallySummary(tallyMessage);
@@ -229,8 +278,11 @@ class SubscriptionCapacityServiceTest {
   }
 
   private void givenExistingCapacityViews(SubscriptionCapacityView... capacityViews) {
-    when(capacityRepository.streamBy(any()))
-        .thenAnswer(invocationOnMock -> Stream.of(capacityViews));
+    when(capacityRepository.streamWithProductTagBy(any()))
+        .thenAnswer(
+            invocationOnMock ->
+                Stream.of(capacityViews)
+                    .map(view -> new ProductTagCapacity(view.getProductTag(), view)));
   }
 
   private void assertSingleCapacityResult(
@@ -339,6 +391,7 @@ class SubscriptionCapacityServiceTest {
     capacityView.setSubscriptionNumber("SUB-" + subscriptionId);
     capacityView.setOrgId(orgId);
     capacityView.setProductTag(productTag.getValue());
+    capacityView.setBillingProviderId("billing-provider-" + subscriptionId);
     capacityView.setSku("RH00001");
     capacityView.setProductName(productTag + " Product");
     capacityView.setQuantity(100L);
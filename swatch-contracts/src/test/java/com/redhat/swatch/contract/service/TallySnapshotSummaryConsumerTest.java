@@ -66,7 +66,7 @@ class TallySnapshotSummaryConsumerTest {
   @InjectMock SubscriptionCapacityService capacityService;
   @InjectMock UtilizationSummaryProducer utilizationProducer;
 
-  private InMemorySource<TallySummary> tallyInChannel;
+  private InMemorySource<List<TallySummary>> tallyInChannel;
 
   @BeforeEach
   public void setup() {
@@ -256,6 +256,38 @@ class TallySnapshotSummaryConsumerTest {
     thenUtilizationSummariesSent(2);
   }
 
+  @Test
+  void testBatchIsResolvedOnceAndSentInOrder() {
+    // Given tally summaries of two orgs polled together
+    TallySnapshot firstSnapshot = givenTallySnapshot("RHEL", TallySnapshot.Sla.PREMIUM);
+    TallySnapshot secondSnapshot = givenTallySnapshot("OpenShift", TallySnapshot.Sla.STANDARD);
+    TallySnapshot otherOrgSnapshot = givenTallySnapshot("RHEL", TallySnapshot.Sla.PREMIUM);
+    TallySummary first =
+        new TallySummary().withOrgId(ORG_ID).withTallySnapshots(List.of(firstSnapshot));
+    TallySummary otherOrg =
+        new TallySummary().withOrgId("org456").withTallySnapshots(List.of(otherOrgSnapshot));
+    TallySummary second =
+        new TallySummary().withOrgId(ORG_ID).withTallySnapshots(List.of(secondSnapshot));
+    givenCapacityServiceReturnsEmpty();
+
+    // When the batch is received
+    tallyInChannel.send(List.of(first, otherOrg, second));
+
+    // Then the capacities are resolved once and the summaries are sent in a single call in order
+    thenUtilizationSummariesSent(3);
+    verify(capacityService).getCapacityForTallySummaries(List.of(first, otherOrg, second));
+    verify(utilizationProducer)
+        .send(
+            argThat(
+                summaries -> {
+                  assertEquals(
+                      List.of(
+                          firstSnapshot.getId(), otherOrgSnapshot.getId(), secondSnapshot.getId()),
+                      summaries.stream().map(UtilizationSummary::getTallySnapshotUuid).toList());
+                  return true;
+                }));
+  }
+
   @Test
   void testMetricIdNormalizationWithDifferentFormats() {
     // Test that metric IDs are matched correctly regardless of case and separator format
@@ -309,7 +341,7 @@ class TallySnapshotSummaryConsumerTest {
   }
 
   private void whenReceiveTallySummary(TallySummary tallySummary) {
-    tallyInChannel.send(tallySummary);
+    tallyInChannel.send(List.of(tallySummary));
   }
 
   private TallySummary givenTallySummaryWithCriteria(
@@ -454,17 +486,17 @@ class TallySnapshotSummaryConsumerTest {
 
   private void givenCapacityServiceReturns(
       Map<TallySnapshot, List<SubscriptionCapacityView>> capacityViews) {
-    when(capacityService.getCapacityForTallySummary(any())).thenReturn(capacityViews);
+    when(capacityService.getCapacityForTallySummaries(any())).thenReturn(capacityViews);
   }
 
   private void givenCapacityServiceReturns(
       TallySnapshot snapshot, List<SubscriptionCapacityView> capacityViews) {
-    when(capacityService.getCapacityForTallySummary(any()))
+    when(capacityService.getCapacityForTallySummaries(any()))
         .thenReturn(Map.of(snapshot, capacityViews));
   }
 
   private void givenCapacityServiceReturnsEmpty() {
-    when(capacityService.getCapacityForTallySummary(any())).thenReturn(Map.of());
+    when(capacityService.getCapacityForTallySummaries(any())).thenReturn(Map.of());
   }
 
   private void thenUtilizationSummariesSent(int expectedCount) {
@@ -22,14 +22,11 @@ package org.candlepin.subscriptions.db;
 
 import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
-import com.google.common.collect.Iterables;
 import jakarta.persistence.QueryHint;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.db.model.EventKey;
 import org.candlepin.subscriptions.db.model.EventRecord;
@@ -38,6 +35,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * DB repository for Event records.
@@ -119,19 +118,60 @@ public interface EventRecordRepository
   @Query("DELETE FROM EventRecord e WHERE e.timestamp<:cutoffDate")
   void deleteInBulkEventRecordsByTimestampBefore(OffsetDateTime cutoffDate);
 
-  void deleteByOrgId(String orgId);
-
-  void deleteByEventId(UUID eventId);
-
+  /**
+   * Delete a batch of old event records from the events_historic partition, which holds the events
+   * stored before the events table was partitioned by month. Each batch is committed on its own.
+   *
+   * @param cutoffDate Dates before this timestamp get deleted
+   * @param batchSize maximum number of events to delete
+   * @return the number of deleted events
+   */
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Modifying
   @Query(
       nativeQuery = true,
       value =
           """
-          select * from events
-            where org_id=:orgId and data->>'service_type'=:serviceType and
-              record_date > :after
-              order by record_date asc
-          """)
+    DELETE FROM events_historic
+    WHERE ctid IN (
+      SELECT ctid FROM events_historic
+      WHERE timestamp < :cutoffDate
+      LIMIT :batchSize
+    )
+    """)
+  int deleteHistoricEventsBefore(
+      @Param("cutoffDate") OffsetDateTime cutoffDate, @Param("batchSize") int batchSize);
+
+  void deleteByOrgId(String orgId);
+
+  void deleteByEventId(UUID eventId);
+
+  /**
+   * Events recorded after a given date for an org and service type, ordered by record date.
+   *
+   * <pre>
+   *   NOTE: Both branches are range scans of an index on (org_id, service type,
+   *         record_date), which Postgres merges in record_date order without
+   *         sorting. The second branch finds the events stored before the
+   *         service_type column was introduced and not backfilled yet
+   *         (see EventServiceTypeMigration); its partial index is empty once
+   *         the backfill has completed.
+   * </pre>
+   */
+  String ORDERED_EVENT_STREAM_QUERY =
+      """
+      select * from (
+        select * from events
+          where org_id=:orgId and service_type=:serviceType and record_date > :after
+        union all
+        select * from events
+          where org_id=:orgId and service_type is null and data->>'service_type'=:serviceType
+            and record_date > :after
+      ) e
+      order by record_date asc
+      """;
+
+  @Query(nativeQuery = true, value = ORDERED_EVENT_STREAM_QUERY)
   @QueryHints(value = {@QueryHint(name = HINT_FETCH_SIZE, value = "1024")})
   Stream<EventRecord> fetchOrderedEventStream(
       @Param("orgId") String orgId,
@@ -142,8 +182,15 @@ public interface EventRecordRepository
    * Find all {@link EventRecord}s that share the same lookup key.
    *
    * <pre>
-   *   NOTE: This method builds a set of tuples from the supplied keys and executes
-   *         a native Postgres query. This is not possible in JPA.
+   *   NOTE: The keys are passed as three typed arrays that are unnested into a
+   *         relation and joined to the events table. This is not possible in JPA.
+   *
+   *         The statement text does not depend on the number of keys, so Postgres
+   *         can reuse the prepared statement and its plan across batches.
+   *
+   *         The events table is partitioned by month on timestamp. The bounds
+   *         of the batch timestamps are passed as well so that Postgres only
+   *         scans the partitions of the months in the batch.
    *
    *         Results are ordered by record_date to ensure deterministic ordering
    *         for conflict resolution. This prevents issues where database result
@@ -154,29 +201,49 @@ public interface EventRecordRepository
    * @return a list of conflicting events ordered by record_date (oldest first)
    */
   default List<EventRecord> findConflictingEvents(Set<EventKey> keys) {
-    List<EventRecord> found = new ArrayList<>();
-    // Partition the incoming keys to ensure we do not exceed the IN clause limit
-    // for Postgres.
-    for (List<EventKey> nextBatch : Iterables.partition(keys, Short.MAX_VALUE)) {
-      Set<String> matchingTuples =
-          nextBatch.stream()
-              .map(
-                  e ->
-                      String.format(
-                          "('%s', '%s', '%s')", e.getOrgId(), e.getInstanceId(), e.getTimestamp()))
-              .collect(Collectors.toSet());
-
-      String query =
-          String.format(
-              """
-              select * from events
-              where (org_id, instance_id, timestamp)
-              in (%s)
-              order by record_date
-              """,
-              String.join(",", matchingTuples));
-      found.addAll(getEntityManager().createNativeQuery(query, EventRecord.class).getResultList());
+    if (keys.isEmpty()) {
+      return List.of();
     }
-    return found;
+    String[] orgIds = new String[keys.size()];
+    String[] instanceIds = new String[keys.size()];
+    OffsetDateTime[] timestamps = new OffsetDateTime[keys.size()];
+    OffsetDateTime earliest = null;
+    OffsetDateTime latest = null;
+    int i = 0;
+    for (EventKey key : keys) {
+      orgIds[i] = key.getOrgId();
+      instanceIds[i] = key.getInstanceId();
+      timestamps[i] = key.getTimestamp();
+      if (timestamps[i] != null && (earliest == null || timestamps[i].isBefore(earliest))) {
+        earliest = timestamps[i];
+      }
+      if (timestamps[i] != null && (latest == null || timestamps[i].isAfter(latest))) {
+        latest = timestamps[i];
+      }
+      i++;
+    }
+    return findByKeyArrays(orgIds, instanceIds, timestamps, earliest, latest);
   }
+
+  @Query(
+      nativeQuery = true,
+      value =
+          """
+          select e.* from events e
+            join unnest(
+                cast(:orgIds as varchar[]),
+                cast(:instanceIds as varchar[]),
+                cast(:timestamps as timestamptz[])) as k(org_id, instance_id, timestamp)
+              on e.org_id = k.org_id
+                and e.instance_id = k.instance_id
+                and e.timestamp = k.timestamp
+            where e.timestamp between :earliest and :latest
+            order by e.record_date
+          """)
+  List<EventRecord> findByKeyArrays(
+      @Param("orgIds") String[] orgIds,
+      @Param("instanceIds") String[] instanceIds,
+      @Param("timestamps") OffsetDateTime[] timestamps,
+      @Param("earliest") OffsetDateTime earliest,
+      @Param("latest") OffsetDateTime latest);
 }
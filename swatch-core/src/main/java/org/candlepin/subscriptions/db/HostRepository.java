@@ -24,6 +24,7 @@ import static org.hibernate.jpa.AvailableHints.HINT_FETCH_SIZE;
 
 import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.util.MetricIdUtils;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.QueryHint;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
@@ -36,11 +37,15 @@ import jakarta.persistence.criteria.Root;
 import jakarta.validation.constraints.NotNull;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.candlepin.subscriptions.db.model.BillingProvider;
 import org.candlepin.subscriptions.db.model.DbReportCriteria;
@@ -56,9 +61,11 @@ import org.candlepin.subscriptions.db.model.ServiceLevel;
 import org.candlepin.subscriptions.db.model.TallyHostView;
 import org.candlepin.subscriptions.db.model.Usage;
 import org.candlepin.subscriptions.resource.ResourceUtils;
+import org.hibernate.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -79,6 +86,9 @@ public interface HostRepository
   String MONTHLY_TOTAL_JOIN_INSTANCE_HOURS = "instanceHoursMonthlyTotal";
   String MONTHLY_TOTALS = "monthlyTotals";
 
+  /** Sorts before any other host id, so that seeking after it starts at the first guest. */
+  UUID FIRST_GUEST_ID = new UUID(0, 0);
+
   /* NOTE: in below query, ordering is crucial for correct streaming reconciliation of HBI data */
   @Query(
       value =
@@ -560,6 +570,27 @@ public interface HostRepository
   Page<Host> getGuestHostsByHypervisorInstanceId(
       @Param("orgId") String orgId, @Param("instanceId") String instanceId, Pageable pageable);
 
+  /**
+   * Keyset ("cursor") variant of {@link #getGuestHostsByHypervisorInstanceId}: fetches the guests
+   * ordered by id that follow the given id, without counting the guests.
+   *
+   * @param afterId id of the last guest of the previous slice, {@link #FIRST_GUEST_ID} for the
+   *     first slice
+   * @param pageable the size of the slice; its page number must be 0
+   */
+  @Query(
+      "select distinct h1 from Host h1 where "
+          + "h1.orgId = :orgId and "
+          + "h1.id > :afterId and "
+          + "h1.hypervisorUuid in (select h2.subscriptionManagerId from Host h2 where "
+          + "h2.orgId=:orgId and h2.instanceId = :instanceId) "
+          + "order by h1.id")
+  Slice<Host> getGuestHostsByHypervisorInstanceIdAfter(
+      @Param("orgId") String orgId,
+      @Param("instanceId") String instanceId,
+      @Param("afterId") UUID afterId,
+      Pageable pageable);
+
   Optional<Host> findById(UUID id);
 
   void deleteByOrgId(String orgId);
@@ -579,6 +610,102 @@ public interface HostRepository
   Stream<Host> findAllByOrgIdAndInstanceIdIn(
       @Param("orgId") String orgId, @Param("instanceIds") Set<String> instanceIds);
 
+  /**
+   * Loads the hosts of an org for applying a batch of events to them, without fetching the product
+   * of their buckets and monthly totals: the buckets and the monthly totals are each fetched into
+   * the loaded hosts by a separate query. Only the monthly totals of the given months are loaded,
+   * so the returned hosts must not be used to change the totals of any other month.
+   *
+   * <p>At most one host is returned per instance ID. When an instance ID has several hosts, the one
+   * having monthly totals in any month is kept, so that usage keeps being added to the same host
+   * even when the batch only covers months it has no totals for yet.
+   *
+   * @param orgId the org of the hosts
+   * @param instanceIds the instance IDs of the hosts
+   * @param months the months, in YYYY-MM format, whose monthly totals are loaded
+   * @return the matching hosts, one per instance ID
+   */
+  default List<Host> findAllByOrgIdAndInstanceIdInWithMonthlyTotalsOf(
+      String orgId, Set<String> instanceIds, Set<String> months) {
+    EntityManager entityManager = getEntityManager();
+    // measurements and last applied event dates are eager and small, so they're fetched here
+    List<Host> hosts =
+        entityManager
+            .createQuery(
+                """
+                select h from Host h
+                left join fetch h.measurements
+                left join fetch h.lastAppliedEventRecordDateByServiceType
+                where h.orgId=:orgId
+                and h.instanceId in :instanceIds
+                """,
+                Host.class)
+            .setParameter("orgId", orgId)
+            .setParameter("instanceIds", instanceIds)
+            .getResultList();
+    if (hosts.isEmpty()) {
+      return hosts;
+    }
+    // duplicates are resolved before the monthly totals filter is enabled, since the filtered
+    // totals no longer tell which host has totals
+    hosts = withoutDuplicatedInstances(hosts);
+
+    List<UUID> hostIds = hosts.stream().map(Host::getId).toList();
+    entityManager
+        .createQuery(
+            "select h from Host h left join fetch h.buckets where h.id in :ids", Host.class)
+        .setParameter("ids", hostIds)
+        .getResultList();
+    Session session = entityManager.unwrap(Session.class);
+    session
+        .enableFilter(Host.MONTHLY_TOTALS_IN_MONTHS_FILTER)
+        .setParameterList(Host.MONTHS_PARAMETER, months);
+    try {
+      entityManager
+          .createQuery(
+              "select h from Host h left join fetch h.monthlyTotals where h.id in :ids", Host.class)
+          .setParameter("ids", hostIds)
+          .getResultList();
+    } finally {
+      session.disableFilter(Host.MONTHLY_TOTALS_IN_MONTHS_FILTER);
+    }
+    return hosts;
+  }
+
+  private List<Host> withoutDuplicatedInstances(List<Host> hosts) {
+    Map<String, List<Host>> hostsByInstanceId =
+        hosts.stream()
+            .collect(
+                Collectors.groupingBy(
+                    Host::getInstanceId, LinkedHashMap::new, Collectors.toList()));
+    List<UUID> duplicatedHostIds =
+        hostsByInstanceId.values().stream()
+            .filter(duplicates -> duplicates.size() > 1)
+            .flatMap(List::stream)
+            .map(Host::getId)
+            .toList();
+    if (duplicatedHostIds.isEmpty()) {
+      return hosts;
+    }
+
+    Set<UUID> hostIdsWithMonthlyTotals =
+        new HashSet<>(
+            getEntityManager()
+                .createQuery(
+                    "select distinct h.id from Host h join h.monthlyTotals where h.id in :ids",
+                    UUID.class)
+                .setParameter("ids", duplicatedHostIds)
+                .getResultList());
+    return hostsByInstanceId.values().stream()
+        .map(
+            duplicates ->
+                duplicates.stream()
+                    .filter(host -> hostIdsWithMonthlyTotals.contains(host.getId()))
+                    .reduce((first, second) -> second)
+                    .orElse(duplicates.get(0)))
+        .toList();
+  }
+
   record BillingAccountIdRecord(
       String productId, BillingProvider billingProvider, String billingAccountId) {}
 
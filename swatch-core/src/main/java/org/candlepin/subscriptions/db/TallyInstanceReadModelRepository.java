@@ -0,0 +1,193 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.db;
+
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains the rows of {@code tally_instance_read_model}, which is read by {@link
+ * TallyInstanceViewRepository} instead of the primary instance views when the {@code
+ * ENABLE_INSTANCE_READ_MODEL} feature flag is enabled.
+ *
+ * <p>The rows of a host are rebuilt from the primary instance views, restricted to the host, so the
+ * read model returns exactly what the views would. The rows are removed with their host by the
+ * foreign key of the table.
+ *
+ * <p>The rows of a host are deleted and inserted again, so the host rows are locked before, in id
+ * order: concurrent rebuilds of the same host would otherwise both insert its rows.
+ */
+@Repository
+@AllArgsConstructor
+@Slf4j
+public class TallyInstanceReadModelRepository {
+
+  private static final String COLUMNS =
+      """
+      org_id, id, instance_id, display_name, host_billing_provider, host_billing_account_id,
+      bucket_billing_provider, bucket_billing_account_id, last_seen, last_applied_event_record_date,
+      num_of_guests, product_id, sla, usage, measurement_type, sockets, cores,
+      subscription_manager_id, inventory_id, hypervisor_uuid, metrics
+      """;
+
+  private static final String LOCK_HOSTS =
+      "SELECT id FROM hosts WHERE id IN (:hostIds) ORDER BY id FOR UPDATE";
+
+  private static final String DELETE_BY_HOSTS =
+      "DELETE FROM tally_instance_read_model WHERE id IN (:hostIds)";
+
+  private static final String INSERT_NON_PAYG_BY_HOSTS =
+      "INSERT INTO tally_instance_read_model (payg, "
+          + COLUMNS
+          + ") SELECT false, "
+          + COLUMNS
+          + " FROM tally_instance_non_payg_primary_view WHERE id IN (:hostIds)";
+
+  private static final String INSERT_PAYG_BY_HOSTS =
+      "INSERT INTO tally_instance_read_model (payg, month, "
+          + COLUMNS
+          + ") SELECT true, month, "
+          + COLUMNS
+          + " FROM tally_instance_payg_primary_view WHERE id IN (:hostIds)";
+
+  private static final String LOCK_HOSTS_BY_ORG =
+      "SELECT id FROM hosts WHERE org_id = :orgId ORDER BY id FOR UPDATE";
+
+  private static final String DELETE_BY_ORG =
+      "DELETE FROM tally_instance_read_model WHERE org_id = :orgId";
+
+  private static final String INSERT_NON_PAYG_BY_ORG =
+      "INSERT INTO tally_instance_read_model (payg, "
+          + COLUMNS
+          + ") SELECT false, "
+          + COLUMNS
+          + " FROM tally_instance_non_payg_primary_view WHERE org_id = :orgId";
+
+  private static final String INSERT_PAYG_BY_ORG =
+      "INSERT INTO tally_instance_read_model (payg, month, "
+          + COLUMNS
+          + ") SELECT true, month, "
+          + COLUMNS
+          + " FROM tally_instance_payg_primary_view WHERE org_id = :orgId";
+
+  private static final String SELECT_HOSTS_WITH_PRODUCT =
+      """
+      SELECT DISTINCT b.host_id FROM host_tally_buckets b
+      JOIN hosts h ON h.id = b.host_id
+      WHERE b.product_id = :productId
+        AND (CAST(:orgId AS VARCHAR) IS NULL OR h.org_id = :orgId)
+        AND b.host_id > :afterHostId
+      ORDER BY b.host_id
+      LIMIT :batchSize
+      """;
+
+  private final EntityManager entityManager;
+
+  /**
+   * Rebuilds the read model rows of the given hosts. The pending changes of the hosts must be
+   * flushed before.
+   *
+   * @param hostIds the IDs of the hosts
+   * @return the number of rows written
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public int refreshHosts(Collection<UUID> hostIds) {
+    if (hostIds.isEmpty()) {
+      return 0;
+    }
+    entityManager.createNativeQuery(LOCK_HOSTS).setParameter("hostIds", hostIds).getResultList();
+    entityManager
+        .createNativeQuery(DELETE_BY_HOSTS)
+        .setParameter("hostIds", hostIds)
+        .executeUpdate();
+    int rows =
+        entityManager
+                .createNativeQuery(INSERT_NON_PAYG_BY_HOSTS)
+                .setParameter("hostIds", hostIds)
+                .executeUpdate()
+            + entityManager
+                .createNativeQuery(INSERT_PAYG_BY_HOSTS)
+                .setParameter("hostIds", hostIds)
+                .executeUpdate();
+    log.debug("Refreshed {} instance read model rows for {} hosts", rows, hostIds.size());
+    return rows;
+  }
+
+  /**
+   * Rebuilds the read model rows of the next batch of the hosts that have buckets of a product, in
+   * a new transaction.
+   *
+   * @param orgId the org ID, or null for all the orgs
+   * @param productId the product ID
+   * @param afterHostId only hosts with a greater ID are refreshed
+   * @param batchSize the max number of hosts to refresh
+   * @return the IDs of the refreshed hosts, in ascending order
+   */
+  @SuppressWarnings("unchecked")
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public List<UUID> refreshHostsWithProduct(
+      String orgId, String productId, UUID afterHostId, int batchSize) {
+    List<UUID> hostIds =
+        entityManager
+            .createNativeQuery(SELECT_HOSTS_WITH_PRODUCT, UUID.class)
+            .setParameter("orgId", orgId)
+            .setParameter("productId", productId)
+            .setParameter("afterHostId", afterHostId)
+            .setParameter("batchSize", batchSize)
+            .getResultList();
+    refreshHosts(hostIds);
+    return hostIds;
+  }
+
+  /**
+   * Rebuilds the read model rows of all the hosts of an org, including removing the rows of the
+   * hosts that are gone. The pending changes of the hosts must be flushed before.
+   *
+   * <p>This evaluates the views for the whole org, so it is meant for loading the existing hosts.
+   * The tally refreshes the hosts it writes with {@link #refreshHosts}.
+   *
+   * @param orgId the org ID
+   * @return the number of rows written
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public int refreshOrg(String orgId) {
+    entityManager.createNativeQuery(LOCK_HOSTS_BY_ORG).setParameter("orgId", orgId).getResultList();
+    entityManager.createNativeQuery(DELETE_BY_ORG).setParameter("orgId", orgId).executeUpdate();
+    int rows =
+        entityManager
+                .createNativeQuery(INSERT_NON_PAYG_BY_ORG)
+                .setParameter("orgId", orgId)
+                .executeUpdate()
+            + entityManager
+                .createNativeQuery(INSERT_PAYG_BY_ORG)
+                .setParameter("orgId", orgId)
+                .executeUpdate();
+    log.debug("Refreshed {} instance read model rows for orgId={}", rows, orgId);
+    return rows;
+  }
+}
@@ -23,17 +23,23 @@ package org.candlepin.subscriptions.db;
 import com.redhat.swatch.configuration.registry.MetricId;
 import com.redhat.swatch.configuration.registry.ProductId;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.MapJoin;
 import jakarta.persistence.criteria.Nulls;
 import jakarta.persistence.criteria.Order;
 import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.ws.rs.core.Response;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.configuration.FeatureFlags;
@@ -47,17 +53,23 @@ import org.candlepin.subscriptions.db.model.TallyInstanceViewKey_;
 import org.candlepin.subscriptions.db.model.TallyInstanceView_;
 import org.candlepin.subscriptions.db.model.TallyInstancesDbReportCriteria;
 import org.candlepin.subscriptions.db.model.Usage;
+import org.candlepin.subscriptions.exception.ErrorCode;
+import org.candlepin.subscriptions.exception.SubscriptionsException;
+import org.candlepin.subscriptions.resource.PageCursor;
 import org.candlepin.subscriptions.resource.ResourceUtils;
 import org.candlepin.subscriptions.utilization.api.v1.model.SortDirection;
 import org.hibernate.query.criteria.JpaOrder;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
-@SuppressWarnings({"linelength", "indentation", "unchecked"})
+@SuppressWarnings({"linelength", "indentation", "unchecked", "rawtypes"})
 @Repository
 @AllArgsConstructor
 @Slf4j
@@ -79,12 +91,45 @@ public class TallyInstanceViewRepository {
   public static final Map<String, String> FIELD_SORT_PARAM_MAPPING_FOR_NON_PAYG =
       Map.of("sockets", TallyInstanceView_.SOCKETS, "cores", TallyInstanceView_.CORES);
 
+  private static final Map<String, Function<TallyInstanceView, Object>> CURSOR_SORT_VALUES =
+      Map.of(
+          TallyInstanceView_.DISPLAY_NAME,
+          TallyInstanceView::getDisplayName,
+          TallyInstanceView_.LAST_SEEN,
+          TallyInstanceView::getLastSeen,
+          TallyInstanceView_.HOST_BILLING_PROVIDER,
+          TallyInstanceView::getHostBillingProvider,
+          TallyInstanceView_.NUM_OF_GUESTS,
+          TallyInstanceView::getNumOfGuests,
+          TallyInstanceViewKey_.MEASUREMENT_TYPE,
+          view -> view.getKey().getMeasurementType(),
+          TallyInstanceView_.SOCKETS,
+          TallyInstanceView::getSockets,
+          TallyInstanceView_.CORES,
+          TallyInstanceView::getCores);
+
+  /** Getters of the key columns, in the order of {@link #keyPaths}. */
+  private static final List<Function<TallyInstanceView, Object>> CURSOR_KEY_VALUES =
+      List.of(
+          TallyInstanceView::getId,
+          view -> view.getKey().getSla(),
+          view -> view.getKey().getUsage(),
+          view -> view.getKey().getBucketBillingProvider(),
+          view -> view.getKey().getBucketBillingAccountId(),
+          view -> view.getKey().getMeasurementType());
+
+  /** Number of values of an instances cursor: the sort column followed by the key columns. */
+  public static final int CURSOR_SIZE = 1 + CURSOR_KEY_VALUES.size();
+
   private final TallyInstancePaygViewRepository paygViewRepository;
   private final TallyInstanceNonPaygViewRepository nonPaygViewRepository;
 
   private final TallyInstancePaygPrimaryViewRepository paygPrimaryViewRepository;
   private final TallyInstanceNonPaygPrimaryViewRepository nonPaygPrimaryViewRepository;
 
+  private final TallyInstancePaygReadModelRepository paygReadModelRepository;
+  private final TallyInstanceNonPaygReadModelRepository nonPaygReadModelRepository;
+
   private final FeatureFlags featureFlags;
 
   /**
@@ -150,7 +195,201 @@ public class TallyInstanceViewRepository {
   }
 
   /**
-   * Selects the appropriate repository based on product type and primary row flag.
+   * Find all Hosts by bucket criteria and return a slice of TallyInstanceView objects, using keyset
+   * ("cursor") pagination. Instead of skipping an offset, the query seeks past the sort key of the
+   * last instance of the previous slice, and no count query is issued, so fetching a deep page
+   * costs the same as fetching the first one.
+   *
+   * <p>The instances are always ordered by the sort column and then by the view key, so that the
+   * sort key is unique. Sorting by a metric ID is not supported, as the metric values are not
+   * columns of the view.
+   *
+   * @param cursor The cursor of the previous slice (see {@link #cursorAfter}), or {@link
+   *     PageCursor#FIRST} for the first slice.
+   * @return a slice of the instances following the cursor.
+   * @see #findAllBy
+   */
+  @SuppressWarnings("java:S107")
+  public Slice<TallyInstanceView> findAllAfter(
+      String orgId,
+      ProductId productId,
+      ServiceLevel sla,
+      Usage usage,
+      String displayNameSubstring,
+      Integer minCores,
+      Integer minSockets,
+      String month,
+      MetricId referenceMetricId,
+      BillingProvider billingProvider,
+      String billingAccountId,
+      List<HardwareMeasurementType> hardwareMeasurementTypes,
+      PageCursor cursor,
+      Integer limit,
+      String sort,
+      SortDirection dir) {
+
+    Objects.requireNonNull(productId, "productId must be provided");
+    String column = findCursorColumnToSort(sort, productId.isPayg());
+
+    TallyInstancesDbReportCriteria searchCriteria =
+        TallyInstancesDbReportCriteria.builder()
+            .orgId(orgId)
+            .productId(productId)
+            .sla(sla)
+            .usage(usage)
+            .displayNameSubstring(displayNameSubstring)
+            .minCores(minCores)
+            .minSockets(minSockets)
+            .month(month)
+            .metricId(referenceMetricId)
+            .billingProvider(billingProvider)
+            .billingAccountId(billingAccountId)
+            .hardwareMeasurementTypes(hardwareMeasurementTypes)
+            .usePrimary(isPrimaryRowSearchEnabled())
+            .build();
+    boolean isAscending = dir == null || SortDirection.ASC.equals(dir);
+    int pageSize = ResourceUtils.getPageable(null, limit).getPageSize();
+    var repository = (JpaSpecificationExecutor<TallyInstanceView>) selectRepository(searchCriteria);
+    Specification<TallyInstanceView> specification = buildSearchSpecification(searchCriteria);
+    List<TallyInstanceView> instances =
+        repository.findBy(
+            specification.and(seekAfter(column, isAscending, cursor)),
+            query -> query.limit(pageSize + 1).all());
+    boolean hasNext = instances.size() > pageSize;
+    return new SliceImpl<>(
+        hasNext ? instances.subList(0, pageSize) : instances, PageRequest.of(0, pageSize), hasNext);
+  }
+
+  /**
+   * Builds the cursor pointing after an instance returned by {@link #findAllAfter}.
+   *
+   * @param instance the last instance of a slice
+   * @param sort the sort parameter the slice was fetched with
+   * @param productId the product the slice was fetched for
+   * @return the cursor of the following slice
+   */
+  public static PageCursor cursorAfter(
+      TallyInstanceView instance, String sort, ProductId productId) {
+    String column = findCursorColumnToSort(sort, productId.isPayg());
+    List<Object> values = new ArrayList<>();
+    values.add(column == null ? null : CURSOR_SORT_VALUES.get(column).apply(instance));
+    CURSOR_KEY_VALUES.forEach(getter -> values.add(getter.apply(instance)));
+    return PageCursor.of(values.toArray());
+  }
+
+  /**
+   * Orders by the sort column followed by the view key, and restricts the rows to the ones
+   * following the cursor in that order. Nulls of the sort column come first when ascending and last
+   * when descending, like in {@link #orderBy}, while the key columns are never null.
+   */
+  static <T extends TallyInstanceView> Specification<T> seekAfter(
+      String column, boolean isAscending, PageCursor cursor) {
+    return (root, query, builder) -> {
+      List<Order> orders = new ArrayList<>();
+      Path<Object> sortColumn = column == null ? null : sortPath(root, column);
+      if (sortColumn != null) {
+        orders.add(orderByColumn(builder, sortColumn, isAscending));
+      }
+      List<Path<Object>> keyPaths = keyPaths(root);
+      keyPaths.forEach(path -> orders.add(builder.asc(path)));
+      query.orderBy(orders);
+
+      if (cursor.isFirst()) {
+        return null;
+      }
+      Predicate afterKey = lexicographicallyAfter(builder, keyPaths, cursor, 0);
+      if (sortColumn == null) {
+        return afterKey;
+      }
+      Object value = parseCursorValue(sortColumn.getJavaType(), cursor.value(0));
+      if (value == null) {
+        return isAscending
+            ? builder.or(
+                builder.isNotNull(sortColumn), builder.and(builder.isNull(sortColumn), afterKey))
+            : builder.and(builder.isNull(sortColumn), afterKey);
+      }
+      Predicate sameValue = builder.and(builder.equal(sortColumn, value), afterKey);
+      return isAscending
+          ? builder.or(builder.greaterThan((Expression) sortColumn, (Comparable) value), sameValue)
+          : builder.or(
+              builder.lessThan((Expression) sortColumn, (Comparable) value),
+              builder.isNull(sortColumn),
+              sameValue);
+    };
+  }
+
+  private static Predicate lexicographicallyAfter(
+      CriteriaBuilder builder, List<Path<Object>> paths, PageCursor cursor, int index) {
+    Path<Object> path = paths.get(index);
+    // the first cursor value holds the sort column
+    Comparable value = (Comparable) parseCursorValue(path.getJavaType(), cursor.value(index + 1));
+    if (value == null) {
+      throw PageCursor.invalidCursor();
+    }
+    Predicate greater = builder.greaterThan((Expression) path, value);
+    if (index == paths.size() - 1) {
+      return greater;
+    }
+    return builder.or(
+        greater,
+        builder.and(
+            builder.equal(path, value), lexicographicallyAfter(builder, paths, cursor, index + 1)));
+  }
+
+  private static Path<Object> sortPath(Root<?> root, String column) {
+    if (TallyInstanceViewKey_.MEASUREMENT_TYPE.equals(column)) {
+      return root.get(TallyInstanceView_.KEY).get(column);
+    }
+    return root.get(column);
+  }
+
+  private static List<Path<Object>> keyPaths(Root<?> root) {
+    Path<Object> key = root.get(TallyInstanceView_.KEY);
+    return List.of(
+        root.get(TallyInstanceView_.ID),
+        key.get(TallyInstanceViewKey_.SLA),
+        key.get(TallyInstanceViewKey_.USAGE),
+        key.get(TallyInstanceViewKey_.BUCKET_BILLING_PROVIDER),
+        key.get(TallyInstanceViewKey_.BUCKET_BILLING_ACCOUNT_ID),
+        key.get(TallyInstanceViewKey_.MEASUREMENT_TYPE));
+  }
+
+  private static Object parseCursorValue(Class<?> type, String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      if (type.isEnum()) {
+        return Enum.valueOf((Class) type, value);
+      } else if (Integer.class.equals(type)) {
+        return Integer.valueOf(value);
+      } else if (OffsetDateTime.class.equals(type)) {
+        return OffsetDateTime.parse(value);
+      }
+      return value;
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw PageCursor.invalidCursor();
+    }
+  }
+
+  private static String findCursorColumnToSort(String sort, boolean isPayg) {
+    if (sort == null) {
+      return null;
+    }
+    String column = findColumnToSort(sort.toLowerCase(), isPayg);
+    if (column == null && getMetricIdToSort(sort).isPresent()) {
+      throw new SubscriptionsException(
+          ErrorCode.VALIDATION_FAILED_ERROR,
+          Response.Status.BAD_REQUEST,
+          "Unsupported sort",
+          "Sorting by a metric ID is not supported with a cursor");
+    }
+    return column;
+  }
+
+  /**
+   * Selects the appropriate repository based on product type and primary row flag. Primary row
+   * searches read the instance read model instead of the primary views when it is enabled.
    *
    * @param criteria the search criteria containing productId and usePrimary
    * @return the JPA repository executor for the appropriate view
@@ -163,6 +402,11 @@ public class TallyInstanceViewRepository {
 
     boolean usePrimary = usePrimary(criteria);
     log.debug("Using primary row search for instance view: {}", usePrimary);
+    if (usePrimary && isInstanceReadModelEnabled()) {
+      return criteria.getProductId().isPayg()
+          ? paygReadModelRepository
+          : nonPaygReadModelRepository;
+    }
     if (criteria.getProductId().isPayg()) {
       return usePrimary ? paygPrimaryViewRepository : paygViewRepository;
     }
@@ -178,6 +422,15 @@ public class TallyInstanceViewRepository {
     return featureFlags.isEnabled(FeatureFlags.ENABLE_HTB_PRIMARY_ROW_SEARCHES, false);
   }
 
+  /**
+   * Determines if primary row searches read the instance read model via feature flag.
+   *
+   * @return true if the ENABLE_INSTANCE_READ_MODEL feature flag is enabled
+   */
+  public boolean isInstanceReadModelEnabled() {
+    return featureFlags.isEnabled(FeatureFlags.ENABLE_INSTANCE_READ_MODEL, false);
+  }
+
   static <T extends TallyInstanceView> Specification<T> socketsAndCoresGreaterThanOrEqualTo(
       Integer minCores, Integer minSockets) {
     return (root, query, builder) -> {
@@ -26,6 +26,7 @@ import static org.hibernate.jpa.AvailableHints.HINT_READ_ONLY;
 import com.redhat.swatch.configuration.registry.MetricId;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.QueryHint;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.JoinType;
@@ -47,7 +48,10 @@ import org.candlepin.subscriptions.db.model.TallySnapshot;
 import org.candlepin.subscriptions.db.model.Usage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -102,6 +106,37 @@ public interface TallySnapshotRepository
       @Param("ending") OffsetDateTime ending,
       @Param("pageable") Pageable pageable);
 
+  /**
+   * Variant of {@link #findSnapshot} for keyset ("cursor") pagination: the caller moves the
+   * beginning past the last snapshot date of the previous slice instead of skipping an offset, and
+   * no count query is issued.
+   *
+   * @param pageable the size of the slice; its page number must be 0
+   */
+  @Query(
+      "SELECT distinct t FROM TallySnapshot t left join fetch t.tallyMeasurements where "
+          + "t.orgId = :orgId and "
+          + "t.productId = :productId and "
+          + "t.granularity = :granularity  and "
+          + "t.serviceLevel = :serviceLevel and "
+          + "t.usage = :usage and "
+          + "t.billingProvider = :billingProvider and "
+          + "t.billingAccountId = :billingAcctId and "
+          + "t.snapshotDate between :beginning and :ending "
+          + "order by t.snapshotDate")
+  @SuppressWarnings("java:S107")
+  Slice<TallySnapshot> findSnapshotSlice(
+      @Param("orgId") String orgId,
+      @Param("productId") String productId,
+      @Param("granularity") Granularity granularity,
+      @Param("serviceLevel") ServiceLevel serviceLevel,
+      @Param("usage") Usage usage,
+      @Param("billingProvider") BillingProvider billingProvider,
+      @Param("billingAcctId") String billingAccountId,
+      @Param("beginning") OffsetDateTime beginning,
+      @Param("ending") OffsetDateTime ending,
+      Pageable pageable);
+
   @Transactional(propagation = Propagation.REQUIRES_NEW)
   @Modifying
   @Query(
@@ -378,6 +413,115 @@ public interface TallySnapshotRepository
       OffsetDateTime ending,
       Pageable pageable) {
 
+    var typedQuery =
+        createSummedMeasurementsQuery(
+            isPrimary,
+            orgId,
+            productId,
+            metricId,
+            granularity,
+            serviceLevel,
+            usage,
+            billingProvider,
+            billingAccountId,
+            measurementTypes,
+            beginning,
+            ending);
+
+    // Apply pagination if provided
+    if (pageable != null && pageable.isPaged()) {
+      typedQuery.setFirstResult((int) pageable.getOffset());
+      typedQuery.setMaxResults(pageable.getPageSize());
+    }
+
+    // Execute query to get results
+    List<TallyMeasurementAggregate> results = typedQuery.getResultList();
+
+    // Get accurate total count if pagination is requested
+    long total = results.size();
+    if (pageable != null && pageable.isPaged()) {
+      total =
+          countSummedMeasurements(
+              isPrimary,
+              orgId,
+              productId,
+              metricId,
+              granularity,
+              serviceLevel,
+              usage,
+              billingProvider,
+              billingAccountId,
+              measurementTypes,
+              beginning,
+              ending);
+    }
+
+    return new PageImpl<>(results, pageable != null ? pageable : Pageable.unpaged(), total);
+  }
+
+  /**
+   * Variant of {@link #findSummedMeasurements} for keyset ("cursor") pagination: the caller moves
+   * the beginning past the last snapshot date of the previous slice instead of skipping an offset,
+   * and no count query is issued.
+   *
+   * @param limit the maximum number of summed measurements of the slice
+   * @return Slice of summed measurements ordered by snapshot date
+   */
+  @SuppressWarnings("java:S107")
+  default Slice<TallyMeasurementAggregate> findSummedMeasurementsSlice(
+      Boolean isPrimary,
+      String orgId,
+      String productId,
+      MetricId metricId,
+      Granularity granularity,
+      ServiceLevel serviceLevel,
+      Usage usage,
+      BillingProvider billingProvider,
+      String billingAccountId,
+      Set<HardwareMeasurementType> measurementTypes,
+      OffsetDateTime beginning,
+      OffsetDateTime ending,
+      int limit) {
+    var typedQuery =
+        createSummedMeasurementsQuery(
+            isPrimary,
+            orgId,
+            productId,
+            metricId,
+            granularity,
+            serviceLevel,
+            usage,
+            billingProvider,
+            billingAccountId,
+            measurementTypes,
+            beginning,
+            ending);
+    // fetch one more row to know whether there is a next slice
+    typedQuery.setMaxResults(limit + 1);
+    List<TallyMeasurementAggregate> results = typedQuery.getResultList();
+    boolean hasNext = results.size() > limit;
+    return new SliceImpl<>(
+        hasNext ? results.subList(0, limit) : results, PageRequest.of(0, limit), hasNext);
+  }
+
+  /**
+   * Creates the query summing the measurements grouped by snapshot date and metric ID, ordered by
+   * snapshot date. See {@link #findSummedMeasurements} for the parameters.
+   */
+  @SuppressWarnings("java:S107")
+  default TypedQuery<TallyMeasurementAggregate> createSummedMeasurementsQuery(
+      Boolean isPrimary,
+      String orgId,
+      String productId,
+      MetricId metricId,
+      Granularity granularity,
+      ServiceLevel serviceLevel,
+      Usage usage,
+      BillingProvider billingProvider,
+      String billingAccountId,
+      Set<HardwareMeasurementType> measurementTypes,
+      OffsetDateTime beginning,
+      OffsetDateTime ending) {
     // Get EntityManager from JpaSpecificationExecutor
     EntityManager em = getEntityManager();
     CriteriaBuilder cb = em.getCriteriaBuilder();
@@ -425,38 +569,10 @@ public interface TallySnapshotRepository
     // GROUP BY - NO measurementType, only date and metric
     query.groupBy(root.get("snapshotDate"), measurementJoin.key().get("metricId"));
 
-    // Create typed query
-    var typedQuery = em.createQuery(query);
+    // ORDER BY date, so that pages (and cursor slices) are stable
+    query.orderBy(cb.asc(root.get("snapshotDate")));
 
-    // Apply pagination if provided
-    if (pageable != null && pageable.isPaged()) {
-      typedQuery.setFirstResult((int) pageable.getOffset());
-      typedQuery.setMaxResults(pageable.getPageSize());
-    }
-
-    // Execute query to get results
-    List<TallyMeasurementAggregate> results = typedQuery.getResultList();
-
-    // Get accurate total count if pagination is requested
-    long total = results.size();
-    if (pageable != null && pageable.isPaged()) {
-      total =
-          countSummedMeasurements(
-              isPrimary,
-              orgId,
-              productId,
-              metricId,
-              granularity,
-              serviceLevel,
-              usage,
-              billingProvider,
-              billingAccountId,
-              measurementTypes,
-              beginning,
-              ending);
-    }
-
-    return new PageImpl<>(results, pageable != null ? pageable : Pageable.unpaged(), total);
+    return em.createQuery(query);
   }
 
   /**
@@ -72,6 +72,7 @@ public class EventRecord {
     this.eventType = event.getEventType();
     this.eventSource = event.getEventSource();
     this.instanceId = event.getInstanceId();
+    this.serviceType = event.getServiceType();
     this.timestamp = event.getTimestamp();
     this.recordDate = event.getRecordDate();
   }
@@ -92,6 +93,10 @@ public class EventRecord {
   @Column(name = "instance_id")
   private String instanceId;
 
+  /** Copy of the service type of the event data, which the hourly tally cursor is indexed on. */
+  @Column(name = "service_type")
+  private String serviceType;
+
   @Column(name = "metering_batch_id")
   private UUID meteringBatchId;
 
@@ -120,6 +125,7 @@ public class EventRecord {
       return;
     }
     this.event.setRecordDate(recordDate);
+    this.serviceType = event.getServiceType();
 
     if (event.getEventId() == null) {
       event.setEventId(UUID.randomUUID());
@@ -51,6 +51,9 @@ import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 
 /**
  * Represents a reported Host from inventory. This entity stores normalized facts for a Host
@@ -61,8 +64,19 @@ import lombok.ToString;
 @Entity
 @ToString
 @Table(name = "hosts")
+@FilterDef(
+    name = Host.MONTHLY_TOTALS_IN_MONTHS_FILTER,
+    parameters = @ParamDef(name = Host.MONTHS_PARAMETER, type = String.class))
 public class Host extends ModificationTrackedEntity implements Serializable {
 
+  /**
+   * Restricts the loaded monthly totals to the given months. Only enable it for hosts whose totals
+   * are exclusively updated in those months, since the totals of other months are not loaded.
+   */
+  public static final String MONTHLY_TOTALS_IN_MONTHS_FILTER = "monthlyTotalsInMonths";
+
+  public static final String MONTHS_PARAMETER = "months";
+
   @Id
   @GeneratedValue(strategy = GenerationType.AUTO)
   private UUID id;
@@ -97,6 +111,7 @@ public class Host extends ModificationTrackedEntity implements Serializable {
   @ElementCollection(fetch = FetchType.LAZY)
   @CollectionTable(name = "instance_monthly_totals", joinColumns = @JoinColumn(name = "host_id"))
   @Column(name = "value")
+  @Filter(name = Host.MONTHLY_TOTALS_IN_MONTHS_FILTER, condition = "month in (:months)")
   private Map<InstanceMonthlyTotalKey, Double> monthlyTotals = new HashMap<>();
 
   @Column(name = "is_guest")
@@ -106,9 +106,16 @@ public class TallySnapshot extends ModificationTrackedEntity implements Serializ
     return getTallyMeasurements().get(key);
   }
 
+  /**
+   * Sets the value of a measurement. The measurement collection is left untouched when the value
+   * does not change, so Hibernate does not rewrite measurements of snapshots that are re-tallied
+   * with the same usage.
+   */
   public void setMeasurement(HardwareMeasurementType type, MetricId metricId, Double value) {
     TallyMeasurementKey key = new TallyMeasurementKey(type, metricId.getValue());
-    tallyMeasurements.put(key, value);
+    if (!Objects.equals(tallyMeasurements.get(key), value)) {
+      tallyMeasurements.put(key, value);
+    }
   }
 
   @Override
@@ -20,6 +20,7 @@
  */
 package org.candlepin.subscriptions.rbac;
 
+import java.time.Duration;
 import java.util.List;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -37,4 +38,13 @@ public class RbacProperties extends HttpClientProperties {
 
   /** The RBAC application name that defines the permissions for this application. */
   private String applicationName = "subscriptions";
+
+  /** How long the permissions of an identity are cached before RBAC is called again. */
+  private Duration permissionsCacheTtl = Duration.ofMinutes(1);
+
+  /** How long the last permissions of an identity are still served when RBAC fails. */
+  private Duration permissionsCacheStaleTtl = Duration.ofMinutes(15);
+
+  /** Maximum number of identities whose permissions are cached. */
+  private long permissionsCacheMaximumSize = 10000;
 }
@@ -20,6 +20,9 @@
  */
 package org.candlepin.subscriptions.rbac;
 
+import com.redhat.swatch.rbac.RbacPermissionsCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -31,6 +34,20 @@ import org.springframework.util.StringUtils;
 public class RbacService {
 
   @Autowired private RbacApi api;
+  @Autowired private RbacProperties properties;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private RbacPermissionsCache permissionsCache;
+
+  @PostConstruct
+  void initPermissionsCache() {
+    permissionsCache =
+        new RbacPermissionsCache(
+            properties.getPermissionsCacheTtl(),
+            properties.getPermissionsCacheStaleTtl(),
+            properties.getPermissionsCacheMaximumSize(),
+            meterRegistry);
+  }
 
   public List<String> getPermissions(String rbacAppName) throws RbacApiException {
     // Get all permissions for the configured application name.
@@ -42,6 +59,22 @@ public class RbacService {
     }
   }
 
+  /**
+   * Get the permissions of the current user like {@link #getPermissions(String)}, cached per
+   * identity.
+   *
+   * @param rbacAppName the RBAC application name
+   * @param orgId the org of the current user
+   * @param principalId the user ID or service account client ID of the current user
+   * @return the permissions of the current user
+   */
+  public List<String> getPermissions(String rbacAppName, String orgId, String principalId)
+      throws RbacApiException {
+    return permissionsCache.get(
+        new RbacPermissionsCache.Key(rbacAppName, orgId, principalId),
+        () -> getPermissions(rbacAppName));
+  }
+
   public List<String> getPermissions(String rbacAppName, String identity) throws RbacApiException {
     // Get all permissions for the configured application name.
     try (Stream<Access> accessStream =
@@ -0,0 +1,141 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.resource;
+
+import jakarta.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.candlepin.subscriptions.exception.ErrorCode;
+import org.candlepin.subscriptions.exception.SubscriptionsException;
+
+/**
+ * Opaque token for keyset ("cursor") pagination.
+ *
+ * <p>A cursor holds the sort key of the last item of a page, so that the next page can be fetched
+ * by seeking past it instead of skipping an offset. Each value is base64url encoded and the values
+ * are joined by a dot, so the token can be passed as a query parameter as is. An empty token
+ * denotes the first page.
+ *
+ * @param values the sort key of the last item of the previous page, empty for the first page
+ */
+public record PageCursor(List<String> values) {
+
+  private static final String SEPARATOR = ".";
+  private static final String NULL_VALUE = "~";
+
+  public static final PageCursor FIRST = new PageCursor(List.of());
+
+  /** Creates a cursor from sort key values. Enums are held by name, other values as strings. */
+  public static PageCursor of(Object... values) {
+    return new PageCursor(Arrays.stream(values).map(PageCursor::asString).toList());
+  }
+
+  public boolean isFirst() {
+    return values.isEmpty();
+  }
+
+  public String value(int index) {
+    return values.get(index);
+  }
+
+  public String encode() {
+    return values.stream().map(PageCursor::encodeValue).collect(Collectors.joining(SEPARATOR));
+  }
+
+  /**
+   * Decodes a token produced by {@link #encode()}.
+   *
+   * @param token the cursor query parameter
+   * @param size the number of values the cursor of this API holds
+   * @return the decoded cursor, {@link #FIRST} for an empty token
+   * @throws SubscriptionsException if the token is not a valid cursor of this API
+   */
+  public static PageCursor decode(String token, int size) {
+    if (token == null || token.isEmpty()) {
+      return FIRST;
+    }
+    String[] parts = token.split("\\" + SEPARATOR, -1);
+    if (parts.length != size) {
+      throw invalidCursor();
+    }
+    List<String> values = new ArrayList<>(parts.length);
+    for (String part : parts) {
+      values.add(decodeValue(part));
+    }
+    return new PageCursor(Collections.unmodifiableList(values));
+  }
+
+  /**
+   * Validates that a cursor is not combined with an offset, which would be ambiguous.
+   *
+   * @param cursor the cursor query parameter
+   * @param offset the offset query parameter
+   */
+  public static void validateNotCombinedWithOffset(String cursor, Integer offset) {
+    if (cursor != null && offset != null) {
+      throw new SubscriptionsException(
+          ErrorCode.VALIDATION_FAILED_ERROR,
+          Response.Status.BAD_REQUEST,
+          "Invalid pagination",
+          "The cursor and offset parameters cannot be used together");
+    }
+  }
+
+  private static String asString(Object value) {
+    if (value instanceof Enum<?> e) {
+      return e.name();
+    }
+    return value == null ? null : value.toString();
+  }
+
+  private static String encodeValue(String value) {
+    if (value == null) {
+      return NULL_VALUE;
+    }
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodeValue(String part) {
+    if (NULL_VALUE.equals(part)) {
+      return null;
+    }
+    try {
+      return new String(Base64.getUrlDecoder().decode(part), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw invalidCursor();
+    }
+  }
+
+  public static SubscriptionsException invalidCursor() {
+    return new SubscriptionsException(
+        ErrorCode.VALIDATION_FAILED_ERROR,
+        Response.Status.BAD_REQUEST,
+        "Invalid cursor",
+        "The cursor parameter is not a cursor returned by this API");
+  }
+}
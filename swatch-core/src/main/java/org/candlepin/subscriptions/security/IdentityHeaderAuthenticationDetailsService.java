@@ -25,6 +25,7 @@ import io.getunleash.Unleash;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import org.candlepin.subscriptions.rbac.RbacApiException;
 import org.candlepin.subscriptions.rbac.RbacProperties;
 import org.candlepin.subscriptions.rbac.RbacService;
@@ -155,7 +156,7 @@ public class IdentityHeaderAuthenticationDetailsService
     }
     log.debug("Fetching permissions from RBAC application={}", rbacProps.getApplicationName());
     try {
-      List<String> permissions = rbacController.getPermissions(rbacProps.getApplicationName());
+      List<String> permissions = getRbacPermissions(user);
       log.debug("Permissions from RBAC: {}", permissions);
       return permissions;
     } catch (RbacApiException e) {
@@ -164,6 +165,16 @@ public class IdentityHeaderAuthenticationDetailsService
     }
   }
 
+  private List<String> getRbacPermissions(InsightsUserPrincipal user) throws RbacApiException {
+    String applicationName = rbacProps.getApplicationName();
+    Optional<String> principalId =
+        Optional.ofNullable(user).flatMap(InsightsUserPrincipal::getKesselPrincipalId);
+    if (principalId.isEmpty()) {
+      return rbacController.getPermissions(applicationName);
+    }
+    return rbacController.getPermissions(applicationName, user.getOrgId(), principalId.get());
+  }
+
   private boolean isKesselEnabled() {
     boolean flagEnabled = unleash != null && unleash.isEnabled(KESSEL_FLAG);
     boolean enabled = kesselService != null && flagEnabled;
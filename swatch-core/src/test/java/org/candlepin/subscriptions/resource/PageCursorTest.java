@@ -0,0 +1,70 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.candlepin.subscriptions.exception.SubscriptionsException;
+import org.junit.jupiter.api.Test;
+
+class PageCursorTest {
+
+  @Test
+  void testRoundTrip() {
+    PageCursor cursor = PageCursor.of("my host/with.dots & spaces", null, 3);
+
+    String token = cursor.encode();
+    PageCursor decoded = PageCursor.decode(token, 3);
+
+    assertTrue(token.matches("[A-Za-z0-9_.~-]+"));
+    assertEquals("my host/with.dots & spaces", decoded.value(0));
+    assertNull(decoded.value(1));
+    assertEquals("3", decoded.value(2));
+    assertFalse(decoded.isFirst());
+  }
+
+  @Test
+  void testEmptyTokenIsFirstPage() {
+    assertTrue(PageCursor.decode("", 2).isFirst());
+    assertTrue(PageCursor.decode(null, 2).isFirst());
+  }
+
+  @Test
+  void testTokenWithWrongNumberOfValuesIsRejected() {
+    String token = PageCursor.of("a", "b").encode();
+    assertThrows(SubscriptionsException.class, () -> PageCursor.decode(token, 3));
+  }
+
+  @Test
+  void testMalformedTokenIsRejected() {
+    assertThrows(SubscriptionsException.class, () -> PageCursor.decode("not*base64", 1));
+  }
+
+  @Test
+  void testCursorCannotBeCombinedWithOffset() {
+    assertThrows(
+        SubscriptionsException.class, () -> PageCursor.validateNotCombinedWithOffset("", 0));
+  }
+}
@@ -22,10 +22,10 @@ package org.candlepin.subscriptions.security;
 
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -126,7 +126,7 @@ class IdentityHeaderAuthenticationDetailsServiceTest {
     var result = service.loadUserDetails(authWithPrincipal(userPrincipal()));
 
     verify(kesselService).getPermissions("user123", "org123");
-    verify(rbacService, never()).getPermissions(any());
+    verifyNoInteractions(rbacService);
     assertTrue(hasAuthority(result, "ROLE_SUBSCRIPTION_WATCH_REPORT_READER"));
   }
 
@@ -134,13 +134,13 @@ class IdentityHeaderAuthenticationDetailsServiceTest {
   void kesselDisabledCallsRbacNotKessel() throws RbacApiException {
     when(unleash.isEnabled(IdentityHeaderAuthenticationDetailsService.KESSEL_FLAG))
         .thenReturn(false);
-    when(rbacService.getPermissions("subscriptions"))
+    when(rbacService.getPermissions("subscriptions", "org123", "user123"))
         .thenReturn(List.of("subscriptions:reports:read"));
 
     var service = createService(kesselService, unleash);
     var result = service.loadUserDetails(authWithPrincipal(userPrincipal()));
 
-    verify(rbacService).getPermissions("subscriptions");
+    verify(rbacService).getPermissions("subscriptions", "org123", "user123");
     verify(kesselService, never()).getPermissions(anyString(), anyString());
     assertTrue(hasAuthority(result, "ROLE_SUBSCRIPTION_WATCH_REPORT_READER"));
   }
@@ -149,28 +149,41 @@ class IdentityHeaderAuthenticationDetailsServiceTest {
   void kesselServiceNullFallsBackToRbac() throws RbacApiException {
     when(unleash.isEnabled(IdentityHeaderAuthenticationDetailsService.KESSEL_FLAG))
         .thenReturn(true);
-    when(rbacService.getPermissions("subscriptions")).thenReturn(List.of("subscriptions:*:*"));
+    when(rbacService.getPermissions("subscriptions", "org123", "user123"))
+        .thenReturn(List.of("subscriptions:*:*"));
 
     var service = createService(null, unleash);
     var result = service.loadUserDetails(authWithPrincipal(userPrincipal()));
 
-    verify(rbacService).getPermissions("subscriptions");
+    verify(rbacService).getPermissions("subscriptions", "org123", "user123");
     assertTrue(hasAuthority(result, "ROLE_SUBSCRIPTION_WATCH_ADMIN"));
   }
 
   @Test
   void unleashNullFallsBackToRbac() throws RbacApiException {
-    when(rbacService.getPermissions("subscriptions"))
+    when(rbacService.getPermissions("subscriptions", "org123", "user123"))
         .thenReturn(List.of("subscriptions:reports:read"));
 
     var service = createService(kesselService, null);
     var result = service.loadUserDetails(authWithPrincipal(userPrincipal()));
 
-    verify(rbacService).getPermissions("subscriptions");
+    verify(rbacService).getPermissions("subscriptions", "org123", "user123");
     verify(kesselService, never()).getPermissions(anyString(), anyString());
     assertTrue(hasAuthority(result, "ROLE_SUBSCRIPTION_WATCH_REPORT_READER"));
   }
 
+  @Test
+  void rbacPermissionsWithoutPrincipalIdAreNotCached() throws RbacApiException {
+    when(rbacService.getPermissions("subscriptions"))
+        .thenReturn(List.of("subscriptions:reports:read"));
+
+    var service = createService(kesselService, null);
+    var result = service.loadUserDetails(authWithPrincipal(userPrincipalWithoutUserId()));
+
+    verify(rbacService).getPermissions("subscriptions");
+    assertTrue(hasAuthority(result, "ROLE_SUBSCRIPTION_WATCH_REPORT_READER"));
+  }
+
   @Test
   void kesselExceptionReturnsNoRoles() {
     when(unleash.isEnabled(IdentityHeaderAuthenticationDetailsService.KESSEL_FLAG))
@@ -189,7 +202,7 @@ class IdentityHeaderAuthenticationDetailsServiceTest {
   void rbacExceptionReturnsNoRoles() throws RbacApiException {
     when(unleash.isEnabled(IdentityHeaderAuthenticationDetailsService.KESSEL_FLAG))
         .thenReturn(false);
-    when(rbacService.getPermissions("subscriptions"))
+    when(rbacService.getPermissions("subscriptions", "org123", "user123"))
         .thenThrow(new RbacApiException("API error", null));
 
     var service = createService(kesselService, unleash);
@@ -219,7 +232,7 @@ class IdentityHeaderAuthenticationDetailsServiceTest {
     var result = service.loadUserDetails(authWithPrincipal(userPrincipal()));
 
     verify(kesselService, never()).getPermissions(anyString(), anyString());
-    verify(rbacService, never()).getPermissions(any());
+    verifyNoInteractions(rbacService);
     assertTrue(hasAuthority(result, "ROLE_SUBSCRIPTION_WATCH_ADMIN"));
   }
 }
@@ -80,6 +80,25 @@ public class ApplicationConfiguration {
   @ConfigProperty(name = "swatch-metrics-hbi.use-cpu-system-facts-for-all-products")
   boolean useCpuSystemFactsForAllProducts;
 
+  /**
+   * Max number of hosts whose normalized facts are kept in memory, so that refreshing the guests of
+   * a hypervisor does not parse and normalize every guest again. An entry does not hold the HBI
+   * data of the host, only the facts needed to build its event.
+   */
+  @ConfigProperty(name = "swatch-metrics-hbi.host-facts-cache-maximum-size")
+  long hostFactsCacheMaximumSize;
+
   @ConfigProperty(name = "swatch-metrics-hbi.outbox-flush-batch-size")
   int outboxFlushBatchSize;
+
+  /**
+   * Number of workers relaying the outbox records concurrently. The org IDs are hashed across the
+   * workers, so that the records of an org are still sent in order.
+   */
+  @ConfigProperty(name = "swatch-metrics-hbi.outbox-flush-workers")
+  int outboxFlushWorkers;
+
+  /** How long a worker waits for Kafka to acknowledge a batch of outbox records. */
+  @ConfigProperty(name = "swatch-metrics-hbi.outbox-flush-ack-timeout")
+  Duration outboxFlushAckTimeout;
 }
@@ -38,7 +38,6 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.candlepin.clock.ApplicationClock;
 import org.candlepin.subscriptions.json.Event;
 import org.candlepin.subscriptions.json.Event.HardwareType;
@@ -66,6 +65,17 @@ public class FactNormalizer {
   }
 
   public NormalizedFacts normalize(Host host) {
+    return applyHostMapping(normalizeHostFacts(host));
+  }
+
+  /**
+   * Normalizes the facts that only depend on the data of the host itself. The facts that depend on
+   * the relationships with other hosts are left unset, see {@link #applyHostMapping}.
+   *
+   * <p>NOTE: The result also depends on the current day, since the RHSM facts of a host that was
+   * not synced recently are skipped.
+   */
+  public NormalizedFacts normalizeHostFacts(Host host) {
     Optional<RhsmFacts> rhsmFacts = host.getRhsmFacts();
     Optional<SatelliteFacts> satelliteFacts = host.getSatelliteFacts();
     Optional<QpcFacts> qpcFacts = host.getQpcFacts();
@@ -91,11 +101,6 @@ public class FactNormalizer {
             systemProfileFacts, rhsmFacts, satelliteFacts, qpcFacts, skipRhsmFacts);
 
     String subscriptionManagerId = host.getSubscriptionManagerId();
-    boolean isHypervisor = hbiHostRelationshipService.isHypervisor(orgId, subscriptionManagerId);
-    boolean isUnmappedGuest =
-        isVirtual
-            && StringUtils.isNotEmpty(hypervisorUuid)
-            && hbiHostRelationshipService.findHypervisor(orgId, hypervisorUuid).isEmpty();
     return NormalizedFacts.builder()
         .orgId(orgId)
         .inventoryId(inventoryId)
@@ -113,14 +118,38 @@ public class FactNormalizer {
         .isVirtual(isVirtual)
         .hardwareType(determineHardwareType(systemProfileFacts, isVirtual))
         .hypervisorUuid(hypervisorUuid)
-        .isHypervisor(isHypervisor)
-        .isUnmappedGuest(isUnmappedGuest)
         .productTags(productNormalizer.getProductTags())
         .productIds(productNormalizer.getProductIds())
         .lastSeen(determineLastSeenDate(host))
         .build();
   }
 
+  /**
+   * Determines whether the host is a hypervisor and whether it is an unmapped guest from the known
+   * host relationships.
+   */
+  public NormalizedFacts applyHostMapping(NormalizedFacts facts) {
+    boolean hypervisorKnown =
+        facts.isGuest()
+            && hbiHostRelationshipService
+                .findHypervisor(facts.getOrgId(), facts.getHypervisorUuid())
+                .isPresent();
+    return applyHostMapping(facts, hypervisorKnown);
+  }
+
+  /**
+   * Same as {@link #applyHostMapping(NormalizedFacts)} for a caller that already knows whether the
+   * hypervisor of the host has a relationship, e.g. when refreshing all the guests of a hypervisor.
+   */
+  public NormalizedFacts applyHostMapping(NormalizedFacts facts, boolean hypervisorKnown) {
+    return facts.toBuilder()
+        .isHypervisor(
+            hbiHostRelationshipService.isHypervisor(
+                facts.getOrgId(), facts.getSubscriptionManagerId()))
+        .isUnmappedGuest(facts.isGuest() && !hypervisorKnown)
+        .build();
+  }
+
   private Event.CloudProvider toEventCloudProvider(HardwareMeasurementType measurementType) {
     if (Objects.isNull(measurementType)) {
       return null;
@@ -0,0 +1,142 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.hbi.events.normalization;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.redhat.swatch.hbi.events.configuration.ApplicationConfiguration;
+import com.redhat.swatch.hbi.events.dtos.hbi.HbiHost;
+import com.redhat.swatch.hbi.events.exception.UnrecoverableMessageProcessingException;
+import com.redhat.swatch.hbi.events.normalization.facts.RhsmFacts;
+import com.redhat.swatch.hbi.events.normalization.facts.SystemProfileFacts;
+import com.redhat.swatch.hbi.events.repository.HbiHostRelationship;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import org.candlepin.clock.ApplicationClock;
+
+/**
+ * Bounded cache of the facts normalized from the HBI data of the known hosts that do not depend on
+ * the relationships with other hosts, along with the parsed facts that the measurements are
+ * computed from.
+ *
+ * <p>A hypervisor update refreshes all of its guests. With this cache, a refresh only re-applies
+ * the host mapping to the cached facts instead of parsing and normalizing the latest HBI data of
+ * every guest again. An entry is only served while the HBI data of the relationship is unchanged
+ * and during the day it was normalized on.
+ *
+ * <p>The HBI data itself is not kept: an entry only holds a 64-bit digest of it to detect changes,
+ * so the size of an entry does not grow with the size of the HBI data of the host.
+ */
+@ApplicationScoped
+public class HostFactsCache {
+
+  static final String CACHE_NAME = "hbi_host_facts";
+
+  /**
+   * The facts of a host without the host mapping applied, and the parsed facts its measurements are
+   * computed from.
+   */
+  public record HostFacts(
+      NormalizedFacts facts,
+      SystemProfileFacts systemProfileFacts,
+      Optional<RhsmFacts> rhsmFacts) {}
+
+  private record Key(String orgId, UUID inventoryId) {}
+
+  private record Entry(long hbiEventDataDigest, OffsetDateTime normalizedOn, HostFacts hostFacts) {}
+
+  private final ApplicationClock clock;
+  private final ObjectMapper objectMapper;
+  private final FactNormalizer factNormalizer;
+  private final Cache<Key, Entry> cache;
+
+  public HostFactsCache(
+      ApplicationClock clock,
+      ObjectMapper objectMapper,
+      FactNormalizer factNormalizer,
+      ApplicationConfiguration config,
+      MeterRegistry meterRegistry) {
+    this.clock = clock;
+    this.objectMapper = objectMapper;
+    this.factNormalizer = factNormalizer;
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(config.getHostFactsCacheMaximumSize())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Get the parsed host and its normalized facts from the latest HBI data of a relationship.
+   *
+   * @param relationship the host relationship.
+   * @return the host and its facts, without the host mapping applied.
+   */
+  public HostFacts get(HbiHostRelationship relationship) {
+    Key key = new Key(relationship.getOrgId(), relationship.getInventoryId());
+    OffsetDateTime today = clock.startOfToday();
+    long digest = digest(relationship.getLatestHbiEventData());
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null
+        || !entry.normalizedOn().isEqual(today)
+        || entry.hbiEventDataDigest() != digest) {
+      entry = new Entry(digest, today, load(relationship));
+      cache.put(key, entry);
+    }
+    return entry.hostFacts();
+  }
+
+  private static long digest(String hbiEventData) {
+    try {
+      return ByteBuffer.wrap(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(hbiEventData.getBytes(StandardCharsets.UTF_8)))
+          .getLong();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Unable to compute the digest of the HBI host data", e);
+    }
+  }
+
+  private HostFacts load(HbiHostRelationship relationship) {
+    try {
+      Host host =
+          new Host(objectMapper.readValue(relationship.getLatestHbiEventData(), HbiHost.class));
+      return new HostFacts(
+          factNormalizer.normalizeHostFacts(host),
+          host.getSystemProfileFacts(),
+          host.getRhsmFacts());
+    } catch (JsonProcessingException e) {
+      throw new UnrecoverableMessageProcessingException(
+          "Unable to serialize host data from HBI host.", e);
+    }
+  }
+}
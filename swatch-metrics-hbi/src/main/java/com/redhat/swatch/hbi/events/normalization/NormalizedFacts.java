@@ -30,7 +30,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.candlepin.subscriptions.json.Event.CloudProvider;
 import org.candlepin.subscriptions.json.Event.HardwareType;
 
-@Builder
+@Builder(toBuilder = true)
 @Getter
 public class NormalizedFacts {
 
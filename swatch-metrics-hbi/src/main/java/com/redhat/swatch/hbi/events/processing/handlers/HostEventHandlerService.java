@@ -30,10 +30,14 @@ import com.redhat.swatch.hbi.events.dtos.hbi.HbiHostCreateUpdateEvent;
 import com.redhat.swatch.hbi.events.exception.UnrecoverableMessageProcessingException;
 import com.redhat.swatch.hbi.events.normalization.FactNormalizer;
 import com.redhat.swatch.hbi.events.normalization.Host;
+import com.redhat.swatch.hbi.events.normalization.HostFactsCache;
+import com.redhat.swatch.hbi.events.normalization.HostFactsCache.HostFacts;
 import com.redhat.swatch.hbi.events.normalization.MeasurementNormalizer;
 import com.redhat.swatch.hbi.events.normalization.NormalizedEventType;
 import com.redhat.swatch.hbi.events.normalization.NormalizedFacts;
 import com.redhat.swatch.hbi.events.normalization.NormalizedMeasurements;
+import com.redhat.swatch.hbi.events.normalization.facts.RhsmFacts;
+import com.redhat.swatch.hbi.events.normalization.facts.SystemProfileFacts;
 import com.redhat.swatch.hbi.events.repository.HbiHostRelationship;
 import com.redhat.swatch.hbi.events.services.HbiHostRelationshipService;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -59,6 +63,7 @@ public class HostEventHandlerService {
   private final FactNormalizer factNormalizer;
   private final MeasurementNormalizer measurementNormalizer;
   private final HbiHostRelationshipService relationshipService;
+  private final HostFactsCache hostFactsCache;
   private final ObjectMapper objectMapper;
 
   /**
@@ -73,23 +78,17 @@ public class HostEventHandlerService {
       NormalizedEventType eventType,
       HbiHostRelationship hostRelationship,
       OffsetDateTime refreshTimestamp) {
-    try {
-      Host host =
-          new Host(objectMapper.readValue(hostRelationship.getLatestHbiEventData(), HbiHost.class));
-      NormalizedFacts facts = factNormalizer.normalize(host);
-      Event event = buildEvent(eventType, facts, host, refreshTimestamp);
-      relationshipService.processHost(
-          facts.getOrgId(),
-          facts.getInventoryId(),
-          facts.getSubscriptionManagerId(),
-          facts.getHypervisorUuid(),
-          facts.isUnmappedGuest(),
-          hostRelationship.getLatestHbiEventData());
-      return event;
-    } catch (JsonProcessingException e) {
-      throw new UnrecoverableMessageProcessingException(
-          "Unable to serialize host data from HBI host.", e);
-    }
+    HostFacts hostFacts = hostFactsCache.get(hostRelationship);
+    NormalizedFacts facts = factNormalizer.applyHostMapping(hostFacts.facts());
+    Event event = buildEvent(eventType, facts, hostFacts, refreshTimestamp);
+    relationshipService.processHost(
+        facts.getOrgId(),
+        facts.getInventoryId(),
+        facts.getSubscriptionManagerId(),
+        facts.getHypervisorUuid(),
+        facts.isUnmappedGuest(),
+        hostRelationship.getLatestHbiEventData());
+    return event;
   }
 
   public List<Event> updateHostRelationshipAndAllDependants(
@@ -185,11 +184,11 @@ public class HostEventHandlerService {
     }
 
     // Reprocess any unmapped guests and resend an event with updated measurements.
-    return relationshipService.getUnmappedGuests(orgId, hypervisorSubscriptionManagerId).stream()
-        .map(
-            unmapped ->
-                refreshGuest(NormalizedEventType.INSTANCE_UPDATED, unmapped, eventTimestamp))
-        .toList();
+    return refreshGuests(
+        orgId,
+        hypervisorSubscriptionManagerId,
+        relationshipService.getUnmappedGuests(orgId, hypervisorSubscriptionManagerId),
+        eventTimestamp);
   }
 
   protected List<Event> updateMappedGuestRelationships(
@@ -200,24 +199,63 @@ public class HostEventHandlerService {
     }
 
     // Reprocess any mapped guests and resend an event with updated measurements.
-    return relationshipService.getMappedGuests(orgId, hypervisorSubscriptionManagerId).stream()
+    return refreshGuests(
+        orgId,
+        hypervisorSubscriptionManagerId,
+        relationshipService.getMappedGuests(orgId, hypervisorSubscriptionManagerId),
+        eventTimestamp);
+  }
+
+  private List<Event> refreshGuests(
+      String orgId,
+      String hypervisorSubscriptionManagerId,
+      List<HbiHostRelationship> guestRelationships,
+      OffsetDateTime eventTimestamp) {
+    if (guestRelationships.isEmpty()) {
+      return List.of();
+    }
+    // All the guests share the same hypervisor, so it only needs to be looked up once.
+    boolean hypervisorKnown =
+        relationshipService.findHypervisor(orgId, hypervisorSubscriptionManagerId).isPresent();
+    return guestRelationships.stream()
         .map(
-            unmapped ->
-                refreshGuest(NormalizedEventType.INSTANCE_UPDATED, unmapped, eventTimestamp))
+            guest ->
+                refreshGuest(
+                    NormalizedEventType.INSTANCE_UPDATED, guest, hypervisorKnown, eventTimestamp))
         .toList();
   }
 
   /**
-   * Refresh an unmapped guest's measurements and create a new Event representing these changes.
+   * Refresh a guest's measurements and create a new Event representing these changes. Only the host
+   * mapping is re-applied to the cached facts of the guest, and the guest relationship is only
+   * rewritten when its mapping changed.
    *
-   * @param guestRelationship the unmapped guests hypervisor relationship.
+   * @param guestRelationship the guest's relationship.
+   * @param hypervisorKnown whether the hypervisor of the guest has a relationship.
    * @return a new Event representing the host's new state.
    */
   private Event refreshGuest(
       NormalizedEventType eventType,
       HbiHostRelationship guestRelationship,
+      boolean hypervisorKnown,
       OffsetDateTime hypervisorTimestamp) {
-    return refreshHost(eventType, guestRelationship, hypervisorTimestamp);
+    HostFacts hostFacts = hostFactsCache.get(guestRelationship);
+    NormalizedFacts facts = factNormalizer.applyHostMapping(hostFacts.facts(), hypervisorKnown);
+    relationshipService.updateMapping(
+        guestRelationship,
+        facts.getSubscriptionManagerId(),
+        facts.getHypervisorUuid(),
+        facts.isUnmappedGuest());
+    return buildEvent(eventType, facts, hostFacts, hypervisorTimestamp);
+  }
+
+  private Event buildEvent(
+      NormalizedEventType eventType,
+      NormalizedFacts facts,
+      HostFacts hostFacts,
+      OffsetDateTime eventTimestamp) {
+    return buildEvent(
+        eventType, facts, hostFacts.systemProfileFacts(), hostFacts.rhsmFacts(), eventTimestamp);
   }
 
   protected Event buildEvent(
@@ -225,12 +263,22 @@ public class HostEventHandlerService {
       NormalizedFacts facts,
       Host hbiHost,
       OffsetDateTime eventTimestamp) {
+    return buildEvent(
+        eventType, facts, hbiHost.getSystemProfileFacts(), hbiHost.getRhsmFacts(), eventTimestamp);
+  }
+
+  private Event buildEvent(
+      NormalizedEventType eventType,
+      NormalizedFacts facts,
+      SystemProfileFacts systemProfileFacts,
+      Optional<RhsmFacts> rhsmFacts,
+      OffsetDateTime eventTimestamp) {
 
     NormalizedMeasurements measurements =
         measurementNormalizer.getMeasurements(
             facts,
-            hbiHost.getSystemProfileFacts(),
-            hbiHost.getRhsmFacts(),
+            systemProfileFacts,
+            rhsmFacts,
             facts.getProductTags(),
             facts.isHypervisor(),
             facts.isUnmappedGuest());
@@ -23,15 +23,23 @@ package com.redhat.swatch.hbi.events.repository;
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.Query;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @ApplicationScoped
 public class HbiEventOutboxRepository implements PanacheRepositoryBase<HbiEventOutbox, UUID> {
 
   // Native query required to use Postgres' FOR UPDATE SKIP LOCKED functionality.
+  // The records of an org always hash to the same partition, so that a single relay worker sends
+  // them in order. The sign bit is masked out because hashtext() can return negative values.
   private static final String FIND_BY_ORG_ID_WITH_LOCK_QUERY =
-      "SELECT * FROM hbi_event_outbox ORDER BY created_on ASC LIMIT :batchSize FOR UPDATE SKIP LOCKED";
+      """
+      SELECT * FROM hbi_event_outbox
+      WHERE (hashtext(org_id) & 2147483647) % :partitions = :partition
+      ORDER BY created_on ASC LIMIT :batchSize FOR UPDATE SKIP LOCKED
+      """;
 
   private static final String ESTIMATE_QUERY =
       "SELECT reltuples::bigint AS estimate FROM pg_class WHERE relname = :tableName";
@@ -51,14 +59,44 @@ public class HbiEventOutboxRepository implements PanacheRepositoryBase<HbiEventO
    * @param batchSize the max number of records to return.
    * @return the list of {@link HbiEventOutbox} records.
    */
-  @SuppressWarnings("unchecked")
   public List<HbiEventOutbox> findAllWithLock(int batchSize) {
+    return findAllWithLock(batchSize, 0, 1);
+  }
+
+  /**
+   * Find the outbox records of one partition of the org IDs in batches. Postgresql's FOR UPDATE
+   * SKIP LOCKED is used to ensure that a record cannot be processed at the same time.
+   *
+   * @param batchSize the max number of records to return.
+   * @param partition the partition to return the records of, from 0 to partitions - 1.
+   * @param partitions the number of partitions the org IDs are spread across.
+   * @return the list of {@link HbiEventOutbox} records, oldest first.
+   */
+  @SuppressWarnings("unchecked")
+  public List<HbiEventOutbox> findAllWithLock(int batchSize, int partition, int partitions) {
     return getEntityManager()
         .createNativeQuery(FIND_BY_ORG_ID_WITH_LOCK_QUERY, HbiEventOutbox.class)
         .setParameter("batchSize", batchSize)
+        .setParameter("partition", partition)
+        .setParameter("partitions", partitions)
         .getResultList();
   }
 
+  /** Deletes the given outbox records with a single statement. */
+  public long deleteByIds(List<UUID> ids) {
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    return delete("id in ?1", ids);
+  }
+
+  public Optional<OffsetDateTime> findOldestCreatedOn() {
+    return Optional.ofNullable(
+        getEntityManager()
+            .createQuery("SELECT min(o.createdOn) FROM HbiEventOutbox o", OffsetDateTime.class)
+            .getSingleResult());
+  }
+
   public long estimatedCount() {
     Query query = getEntityManager().createNativeQuery(ESTIMATE_QUERY);
     query.setParameter("tableName", "hbi_event_outbox");
@@ -23,6 +23,7 @@ package com.redhat.swatch.hbi.events.services;
 import static com.redhat.swatch.hbi.events.configuration.Channels.SWATCH_EVENTS_OUT;
 
 import com.redhat.swatch.kafka.EmitterService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -38,8 +39,11 @@ public class EventsResource {
   private final EmitterService<Event> eventEmitter;
   private final FeatureFlags flags;
 
-  public EventsResource(@Channel(SWATCH_EVENTS_OUT) Emitter<Event> emitter, FeatureFlags flags) {
-    this.eventEmitter = new EmitterService<>(emitter);
+  public EventsResource(
+      @Channel(SWATCH_EVENTS_OUT) Emitter<Event> emitter,
+      FeatureFlags flags,
+      MeterRegistry meterRegistry) {
+    this.eventEmitter = new EmitterService<>(emitter, SWATCH_EVENTS_OUT, meterRegistry);
     this.flags = flags;
   }
 
@@ -27,6 +27,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.swatch.faulttolerance.api.RetryWithExponentialBackoff;
 import com.redhat.swatch.hbi.events.dtos.hbi.HbiEvent;
+import com.redhat.swatch.hbi.events.dtos.hbi.HbiHostCreateUpdateEvent;
+import com.redhat.swatch.hbi.events.dtos.hbi.HbiHostDeleteEvent;
 import com.redhat.swatch.hbi.events.exception.UnrecoverableMessageProcessingException;
 import com.redhat.swatch.hbi.events.processing.HbiEventProcessor;
 import com.redhat.swatch.hbi.events.processing.UnsupportedHbiEventException;
@@ -36,9 +38,20 @@ import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Meter.MeterProvider;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.smallrye.reactive.messaging.annotations.Blocking;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.json.Event;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
@@ -49,10 +62,13 @@ public class HbiEventConsumer {
 
   public static final String TIMED_EVENTS_METRIC = EVENTS_METRIC + ".timed";
   public static final String COUNTER_EVENTS_METRIC = EVENTS_METRIC + ".counter";
+  public static final String TIMED_BATCHES_METRIC = EVENTS_METRIC + ".batch.timed";
+  public static final String COUNTER_SUPERSEDED_EVENTS_METRIC = EVENTS_METRIC + ".superseded";
 
   private final HbiEventProcessor hbiEventProcessor;
   private final ObjectMapper objectMapper;
   private final MeterProvider<Counter> eventCounter;
+  private final MeterProvider<Counter> supersededCounter;
   private final HbiEventOutboxRepository outboxRepository;
 
   public HbiEventConsumer(
@@ -63,11 +79,47 @@ public class HbiEventConsumer {
     this.hbiEventProcessor = hbiEventProcessor;
     this.objectMapper = objectMapper;
     this.eventCounter = Counter.builder(COUNTER_EVENTS_METRIC).withRegistry(meterRegistry);
+    this.supersededCounter =
+        Counter.builder(COUNTER_SUPERSEDED_EVENTS_METRIC).withRegistry(meterRegistry);
     this.outboxRepository = outboxRepository;
   }
 
-  @Timed(TIMED_EVENTS_METRIC)
+  /**
+   * Processes the HBI events fetched by a single Kafka poll.
+   *
+   * <p>When a host is updated several times within the poll, only its latest event is processed.
+   * The events are processed org by org in a single transaction, so that the outbox records of the
+   * whole poll are inserted in JDBC batches and committed at once. If the transaction fails, the
+   * events are processed again one at a time by {@link #consume(HbiEvent)}, so that a poison event
+   * only fails on its own.
+   */
+  @Timed(TIMED_BATCHES_METRIC)
   @Incoming(HBI_HOST_EVENTS_IN)
+  @Blocking
+  public void consume(List<HbiEvent> hbiEvents) {
+    List<HbiEvent> latest = latestByInventoryId(hbiEvents);
+    if (latest.size() <= 1) {
+      latest.forEach(this::consume);
+      return;
+    }
+
+    List<ProcessedEvent> processed;
+    try {
+      processed = QuarkusTransaction.requiringNew().call(() -> processBatch(latest));
+    } catch (RuntimeException e) {
+      log.warn(
+          "Unable to process a batch of {} HBI events in a single transaction. "
+              + "Processing them one at a time.",
+          latest.size(),
+          e);
+      latest.forEach(this::consume);
+      return;
+    }
+    // counted once the batch is committed, so that a rolled back batch is not counted twice
+    processed.forEach(p -> doIncrementCounter(p.type(), p.errorMessage()));
+  }
+
+  @Timed(TIMED_EVENTS_METRIC)
   @RetryWithExponentialBackoff(
       maxRetries = "${SWATCH_EVENT_PRODUCER_MAX_ATTEMPTS:1}",
       delay = "${SWATCH_EVENT_PRODUCER_BACK_OFF_INITIAL_INTERVAL:1s}",
@@ -75,27 +127,92 @@ public class HbiEventConsumer {
       factor = "${SWATCH_EVENT_PRODUCER_BACK_OFF_MULTIPLIER:2}")
   @Transactional
   public void consume(HbiEvent hbiEvent) {
+    ProcessedEvent processed = process(hbiEvent);
+    processed.toPersist().forEach(this::persistOutboxRecord);
+    doIncrementCounter(processed.type(), processed.errorMessage());
+  }
+
+  private List<ProcessedEvent> processBatch(List<HbiEvent> hbiEvents) {
+    Map<String, List<HbiEvent>> eventsByOrg = new LinkedHashMap<>();
+    for (HbiEvent hbiEvent : hbiEvents) {
+      eventsByOrg.computeIfAbsent(orgId(hbiEvent), k -> new ArrayList<>()).add(hbiEvent);
+    }
+
+    List<ProcessedEvent> processed = new ArrayList<>(hbiEvents.size());
+    for (List<HbiEvent> orgEvents : eventsByOrg.values()) {
+      orgEvents.forEach(hbiEvent -> processed.add(process(hbiEvent)));
+    }
+    // persisted after the processing, whose lookups would otherwise flush the pending inserts
+    // one by one, so that the inserts are sent in JDBC batches
+    processed.forEach(p -> p.toPersist().forEach(this::persistOutboxRecord));
+    return processed;
+  }
+
+  private ProcessedEvent process(HbiEvent hbiEvent) {
     logHbiEvent(hbiEvent);
     try {
       List<Event> toPersist = hbiEventProcessor.process(hbiEvent);
       if (!toPersist.isEmpty()) {
         log.info("Persisting {} SWatch events into outbox.", toPersist.size());
-        toPersist.forEach(this::persistOutboxRecord);
       } else {
         log.info("No SWatch events produced to persist.");
       }
-      incrementCounter(hbiEvent.getType());
+      return new ProcessedEvent(hbiEvent.getType(), "none", toPersist);
     } catch (UnsupportedHbiEventException unsupportedException) {
       log.warn("HBI Event not supported!", unsupportedException);
-      incrementCounterWithError(hbiEvent.getType(), "unsupported");
+      return new ProcessedEvent(hbiEvent.getType(), "unsupported", List.of());
     } catch (UnrecoverableMessageProcessingException e) {
       log.warn(
           "Unrecoverable message when processing incoming HBI event. Event will not be retried.",
           e);
-      incrementCounterWithError(hbiEvent.getType(), e.getMessage());
+      return new ProcessedEvent(hbiEvent.getType(), e.getMessage(), List.of());
     }
   }
 
+  /**
+   * Drops the events of a host that are followed by a later event of the same host, keeping the
+   * order of the remaining events. Events without an inventory id are all kept.
+   */
+  private List<HbiEvent> latestByInventoryId(List<HbiEvent> hbiEvents) {
+    Set<UUID> seen = new HashSet<>();
+    Deque<HbiEvent> latest = new ArrayDeque<>(hbiEvents.size());
+    for (ListIterator<HbiEvent> it = hbiEvents.listIterator(hbiEvents.size()); it.hasPrevious(); ) {
+      HbiEvent hbiEvent = it.previous();
+      if (hbiEvent == null) {
+        log.warn("Skipping null HBI event: deserialization failure?");
+        continue;
+      }
+      UUID inventoryId = inventoryId(hbiEvent);
+      if (inventoryId == null || seen.add(inventoryId)) {
+        latest.addFirst(hbiEvent);
+      } else {
+        log.debug("Skipping HBI event of host {} superseded by a later event", inventoryId);
+        supersededCounter.withTags("type", hbiEvent.getType()).increment();
+      }
+    }
+    return new ArrayList<>(latest);
+  }
+
+  private static UUID inventoryId(HbiEvent hbiEvent) {
+    if (hbiEvent instanceof HbiHostCreateUpdateEvent createUpdateEvent
+        && createUpdateEvent.getHost() != null) {
+      return createUpdateEvent.getHost().getId();
+    } else if (hbiEvent instanceof HbiHostDeleteEvent deleteEvent) {
+      return deleteEvent.getId();
+    }
+    return null;
+  }
+
+  private static String orgId(HbiEvent hbiEvent) {
+    if (hbiEvent instanceof HbiHostCreateUpdateEvent createUpdateEvent
+        && createUpdateEvent.getHost() != null) {
+      return createUpdateEvent.getHost().getOrgId();
+    } else if (hbiEvent instanceof HbiHostDeleteEvent deleteEvent) {
+      return deleteEvent.getOrgId();
+    }
+    return null;
+  }
+
   private void persistOutboxRecord(Event eventToPersist) {
     HbiEventOutbox entity = new HbiEventOutbox();
     entity.setOrgId(eventToPersist.getOrgId());
@@ -117,15 +234,9 @@ public class HbiEventConsumer {
     }
   }
 
-  private void incrementCounter(String type) {
-    doIncrementCounter(type, "none");
-  }
-
-  private void incrementCounterWithError(String type, String errorMessage) {
-    doIncrementCounter(type, errorMessage);
-  }
-
   private void doIncrementCounter(String type, String errorMessage) {
     eventCounter.withTags("type", type, "error-message", errorMessage).increment();
   }
+
+  private record ProcessedEvent(String type, String errorMessage, List<Event> toPersist) {}
 }
@@ -25,15 +25,20 @@ import com.redhat.swatch.hbi.events.configuration.Channels;
 import com.redhat.swatch.hbi.events.repository.HbiEventOutbox;
 import com.redhat.swatch.hbi.events.repository.HbiEventOutboxRepository;
 import com.redhat.swatch.kafka.EmitterService;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 import lombok.AllArgsConstructor;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.json.Event;
+import org.eclipse.microprofile.context.ManagedExecutor;
 import org.eclipse.microprofile.reactive.messaging.Channel;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
@@ -46,23 +51,52 @@ public class HbiEventOutboxService {
   @Inject ApplicationConfiguration config;
   @Inject HbiEventOutboxRepository repository;
   @Inject FeatureFlags featureFlags;
+  @Inject ManagedExecutor executor;
 
   private final EmitterService<Event> emitter;
 
   @Inject
   public HbiEventOutboxService(
-      @Channel(Channels.SWATCH_EVENTS_OUT) Emitter<Event> swatchEventEmitter) {
-    this.emitter = new EmitterService<>(swatchEventEmitter);
+      @Channel(Channels.SWATCH_EVENTS_OUT) Emitter<Event> swatchEventEmitter,
+      MeterRegistry meterRegistry) {
+    this.emitter =
+        new EmitterService<>(swatchEventEmitter, Channels.SWATCH_EVENTS_OUT, meterRegistry);
   }
 
+  /**
+   * Relays all the outbox records with {@link ApplicationConfiguration#getOutboxFlushWorkers()}
+   * concurrent workers. Each worker owns a partition of the org IDs, so that the records of an org
+   * are sent in the order they were created.
+   *
+   * @return the number of flushed records.
+   */
   @Synchronized
   public long flushOutboxRecords() {
-    log.info("Flushing outbox records in batches of {}", config.getOutboxFlushBatchSize());
+    int workers = Math.max(1, config.getOutboxFlushWorkers());
+    log.info(
+        "Flushing outbox records with {} worker(s) in batches of {}",
+        workers,
+        config.getOutboxFlushBatchSize());
+    List<CompletableFuture<Long>> relays =
+        IntStream.range(0, workers)
+            .mapToObj(worker -> executor.supplyAsync(() -> flushPartition(worker, workers)))
+            .toList();
+    // Wait for every worker, even if one of them fails, before releasing the lock.
+    CompletableFuture.allOf(relays.toArray(CompletableFuture[]::new)).join();
+    long flushCount = relays.stream().mapToLong(CompletableFuture::join).sum();
+    log.info("Flushed {} outbox record(s)", flushCount);
+    return flushCount;
+  }
+
+  private long flushPartition(int partition, int partitions) {
     long flushCount = 0;
-    // Process all existing outbox records in batches.
+    // Process all existing outbox records of the partition in batches.
     while (true) {
-      log.debug("Flushing next batch of {} records", config.getOutboxFlushBatchSize());
-      long batchCount = flushNextBatch();
+      log.debug(
+          "Flushing next batch of {} records of partition {}",
+          config.getOutboxFlushBatchSize(),
+          partition);
+      long batchCount = flushNextBatch(partition, partitions);
       flushCount += batchCount;
 
       // No more records to flush, so we are done.
@@ -70,30 +104,42 @@ public class HbiEventOutboxService {
         break;
       }
     }
-    log.info("Flushed {} outbox record(s)", flushCount);
     return flushCount;
   }
 
+  /**
+   * Sends a batch of outbox records and waits for Kafka to acknowledge all of them before deleting
+   * the batch. If a record is not acknowledged, the transaction is rolled back and the whole batch
+   * is sent again by the next flush.
+   */
   @Transactional
-  long flushNextBatch() {
-    List<HbiEventOutbox> next = repository.findAllWithLock(config.getOutboxFlushBatchSize());
-    for (HbiEventOutbox entity : next) {
-      if (featureFlags.emitEvents()) {
+  long flushNextBatch(int partition, int partitions) {
+    List<HbiEventOutbox> next =
+        repository.findAllWithLock(config.getOutboxFlushBatchSize(), partition, partitions);
+    if (next.isEmpty()) {
+      return 0;
+    }
+
+    if (featureFlags.emitEvents()) {
+      List<Message<Event>> messages = new ArrayList<>(next.size());
+      for (HbiEventOutbox entity : next) {
         log.debug("Sending swatch event: {}", entity.getSwatchEventJson());
-        sendSwatchEvent(entity.getSwatchEventJson());
-      } else {
-        log.debug(
-            "Swatch event sending disabled. Would have sent: {}", entity.getSwatchEventJson());
+        messages.add(toMessage(entity.getSwatchEventJson()));
       }
-      repository.delete(entity);
+      emitter.sendAndAwait(messages, config.getOutboxFlushAckTimeout());
+    } else {
+      next.forEach(
+          entity ->
+              log.debug(
+                  "Swatch event sending disabled. Would have sent: {}",
+                  entity.getSwatchEventJson()));
     }
+    repository.deleteByIds(next.stream().map(HbiEventOutbox::getId).toList());
     return next.size();
   }
 
-  private void sendSwatchEvent(Event eventToSend) {
-    emitter.send(
-        Message.of(eventToSend)
-            .addMetadata(
-                OutgoingKafkaRecordMetadata.builder().withKey(eventToSend.getOrgId()).build()));
+  private Message<Event> toMessage(Event eventToSend) {
+    return Message.of(eventToSend)
+        .addMetadata(OutgoingKafkaRecordMetadata.builder().withKey(eventToSend.getOrgId()).build());
   }
 }
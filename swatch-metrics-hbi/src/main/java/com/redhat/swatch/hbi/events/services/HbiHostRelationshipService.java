@@ -58,6 +58,32 @@ public class HbiHostRelationshipService {
             relationship, subscriptionManagerId, hypervisorUuid, isUnmapped, hbiHostFactJson));
   }
 
+  /**
+   * Updates the mapping of an existing host relationship. The relationship is not rewritten when
+   * its mapping did not change.
+   *
+   * @return true if the relationship was updated.
+   */
+  public boolean updateMapping(
+      HbiHostRelationship relationship,
+      String subscriptionManagerId,
+      String hypervisorUuid,
+      boolean isUnmapped) {
+    if (Objects.equals(relationship.getSubscriptionManagerId(), subscriptionManagerId)
+        && Objects.equals(relationship.getHypervisorUuid(), hypervisorUuid)
+        && relationship.isUnmappedGuest() == isUnmapped) {
+      return false;
+    }
+    repository.persist(
+        updateRelationship(
+            relationship,
+            subscriptionManagerId,
+            hypervisorUuid,
+            isUnmapped,
+            relationship.getLatestHbiEventData()));
+    return true;
+  }
+
   public List<HbiHostRelationship> getUnmappedGuests(String orgId, String hypervisorUuid) {
     return repository.findUnmappedGuests(orgId, hypervisorUuid);
   }
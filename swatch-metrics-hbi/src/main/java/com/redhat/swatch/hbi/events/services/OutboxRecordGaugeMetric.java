@@ -26,13 +26,17 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.time.Duration;
+import org.candlepin.clock.ApplicationClock;
 
 @ApplicationScoped
 public class OutboxRecordGaugeMetric implements MeterBinder {
 
   private static final String GAUGE_NAME = "swatch.metrics.hbi.outbox.count";
+  private static final String LAG_GAUGE_NAME = "swatch.metrics.hbi.outbox.lag";
 
   @Inject HbiEventOutboxRepository outboxRepo;
+  @Inject ApplicationClock clock;
 
   @Override
   public void bindTo(MeterRegistry registry) {
@@ -40,5 +44,17 @@ public class OutboxRecordGaugeMetric implements MeterBinder {
         .description("Number of outbox records in the database")
         .tag("table", "hbi_event_outbox")
         .register(registry);
+    Gauge.builder(LAG_GAUGE_NAME, this, OutboxRecordGaugeMetric::oldestRecordAgeSeconds)
+        .description("Age of the oldest outbox record, which is how far behind the relay is")
+        .baseUnit("seconds")
+        .tag("table", "hbi_event_outbox")
+        .register(registry);
+  }
+
+  double oldestRecordAgeSeconds() {
+    return outboxRepo
+        .findOldestCreatedOn()
+        .map(createdOn -> Duration.between(createdOn, clock.now()).toMillis() / 1000.0)
+        .orElse(0.0);
   }
 }
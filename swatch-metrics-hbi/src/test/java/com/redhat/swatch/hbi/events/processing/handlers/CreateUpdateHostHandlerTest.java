@@ -21,6 +21,7 @@
 package com.redhat.swatch.hbi.events.processing.handlers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
@@ -275,6 +276,29 @@ class CreateUpdateHostHandlerTest {
         });
   }
 
+  @Test
+  void testIncomingHypervisorLooksUpItsRelationshipOnceForAllUnmappedGuests() {
+    var hypervisorEvent =
+        hbiEventHelper.getCreateUpdateEvent(HbiEventTestData.getPhysicalRhelHostCreatedEvent());
+    var hypervisorRelationship = withHypervisor(hypervisorEvent);
+    String orgId = hypervisorRelationship.getOrgId();
+    String hypervisorUuid = hypervisorRelationship.getSubscriptionManagerId();
+    List<HbiHostCreateUpdateEvent> guests =
+        Stream.generate(
+                () ->
+                    hbiEventHelper.createTemplatedGuestCreatedEvent(
+                        orgId, UUID.randomUUID(), UUID.randomUUID(), hypervisorUuid))
+            .limit(5)
+            .toList();
+    withUnmappedGuests(guests, hypervisorUuid);
+
+    List<Event> events = handler.handleEvent(hypervisorEvent);
+
+    assertEquals(6, events.size());
+    events.stream().skip(1).forEach(event -> assertFalse(event.getIsUnmappedGuest()));
+    verify(relationshipRepo, times(1)).findByOrgIdAndSubscriptionManagerId(orgId, hypervisorUuid);
+  }
+
   @Test
   void testIncomingGuestReCalculatesHypervisor() {
     var hypervisorEvent =
@@ -32,11 +32,14 @@ import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import jakarta.transaction.UserTransaction;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 import java.util.stream.LongStream;
 import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
@@ -139,6 +142,57 @@ class HbiEventOutboxRepositoryTest {
     assertEquals(1, all.size());
   }
 
+  @Test
+  @Transactional
+  void testGetWithLockReturnsAllTheRecordsOfAnOrgFromTheSamePartition() {
+    List<String> orgIds = List.of("org1", "org2", "org3", "org4", "org5", "org6");
+    orgIds.forEach(
+        orgId -> {
+          givenExistingHbiEventOutbox(orgId);
+          givenExistingHbiEventOutbox(orgId);
+        });
+
+    Set<String> seenOrgIds = new HashSet<>();
+    int total = 0;
+    for (int partition = 0; partition < 3; partition++) {
+      List<HbiEventOutbox> records = repository.findAllWithLock(100, partition, 3);
+      total += records.size();
+      Set<String> partitionOrgIds =
+          records.stream().map(HbiEventOutbox::getOrgId).collect(Collectors.toSet());
+      partitionOrgIds.forEach(orgId -> assertTrue(seenOrgIds.add(orgId)));
+    }
+
+    assertEquals(12, total);
+    assertEquals(Set.copyOf(orgIds), seenOrgIds);
+  }
+
+  @Test
+  @Transactional
+  void testDeleteByIds() {
+    HbiEventOutbox first = givenExistingHbiEventOutbox();
+    HbiEventOutbox second = givenExistingHbiEventOutbox();
+    HbiEventOutbox remaining = givenExistingHbiEventOutbox();
+
+    assertEquals(2, repository.deleteByIds(List.of(first.getId(), second.getId())));
+    entityManager.clear();
+
+    assertEquals(
+        List.of(remaining.getId()),
+        repository.listAll().stream().map(HbiEventOutbox::getId).toList());
+  }
+
+  @Test
+  @Transactional
+  void testFindOldestCreatedOn() {
+    assertTrue(repository.findOldestCreatedOn().isEmpty());
+
+    HbiEventOutbox oldest = givenExistingHbiEventOutbox();
+    givenExistingHbiEventOutbox();
+
+    assertEquals(
+        oldest.getCreatedOn().toInstant(), repository.findOldestCreatedOn().get().toInstant());
+  }
+
   @Test
   void testFindAllWithLockSkipsLockedRows() throws Exception {
     // Persist the record in its own transaction
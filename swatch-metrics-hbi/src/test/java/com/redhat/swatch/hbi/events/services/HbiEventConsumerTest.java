@@ -22,9 +22,11 @@ package com.redhat.swatch.hbi.events.services;
 
 import static com.redhat.swatch.hbi.events.configuration.Channels.HBI_HOST_EVENTS_IN;
 import static com.redhat.swatch.hbi.events.services.HbiEventConsumer.COUNTER_EVENTS_METRIC;
+import static com.redhat.swatch.hbi.events.services.HbiEventConsumer.COUNTER_SUPERSEDED_EVENTS_METRIC;
 import static com.redhat.swatch.hbi.events.services.HbiEventConsumer.TIMED_EVENTS_METRIC;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -88,7 +90,7 @@ class HbiEventConsumerTest {
   @Inject SwatchEventTestHelper swatchEventTestHelper;
   @InjectSpy HbiEventProcessor hbiEventProcessor;
   @Inject MeterRegistry meterRegistry;
-  private InMemorySource<HbiEvent> hbiEventsIn;
+  private InMemorySource<List<HbiEvent>> hbiEventsIn;
 
   @BeforeEach
   @Transactional
@@ -116,7 +118,7 @@ class HbiEventConsumerTest {
             eventTimestamp,
             false,
             buildMeasurements(2.0, 2.0));
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
 
     assertOutboxState(expected);
     assertEquals(1, repo.count());
@@ -151,7 +153,7 @@ class HbiEventConsumerTest {
             Set.of("RHEL for x86"),
             buildMeasurements(6.0, 1.0));
 
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
 
     assertOutboxState(expected);
     assertEquals(1, repo.count());
@@ -182,7 +184,7 @@ class HbiEventConsumerTest {
             .withSla(null)
             .withUsage(null);
 
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
     assertOutboxState(expected);
     assertEquals(1, repo.count());
     assertRelationshipExists(expectedRelationship);
@@ -213,7 +215,7 @@ class HbiEventConsumerTest {
             Set.of("RHEL Ungrouped", "RHEL for x86", "RHEL"),
             buildMeasurements(4.0, 4.0));
 
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
     assertOutboxState(expected);
 
     assertEquals(1, repo.count());
@@ -286,11 +288,11 @@ class HbiEventConsumerTest {
             buildMeasurements(1.0, 2.0));
 
     // Send the guest event. Results in an unmapped guest swatch event.
-    hbiEventsIn.send(virtualHostHbiEvent);
+    hbiEventsIn.send(List.of(virtualHostHbiEvent));
 
     // Send the hypervisor event. Results in a hypervisor swatch event, and an updated mapped
     // guest event.
-    hbiEventsIn.send(hypervisorEvent);
+    hbiEventsIn.send(List.of(hypervisorEvent));
     assertOutboxState(
         expectedUnmappedGuestEvent, expectedHypervisorEvent, expectedMappedGuestEvent);
 
@@ -325,7 +327,7 @@ class HbiEventConsumerTest {
             buildMeasurements(2.0, 2.0));
 
     // Send the initial HBI hypervisor event.
-    hbiEventsIn.send(hypervisorHostHbiEvent);
+    hbiEventsIn.send(List.of(hypervisorHostHbiEvent));
 
     var virtualHostHbiEvent =
         hbiEventTestHelper.getCreateUpdateEvent(HbiEventTestData.getVirtualRhelHostCreatedEvent());
@@ -359,7 +361,7 @@ class HbiEventConsumerTest {
             true,
             buildMeasurements(2.0, 2.0));
 
-    hbiEventsIn.send(virtualHostHbiEvent);
+    hbiEventsIn.send(List.of(virtualHostHbiEvent));
 
     HbiHostRelationship expectedGuestRelationship =
         hbiEventTestHelper.virtualRelationshipFromHbiEvent(
@@ -381,7 +383,7 @@ class HbiEventConsumerTest {
     HbiHostDeleteEvent hbiEvent =
         HbiEventTestData.getEvent(
             objectMapper, HbiEventTestData.getHostDeletedEvent(), HbiHostDeleteEvent.class);
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
 
     Event expectedEvent = swatchEventTestHelper.createMinimalDeleteEvent(hbiEvent);
 
@@ -413,7 +415,7 @@ class HbiEventConsumerTest {
             List.of("69"),
             Set.of("RHEL for x86"),
             buildMeasurements(1.0, 1.0));
-    hbiEventsIn.send(virtualHostHbiEvent);
+    hbiEventsIn.send(List.of(virtualHostHbiEvent));
     assertOutboxState(initialUnmappedGuestEvent);
     clearOutboxRecords();
 
@@ -441,7 +443,7 @@ class HbiEventConsumerTest {
             hypervisorEvent.getTimestamp().toOffsetDateTime(),
             true,
             buildMeasurements(2.0, 2.0));
-    hbiEventsIn.send(hypervisorEvent);
+    hbiEventsIn.send(List.of(hypervisorEvent));
     assertOutboxState(initialMappedGuestEvent, initalHypervisorSwatchEvent);
     clearOutboxRecords();
 
@@ -449,7 +451,7 @@ class HbiEventConsumerTest {
     HbiHostDeleteEvent hostDeletedEvent =
         hbiEventTestHelper.createHostDeleteEvent(
             hypervisorEvent.getHost().getOrgId(), hypervisorEvent.getHost().getId(), clock.now());
-    hbiEventsIn.send(hostDeletedEvent);
+    hbiEventsIn.send(List.of(hostDeletedEvent));
 
     // The resulting swatch delete event is expected to be populated with the
     // latest known host data from the relationship, however, the type,
@@ -496,7 +498,7 @@ class HbiEventConsumerTest {
   void testDoesNotRetryOnUnknownEvents() {
     // Send the unknown event
     var event = hbiEventTestHelper.createEventOfTypeUnknown();
-    hbiEventsIn.send(event);
+    hbiEventsIn.send(List.of(event));
     // Then wait for the consumer
     Awaitility.await()
         .await()
@@ -508,13 +510,42 @@ class HbiEventConsumerTest {
             });
   }
 
+  @Test
+  void testBatchOnlyProcessesTheLatestEventOfEachHost() throws Exception {
+    var created =
+        hbiEventTestHelper.getCreateUpdateEvent(HbiEventTestData.getPhysicalRhelHostCreatedEvent());
+    var updated =
+        hbiEventTestHelper.getCreateUpdateEvent(HbiEventTestData.getPhysicalRhelHostUpdatedEvent());
+    var otherHost =
+        hbiEventTestHelper.getCreateUpdateEvent(HbiEventTestData.getVirtualRhelHostCreatedEvent());
+
+    hbiEventsIn.send(List.of(created, otherHost, updated));
+
+    Awaitility.await()
+        .untilAsserted(
+            () -> {
+              verify(hbiEventProcessor).process(updated);
+              verify(hbiEventProcessor).process(otherHost);
+            });
+    verify(hbiEventProcessor, never()).process(created);
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get(COUNTER_SUPERSEDED_EVENTS_METRIC)
+            .tag("type", "created")
+            .counter()
+            .count());
+    assertRelationshipExists(hbiEventTestHelper.relationshipFromHbiEvent(updated));
+    assertRelationshipExists(hbiEventTestHelper.relationshipFromHbiEvent(otherHost));
+  }
+
   @Test
   void testTimedAndCountedMetricsAreUpdated() {
     // given event
     var hbiEvent =
         hbiEventTestHelper.getCreateUpdateEvent(HbiEventTestData.getPhysicalRhelHostCreatedEvent());
     // when event is sent
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
     // and is processed
     assertOutboxState(
         swatchEventTestHelper.buildPhysicalRhelEvent(
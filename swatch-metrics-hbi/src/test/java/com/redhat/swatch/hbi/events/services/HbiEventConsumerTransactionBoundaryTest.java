@@ -21,6 +21,7 @@
 package com.redhat.swatch.hbi.events.services;
 
 import static com.redhat.swatch.hbi.events.configuration.Channels.HBI_HOST_EVENTS_IN;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
@@ -48,6 +49,7 @@ import jakarta.transaction.Synchronization;
 import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
 import java.time.Duration;
+import java.util.List;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -59,7 +61,7 @@ class HbiEventConsumerTransactionBoundaryTest {
   @InjectSpy HbiEventOutboxRepository outboxRepository;
   @Inject HbiEventTestHelper hbiEventTestHelper;
   @Inject TransactionSynchronizationRegistry tsr;
-  private InMemorySource<HbiEvent> hbiEventsIn;
+  private InMemorySource<List<HbiEvent>> hbiEventsIn;
 
   private HbiHostCreateUpdateEvent hbiEvent;
   private HbiHostRelationship expectedRelationship;
@@ -84,7 +86,7 @@ class HbiEventConsumerTransactionBoundaryTest {
         .when(outboxRepository)
         .persist(any(HbiEventOutbox.class));
 
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
 
     // Wait for the event to be processed (including retries).
     // The consumer has @RetryWithExponentialBackoff, so we need to wait for all retries to
@@ -129,7 +131,7 @@ class HbiEventConsumerTransactionBoundaryTest {
         .persist(any(HbiEventOutbox.class));
 
     // Send the event and await persist invocation
-    hbiEventsIn.send(hbiEvent);
+    hbiEventsIn.send(List.of(hbiEvent));
     Awaitility.await()
         .atMost(Duration.ofSeconds(2))
         .untilAsserted(
@@ -145,4 +147,34 @@ class HbiEventConsumerTransactionBoundaryTest {
             .isEmpty());
     assertTrue(outboxRepository.findByOrgId(expectedRelationship.getOrgId()).isEmpty());
   }
+
+  @Test
+  void testBatchIsProcessedOneEventAtATimeIfTheBatchTransactionFails() {
+    HbiHostCreateUpdateEvent otherHbiEvent =
+        hbiEventTestHelper.getCreateUpdateEvent(HbiEventTestData.getVirtualRhelHostCreatedEvent());
+    HbiHostRelationship otherRelationship =
+        hbiEventTestHelper.relationshipFromHbiEvent(otherHbiEvent);
+    // only the first persist, which belongs to the batch transaction, fails
+    doThrow(new PersistenceException("FORCED: Fail the batch transaction."))
+        .doCallRealMethod()
+        .when(outboxRepository)
+        .persist(any(HbiEventOutbox.class));
+
+    hbiEventsIn.send(List.of(hbiEvent, otherHbiEvent));
+
+    Awaitility.await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> {
+              assertTrue(
+                  repo.findByOrgIdAndInventoryId(
+                          expectedRelationship.getOrgId(), expectedRelationship.getInventoryId())
+                      .isPresent());
+              assertTrue(
+                  repo.findByOrgIdAndInventoryId(
+                          otherRelationship.getOrgId(), otherRelationship.getInventoryId())
+                      .isPresent());
+            });
+    assertFalse(outboxRepository.findByOrgId(expectedRelationship.getOrgId()).isEmpty());
+  }
 }
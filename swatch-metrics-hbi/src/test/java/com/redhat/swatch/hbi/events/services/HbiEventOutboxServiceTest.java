@@ -41,7 +41,11 @@ import jakarta.enterprise.inject.Any;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.awaitility.Awaitility;
 import org.candlepin.subscriptions.json.Event;
 import org.eclipse.microprofile.reactive.messaging.Message;
@@ -90,14 +94,15 @@ class HbiEventOutboxServiceTest {
 
   @Test
   void testFlushOutboxRecordsEnforcesBatches() {
-    // Flush 1 record per batch.
+    // Flush 1 record per batch with a single worker.
     config.setOutboxFlushBatchSize(1);
+    config.setOutboxFlushWorkers(1);
     HbiEventOutbox outbox1 = withExistingOutboxRecord();
     HbiEventOutbox outbox2 = withExistingOutboxRecord();
     assertEquals(2, service.flushOutboxRecords());
 
     // Outbox should have been processed in 3 queries (last query returns 0 records and stops loop)
-    verify(repository, times(3)).findAllWithLock(config.getOutboxFlushBatchSize());
+    verify(repository, times(3)).findAllWithLock(config.getOutboxFlushBatchSize(), 0, 1);
 
     // All records should have been removed after flushing.
     assertEquals(0, repository.findByOrgId(ORG_ID).size());
@@ -122,9 +127,41 @@ class HbiEventOutboxServiceTest {
     assertSwatchEventSent();
   }
 
+  @Test
+  void testFlushOutboxRecordsWithManyWorkersKeepsTheOrderOfEachOrg() {
+    config.setOutboxFlushBatchSize(2);
+    config.setOutboxFlushWorkers(3);
+    List<String> orgIds = List.of("org1", "org2", "org3", "org4", "org5");
+    Map<String, List<Event>> expected = new HashMap<>();
+    for (int i = 0; i < 4; i++) {
+      for (String orgId : orgIds) {
+        expected
+            .computeIfAbsent(orgId, k -> new ArrayList<>())
+            .add(withExistingOutboxRecord(orgId).getSwatchEventJson());
+      }
+    }
+
+    assertEquals(20, service.flushOutboxRecords());
+
+    assertEquals(0, repository.count());
+    Awaitility.await()
+        .atMost(Duration.ofSeconds(1))
+        .untilAsserted(() -> assertEquals(20, swatchEventsOut.received().size()));
+    Map<String, List<Event>> sent =
+        swatchEventsOut.received().stream()
+            .map(Message::getPayload)
+            .collect(Collectors.groupingBy(Event::getOrgId));
+    assertEquals(expected, sent);
+  }
+
   @Transactional
   HbiEventOutbox withExistingOutboxRecord() {
-    HbiEventOutbox outbox = outboxHelper.createHbiEventOutbox(ORG_ID);
+    return withExistingOutboxRecord(ORG_ID);
+  }
+
+  @Transactional
+  HbiEventOutbox withExistingOutboxRecord(String orgId) {
+    HbiEventOutbox outbox = outboxHelper.createHbiEventOutbox(orgId);
     repository.persist(outbox);
     return outbox;
   }
@@ -25,6 +25,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -184,4 +185,42 @@ class HbiHostRelationshipServiceTest {
     when(repository.findUnmappedGuests(orgId, hypervisorUuid)).thenReturn(unmapped);
     assertEquals(unmapped, service.getUnmappedGuests(orgId, hypervisorUuid));
   }
+
+  @Test
+  void testUpdateMappingRewritesAChangedRelationship() {
+    OffsetDateTime now = OffsetDateTime.now();
+    when(clock.now()).thenReturn(now);
+    HbiHostRelationship guest = givenGuestRelationship(true);
+
+    assertTrue(service.updateMapping(guest, "guest", "hypervisor", false));
+
+    verify(repository, times(1)).persist(guest);
+    assertFalse(guest.isUnmappedGuest());
+    assertEquals(now, guest.getLastUpdated());
+    assertEquals("{}", guest.getLatestHbiEventData());
+  }
+
+  @Test
+  void testUpdateMappingSkipsAnUnchangedRelationship() {
+    HbiHostRelationship guest = givenGuestRelationship(false);
+    OffsetDateTime lastUpdated = guest.getLastUpdated();
+
+    assertFalse(service.updateMapping(guest, "guest", "hypervisor", false));
+
+    verify(repository, never()).persist(any(HbiHostRelationship.class));
+    assertEquals(lastUpdated, guest.getLastUpdated());
+  }
+
+  private HbiHostRelationship givenGuestRelationship(boolean isUnmapped) {
+    HbiHostRelationship guest = new HbiHostRelationship();
+    guest.setOrgId("org_1");
+    guest.setInventoryId(UUID.randomUUID());
+    guest.setSubscriptionManagerId("guest");
+    guest.setHypervisorUuid("hypervisor");
+    guest.setUnmappedGuest(isUnmapped);
+    guest.setLatestHbiEventData("{}");
+    guest.setCreationDate(OffsetDateTime.now().minusDays(1));
+    guest.setLastUpdated(guest.getCreationDate());
+    return guest;
+  }
 }
@@ -52,6 +52,18 @@ public interface MetricProperties {
   @WithDefault("3600") // 1 hour
   int step();
 
+  /**
+   * Length (in hours) of the time slices a range query is split into. Each slice is fetched by its
+   * own request, so that the results of the first slices are processed while the next ones are
+   * still being downloaded. A value of 0 fetches the whole range with a single request.
+   */
+  @WithDefault("0")
+  int rangeSliceInHours();
+
+  /** Maximum number of range query slices that are fetched at the same time. */
+  @WithDefault("4")
+  int rangeSliceParallelism();
+
   /** Number of times the metrics gathering should be retried if something fails. */
   @WithDefault("5")
   int maxAttempts();
@@ -71,6 +71,7 @@ public class PrometheusMeteringController {
 
   private static final String PROMETHEUS_QUERY_PARAM_INSTANCE_KEY = "instanceKey";
   private static final String PRODUCT_TAG = "productTag";
+  private static final String EVENTS_OUT = "events-out";
 
   private final PrometheusService prometheusService;
   private final EmitterService<Event> emitter;
@@ -87,14 +88,14 @@ public class PrometheusMeteringController {
       SpanGenerator spanGenerator,
       QueryBuilder prometheusQueryBuilder,
       MeterRegistry registry,
-      @Channel("events-out") Emitter<Event> emitter) {
+      @Channel(EVENTS_OUT) Emitter<Event> emitter) {
     this.prometheusService = prometheusService;
     this.clock = clock;
     this.metricProperties = metricProperties;
     this.spanGenerator = spanGenerator;
     this.prometheusQueryBuilder = prometheusQueryBuilder;
     this.registry = registry;
-    this.emitter = new EmitterService<>(emitter);
+    this.emitter = new EmitterService<>(emitter, EVENTS_OUT, registry);
   }
 
   public void collectMetrics(
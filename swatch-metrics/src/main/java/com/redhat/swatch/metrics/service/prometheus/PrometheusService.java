@@ -29,19 +29,24 @@ import com.redhat.swatch.clients.prometheus.api.model.StatusType;
 import com.redhat.swatch.clients.prometheus.api.resources.ApiException;
 import com.redhat.swatch.clients.prometheus.api.resources.QueryApi;
 import com.redhat.swatch.clients.prometheus.api.resources.QueryRangeApi;
+import com.redhat.swatch.metrics.configuration.MetricProperties;
 import com.redhat.swatch.metrics.exception.ErrorCode;
 import com.redhat.swatch.metrics.exception.ExternalServiceException;
 import com.redhat.swatch.metrics.service.prometheus.model.QuerySummaryResult;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.ProcessingException;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InputStream;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.context.ManagedExecutor;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
 /** Wraps prometheus specific API calls to make them more application specific. */
@@ -55,17 +60,36 @@ public class PrometheusService {
   public static final String JSON_PROPERTY_ERROR_TYPE = "errorType";
   public static final String JSON_PROPERTY_ERROR = "error";
 
+  private record RangeSlice(OffsetDateTime start, OffsetDateTime end) {}
+
   private final QueryApi queryApi;
   private final QueryRangeApi queryRangeApi;
   private final JsonFactory factory;
+  private final MetricProperties metricProperties;
+  private final ManagedExecutor executor;
 
   public PrometheusService(
-      @RestClient QueryApi queryApi, @RestClient QueryRangeApi queryRangeApi, JsonFactory factory) {
+      @RestClient QueryApi queryApi,
+      @RestClient QueryRangeApi queryRangeApi,
+      JsonFactory factory,
+      MetricProperties metricProperties,
+      ManagedExecutor executor) {
     this.queryApi = queryApi;
     this.queryRangeApi = queryRangeApi;
     this.factory = factory;
+    this.metricProperties = metricProperties;
+    this.executor = executor;
   }
 
+  /**
+   * Runs a range query and hands every item of the result to the consumer while the response is
+   * being read.
+   *
+   * <p>When {@link MetricProperties#rangeSliceInHours()} is set, a range longer than a slice is
+   * fetched as several range queries, up to {@link MetricProperties#rangeSliceParallelism()} at the
+   * same time. The consumer is still called by one thread at a time, but the items of the different
+   * slices are interleaved.
+   */
   public QuerySummaryResult runRangeQuery(
       String query,
       OffsetDateTime start,
@@ -75,6 +99,67 @@ public class PrometheusService {
       Consumer<QueryResultDataResultInner> resultDataItemConsumer)
       throws ExternalServiceException {
     log.info("Fetching metrics from prometheus: {} -> {} [Step: {}]", start, end, step);
+    List<RangeSlice> slices = splitRange(start, end, step);
+    if (slices.size() == 1) {
+      return runRangeQuerySlice(query, start, end, step, timeout, resultDataItemConsumer);
+    }
+
+    log.debug("Fetching the range {} -> {} in {} slices", start, end, slices.size());
+    Object consumerLock = new Object();
+    Consumer<QueryResultDataResultInner> serializedConsumer =
+        item -> {
+          synchronized (consumerLock) {
+            resultDataItemConsumer.accept(item);
+          }
+        };
+    Semaphore permits = new Semaphore(Math.max(1, metricProperties.rangeSliceParallelism()));
+    List<CompletableFuture<QuerySummaryResult>> futures = new ArrayList<>(slices.size());
+    List<QuerySummaryResult> results = new ArrayList<>(slices.size());
+    try {
+      for (RangeSlice slice : slices) {
+        permits.acquire();
+        if (futures.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+          // a slice failed: the range query fails, so the remaining slices are not fetched
+          permits.release();
+          break;
+        }
+        CompletableFuture<QuerySummaryResult> future =
+            executor.supplyAsync(
+                () ->
+                    runRangeQuerySlice(
+                        query, slice.start(), slice.end(), step, timeout, serializedConsumer));
+        future.whenComplete((result, ex) -> permits.release());
+        futures.add(future);
+      }
+      for (CompletableFuture<QuerySummaryResult> future : futures) {
+        results.add(future.get());
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ExternalServiceException(
+          ErrorCode.REQUEST_PROCESSING_ERROR,
+          "Interrupted while fetching the Prometheus range",
+          ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new ExternalServiceException(
+          ErrorCode.REQUEST_PROCESSING_ERROR, formatErrorMessage(ex), ex);
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+
+    return mergeResults(results);
+  }
+
+  private QuerySummaryResult runRangeQuerySlice(
+      String query,
+      OffsetDateTime start,
+      OffsetDateTime end,
+      Integer step,
+      Integer timeout,
+      Consumer<QueryResultDataResultInner> resultDataItemConsumer) {
     try {
       log.debug(
           "Running prometheus range query: Start: {} End: {} Step: {}, Query: {}",
@@ -82,21 +167,12 @@ public class PrometheusService {
           end.toEpochSecond(),
           step,
           query);
-      File data =
+      try (InputStream data =
           queryRangeApi.queryRange(
-              query, start.toEpochSecond(), end.toEpochSecond(), Integer.toString(step), timeout);
-      try {
+              query, start.toEpochSecond(), end.toEpochSecond(), Integer.toString(step), timeout)) {
         return parseQueryResult(data, resultDataItemConsumer);
-      } finally {
-        // Clean up temporary response file to prevent memory leak
-        if (data != null && data.exists()) {
-          if (!data.delete()) {
-            log.warn(
-                "Failed to delete temporary Prometheus response file: {}", data.getAbsolutePath());
-          }
-        }
       }
-    } catch (ProcessingException | ApiException ex) {
+    } catch (ProcessingException | ApiException | IOException ex) {
       throw new ExternalServiceException(
           ErrorCode.REQUEST_PROCESSING_ERROR, formatErrorMessage(ex), ex);
     }
@@ -111,24 +187,55 @@ public class PrometheusService {
     log.debug("Fetching metrics from prometheus: {}", time);
     try {
       log.debug("Running prometheus query: Time: {}, Query: {}", time.toEpochSecond(), query);
-      File data = queryApi.query(query, time, timeout);
-      try {
+      try (InputStream data = queryApi.query(query, time, timeout)) {
         return parseQueryResult(data, itemConsumer);
-      } finally {
-        // Clean up temporary response file to prevent memory leak
-        if (data != null && data.exists()) {
-          if (!data.delete()) {
-            log.warn(
-                "Failed to delete temporary Prometheus response file: {}", data.getAbsolutePath());
-          }
-        }
       }
-    } catch (ProcessingException | ApiException ex) {
+    } catch (ProcessingException | ApiException | IOException ex) {
       throw new ExternalServiceException(
           ErrorCode.REQUEST_PROCESSING_ERROR, formatErrorMessage(ex), ex);
     }
   }
 
+  /**
+   * Splits [start, end] into consecutive slices of {@link MetricProperties#rangeSliceInHours()}.
+   * The slice length is rounded up to a multiple of the step and each slice ends one step before
+   * the next one starts, so the slices return exactly the data points of the whole range.
+   */
+  private List<RangeSlice> splitRange(OffsetDateTime start, OffsetDateTime end, Integer step) {
+    long sliceSeconds = metricProperties.rangeSliceInHours() * 3600L;
+    if (sliceSeconds <= 0 || step == null || step <= 0) {
+      return List.of(new RangeSlice(start, end));
+    }
+    sliceSeconds = Math.ceilDiv(sliceSeconds, step) * step;
+    List<RangeSlice> slices = new ArrayList<>();
+    OffsetDateTime sliceStart = start;
+    do {
+      OffsetDateTime sliceEnd = sliceStart.plusSeconds(sliceSeconds - step);
+      slices.add(new RangeSlice(sliceStart, sliceEnd.isBefore(end) ? sliceEnd : end));
+      sliceStart = sliceStart.plusSeconds(sliceSeconds);
+    } while (!sliceStart.isAfter(end));
+    return slices;
+  }
+
+  private QuerySummaryResult mergeResults(List<QuerySummaryResult> results) {
+    QuerySummaryResult first = results.get(0);
+    var builder =
+        QuerySummaryResult.builder()
+            .status(first.getStatus())
+            .resultType(first.getResultType())
+            .numOfResults(results.stream().mapToLong(QuerySummaryResult::getNumOfResults).sum());
+    results.stream()
+        .filter(result -> StatusType.ERROR.equals(result.getStatus()))
+        .findFirst()
+        .ifPresent(
+            error ->
+                builder
+                    .status(error.getStatus())
+                    .errorType(error.getErrorType())
+                    .error(error.getError()));
+    return builder.build();
+  }
+
   private String formatErrorMessage(Exception ex) {
     return String.format("Prometheus API Error! MESSAGE: %s", ex.getMessage());
   }
@@ -139,9 +246,10 @@ public class PrometheusService {
    * HTTP API format overview</a>
    */
   private QuerySummaryResult parseQueryResult(
-      File data, Consumer<QueryResultDataResultInner> itemConsumer) {
-    if (log.isDebugEnabled()) {
-      log.debug("Response from prometheus: {}", readFileToString(data));
+      InputStream data, Consumer<QueryResultDataResultInner> itemConsumer) {
+    if (data == null) {
+      // no response body at all
+      data = InputStream.nullInputStream();
     }
 
     var builder = QuerySummaryResult.builder();
@@ -167,7 +275,7 @@ public class PrometheusService {
       // The status is mandatory when reading prometheus response. If it was not populated, then the
       // response
       // was not standard, so we need to retry again.
-      log.error("We could not parse the Prometheus response '{}'", readFileToString(data));
+      log.error("We could not parse the Prometheus response");
       throw new ExternalServiceException(
           ErrorCode.REQUEST_PROCESSING_ERROR, "Error reading the Prometheus response", null);
     }
@@ -193,15 +301,6 @@ public class PrometheusService {
     }
   }
 
-  private String readFileToString(File file) {
-    try {
-      return Files.readString(Path.of(file.getAbsolutePath()));
-    } catch (IOException ignored) {
-      // intentionally ignored
-      return null;
-    }
-  }
-
   /**
    * Parse the data.result array. See <a
    * href="https://prometheus.io/docs/prometheus/latest/querying/api/#expression-query-result-formats">Prometheus
@@ -0,0 +1,165 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.metrics.service.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.swatch.clients.prometheus.api.model.QueryResultDataResultInner;
+import com.redhat.swatch.clients.prometheus.api.model.StatusType;
+import com.redhat.swatch.clients.prometheus.api.resources.QueryApi;
+import com.redhat.swatch.clients.prometheus.api.resources.QueryRangeApi;
+import com.redhat.swatch.metrics.configuration.MetricProperties;
+import com.redhat.swatch.metrics.service.prometheus.model.QuerySummaryResult;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PrometheusServiceRangeSliceTest {
+
+  private static final OffsetDateTime START = OffsetDateTime.parse("2024-01-01T01:00:00Z");
+  private static final int STEP = 3600;
+
+  @Mock QueryApi queryApi;
+  @Mock QueryRangeApi queryRangeApi;
+  @Mock MetricProperties metricProperties;
+
+  private final Set<List<Long>> requestedRanges = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private ManagedExecutor executor;
+  private PrometheusService service;
+
+  @BeforeEach
+  void setup() throws Exception {
+    when(metricProperties.rangeSliceParallelism()).thenReturn(2);
+    when(metricProperties.rangeSliceInHours()).thenReturn(24);
+    when(queryRangeApi.queryRange(anyString(), anyLong(), anyLong(), anyString(), any()))
+        .thenAnswer(
+            invocation -> {
+              long start = invocation.getArgument(1);
+              long end = invocation.getArgument(2);
+              requestedRanges.add(List.of(start, end));
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              Thread.sleep(20);
+              inFlight.decrementAndGet();
+              return response(start == START.plusDays(1).toEpochSecond() ? "error" : "success");
+            });
+    executor = ManagedExecutor.builder().build();
+    service =
+        new PrometheusService(
+            queryApi,
+            queryRangeApi,
+            new JsonFactory(new ObjectMapper()),
+            metricProperties,
+            executor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testRangeIsFetchedInSlicesWithoutOverlap() {
+    OffsetDateTime end = START.plusHours(71);
+    List<QueryResultDataResultInner> items = new ArrayList<>();
+
+    QuerySummaryResult result = service.runRangeQuery("query", START, end, STEP, 1, items::add);
+
+    assertEquals(
+        Set.of(
+            range(START, START.plusHours(23)),
+            range(START.plusHours(24), START.plusHours(47)),
+            range(START.plusHours(48), end)),
+        requestedRanges);
+    assertEquals(3, items.size());
+    assertEquals(3, result.getNumOfResults());
+    assertEquals(StatusType.ERROR, result.getStatus());
+    assertEquals("boom", result.getError());
+  }
+
+  @Test
+  void testSlicesAreFetchedWithinTheParallelism() {
+    OffsetDateTime end = START.plusDays(8);
+
+    service.runRangeQuery("query", START.plusDays(2), end, STEP, 1, item -> {});
+
+    assertEquals(7, requestedRanges.size());
+    assertTrue(maxInFlight.get() <= 2, "at most 2 slices are fetched at the same time");
+  }
+
+  @Test
+  void testShortRangeIsFetchedWithSingleRequest() {
+    OffsetDateTime end = START.plusHours(23);
+
+    QuerySummaryResult result = service.runRangeQuery("query", START, end, STEP, 1, item -> {});
+
+    assertEquals(Set.of(range(START, end)), requestedRanges);
+    assertEquals(StatusType.SUCCESS, result.getStatus());
+  }
+
+  @Test
+  void testRangeIsFetchedWithSingleRequestWithoutStep() {
+    OffsetDateTime end = START.plusHours(71);
+
+    QuerySummaryResult result = service.runRangeQuery("query", START, end, 0, 1, item -> {});
+
+    assertEquals(Set.of(range(START, end)), requestedRanges);
+    assertEquals(StatusType.SUCCESS, result.getStatus());
+  }
+
+  private static List<Long> range(OffsetDateTime start, OffsetDateTime end) {
+    return List.of(start.toEpochSecond(), end.toEpochSecond());
+  }
+
+  private static InputStream response(String status) {
+    String error = "error".equals(status) ? ", \"error\": \"boom\"" : "";
+    String json =
+        """
+        {"status": "%s", "data": {"resultType": "matrix", "result": [
+          {"metric": {"_id": "cluster"}, "value": [], "values": [[1704070800, "1"]]}
+        ]}%s}
+        """
+            .formatted(status, error);
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -360,11 +360,15 @@ public class AwsWiremockService extends WiremockService {
   }
 
   private void setupAwsBatchMeterUsageResultStatus(String status) {
-    Map<String, Object> result = new HashMap<>();
-    result.put("Status", status);
-    if ("Success".equals(status)) {
-      result.put("MeteringRecordId", "test-record-id");
-    }
+    // AWS echoes the submitted usage record, which the service uses to match the result
+    String meteringRecordId =
+        "Success".equals(status) ? ", \"MeteringRecordId\": \"test-record-id\"" : "";
+    String body =
+        String.format(
+            "{\"Results\": [{\"Status\": \"%s\"%s,"
+                + " \"UsageRecord\": {{{jsonPath request.body '$.UsageRecords[0]'}}}}],"
+                + " \"UnprocessedRecords\": []}",
+            status, meteringRecordId);
     given()
         .contentType("application/json")
         .body(
@@ -383,8 +387,10 @@ public class AwsWiremockService extends WiremockService {
                     200,
                     "headers",
                     Map.of("Content-Type", "application/x-amz-json-1.1"),
-                    "jsonBody",
-                    Map.of("Results", List.of(result), "UnprocessedRecords", List.of())),
+                    "body",
+                    body,
+                    "transformers",
+                    List.of("response-template")),
                 "priority",
                 9,
                 "metadata",
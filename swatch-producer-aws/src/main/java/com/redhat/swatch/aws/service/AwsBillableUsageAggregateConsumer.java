@@ -28,7 +28,6 @@ import com.redhat.swatch.aws.exception.AwsMissingCredentialsException;
 import com.redhat.swatch.aws.exception.AwsThrottlingException;
 import com.redhat.swatch.aws.exception.AwsUnprocessedRecordsException;
 import com.redhat.swatch.aws.exception.AwsUsageContextLookupException;
-import com.redhat.swatch.aws.exception.AwsUsageNotAcceptedException;
 import com.redhat.swatch.aws.exception.DefaultApiException;
 import com.redhat.swatch.aws.exception.SubscriptionCanNotBeDeterminedException;
 import com.redhat.swatch.aws.exception.SubscriptionMissingBillingAccountIdException;
@@ -50,8 +49,17 @@ import jakarta.ws.rs.ProcessingException;
 import jakarta.ws.rs.core.Response;
 import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
@@ -74,6 +82,7 @@ import software.amazon.awssdk.services.marketplacemetering.model.UsageRecordResu
 @ApplicationScoped
 public class AwsBillableUsageAggregateConsumer {
   protected static final String METERED_TOTAL_METRIC = "swatch_producer_metered_total";
+  protected static final int AWS_MAX_RECORDS_PER_REQUEST = 25;
 
   private final Counter acceptedCounter;
   private final Counter rejectedCounter;
@@ -85,6 +94,7 @@ public class AwsBillableUsageAggregateConsumer {
   private final BillableUsageStatusProducer billableUsageStatusProducer;
   private final FeatureFlags featureFlags;
   private final MeterProvider<Counter> meteredTotalCounter;
+  private final int maxRecordsPerRequest;
 
   public AwsBillableUsageAggregateConsumer(
       MeterRegistry meterRegistry,
@@ -93,7 +103,8 @@ public class AwsBillableUsageAggregateConsumer {
       @ConfigProperty(name = "ENABLE_AWS_DRY_RUN") Optional<Boolean> isDryRun,
       @ConfigProperty(name = "AWS_MARKETPLACE_USAGE_WINDOW") Duration awsUsageWindow,
       BillableUsageStatusProducer billableUsageStatusProducer,
-      FeatureFlags featureFlags) {
+      FeatureFlags featureFlags,
+      @ConfigProperty(name = "AWS_MARKETPLACE_MAX_RECORDS_PER_REQUEST") int maxRecordsPerRequest) {
     acceptedCounter = meterRegistry.counter("swatch_aws_marketplace_batch_accepted_total");
     rejectedCounter = meterRegistry.counter("swatch_aws_marketplace_batch_rejected_total");
     ignoreCounter = meterRegistry.counter("swatch_aws_marketplace_batch_ignored_total");
@@ -104,25 +115,54 @@ public class AwsBillableUsageAggregateConsumer {
     this.awsUsageWindow = awsUsageWindow;
     this.billableUsageStatusProducer = billableUsageStatusProducer;
     this.featureFlags = featureFlags;
+    this.maxRecordsPerRequest =
+        Math.max(1, Math.min(maxRecordsPerRequest, AWS_MAX_RECORDS_PER_REQUEST));
   }
 
+  /**
+   * Processes the aggregates fetched by a single Kafka poll. Usage records that share a seller
+   * account and product code are submitted together, up to {@link #AWS_MAX_RECORDS_PER_REQUEST}
+   * records per BatchMeterUsage request, and the per-record results are mapped back to the
+   * aggregates they came from.
+   */
   @Incoming("billable-usage-hourly-aggregate-in")
   @Blocking
+  public void process(List<BillableUsageAggregate> billableUsageAggregates) {
+    Map<BatchKey, List<PendingUsage>> pendingByBatch = new LinkedHashMap<>();
+    for (BillableUsageAggregate billableUsageAggregate : billableUsageAggregates) {
+      prepareUsage(billableUsageAggregate)
+          .ifPresent(
+              pending ->
+                  pendingByBatch
+                      .computeIfAbsent(BatchKey.of(pending.context()), k -> new ArrayList<>())
+                      .add(pending));
+    }
+
+    for (List<PendingUsage> pending : pendingByBatch.values()) {
+      for (int from = 0; from < pending.size(); from += maxRecordsPerRequest) {
+        transformAndSend(
+            pending.subList(from, Math.min(from + maxRecordsPerRequest, pending.size())));
+      }
+    }
+  }
+
   public void process(BillableUsageAggregate billableUsageAggregate) {
+    process(Collections.singletonList(billableUsageAggregate));
+  }
+
+  private Optional<PendingUsage> prepareUsage(BillableUsageAggregate billableUsageAggregate) {
     log.info("Picked up billable usage message {} to process", billableUsageAggregate);
     if (billableUsageAggregate == null || billableUsageAggregate.getAggregateKey() == null) {
       log.warn("Skipping null billable usage: deserialization failure?");
-      return;
+      return Optional.empty();
     }
 
     if (!isForAws(billableUsageAggregate.getAggregateKey())) {
       log.debug("Snapshot not applicable because billingProvider is not AWS");
-      return;
+      return Optional.empty();
     }
 
-    if (billableUsageAggregate.getAggregateKey().getOrgId() != null) {
-      MDC.put("org_id", billableUsageAggregate.getAggregateKey().getOrgId());
-    }
+    putOrgIdInMdc(billableUsageAggregate);
 
     Optional<Metric> metric = lookupMetric(billableUsageAggregate.getAggregateKey());
     if (metric.isEmpty()) {
@@ -130,7 +170,7 @@ public class AwsBillableUsageAggregateConsumer {
           "Skipping billable usage because the metric is not supported: {}",
           billableUsageAggregate);
       emitErrorStatusOnUsage(billableUsageAggregate, BillableUsage.ErrorCode.UNSUPPORTED_METRIC);
-      return;
+      return Optional.empty();
     }
 
     log.info("Processing billable usage message: {}", billableUsageAggregate);
@@ -152,25 +192,28 @@ public class AwsBillableUsageAggregateConsumer {
         emitErrorStatusOnUsage(
             billableUsageAggregate, BillableUsage.ErrorCode.SUBSCRIPTION_NOT_FOUND);
       }
-      return;
+      return Optional.empty();
     } catch (SubscriptionRecentlyTerminatedException e) {
       emitErrorStatusOnUsage(
           billableUsageAggregate, BillableUsage.ErrorCode.SUBSCRIPTION_TERMINATED);
       log.info("Subscription recently terminated for aggregate={}", billableUsageAggregate, e);
-      return;
+      return Optional.empty();
     } catch (SubscriptionMissingBillingAccountIdException e) {
       emitErrorStatusOnUsage(billableUsageAggregate, BillableUsage.ErrorCode.USAGE_CONTEXT_LOOKUP);
       log.warn("Subscription missing billingAccountId for aggregate={}", billableUsageAggregate, e);
-      return;
+      return Optional.empty();
     } catch (AwsUsageContextLookupException e) {
       emitErrorStatusOnUsage(billableUsageAggregate, BillableUsage.ErrorCode.USAGE_CONTEXT_LOOKUP);
       log.error("Error looking up aws usage context for aggregate={}", billableUsageAggregate, e);
-      return;
+      return Optional.empty();
     }
 
     try {
-      transformAndSend(context, billableUsageAggregate, metric.get());
-      emitSuccessfulStatusOnUsage(billableUsageAggregate);
+      return Optional.of(
+          new PendingUsage(
+              billableUsageAggregate,
+              context,
+              transformToAwsUsage(context, billableUsageAggregate, metric.get())));
     } catch (UsageTimestampOutOfBoundsException e) {
       emitErrorStatusOnUsage(billableUsageAggregate, BillableUsage.ErrorCode.REDUNDANT);
       log.warn(
@@ -182,36 +225,11 @@ public class AwsBillableUsageAggregateConsumer {
           context.getProductCode(),
           context.getSubscriptionStartDate());
       ignoreCounter.increment();
-    } catch (AwsUsageNotAcceptedException e) {
-      emitErrorStatusOnUsage(
-          billableUsageAggregate, errorCodeForAwsUsageResult(e.getResultStatus()));
-      log.warn(
-          "AWS usage not accepted for rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={} resultStatus={}",
-          context.getRhSubscriptionId(),
-          billableUsageAggregate,
-          context.getCustomerId(),
-          context.getProductCode(),
-          e.getResultStatus());
-    } catch (AwsThrottlingException e) {
-      emitErrorStatusOnUsage(
-          billableUsageAggregate, BillableUsage.ErrorCode.MARKETPLACE_RATE_LIMIT);
-      log.error(
-          "Error sending aws usage due to rate limit for rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={}",
-          context.getRhSubscriptionId(),
-          billableUsageAggregate,
-          context.getCustomerId(),
-          context.getProductCode(),
-          e);
     } catch (Exception e) {
       emitErrorStatusOnUsage(billableUsageAggregate, BillableUsage.ErrorCode.UNKNOWN);
-      log.error(
-          "Error sending aws usage for rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={}",
-          context.getRhSubscriptionId(),
-          billableUsageAggregate,
-          context.getCustomerId(),
-          context.getProductCode(),
-          e);
+      logSendError(e, new PendingUsage(billableUsageAggregate, context, null));
     }
+    return Optional.empty();
   }
 
   @RetryWithExponentialBackoff(
@@ -249,50 +267,52 @@ public class AwsBillableUsageAggregateConsumer {
     }
   }
 
-  private void transformAndSend(
-      AwsUsageContext context, BillableUsageAggregate billableUsageAggregate, Metric metric)
-      throws AwsUnprocessedRecordsException,
-          AwsUsageNotAcceptedException,
-          UsageTimestampOutOfBoundsException {
+  private void transformAndSend(List<PendingUsage> batch) {
+    try {
+      sendBatch(batch);
+    } catch (AwsThrottlingException e) {
+      for (PendingUsage pending : batch) {
+        emitErrorStatusOnUsage(pending.aggregate(), BillableUsage.ErrorCode.MARKETPLACE_RATE_LIMIT);
+        putOrgIdInMdc(pending.aggregate());
+        log.error(
+            "Error sending aws usage due to rate limit for rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={}",
+            pending.context().getRhSubscriptionId(),
+            pending.aggregate(),
+            pending.context().getCustomerId(),
+            pending.context().getProductCode(),
+            e);
+      }
+    } catch (Exception e) {
+      for (PendingUsage pending : batch) {
+        emitErrorStatusOnUsage(pending.aggregate(), BillableUsage.ErrorCode.UNKNOWN);
+        logSendError(e, pending);
+      }
+    }
+  }
+
+  private void sendBatch(List<PendingUsage> batch)
+      throws AwsThrottlingException, AwsUnprocessedRecordsException {
+    AwsUsageContext context = batch.get(0).context();
+    List<BillableUsageAggregate> aggregates = batch.stream().map(PendingUsage::aggregate).toList();
     BatchMeterUsageRequest request =
         BatchMeterUsageRequest.builder()
             .productCode(context.getProductCode())
-            .usageRecords(transformToAwsUsage(context, billableUsageAggregate, metric))
+            .usageRecords(batch.stream().map(PendingUsage::usageRecord).toList())
             .build();
 
     if (isDryRun.isPresent() && Boolean.TRUE.equals(isDryRun.get())) {
-      log.info(
-          "[DRY RUN] Sending usage request to AWS: {}, aggregate={}",
-          request,
-          billableUsageAggregate);
+      log.info("[DRY RUN] Sending usage request to AWS: {}, aggregates={}", request, aggregates);
+      aggregates.forEach(this::emitSuccessfulStatusOnUsage);
       return;
     } else {
-      log.info("Sending usage request to AWS: {}, aggregate={}", request, billableUsageAggregate);
+      log.info("Sending usage request to AWS: {}, aggregates={}", request, aggregates);
     }
 
+    BatchMeterUsageResponse response;
     try {
       MarketplaceMeteringClient marketplaceMeteringClient =
-          awsMarketplaceMeteringClientFactory.buildMarketplaceMeteringClient(context);
-      BatchMeterUsageResponse response = send(marketplaceMeteringClient, request);
-      log.debug("{}", response);
-      if (!response.unprocessedRecords().isEmpty()) {
-        rejectedCounter.increment(response.unprocessedRecords().size());
-        throw new AwsUnprocessedRecordsException(response.unprocessedRecords().size());
-      }
-      for (var result : response.results()) {
-        if (result.status() == UsageRecordResultStatus.SUCCESS) {
-          log.info(
-              "Sent usage request to AWS: result={}, aggregate={}", result, billableUsageAggregate);
-          acceptedCounter.increment();
-        } else {
-          log.warn(
-              "AWS BatchMeterUsage returned non-Success status for aggregate={}, result={}",
-              billableUsageAggregate,
-              result);
-          rejectedCounter.increment();
-          throw new AwsUsageNotAcceptedException(result.status());
-        }
-      }
+          awsMarketplaceMeteringClientFactory.getMarketplaceMeteringClient(context);
+      response = send(marketplaceMeteringClient, request);
     } catch (ThrottlingException e) {
       rejectedCounter.increment(request.usageRecords().size());
       throw new AwsThrottlingException(request.usageRecords().size());
@@ -301,10 +321,71 @@ public class AwsBillableUsageAggregateConsumer {
       throw new AwsUnprocessedRecordsException(request.usageRecords().size(), e);
     } catch (AwsMissingCredentialsException e) {
       log.warn(
-          "{} for aggregate={}, awsCustomerId={}",
+          "{} for aggregates={}, awsCustomerId={}",
           e.getMessage(),
-          billableUsageAggregate,
+          aggregates,
           context.getCustomerId());
+      aggregates.forEach(this::emitSuccessfulStatusOnUsage);
+      return;
+    }
+    log.debug("{}", response);
+    handleResponse(batch, response);
+  }
+
+  /**
+   * Maps each result and unprocessed record of the response back to the aggregate it was built
+   * from. AWS echoes the submitted usage record, which is matched on its customer, dimension,
+   * timestamp and quantity. Records that match none of the submitted usage records are logged and
+   * ignored. Aggregates AWS reports nothing about are failed, so that their usage is sent again.
+   */
+  private void handleResponse(List<PendingUsage> batch, BatchMeterUsageResponse response) {
+    PendingUsageMatcher matcher = new PendingUsageMatcher(batch);
+    for (var result : response.results()) {
+      PendingUsage pending = matcher.claim(result.usageRecord());
+      if (pending == null) {
+        log.warn("AWS BatchMeterUsage returned an unexpected result={}", result);
+        continue;
+      }
+      putOrgIdInMdc(pending.aggregate());
+      if (result.status() == UsageRecordResultStatus.SUCCESS) {
+        log.info("Sent usage request to AWS: result={}, aggregate={}", result, pending.aggregate());
+        acceptedCounter.increment();
+        emitSuccessfulStatusOnUsage(pending.aggregate());
+      } else {
+        rejectedCounter.increment();
+        emitErrorStatusOnUsage(pending.aggregate(), errorCodeForAwsUsageResult(result.status()));
+        log.warn(
+            "AWS usage not accepted for rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={} resultStatus={}",
+            pending.context().getRhSubscriptionId(),
+            pending.aggregate(),
+            pending.context().getCustomerId(),
+            pending.context().getProductCode(),
+            result.status());
+      }
+    }
+
+    for (UsageRecord unprocessedRecord : response.unprocessedRecords()) {
+      PendingUsage pending = matcher.claim(unprocessedRecord);
+      if (pending == null) {
+        log.warn(
+            "AWS BatchMeterUsage returned an unexpected unprocessed record={}", unprocessedRecord);
+        continue;
+      }
+      rejectedCounter.increment();
+      emitErrorStatusOnUsage(pending.aggregate(), BillableUsage.ErrorCode.UNKNOWN);
+      logSendError(new AwsUnprocessedRecordsException(1), pending);
+    }
+
+    for (PendingUsage pending : matcher.unclaimed()) {
+      rejectedCounter.increment();
+      emitErrorStatusOnUsage(pending.aggregate(), BillableUsage.ErrorCode.UNKNOWN);
+      putOrgIdInMdc(pending.aggregate());
+      log.warn(
+          "AWS BatchMeterUsage did not report on the usage of rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={}",
+          pending.context().getRhSubscriptionId(),
+          pending.aggregate(),
+          pending.context().getCustomerId(),
+          pending.context().getProductCode());
     }
   }
 
@@ -364,6 +445,23 @@ public class AwsBillableUsageAggregateConsumer {
     usageRecord.licenseArn(licenseId);
   }
 
+  private void logSendError(Exception e, PendingUsage pending) {
+    putOrgIdInMdc(pending.aggregate());
+    log.error(
+        "Error sending aws usage for rhSubscriptionId={} aggregate={} awsCustomerId={} awsProductCode={}",
+        pending.context().getRhSubscriptionId(),
+        pending.aggregate(),
+        pending.context().getCustomerId(),
+        pending.context().getProductCode(),
+        e);
+  }
+
+  private static void putOrgIdInMdc(BillableUsageAggregate billableUsageAggregate) {
+    if (billableUsageAggregate.getAggregateKey().getOrgId() != null) {
+      MDC.put("org_id", billableUsageAggregate.getAggregateKey().getOrgId());
+    }
+  }
+
   private boolean isForAws(BillableUsageAggregateKey aggregationKey) {
     return Objects.equals(
         aggregationKey.getBillingProvider(), BillableUsage.BillingProvider.AWS.value());
@@ -455,4 +553,63 @@ public class AwsBillableUsageAggregateConsumer {
     OffsetDateTime cutoff = startOfCurrentHour.minus(awsUsageWindow);
     return !billableUsageAggregate.getWindowTimestamp().isBefore(cutoff);
   }
+
+  private record PendingUsage(
+      BillableUsageAggregate aggregate, AwsUsageContext context, UsageRecord usageRecord) {}
+
+  /** Usage records can only be submitted together for the same seller account and product. */
+  private record BatchKey(String awsSellerAccountId, String productCode) {
+    static BatchKey of(AwsUsageContext context) {
+      return new BatchKey(context.getAwsSellerAccountId(), context.getProductCode());
+    }
+  }
+
+  /** The fields of a usage record that identify it in the results of a request. */
+  private record UsageRecordKey(
+      String customerAwsAccountId,
+      String customerIdentifier,
+      String dimension,
+      Instant timestamp,
+      Integer quantity) {
+    static UsageRecordKey of(UsageRecord usageRecord) {
+      return new UsageRecordKey(
+          usageRecord.customerAWSAccountId(),
+          usageRecord.customerIdentifier(),
+          usageRecord.dimension(),
+          usageRecord.timestamp(),
+          usageRecord.quantity());
+    }
+  }
+
+  private static class PendingUsageMatcher {
+    private final Map<UsageRecordKey, Deque<PendingUsage>> pendingByRecord = new HashMap<>();
+    private final List<PendingUsage> unclaimed;
+
+    PendingUsageMatcher(List<PendingUsage> batch) {
+      this.unclaimed = new ArrayList<>(batch);
+      for (PendingUsage pending : batch) {
+        pendingByRecord
+            .computeIfAbsent(UsageRecordKey.of(pending.usageRecord()), k -> new ArrayDeque<>())
+            .add(pending);
+      }
+    }
+
+    /**
+     * @return the pending usage the record was built from, or null when the record matches none of
+     *     the pending usages that are not claimed yet
+     */
+    PendingUsage claim(UsageRecord usageRecord) {
+      Deque<PendingUsage> matches =
+          usageRecord == null ? null : pendingByRecord.get(UsageRecordKey.of(usageRecord));
+      PendingUsage pending = matches == null ? null : matches.poll();
+      if (pending != null) {
+        unclaimed.removeIf(candidate -> candidate == pending);
+      }
+      return pending;
+    }
+
+    List<PendingUsage> unclaimed() {
+      return unclaimed;
+    }
+  }
 }
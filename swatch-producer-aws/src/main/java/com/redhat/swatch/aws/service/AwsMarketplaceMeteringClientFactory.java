@@ -20,45 +20,129 @@
  */
 package com.redhat.swatch.aws.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import com.redhat.swatch.aws.file.AwsCredentialsLookup;
 import com.redhat.swatch.clients.contracts.api.model.AwsUsageContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import java.net.URI;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClient;
 import software.amazon.awssdk.services.marketplacemetering.MarketplaceMeteringClientBuilder;
 
+/**
+ * Provides long-lived {@link MarketplaceMeteringClient} instances.
+ *
+ * <p>Clients are cached per seller account and endpoint, and all of them share a single HTTP client
+ * (and therefore its connection pool), so consecutive aggregates for the same seller account reuse
+ * open TLS connections. Idle clients are evicted and closed. The credentials provider of a client
+ * comes from {@link AwsCredentialsLookup}, which keeps one provider per seller account for the
+ * lifetime of the application, so a cached client never needs a different provider.
+ */
+@Slf4j
 @ApplicationScoped
 public class AwsMarketplaceMeteringClientFactory {
+  protected static final String CLIENT_CACHE_NAME = "swatch_aws_marketplace_metering_clients";
+
   private final AwsCredentialsLookup awsCredentialsLookup;
   private final boolean awsMarketplaceEndpointOverride;
   private final String awsMarketplaceEndpointUrl;
   private final String awsRegion;
+  private final SdkHttpClient httpClient;
+  private final Cache<ClientKey, MarketplaceMeteringClient> clients;
 
   public AwsMarketplaceMeteringClientFactory(
       AwsCredentialsLookup awsCredentialsLookup,
+      MeterRegistry meterRegistry,
       @ConfigProperty(name = "AWS_MARKETPLACE_ENDPOINT_OVERRIDE")
           boolean awsMarketplaceEndpointOverride,
       @ConfigProperty(name = "AWS_MARKETPLACE_ENDPOINT_URL") String awsMarketplaceEndpointUrl,
-      @ConfigProperty(name = "AWS_REGION") String awsRegion) {
+      @ConfigProperty(name = "AWS_REGION") String awsRegion,
+      @ConfigProperty(name = "AWS_MARKETPLACE_CLIENT_CACHE_MAX_SIZE") long clientCacheMaxSize,
+      @ConfigProperty(name = "AWS_MARKETPLACE_CLIENT_IDLE_TIMEOUT") Duration clientIdleTimeout,
+      @ConfigProperty(name = "AWS_MARKETPLACE_HTTP_MAX_CONNECTIONS") int httpMaxConnections) {
     this.awsMarketplaceEndpointOverride = awsMarketplaceEndpointOverride;
     this.awsMarketplaceEndpointUrl = awsMarketplaceEndpointUrl;
     this.awsRegion = awsRegion;
     this.awsCredentialsLookup = awsCredentialsLookup;
+    this.httpClient = ApacheHttpClient.builder().maxConnections(httpMaxConnections).build();
+    this.clients =
+        Caffeine.newBuilder()
+            .maximumSize(clientCacheMaxSize)
+            .expireAfterAccess(clientIdleTimeout)
+            .scheduler(Scheduler.systemScheduler())
+            .removalListener(this::onClientRemoval)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, clients, CLIENT_CACHE_NAME);
+  }
+
+  /**
+   * Get a client for the seller account of the given usage context, reusing a cached client when
+   * possible.
+   *
+   * @param context the AWS usage context of the aggregate being sent
+   * @return a MarketplaceMeteringClient that must not be closed by the caller
+   */
+  public MarketplaceMeteringClient getMarketplaceMeteringClient(AwsUsageContext context) {
+    ClientKey key = new ClientKey(context.getAwsSellerAccountId(), endpoint());
+    return clients.get(key, this::buildClient);
+  }
+
+  long cachedClientCount() {
+    clients.cleanUp();
+    return clients.estimatedSize();
   }
 
-  public MarketplaceMeteringClient buildMarketplaceMeteringClient(AwsUsageContext context) {
-    MarketplaceMeteringClientBuilder builder = MarketplaceMeteringClient.builder();
+  @PreDestroy
+  void close() {
+    clients.invalidateAll();
+    clients.cleanUp();
+    httpClient.close();
+  }
+
+  private MarketplaceMeteringClient buildClient(ClientKey key) {
+    AwsCredentialsProvider credentialsProvider =
+        awsCredentialsLookup.getCredentialsProvider(key.sellerAccount());
+    MarketplaceMeteringClientBuilder builder =
+        MarketplaceMeteringClient.builder().httpClient(httpClient);
     if (awsMarketplaceEndpointOverride) {
       builder = builder.endpointOverride(URI.create(awsMarketplaceEndpointUrl));
     }
     if (awsRegion != null) {
       builder = builder.region(Region.of(awsRegion));
     }
-    return builder
-        .credentialsProvider(
-            awsCredentialsLookup.getCredentialsProvider(context.getAwsSellerAccountId()))
-        .build();
+    return builder.credentialsProvider(credentialsProvider).build();
+  }
+
+  private String endpoint() {
+    return awsMarketplaceEndpointOverride ? awsMarketplaceEndpointUrl : awsRegion;
   }
+
+  private void onClientRemoval(
+      ClientKey key, MarketplaceMeteringClient client, RemovalCause cause) {
+    if (client == null) {
+      return;
+    }
+    log.debug(
+        "Closing AWS marketplace metering client for sellerAccount={} endpoint={} cause={}",
+        key != null ? key.sellerAccount() : null,
+        key != null ? key.endpoint() : null,
+        cause);
+    // the shared HTTP client is not owned by the SDK client, so it stays open
+    client.close();
+  }
+
+  private record ClientKey(String sellerAccount, String endpoint) {}
 }
@@ -30,6 +30,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -61,6 +62,7 @@ import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -112,19 +114,6 @@ class AwsBillableUsageAggregateConsumerTest {
           .customerAwsAccountId("123456789012")
           .productCode("product")
           .subscriptionStartDate(OffsetDateTime.MIN);
-  public static final BatchMeterUsageResponse BATCH_METER_USAGE_SUCCESS_RESPONSE =
-      BatchMeterUsageResponse.builder()
-          .results(
-              UsageRecordResult.builder()
-                  .usageRecord(
-                      UsageRecord.builder()
-                          .customerIdentifier("customer")
-                          .dimension("dimension")
-                          .build())
-                  .status(UsageRecordResultStatus.SUCCESS)
-                  .build())
-          .build();
-
   @InjectMock @RestClient DefaultApi contractsApi;
   @InjectMock AwsMarketplaceMeteringClientFactory clientFactory;
   MarketplaceMeteringClient meteringClient;
@@ -269,9 +258,11 @@ class AwsBillableUsageAggregateConsumerTest {
     BillableUsageAggregate aggregate = createAggregateWithLicense(licenseId);
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), eq(licenseId)))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
-        .thenReturn(BATCH_METER_USAGE_SUCCESS_RESPONSE);
+        .thenAnswer(
+            invocation ->
+                respondWithStatus(invocation.getArgument(0), UsageRecordResultStatus.SUCCESS));
 
     consumer.process(aggregate);
 
@@ -286,9 +277,11 @@ class AwsBillableUsageAggregateConsumerTest {
         createAggregateWithLicense("arn:aws:license-manager:us-east-1:123:license:legacy");
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
-        .thenReturn(BATCH_METER_USAGE_SUCCESS_RESPONSE);
+        .thenAnswer(
+            invocation ->
+                respondWithStatus(invocation.getArgument(0), UsageRecordResultStatus.SUCCESS));
 
     consumer.process(aggregate);
 
@@ -302,9 +295,11 @@ class AwsBillableUsageAggregateConsumerTest {
     BillableUsageAggregate aggregate = createAggregateWithLicense(licenseId);
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), eq(licenseId)))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
-        .thenReturn(BATCH_METER_USAGE_SUCCESS_RESPONSE);
+        .thenAnswer(
+            invocation ->
+                respondWithStatus(invocation.getArgument(0), UsageRecordResultStatus.SUCCESS));
 
     consumer.process(aggregate);
 
@@ -340,7 +335,7 @@ class AwsBillableUsageAggregateConsumerTest {
   void shouldSendUsageForApplicableSnapshot() throws ApiException {
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     consumer.process(ROSA_INSTANCE_HOURS_RECORD);
     verify(meteringClient).batchMeterUsage(any(BatchMeterUsageRequest.class));
   }
@@ -349,7 +344,7 @@ class AwsBillableUsageAggregateConsumerTest {
   void whenThrottlingExceptionThenSetRateLimitErrorCode() throws ApiException {
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     ThrottlingException throttlingException =
         ThrottlingException.builder().message("Rate limit exceeded").build();
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
@@ -404,9 +399,11 @@ class AwsBillableUsageAggregateConsumerTest {
     var priorAccepted = acceptedCounter.count();
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
-        .thenReturn(BATCH_METER_USAGE_SUCCESS_RESPONSE);
+        .thenAnswer(
+            invocation ->
+                respondWithStatus(invocation.getArgument(0), UsageRecordResultStatus.SUCCESS));
     consumer.process(ROSA_INSTANCE_HOURS_RECORD);
     assertEquals(priorAccepted + 1.0, acceptedCounter.count());
 
@@ -421,7 +418,7 @@ class AwsBillableUsageAggregateConsumerTest {
     double current = rejectedCounter.count();
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
         .thenReturn(
             BatchMeterUsageResponse.builder()
@@ -442,7 +439,7 @@ class AwsBillableUsageAggregateConsumerTest {
     double current = rejectedCounter.count();
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
         .thenThrow(MarketplaceMeteringException.class);
     consumer.process(ROSA_INSTANCE_HOURS_RECORD);
@@ -459,7 +456,8 @@ class AwsBillableUsageAggregateConsumerTest {
             Optional.of(true),
             Duration.of(1, ChronoUnit.HOURS),
             billableUsageStatusProducer,
-            featureFlags);
+            featureFlags,
+            AwsBillableUsageAggregateConsumer.AWS_MAX_RECORDS_PER_REQUEST);
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
     processor.process(ROSA_INSTANCE_HOURS_RECORD);
@@ -576,7 +574,7 @@ class AwsBillableUsageAggregateConsumerTest {
     reset(contractsApi, billableUsageStatusProducer);
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
         .thenReturn(BatchMeterUsageResponse.builder().build());
     consumer.process(ROSA_INSTANCE_HOURS_RECORD);
@@ -616,16 +614,9 @@ class AwsBillableUsageAggregateConsumerTest {
     double currentRejected = rejectedCounter.count();
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
         .thenReturn(MOCK_AWS_USAGE_CONTEXT);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
-        .thenReturn(
-            BatchMeterUsageResponse.builder()
-                .results(
-                    UsageRecordResult.builder()
-                        .usageRecord(UsageRecord.builder().build())
-                        .status(resultStatus)
-                        .build())
-                .build());
+        .thenAnswer(invocation -> respondWithStatus(invocation.getArgument(0), resultStatus));
     consumer.process(ROSA_INSTANCE_HOURS_RECORD);
     assertEquals(currentRejected + 1, rejectedCounter.count());
     verify(billableUsageStatusProducer)
@@ -636,6 +627,142 @@ class AwsBillableUsageAggregateConsumerTest {
                         && errorCode.equals(usage.getErrorCode())));
   }
 
+  @Test
+  void shouldSubmitUsageForTheSameProductInOneRequest() throws ApiException {
+    var instanceHours = createRosaAggregate(MetricIdUtils.getInstanceHours(), 42.0);
+    var cores = createRosaAggregate(MetricIdUtils.getCores(), 8.0);
+    when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    // AWS does not guarantee that results come back in the order the records were sent
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              BatchMeterUsageRequest request = invocation.getArgument(0);
+              return BatchMeterUsageResponse.builder()
+                  .results(
+                      UsageRecordResult.builder()
+                          .usageRecord(request.usageRecords().get(1))
+                          .status(UsageRecordResultStatus.DUPLICATE_RECORD)
+                          .build(),
+                      UsageRecordResult.builder()
+                          .usageRecord(request.usageRecords().get(0))
+                          .status(UsageRecordResultStatus.SUCCESS)
+                          .build())
+                  .build();
+            });
+
+    consumer.process(List.of(instanceHours, cores));
+
+    ArgumentCaptor<BatchMeterUsageRequest> requestCaptor =
+        ArgumentCaptor.forClass(BatchMeterUsageRequest.class);
+    verify(meteringClient).batchMeterUsage(requestCaptor.capture());
+    assertEquals(2, requestCaptor.getValue().usageRecords().size());
+    assertEquals(BillableUsage.Status.SUCCEEDED, instanceHours.getStatus());
+    assertEquals(BillableUsage.Status.FAILED, cores.getStatus());
+    assertEquals(BillableUsage.ErrorCode.MARKETPLACE_DUPLICATE_RECORD, cores.getErrorCode());
+  }
+
+  @Test
+  void shouldSubmitUsageForDifferentProductsInSeparateRequests() throws ApiException {
+    var first = createRosaAggregate(MetricIdUtils.getInstanceHours(), 42.0);
+    var second = createRosaAggregate(MetricIdUtils.getInstanceHours(), 24.0);
+    when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
+        .thenReturn(
+            MOCK_AWS_USAGE_CONTEXT,
+            new AwsUsageContext()
+                .rhSubscriptionId("other")
+                .customerAwsAccountId("123456789012")
+                .productCode("other-product")
+                .subscriptionStartDate(OffsetDateTime.MIN));
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenAnswer(
+            invocation ->
+                respondWithStatus(invocation.getArgument(0), UsageRecordResultStatus.SUCCESS));
+
+    consumer.process(List.of(first, second));
+
+    ArgumentCaptor<BatchMeterUsageRequest> requestCaptor =
+        ArgumentCaptor.forClass(BatchMeterUsageRequest.class);
+    verify(meteringClient, times(2)).batchMeterUsage(requestCaptor.capture());
+    assertEquals(
+        List.of("product", "other-product"),
+        requestCaptor.getAllValues().stream().map(BatchMeterUsageRequest::productCode).toList());
+    assertEquals(BillableUsage.Status.SUCCEEDED, first.getStatus());
+    assertEquals(BillableUsage.Status.SUCCEEDED, second.getStatus());
+  }
+
+  @Test
+  void shouldOnlyFailTheUnprocessedRecordOfARequest() throws ApiException {
+    var processed = createRosaAggregate(MetricIdUtils.getInstanceHours(), 42.0);
+    var unprocessed = createRosaAggregate(MetricIdUtils.getCores(), 8.0);
+    when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              BatchMeterUsageRequest request = invocation.getArgument(0);
+              return BatchMeterUsageResponse.builder()
+                  .results(
+                      UsageRecordResult.builder()
+                          .usageRecord(request.usageRecords().get(0))
+                          .status(UsageRecordResultStatus.SUCCESS)
+                          .build())
+                  .unprocessedRecords(request.usageRecords().get(1))
+                  .build();
+            });
+
+    consumer.process(List.of(processed, unprocessed));
+
+    assertEquals(BillableUsage.Status.SUCCEEDED, processed.getStatus());
+    assertEquals(BillableUsage.Status.FAILED, unprocessed.getStatus());
+    assertEquals(BillableUsage.ErrorCode.UNKNOWN, unprocessed.getErrorCode());
+  }
+
+  @Test
+  void shouldOnlyCreditTheResultsToTheUsageTheyReportOn() throws ApiException {
+    var instanceHours = createRosaAggregate(MetricIdUtils.getInstanceHours(), 42.0);
+    var cores = createRosaAggregate(MetricIdUtils.getCores(), 8.0);
+    var unreported = createRosaAggregate(MetricIdUtils.getInstanceHours(), 24.0);
+    when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), isNull()))
+        .thenReturn(MOCK_AWS_USAGE_CONTEXT);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    // the results come back out of order, one of them does not match any submitted record and
+    // the last submitted record is not reported on
+    when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              BatchMeterUsageRequest request = invocation.getArgument(0);
+              return BatchMeterUsageResponse.builder()
+                  .results(
+                      UsageRecordResult.builder()
+                          .usageRecord(
+                              request.usageRecords().get(0).toBuilder().quantity(1).build())
+                          .status(UsageRecordResultStatus.SUCCESS)
+                          .build(),
+                      UsageRecordResult.builder()
+                          .usageRecord(request.usageRecords().get(1))
+                          .status(UsageRecordResultStatus.DUPLICATE_RECORD)
+                          .build(),
+                      UsageRecordResult.builder()
+                          .usageRecord(request.usageRecords().get(0))
+                          .status(UsageRecordResultStatus.SUCCESS)
+                          .build())
+                  .build();
+            });
+
+    consumer.process(List.of(instanceHours, cores, unreported));
+
+    assertEquals(BillableUsage.Status.SUCCEEDED, instanceHours.getStatus());
+    assertEquals(BillableUsage.Status.FAILED, cores.getStatus());
+    assertEquals(BillableUsage.ErrorCode.MARKETPLACE_DUPLICATE_RECORD, cores.getErrorCode());
+    assertEquals(BillableUsage.Status.FAILED, unreported.getStatus());
+    assertEquals(BillableUsage.ErrorCode.UNKNOWN, unreported.getErrorCode());
+    verify(billableUsageStatusProducer, times(3)).emitStatus(any());
+  }
+
   static Stream<Arguments> usageWindowTestArgs() {
     OffsetDateTime now = OffsetDateTime.now(clock);
     OffsetDateTime startOfCurrentHour = now.minusMinutes(30);
@@ -663,9 +790,11 @@ class AwsBillableUsageAggregateConsumerTest {
       AwsUsageContext context, BillableUsageAggregate aggregate) throws ApiException {
     when(contractsApi.getAwsUsageContext(any(), any(), any(), any(), any(), any(), any()))
         .thenReturn(context);
-    when(clientFactory.buildMarketplaceMeteringClient(any())).thenReturn(meteringClient);
+    when(clientFactory.getMarketplaceMeteringClient(any())).thenReturn(meteringClient);
     when(meteringClient.batchMeterUsage(any(BatchMeterUsageRequest.class)))
-        .thenReturn(BATCH_METER_USAGE_SUCCESS_RESPONSE);
+        .thenAnswer(
+            invocation ->
+                respondWithStatus(invocation.getArgument(0), UsageRecordResultStatus.SUCCESS));
 
     ArgumentCaptor<BatchMeterUsageRequest> requestCaptor =
         ArgumentCaptor.forClass(BatchMeterUsageRequest.class);
@@ -675,6 +804,24 @@ class AwsBillableUsageAggregateConsumerTest {
     return captured.usageRecords().getFirst();
   }
 
+  /** AWS echoes the submitted usage records in the results. */
+  private static BatchMeterUsageResponse respondWithStatus(
+      BatchMeterUsageRequest request, UsageRecordResultStatus status) {
+    return BatchMeterUsageResponse.builder()
+        .results(
+            request.usageRecords().stream()
+                .map(
+                    usageRecord ->
+                        UsageRecordResult.builder().usageRecord(usageRecord).status(status).build())
+                .toList())
+        .build();
+  }
+
+  private static BillableUsageAggregate createRosaAggregate(MetricId metricId, double totalValue) {
+    return createAggregate(
+        "rosa", metricId.toUpperCaseFormatted(), OffsetDateTime.now(Clock.systemUTC()), totalValue);
+  }
+
   private static BillableUsageAggregate createAggregateWithLicense(String licenseId) {
     BillableUsageAggregate aggregate =
         createAggregate(
@@ -0,0 +1,105 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.aws.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.redhat.swatch.aws.file.AwsCredentialsLookup;
+import com.redhat.swatch.clients.contracts.api.model.AwsUsageContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+
+class AwsMarketplaceMeteringClientFactoryTest {
+
+  private static final String SELLER_ACCOUNT = "seller1";
+  private static final String OTHER_SELLER_ACCOUNT = "seller2";
+
+  private final AwsCredentialsLookup credentialsLookup = mock(AwsCredentialsLookup.class);
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private AwsMarketplaceMeteringClientFactory factory;
+
+  @BeforeEach
+  void setup() {
+    givenCredentials(SELLER_ACCOUNT, credentials());
+    givenCredentials(OTHER_SELLER_ACCOUNT, credentials());
+    factory =
+        new AwsMarketplaceMeteringClientFactory(
+            credentialsLookup,
+            meterRegistry,
+            true,
+            "http://localhost:8101/aws-marketplace/",
+            "us-east-1",
+            10,
+            Duration.ofHours(1),
+            5);
+  }
+
+  @AfterEach
+  void tearDown() {
+    factory.close();
+  }
+
+  @Test
+  void testClientIsReusedForTheSameSellerAccount() {
+    var client = factory.getMarketplaceMeteringClient(context(SELLER_ACCOUNT));
+
+    assertSame(client, factory.getMarketplaceMeteringClient(context(SELLER_ACCOUNT)));
+    assertEquals(1, factory.cachedClientCount());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", AwsMarketplaceMeteringClientFactory.CLIENT_CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void testClientIsCachedPerSellerAccount() {
+    var client = factory.getMarketplaceMeteringClient(context(SELLER_ACCOUNT));
+
+    assertNotSame(client, factory.getMarketplaceMeteringClient(context(OTHER_SELLER_ACCOUNT)));
+    assertEquals(2, factory.cachedClientCount());
+  }
+
+  private void givenCredentials(String sellerAccount, AwsCredentialsProvider provider) {
+    when(credentialsLookup.getCredentialsProvider(sellerAccount)).thenReturn(provider);
+  }
+
+  private static AwsCredentialsProvider credentials() {
+    return StaticCredentialsProvider.create(AwsBasicCredentials.create("key", "secret"));
+  }
+
+  private static AwsUsageContext context(String sellerAccount) {
+    return new AwsUsageContext().awsSellerAccountId(sellerAccount);
+  }
+}
@@ -21,18 +21,17 @@
 package com.redhat.swatch.configuration.registry;
 
 import java.io.Serializable;
-import java.util.Collection;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Data
-// constructor is private so that the factory method is the only way to get a MetricId
-@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+// constructor is package-private so that the factory method (backed by the pre-built registry
+// index) is the only way to get a MetricId
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 @Slf4j
 public class MetricId implements Serializable {
 
@@ -46,18 +45,11 @@ public class MetricId implements Serializable {
    * @throws IllegalArgumentException if the metric is not defined in configuration
    */
   public static MetricId fromString(String value) {
-    // NOTE: if the volume of data becomes large enough, we can pre-cache these values.
     if (Objects.isNull(value)) {
       throw new IllegalArgumentException("Value can not be null.");
     }
-    String formattedValue = value.replace('_', '-');
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .map(SubscriptionDefinition::getMetrics)
-        .flatMap(Collection::stream)
-        .map(Metric::getId)
-        .filter(metricId -> metricId.equalsIgnoreCase(formattedValue))
-        .map(MetricId::new)
-        .findFirst()
+    return SubscriptionDefinitionRegistry.index()
+        .findMetricId(value)
         .orElseThrow(
             () ->
                 new IllegalArgumentException(
@@ -78,12 +70,7 @@ public class MetricId implements Serializable {
   }
 
   public static Set<MetricId> getAll() {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .map(SubscriptionDefinition::getMetrics)
-        .flatMap(Collection::stream)
-        .map(Metric::getId)
-        .map(MetricId::new)
-        .collect(Collectors.toSet());
+    return SubscriptionDefinitionRegistry.index().getMetricIds();
   }
 
   // NOTE: intentionally overriding the toString() from @Data, so users can use getValue() and
@@ -20,8 +20,6 @@
  */
 package com.redhat.swatch.configuration.registry;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.MoreCollectors;
 import com.redhat.swatch.configuration.util.ProductTagLookupParams;
 import jakarta.validation.Valid;
@@ -34,7 +32,6 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -58,21 +55,6 @@ public class SubscriptionDefinition {
   public static final Set<String> ORDERED_GRANULARITY =
       Set.of("HOURLY", "DAILY", "WEEKLY", "MONTHLY", "QUARTERLY", "YEARLY");
 
-  protected static LoadingCache<String, Optional<SubscriptionDefinition>> tagCache =
-      Caffeine.newBuilder()
-          .expireAfterAccess(3, TimeUnit.HOURS)
-          .build(SubscriptionDefinition::cacheSubscriptionByTag);
-
-  protected static LoadingCache<String, Optional<SubscriptionDefinition>> roleCache =
-      Caffeine.newBuilder()
-          .expireAfterAccess(3, TimeUnit.HOURS)
-          .build(SubscriptionDefinition::cacheSubscriptionByRole);
-
-  protected static LoadingCache<String, Set<SubscriptionDefinition>> engIdCache =
-      Caffeine.newBuilder()
-          .expireAfterAccess(3, TimeUnit.HOURS)
-          .build(SubscriptionDefinition::cacheSubscriptionByEngId);
-
   /**
    * A family of solutions that is logically related, having one or more subscriptions distinguished
    * by unique technical fingerprints (e.g. different arches)
@@ -113,9 +95,7 @@ public class SubscriptionDefinition {
    * @return an Optional&lt;Subscription&gt;
    */
   public static Set<SubscriptionDefinition> findByServiceType(String serviceType) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> Objects.equals(subscription.getServiceType(), serviceType))
-        .collect(Collectors.toSet());
+    return SubscriptionDefinitionRegistry.index().findByServiceType(serviceType);
   }
 
   public Set<String> getMetricIds() {
@@ -132,9 +112,7 @@ public class SubscriptionDefinition {
   }
 
   public static Optional<SubscriptionDefinition> findById(String id) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> Objects.equals(subscription.getId(), id))
-        .collect(MoreCollectors.toOptional());
+    return SubscriptionDefinitionRegistry.index().findById(id);
   }
 
   /**
@@ -143,10 +121,7 @@ public class SubscriptionDefinition {
    * @return Set&lt;String&gt; serviceTypes
    */
   public static Set<String> getAllServiceTypes() {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .map(SubscriptionDefinition::getServiceType)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toSet());
+    return SubscriptionDefinitionRegistry.index().getServiceTypes();
   }
 
   public boolean isPrometheusEnabled() {
@@ -190,11 +165,8 @@ public class SubscriptionDefinition {
 
   public static double getBillingFactor(String tag, String metricId) {
     var metricOptional =
-        Variant.findByTag(tag)
-            .map(Variant::getSubscription)
-            .flatMap(
-                subscriptionDefinition ->
-                    subscriptionDefinition.getMetric(MetricId.fromString(metricId).getValue()));
+        SubscriptionDefinitionRegistry.index()
+            .findMetric(tag, MetricId.fromString(metricId).getValue());
     return metricOptional.map(Metric::getBillingFactor).orElse(1.0);
   }
 
@@ -217,10 +189,7 @@ public class SubscriptionDefinition {
 
   @SafeVarargs
   public static Set<Variant> filterVariants(Predicate<Variant>... predicates) {
-    Set<Variant> variants =
-        SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-            .flatMap(subscription -> subscription.getVariants().stream())
-            .collect(Collectors.toSet());
+    Set<Variant> variants = SubscriptionDefinitionRegistry.index().getVariants();
 
     // Combine all predicates into a single predicate using reduce
     Predicate<Variant> combinedPredicate =
@@ -259,16 +228,10 @@ public class SubscriptionDefinition {
   private static Set<Variant> getVariantsMatchingPAYGStatusAndRequiredIdentifier(
       ProductTagLookupParams params) {
 
+    // NOTE(khowell): we filter by payg/non-payg early in order to avoid role values from
+    // non-payg (RHEL for x86) from being identified for payg (e.g. rhel-for-x86-els-addon)
     var variants =
-        SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-            // NOTE(khowell): we filter by payg/non-payg early in order to avoid role values from
-            // non-payg (RHEL for x86) from being identified for payg (e.g. rhel-for-x86-els-addon)
-            .filter(
-                s ->
-                    params.getIsPaygEligibleProduct() == null
-                        || Objects.equals(s.isPaygEligible(), params.getIsPaygEligibleProduct()))
-            .flatMap(subscription -> subscription.getVariants().stream())
-            .collect(Collectors.toSet());
+        SubscriptionDefinitionRegistry.index().getVariants(params.getIsPaygEligibleProduct());
 
     Set<Variant> filteredVariants =
         variants.stream()
@@ -287,18 +250,6 @@ public class SubscriptionDefinition {
     }
   }
 
-  // EngIds can occur in more than one SubscriptionDefinition
-  protected static Set<SubscriptionDefinition> cacheSubscriptionByEngId(String engProductId) {
-    int engId = Integer.parseInt(engProductId);
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(
-            subscription ->
-                !subscription.getVariants().isEmpty()
-                    && subscription.getVariants().stream()
-                        .anyMatch(variant -> variant.getEngineeringIds().contains(engId)))
-        .collect(Collectors.toUnmodifiableSet());
-  }
-
   /**
    * An engineering id can be found in either a fingerprint or variant. Check the variant first. If
    * not found, check the fingerprint.
@@ -307,17 +258,8 @@ public class SubscriptionDefinition {
    * @return Optional&lt;Subscription&gt; subscription
    */
   public static Set<SubscriptionDefinition> lookupSubscriptionByEngId(String engProductId) {
-    return engIdCache.get(engProductId);
-  }
-
-  protected static Optional<SubscriptionDefinition> cacheSubscriptionByRole(String role) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(
-            subscription ->
-                !subscription.getVariants().isEmpty()
-                    && subscription.getVariants().stream()
-                        .anyMatch(variant -> variant.getRoles().contains(role)))
-        .collect(MoreCollectors.toOptional());
+    // EngIds can occur in more than one SubscriptionDefinition
+    return SubscriptionDefinitionRegistry.index().findByEngId(Integer.parseInt(engProductId));
   }
 
   /**
@@ -327,18 +269,7 @@ public class SubscriptionDefinition {
    * @return Optional&lt;Subscription&gt;
    */
   public static Optional<SubscriptionDefinition> lookupSubscriptionByRole(String role) {
-    return roleCache.get(role);
-  }
-
-  protected static Optional<SubscriptionDefinition> cacheSubscriptionByTag(
-      @NotNull @NotEmpty String tag) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(
-            subscription ->
-                !subscription.getVariants().isEmpty()
-                    && subscription.getVariants().stream()
-                        .anyMatch(variant -> Objects.equals(tag, variant.getTag())))
-        .collect(MoreCollectors.toOptional());
+    return SubscriptionDefinitionRegistry.index().findByRole(role);
   }
 
   /**
@@ -349,7 +280,7 @@ public class SubscriptionDefinition {
    */
   public static Optional<SubscriptionDefinition> lookupSubscriptionByTag(
       @NotNull @NotEmpty String tag) {
-    return tagCache.get(tag);
+    return SubscriptionDefinitionRegistry.index().findByTag(tag);
   }
 
   public static boolean isContractEnabled(@NotNull @NotEmpty String tag) {
@@ -385,30 +316,29 @@ public class SubscriptionDefinition {
   }
 
   public static String getAwsDimension(String productTag, String metricId) {
-    return lookupSubscriptionByTag(productTag)
-        .flatMap(subscriptionDefinition -> subscriptionDefinition.getMetric(metricId))
+    return SubscriptionDefinitionRegistry.index()
+        .findMetric(productTag, metricId)
         .map(Metric::getAwsDimension)
         .orElse(null);
   }
 
   public static String getAzureDimension(String productId, String metricId) {
-    return lookupSubscriptionByTag(productId)
-        .flatMap(subscriptionDefinition -> subscriptionDefinition.getMetric(metricId))
+    return SubscriptionDefinitionRegistry.index()
+        .findMetric(productId, metricId)
         .map(Metric::getAzureDimension)
         .orElse(null);
   }
 
   public static String getRhmMetricId(String productId, String metricId) {
-    return lookupSubscriptionByTag(productId)
-        .flatMap(subscriptionDefinition -> subscriptionDefinition.getMetric(metricId))
+    return SubscriptionDefinitionRegistry.index()
+        .findMetric(productId, metricId)
         .map(Metric::getRhmMetricId)
         .orElse(null);
   }
 
   public static boolean isMetricGratis(String productId, MetricId metricId) {
-    String metricIdAsString = metricId.toString();
-    return lookupSubscriptionByTag(productId)
-        .flatMap(subscriptionDefinition -> subscriptionDefinition.getMetric(metricIdAsString))
+    return SubscriptionDefinitionRegistry.index()
+        .findMetric(productId, metricId.toString())
         .map(m -> Boolean.TRUE.equals(m.getEnableGratisUsage()))
         .orElse(false);
   }
@@ -443,8 +373,8 @@ public class SubscriptionDefinition {
    * @return true if the metric is a GAUGE, false otherwise
    */
   public static boolean isGaugeMetric(String productId, String metricId) {
-    return lookupSubscriptionByTag(productId)
-        .flatMap(sub -> sub.getMetric(MetricId.tryGetValueFromString(metricId)))
+    return SubscriptionDefinitionRegistry.index()
+        .findMetric(productId, MetricId.tryGetValueFromString(metricId))
         .map(Metric::getType)
         .map(type -> type == MetricType.GAUGE)
         .orElse(false);
@@ -0,0 +1,229 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.configuration.registry;
+
+import com.google.common.collect.MoreCollectors;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Immutable hash indexes over a list of subscription definitions. Built once when the registry is
+ * loaded so that the static lookups in {@link SubscriptionDefinition}, {@link Variant} and {@link
+ * MetricId} are answered with map reads instead of streaming every subscription, variant and
+ * metric.
+ *
+ * <p>Lookups that used to collect with {@link MoreCollectors#toOptional()} keep every candidate in
+ * the index, so a configuration with duplicated keys still fails in the same way at lookup time.
+ * This includes duplicated variant tags and metric ids duplicated within a subscription.
+ */
+final class SubscriptionDefinitionIndex {
+
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsById;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByTag;
+  private final Map<String, List<SubscriptionDefinition>> subscriptionsByRole;
+  private final Map<Integer, Set<SubscriptionDefinition>> subscriptionsByEngId;
+  private final Map<String, Set<SubscriptionDefinition>> subscriptionsByServiceType;
+  private final Set<String> serviceTypes;
+
+  private final Map<String, List<Variant>> variantsByTag;
+  private final Set<Variant> variants;
+  private final Set<Variant> paygVariants;
+  private final Set<Variant> nonPaygVariants;
+
+  private final Map<String, MetricId> metricIdsByNormalizedValue;
+  private final Set<MetricId> metricIds;
+  private final Map<SubscriptionDefinition, Map<String, List<Metric>>> metricsBySubscription;
+
+  private SubscriptionDefinitionIndex(List<SubscriptionDefinition> subscriptions) {
+    Map<String, List<SubscriptionDefinition>> byId = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byTag = new HashMap<>();
+    Map<String, List<SubscriptionDefinition>> byRole = new HashMap<>();
+    Map<Integer, Set<SubscriptionDefinition>> byEngId = new HashMap<>();
+    Map<String, Set<SubscriptionDefinition>> byServiceType = new HashMap<>();
+    Map<String, List<Variant>> variantByTag = new HashMap<>();
+    Set<Variant> allVariants = new HashSet<>();
+    Set<Variant> payg = new HashSet<>();
+    Set<Variant> nonPayg = new HashSet<>();
+    Map<String, MetricId> metricIdByValue = new LinkedHashMap<>();
+    // identity keys: definitions are mutable beans, and two of them may compare equal
+    Map<SubscriptionDefinition, Map<String, List<Metric>>> metricBySubscription =
+        new IdentityHashMap<>();
+
+    for (SubscriptionDefinition subscription : subscriptions) {
+      byId.computeIfAbsent(subscription.getId(), k -> new ArrayList<>(1)).add(subscription);
+      byServiceType
+          .computeIfAbsent(subscription.getServiceType(), k -> new HashSet<>())
+          .add(subscription);
+
+      Map<String, List<Metric>> metricsById = new HashMap<>();
+      for (Metric metric : nullToEmpty(subscription.getMetrics())) {
+        if (metric.getId() == null) {
+          continue;
+        }
+        metricsById.computeIfAbsent(metric.getId(), k -> new ArrayList<>(1)).add(metric);
+        // the same metric id is expected in many subscriptions, the first spelling wins
+        metricIdByValue.putIfAbsent(normalize(metric.getId()), new MetricId(metric.getId()));
+      }
+      metricBySubscription.put(subscription, Collections.unmodifiableMap(metricsById));
+
+      boolean paygEligible = subscription.isPaygEligible();
+      for (Variant variant : nullToEmpty(subscription.getVariants())) {
+        allVariants.add(variant);
+        (paygEligible ? payg : nonPayg).add(variant);
+        variantByTag.computeIfAbsent(variant.getTag(), k -> new ArrayList<>(1)).add(variant);
+        addOnce(byTag, variant.getTag(), subscription);
+        for (String role : nullToEmpty(variant.getRoles())) {
+          addOnce(byRole, role, subscription);
+        }
+        for (Integer engId : nullToEmpty(variant.getEngineeringIds())) {
+          byEngId.computeIfAbsent(engId, k -> new HashSet<>()).add(subscription);
+        }
+      }
+    }
+
+    this.subscriptionsById = Collections.unmodifiableMap(byId);
+    this.subscriptionsByTag = Collections.unmodifiableMap(byTag);
+    this.subscriptionsByRole = Collections.unmodifiableMap(byRole);
+    byEngId.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+    this.subscriptionsByEngId = Collections.unmodifiableMap(byEngId);
+    byServiceType.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+    // HashMap is used on purpose: definitions without a service type are indexed under null
+    this.subscriptionsByServiceType = Collections.unmodifiableMap(byServiceType);
+    Set<String> types = new HashSet<>(byServiceType.keySet());
+    types.remove(null);
+    this.serviceTypes = Collections.unmodifiableSet(types);
+
+    this.variantsByTag = Collections.unmodifiableMap(variantByTag);
+    this.variants = Collections.unmodifiableSet(allVariants);
+    this.paygVariants = Collections.unmodifiableSet(payg);
+    this.nonPaygVariants = Collections.unmodifiableSet(nonPayg);
+
+    this.metricIdsByNormalizedValue = Collections.unmodifiableMap(metricIdByValue);
+    this.metricIds = Set.copyOf(metricIdByValue.values());
+    this.metricsBySubscription = Collections.unmodifiableMap(metricBySubscription);
+  }
+
+  static SubscriptionDefinitionIndex build(List<SubscriptionDefinition> subscriptions) {
+    return new SubscriptionDefinitionIndex(subscriptions);
+  }
+
+  Optional<SubscriptionDefinition> findById(String id) {
+    return unique(subscriptionsById.get(id));
+  }
+
+  Optional<SubscriptionDefinition> findByTag(String tag) {
+    return unique(subscriptionsByTag.get(tag));
+  }
+
+  Optional<SubscriptionDefinition> findByRole(String role) {
+    return unique(subscriptionsByRole.get(role));
+  }
+
+  Set<SubscriptionDefinition> findByEngId(int engId) {
+    return subscriptionsByEngId.getOrDefault(engId, Set.of());
+  }
+
+  Set<SubscriptionDefinition> findByServiceType(String serviceType) {
+    return subscriptionsByServiceType.getOrDefault(serviceType, Set.of());
+  }
+
+  Set<String> getServiceTypes() {
+    return serviceTypes;
+  }
+
+  Optional<Variant> findVariantByTag(String tag) {
+    return unique(variantsByTag.get(tag));
+  }
+
+  Set<Variant> getVariants() {
+    return variants;
+  }
+
+  /**
+   * Variants of subscriptions matching the given PAYG eligibility.
+   *
+   * @param paygEligible the PAYG eligibility to match, or null to return every variant
+   * @return Set&lt;Variant&gt;
+   */
+  Set<Variant> getVariants(Boolean paygEligible) {
+    if (paygEligible == null) {
+      return variants;
+    }
+    return paygEligible ? paygVariants : nonPaygVariants;
+  }
+
+  Optional<MetricId> findMetricId(String value) {
+    return Optional.ofNullable(metricIdsByNormalizedValue.get(normalize(value)));
+  }
+
+  Set<MetricId> getMetricIds() {
+    return metricIds;
+  }
+
+  /**
+   * Looks up the metric configured for the subscription owning the given product tag.
+   *
+   * @param tag the product tag
+   * @param metricId the exact metric id as defined in the configuration
+   * @return Optional&lt;Metric&gt;
+   */
+  Optional<Metric> findMetric(String tag, String metricId) {
+    return findByTag(tag)
+        .flatMap(
+            subscription ->
+                unique(metricsBySubscription.getOrDefault(subscription, Map.of()).get(metricId)));
+  }
+
+  /** Same normalization as the original MetricId.fromString: underscores and case are ignored. */
+  static String normalize(String value) {
+    return value.replace('_', '-').toLowerCase(Locale.ROOT);
+  }
+
+  private static <T> Optional<T> unique(List<T> matches) {
+    if (matches == null) {
+      return Optional.empty();
+    }
+    return matches.stream().collect(MoreCollectors.toOptional());
+  }
+
+  private static <K> void addOnce(
+      Map<K, List<SubscriptionDefinition>> index, K key, SubscriptionDefinition subscription) {
+    List<SubscriptionDefinition> matches = index.computeIfAbsent(key, k -> new ArrayList<>(1));
+    // identity check: a subscription is indexed once per key even if several variants match
+    if (matches.stream().noneMatch(existing -> existing == subscription)) {
+      matches.add(subscription);
+    }
+  }
+
+  private static <T> Collection<T> nullToEmpty(Collection<T> collection) {
+    return collection == null ? List.of() : collection;
+  }
+}
@@ -43,6 +43,8 @@ public class SubscriptionDefinitionRegistry {
 
   @Getter private final List<SubscriptionDefinition> subscriptions;
 
+  private volatile SubscriptionDefinitionIndex index;
+
   public static synchronized SubscriptionDefinitionRegistry getInstance() {
     if (instance == null) {
       instance = new SubscriptionDefinitionRegistry();
@@ -52,12 +54,26 @@ public class SubscriptionDefinitionRegistry {
 
   /** Reset the registry instance for test purposes. */
   public static synchronized void reset() {
-    SubscriptionDefinition.tagCache.invalidateAll();
-    SubscriptionDefinition.engIdCache.invalidateAll();
-    SubscriptionDefinition.roleCache.invalidateAll();
     instance = new SubscriptionDefinitionRegistry();
   }
 
+  /**
+   * Get the lookup indexes for the current registry instance. The indexes are built from the
+   * subscriptions on the first lookup and kept for the lifetime of the instance, so a test that
+   * changes the subscriptions has to {@link #reset()} the registry or swap the instance.
+   *
+   * @return SubscriptionDefinitionIndex
+   */
+  static SubscriptionDefinitionIndex index() {
+    var registry = getInstance();
+    var current = registry.index;
+    if (current == null) {
+      current = SubscriptionDefinitionIndex.build(registry.getSubscriptions());
+      registry.index = current;
+    }
+    return current;
+  }
+
   SubscriptionDefinitionRegistry() {
     subscriptions = new ArrayList<>();
 
@@ -23,7 +23,6 @@ package com.redhat.swatch.configuration.registry;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -58,11 +57,7 @@ public class Variant {
   private String level2;
 
   public static Optional<Variant> findByTag(String defaultVariantTag) {
-    return SubscriptionDefinitionRegistry.getInstance().getSubscriptions().stream()
-        .filter(subscription -> !subscription.getVariants().isEmpty())
-        .flatMap(subscription -> subscription.getVariants().stream())
-        .filter(variant -> Objects.equals(variant.getTag(), defaultVariantTag))
-        .findFirst();
+    return SubscriptionDefinitionRegistry.index().findVariantByTag(defaultVariantTag);
   }
 
   public static boolean isGranularityCompatible(
@@ -0,0 +1,112 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.configuration.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class SubscriptionDefinitionIndexTest {
+
+  @Test
+  void testMetricIdsAreInterned() {
+    assertSame(MetricId.fromString("INSTANCE_HOURS"), MetricId.fromString("instance-hours"));
+  }
+
+  @Test
+  void testIndexIsReusedForTheSameRegistry() {
+    assertSame(SubscriptionDefinitionRegistry.index(), SubscriptionDefinitionRegistry.index());
+  }
+
+  @Test
+  void testLookupByTagAndMetric() {
+    var index = SubscriptionDefinitionIndex.build(List.of(subscription("sub1", "tag1", "Cores")));
+
+    assertEquals("sub1", index.findByTag("tag1").orElseThrow().getId());
+    assertEquals("aws-Cores", index.findMetric("tag1", "Cores").orElseThrow().getAwsDimension());
+    assertTrue(index.findMetric("tag1", "Sockets").isEmpty());
+    assertTrue(index.findByTag("missing").isEmpty());
+  }
+
+  @Test
+  void testLookupByDuplicatedTagStillFails() {
+    var index =
+        SubscriptionDefinitionIndex.build(
+            List.of(subscription("sub1", "tag1", "Cores"), subscription("sub2", "tag1", "Cores")));
+
+    assertThrows(IllegalArgumentException.class, () -> index.findByTag("tag1"));
+  }
+
+  @Test
+  void testLookupByDuplicatedVariantTagFails() {
+    var index =
+        SubscriptionDefinitionIndex.build(
+            List.of(subscription("sub1", "tag1", "Cores"), subscription("sub2", "tag1", "Cores")));
+
+    assertThrows(IllegalArgumentException.class, () -> index.findVariantByTag("tag1"));
+    assertThrows(IllegalArgumentException.class, () -> index.findMetric("tag1", "Cores"));
+  }
+
+  @Test
+  void testLookupByDuplicatedMetricIdFails() {
+    var subscription = subscription("sub1", "tag1", "Cores");
+    subscription.setMetrics(
+        Set.of(
+            Metric.builder().id("Cores").type(MetricType.COUNTER).build(),
+            Metric.builder().id("Cores").type(MetricType.GAUGE).build()));
+    var index = SubscriptionDefinitionIndex.build(List.of(subscription));
+
+    assertThrows(IllegalArgumentException.class, () -> index.findMetric("tag1", "Cores"));
+  }
+
+  @Test
+  void testResetRebuildsTheIndex() {
+    var index = SubscriptionDefinitionRegistry.index();
+
+    SubscriptionDefinitionRegistry.reset();
+
+    assertNotSame(index, SubscriptionDefinitionRegistry.index());
+  }
+
+  private static SubscriptionDefinition subscription(String id, String tag, String metricId) {
+    var subscription =
+        SubscriptionDefinition.builder()
+            .id(id)
+            .serviceType("service-" + id)
+            .metrics(
+                Set.of(
+                    Metric.builder()
+                        .id(metricId)
+                        .type(MetricType.COUNTER)
+                        .awsDimension("aws-" + metricId)
+                        .build()))
+            .build();
+    var variant = Variant.builder().tag(tag).subscription(subscription).build();
+    subscription.setVariants(Set.of(variant));
+    return subscription;
+  }
+}
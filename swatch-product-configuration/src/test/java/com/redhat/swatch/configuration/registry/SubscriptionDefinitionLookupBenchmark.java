@@ -0,0 +1,152 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package com.redhat.swatch.configuration.registry;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.MoreCollectors;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the per-lookup cost of the indexed registry lookups against the previous implementation
+ * (the "previous" benchmarks). The previous implementation answered tag lookups from a Caffeine
+ * cache in front of a stream over every subscription and variant, and streamed every subscription
+ * and metric for the other lookups. The cache is reproduced here, so that a cached tag lookup is
+ * compared with an indexed one.
+ *
+ * <p>Not executed as part of the unit tests. Run it with:
+ *
+ * <pre>
+ * ./mvnw -pl swatch-product-configuration test-compile exec:java \
+ *   -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main \
+ *   -Dexec.args=SubscriptionDefinitionLookupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubscriptionDefinitionLookupBenchmark {
+
+  @Param({"rosa", "rhel-for-x86-els-payg", "OpenShift-dedicated-metrics"})
+  public String tag;
+
+  @Param({"INSTANCE_HOURS", "vCPUs", "Cores"})
+  public String metric;
+
+  private List<SubscriptionDefinition> subscriptions;
+  private LoadingCache<String, Optional<SubscriptionDefinition>> previousTagCache;
+
+  @Setup
+  public void setup() {
+    subscriptions = SubscriptionDefinitionRegistry.getInstance().getSubscriptions();
+    // same configuration as the tag cache of the previous implementation
+    previousTagCache =
+        Caffeine.newBuilder()
+            .expireAfterAccess(3, TimeUnit.HOURS)
+            .build(this::streamSubscriptionByTag);
+    // make sure the index and the cache are populated outside of the measurement
+    SubscriptionDefinitionRegistry.index();
+    previousTagCache.get(tag);
+  }
+
+  @Benchmark
+  public Optional<SubscriptionDefinition> indexedLookupByTag() {
+    return SubscriptionDefinition.lookupSubscriptionByTag(tag);
+  }
+
+  @Benchmark
+  public Optional<SubscriptionDefinition> previousLookupByTag() {
+    return previousTagCache.get(tag);
+  }
+
+  @Benchmark
+  public MetricId indexedMetricIdFromString() {
+    return MetricId.fromString(metric);
+  }
+
+  @Benchmark
+  public String previousMetricIdFromString() {
+    String formattedValue = metric.replace('_', '-');
+    return subscriptions.stream()
+        .map(SubscriptionDefinition::getMetrics)
+        .flatMap(Collection::stream)
+        .map(Metric::getId)
+        .filter(metricId -> metricId.equalsIgnoreCase(formattedValue))
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Benchmark
+  public Set<SubscriptionDefinition> indexedFindByServiceType() {
+    return SubscriptionDefinition.findByServiceType("OpenShift Cluster");
+  }
+
+  @Benchmark
+  public Set<SubscriptionDefinition> previousFindByServiceType() {
+    return subscriptions.stream()
+        .filter(subscription -> Objects.equals(subscription.getServiceType(), "OpenShift Cluster"))
+        .collect(Collectors.toSet());
+  }
+
+  @Benchmark
+  public boolean indexedIsMetricGratis() {
+    return SubscriptionDefinition.isMetricGratis(tag, MetricId.fromString(metric));
+  }
+
+  @Benchmark
+  public boolean previousIsMetricGratis() {
+    String metricId = previousMetricIdFromString();
+    return previousLookupByTag()
+        .flatMap(subscription -> subscription.getMetric(metricId))
+        .map(m -> Boolean.TRUE.equals(m.getEnableGratisUsage()))
+        .orElse(false);
+  }
+
+  private Optional<SubscriptionDefinition> streamSubscriptionByTag(String tag) {
+    return subscriptions.stream()
+        .filter(
+            subscription ->
+                !subscription.getVariants().isEmpty()
+                    && subscription.getVariants().stream()
+                        .anyMatch(variant -> Objects.equals(tag, variant.getTag())))
+        .collect(MoreCollectors.toOptional());
+  }
+}
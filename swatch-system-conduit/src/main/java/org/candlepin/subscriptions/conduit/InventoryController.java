@@ -45,6 +45,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
+import org.candlepin.subscriptions.conduit.inventory.HostUpdateSummary;
 import org.candlepin.subscriptions.conduit.inventory.InventoryService;
 import org.candlepin.subscriptions.conduit.inventory.ProviderFact;
 import org.candlepin.subscriptions.conduit.job.OrgSyncTaskManager;
@@ -646,12 +647,16 @@ public class InventoryController {
     long size = updateSize.get();
 
     if (size > 0) {
-      inventoryService.flushHostUpdates();
+      HostUpdateSummary summary = inventoryService.flushHostUpdates();
       log.info(
-          "Finished page w/ offset '{}' of inventory updates for org {}, producing {} updates",
+          "Finished page w/ offset '{}' of inventory updates for org {}, producing {} updates: "
+              + "{} sent, {} unchanged and skipped, {} failed",
           Optional.ofNullable(offset).orElse(""),
           orgId,
-          size);
+          size,
+          summary.sent(),
+          summary.skipped(),
+          summary.failed());
     }
 
     Optional<String> nextOffset = getNextOffset(feedPage);
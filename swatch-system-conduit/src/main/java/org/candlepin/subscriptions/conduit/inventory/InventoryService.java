@@ -56,19 +56,22 @@ public abstract class InventoryService {
   private int maxQueueDepth;
   private Duration staleHostOffset;
   private List<ConduitFacts> factQueue;
+  private HostUpdateSummary flushedSummary;
 
   protected InventoryService(InventoryServiceProperties serviceProperties, int maxQueueDepth) {
     this.maxQueueDepth = maxQueueDepth;
     this.staleHostOffset = serviceProperties.getStaleHostOffset();
     this.factQueue = new LinkedList<>();
+    this.flushedSummary = HostUpdateSummary.EMPTY;
   }
 
   /**
    * Send host inventory updates for the specified facts.
    *
    * @param conduitFactsForOrg the host facts to send.
+   * @return the number of hosts that were sent, skipped and failed.
    */
-  protected abstract void sendHostUpdate(List<ConduitFacts> conduitFactsForOrg);
+  protected abstract HostUpdateSummary sendHostUpdate(List<ConduitFacts> conduitFactsForOrg);
 
   /**
    * Schedules the given host facts for update. When the max queue depth is reached, fact updates
@@ -83,21 +86,33 @@ public abstract class InventoryService {
       // Auto flush updates when max queue depth is reached.
       if (factQueue.size() == maxQueueDepth) {
         log.debug("Max queue depth reached. Auto flushing updates.");
-        flushHostUpdates();
+        sendQueuedUpdates();
       }
     }
   }
 
-  /** Force the currently scheduled updates to be sent to inventory. */
-  public void flushHostUpdates() {
+  /**
+   * Force the currently scheduled updates to be sent to inventory.
+   *
+   * @return the outcome of the updates sent since the previous flush, including the ones that were
+   *     automatically flushed.
+   */
+  public HostUpdateSummary flushHostUpdates() {
     synchronized (factQueue) {
       if (!factQueue.isEmpty()) {
-        sendHostUpdate(factQueue);
-        factQueue.clear();
+        sendQueuedUpdates();
       }
+      HostUpdateSummary summary = flushedSummary;
+      flushedSummary = HostUpdateSummary.EMPTY;
+      return summary;
     }
   }
 
+  private void sendQueuedUpdates() {
+    flushedSummary = flushedSummary.plus(sendHostUpdate(factQueue));
+    factQueue.clear();
+  }
+
   /**
    * Given a set of facts, report them as a host to the inventory service.
    *
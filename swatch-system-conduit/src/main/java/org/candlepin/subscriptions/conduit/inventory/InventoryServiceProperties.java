@@ -37,6 +37,21 @@ public class InventoryServiceProperties {
   private String kafkaHostIngressTopic;
   private int apiHostUpdateBatchSize = 50;
 
+  /** Number of host messages sent to the inventory service before waiting for their results. */
+  private int kafkaHostUpdateBatchSize = 100;
+
+  /**
+   * How long a host whose facts did not change is not published again. Since the sync timestamp and
+   * the stale timestamp of a host are only refreshed when the host is published, this must stay
+   * below both the stale host offset and the host last sync threshold. Zero publishes every host on
+   * every sync.
+   */
+  @DurationUnit(ChronoUnit.HOURS)
+  private Duration unchangedHostRepublishInterval = Duration.ZERO;
+
+  /** Maximum number of hosts whose last published facts are remembered. */
+  private long publishedHostCacheMaximumSize = 200_000;
+
   @DurationUnit(ChronoUnit.HOURS)
   private Duration staleHostOffset = Duration.ofHours(0);
 
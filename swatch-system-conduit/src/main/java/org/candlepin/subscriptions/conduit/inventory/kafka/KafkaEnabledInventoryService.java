@@ -23,11 +23,15 @@ package org.candlepin.subscriptions.conduit.inventory.kafka;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import java.time.OffsetDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
+import org.candlepin.subscriptions.conduit.inventory.HostUpdateSummary;
 import org.candlepin.subscriptions.conduit.inventory.InventoryService;
 import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
 import org.slf4j.Logger;
@@ -38,8 +42,11 @@ import org.springframework.retry.support.RetryTemplate;
 
 /**
  * An InventoryService implementation that includes a Kafka producer that is capable of sending
- * messages to the inventory service's Kafka instance. A message is sent as soon as a host update is
- * scheduled.
+ * messages to the inventory service's Kafka instance. Host updates are sent in batches: the
+ * messages of a batch are all handed to the producer before waiting for their results.
+ *
+ * <p>When an unchanged host republish interval is configured, hosts whose facts did not change
+ * since they were last published are skipped.
  */
 public class KafkaEnabledInventoryService extends InventoryService {
 
@@ -49,8 +56,15 @@ public class KafkaEnabledInventoryService extends InventoryService {
   private final String hostIngressTopic;
   private final Counter sentMessageCounter;
   private final Counter failedMessageCounter;
+  private final Counter skippedMessageCounter;
   private final Counter messageSizeCounter;
   private final RetryTemplate retryTemplate;
+  private final PublishedHostCache publishedHosts;
+
+  private record PendingMessage(
+      ConduitFacts facts,
+      long fingerprint,
+      CompletableFuture<SendResult<String, CreateUpdateHostMessage>> result) {}
 
   @SuppressWarnings("java:S3740")
   public KafkaEnabledInventoryService(
@@ -58,82 +72,93 @@ public class KafkaEnabledInventoryService extends InventoryService {
       KafkaTemplate<String, CreateUpdateHostMessage> producer,
       MeterRegistry meterRegistry,
       RetryTemplate retryTemplate) {
-    // Flush updates as soon as they get scheduled.
-    super(serviceProperties, 1);
+    super(serviceProperties, Math.max(1, serviceProperties.getKafkaHostUpdateBatchSize()));
     this.producer = producer;
     this.hostIngressTopic = serviceProperties.getKafkaHostIngressTopic();
     this.sentMessageCounter = meterRegistry.counter("rhsm-conduit.send.inventory-message");
     this.failedMessageCounter = meterRegistry.counter("rhsm.conduit.send.inventory-message.failed");
+    this.skippedMessageCounter =
+        meterRegistry.counter("rhsm-conduit.send.inventory-message.skipped");
     this.messageSizeCounter = meterRegistry.counter("rhsm-conduit.inventory-message.size.bytes");
     this.retryTemplate = retryTemplate;
+    this.publishedHosts =
+        new PublishedHostCache(
+            serviceProperties.getUnchangedHostRepublishInterval(),
+            serviceProperties.getPublishedHostCacheMaximumSize());
   }
 
   @Override
-  public void scheduleHostUpdate(ConduitFacts facts) {
-    this.sendHostUpdate(Collections.singletonList(facts));
-  }
-
-  @Override
-  public void flushHostUpdates() {
-    /* intentionally left blank */
-  }
-
-  @Override
-  protected void sendHostUpdate(List<ConduitFacts> facts) {
+  protected HostUpdateSummary sendHostUpdate(List<ConduitFacts> facts) {
     if (facts.isEmpty()) {
       log.info("No facts to report!");
-      return;
+      return HostUpdateSummary.EMPTY;
     }
 
     OffsetDateTime now = OffsetDateTime.now();
+    List<PendingMessage> pending = new ArrayList<>(facts.size());
+    int skipped = 0;
+    int failed = 0;
+    Throwable firstFailure = null;
     for (ConduitFacts factSet : facts) {
+      long fingerprint = 0;
+      if (publishedHosts.isEnabled()) {
+        fingerprint =
+            publishedHosts.fingerprint(
+                createHost(factSet, PublishedHostCache.FINGERPRINT_SYNC_TIMESTAMP));
+        if (publishedHosts.isUnchanged(factSet, fingerprint, now)) {
+          skipped++;
+          continue;
+        }
+      }
       // Attempt to send the host create/update message. If the send fails for any reason,
-      // log the error and move on to the next one.
+      // count the failure and move on to the next one.
       try {
         log.debug(
             "Sending host inventory message: {}:{}",
             factSet.getOrgId(),
             factSet.getSubscriptionManagerId());
-        // After the retry limit is reached, the exception will bubble up to the catch clause and
-        // the
-        // loop will move on.
-        retryTemplate.execute(
-            context -> {
-              sendToKafka(now, factSet);
-              return null;
-            });
+        // After the retry limit is reached, the exception will bubble up to the catch clause.
+        pending.add(
+            new PendingMessage(
+                factSet, fingerprint, retryTemplate.execute(context -> sendToKafka(now, factSet))));
       } catch (Exception e) {
-        recordFailure(e);
+        failed++;
+        firstFailure = firstFailure == null ? e : firstFailure;
       }
     }
-  }
 
-  private void sendToKafka(OffsetDateTime now, ConduitFacts factSet) {
-    CreateUpdateHostMessage message = new CreateUpdateHostMessage(createHost(factSet, now));
-    message.setMetadata("request_id", UUID.randomUUID().toString());
-    producer.send(hostIngressTopic, factSet.getOrgId(), message).handle(this::handleResult);
-  }
-
-  private SendResult<String, CreateUpdateHostMessage> handleResult(
-      SendResult<String, CreateUpdateHostMessage> result, Throwable throwable) {
-    if (throwable != null) {
-      recordFailure(throwable);
-    } else {
-      recordSuccess(result);
+    int sent = 0;
+    double messageSize = 0;
+    for (PendingMessage message : pending) {
+      try {
+        RecordMetadata metadata = message.result().join().getRecordMetadata();
+        messageSize += (double) metadata.serializedKeySize() + metadata.serializedValueSize();
+        publishedHosts.published(message.facts(), message.fingerprint(), now);
+        sent++;
+      } catch (CompletionException | CancellationException e) {
+        failed++;
+        firstFailure = firstFailure == null ? e : firstFailure;
+      }
     }
-    return result;
-  }
 
-  private void recordFailure(Throwable throwable) {
-    log.error("Unable to send host create/update message.", throwable);
-    failedMessageCounter.increment();
+    sentMessageCounter.increment(sent);
+    skippedMessageCounter.increment(skipped);
+    messageSizeCounter.increment(messageSize);
+    if (failed > 0) {
+      failedMessageCounter.increment(failed);
+      log.error(
+          "Unable to send {} of {} host create/update messages.",
+          failed,
+          facts.size() - skipped,
+          firstFailure);
+    }
+    return new HostUpdateSummary(sent, skipped, failed);
   }
 
-  @SuppressWarnings("java:S3740")
-  private void recordSuccess(SendResult<String, CreateUpdateHostMessage> result) {
-    sentMessageCounter.increment();
-    RecordMetadata metadata = result.getRecordMetadata();
-    double messageSize = (double) metadata.serializedKeySize() + metadata.serializedValueSize();
-    messageSizeCounter.increment(messageSize);
+  private CompletableFuture<SendResult<String, CreateUpdateHostMessage>> sendToKafka(
+      OffsetDateTime now, ConduitFacts factSet) {
+    CreateUpdateHostMessage message = new CreateUpdateHostMessage(createHost(factSet, now));
+    message.setMetadata("request_id", UUID.randomUUID().toString());
+    return producer.send(hostIngressTopic, factSet.getOrgId(), message);
   }
 }
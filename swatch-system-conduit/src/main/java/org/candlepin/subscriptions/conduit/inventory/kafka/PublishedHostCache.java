@@ -0,0 +1,110 @@
+/*
+ * Copyright Red Hat, Inc.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ *
+ * Red Hat trademarks are not licensed under GPLv3. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.subscriptions.conduit.inventory.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
+import org.candlepin.subscriptions.conduit.json.inventory.HbiHost;
+
+/**
+ * Remembers a fingerprint of the host last published for each consumer, so that a sync can skip the
+ * hosts whose facts did not change since then.
+ *
+ * <p>The sync timestamp and the stale timestamp of a host are only refreshed when the host is
+ * published, so an unchanged host is published again once its last publication is older than the
+ * republish interval. The cache is bounded and lives in memory only: a host that is not in it is
+ * always published.
+ */
+class PublishedHostCache {
+
+  /** The timestamps derived from the sync time are not part of the fingerprint. */
+  static final OffsetDateTime FINGERPRINT_SYNC_TIMESTAMP =
+      OffsetDateTime.of(1970, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private static final ObjectMapper FINGERPRINT_MAPPER =
+      new ObjectMapper()
+          .findAndRegisterModules()
+          .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+  private record Key(String orgId, String subscriptionManagerId) {}
+
+  private record Entry(long fingerprint, OffsetDateTime publishedOn) {}
+
+  private final Duration republishInterval;
+  private final Cache<Key, Entry> cache;
+
+  PublishedHostCache(Duration republishInterval, long maximumSize) {
+    this.republishInterval = republishInterval;
+    this.cache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /** Whether unchanged hosts are skipped at all. */
+  boolean isEnabled() {
+    return republishInterval.isPositive();
+  }
+
+  /**
+   * Compute the fingerprint of a host.
+   *
+   * @param host the host created with {@link #FINGERPRINT_SYNC_TIMESTAMP} as sync timestamp.
+   * @return a 64-bit digest of the host.
+   */
+  long fingerprint(HbiHost host) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(FINGERPRINT_MAPPER.writeValueAsBytes(host));
+      return ByteBuffer.wrap(digest).getLong();
+    } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Unable to compute the host fingerprint", e);
+    }
+  }
+
+  /** Whether the same host was already published less than the republish interval ago. */
+  boolean isUnchanged(ConduitFacts facts, long fingerprint, OffsetDateTime now) {
+    if (facts.getSubscriptionManagerId() == null) {
+      return false;
+    }
+    Entry entry = cache.getIfPresent(key(facts));
+    return entry != null
+        && entry.fingerprint() == fingerprint
+        && entry.publishedOn().plus(republishInterval).isAfter(now);
+  }
+
+  void published(ConduitFacts facts, long fingerprint, OffsetDateTime now) {
+    if (facts.getSubscriptionManagerId() != null) {
+      cache.put(key(facts), new Entry(fingerprint, now));
+    }
+  }
+
+  private static Key key(ConduitFacts facts) {
+    return new Key(facts.getOrgId(), facts.getSubscriptionManagerId());
+  }
+}
@@ -49,6 +49,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
+import org.candlepin.subscriptions.conduit.inventory.HostUpdateSummary;
 import org.candlepin.subscriptions.conduit.inventory.InventoryService;
 import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
 import org.candlepin.subscriptions.conduit.inventory.ProviderFact;
@@ -95,6 +96,7 @@ class InventoryControllerTest {
   void setup() {
     when(inventoryServiceProperties.getHostLastSyncThreshold()).thenReturn(Duration.ofHours(24));
     when(rhsmService.formattedTime()).thenReturn("");
+    when(inventoryService.flushHostUpdates()).thenReturn(HostUpdateSummary.EMPTY);
   }
 
   @Test
@@ -40,8 +40,12 @@ import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.candlepin.subscriptions.conduit.inventory.ConduitFacts;
+import org.candlepin.subscriptions.conduit.inventory.HostUpdateSummary;
 import org.candlepin.subscriptions.conduit.inventory.InventoryServiceProperties;
 import org.candlepin.subscriptions.conduit.json.inventory.HbiFactSet;
 import org.candlepin.subscriptions.utilization.api.model.ConsumerInventory;
@@ -61,6 +65,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.retry.backoff.NoBackOffPolicy;
 import org.springframework.retry.support.RetryTemplate;
 import org.springframework.test.context.ActiveProfiles;
@@ -97,7 +102,11 @@ class KafkaEnabledInventoryServiceTest {
     retryTemplate.setBackOffPolicy(new NoBackOffPolicy());
 
     when(producer.send(topicCaptor.capture(), keyCaptor.capture(), messageCaptor.capture()))
-        .thenReturn(null);
+        .thenReturn(
+            CompletableFuture.completedFuture(
+                new SendResult<>(
+                    null,
+                    new RecordMetadata(new TopicPartition("placeholder", 0), 0, 0, 0, 3, 10))));
   }
 
   @Test
@@ -195,8 +204,84 @@ class KafkaEnabledInventoryServiceTest {
         new KafkaEnabledInventoryService(props, producer, meterRegistry, retryTemplate);
     service.scheduleHostUpdate(new ConduitFacts());
     service.scheduleHostUpdate(new ConduitFacts());
+    verifyNoInteractions(producer);
+
+    HostUpdateSummary summary = service.flushHostUpdates();
+
+    verify(producer, times(2)).send(anyString(), isNull(), any());
+    assertEquals(new HostUpdateSummary(2, 0, 0), summary);
+  }
+
+  @Test
+  void ensureBatchIsSentWhenBatchSizeIsReached() {
+    InventoryServiceProperties props = new InventoryServiceProperties();
+    props.setKafkaHostIngressTopic("placeholder");
+    props.setKafkaHostUpdateBatchSize(2);
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(props, producer, meterRegistry, retryTemplate);
+    service.scheduleHostUpdate(new ConduitFacts());
+    service.scheduleHostUpdate(new ConduitFacts());
+    service.scheduleHostUpdate(new ConduitFacts());
 
     verify(producer, times(2)).send(anyString(), isNull(), any());
+    assertEquals(new HostUpdateSummary(3, 0, 0), service.flushHostUpdates());
+  }
+
+  @Test
+  void ensureUnchangedHostsAreSkipped() {
+    InventoryServiceProperties props = new InventoryServiceProperties();
+    props.setKafkaHostIngressTopic("placeholder");
+    props.setUnchangedHostRepublishInterval(Duration.ofHours(12));
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(props, producer, meterRegistry, retryTemplate);
+
+    assertEquals(
+        new HostUpdateSummary(2, 0, 0),
+        service.sendHostUpdate(List.of(hostFacts("host1", "6.3"), hostFacts("host2", "6.3"))));
+    assertEquals(
+        new HostUpdateSummary(1, 1, 0),
+        service.sendHostUpdate(List.of(hostFacts("host1", "6.3"), hostFacts("host2", "7.1"))));
+
+    verify(producer, times(3)).send(anyString(), eq(ORG_ID), any(CreateUpdateHostMessage.class));
+    assertEquals("7.1", messageCaptor.getValue().getData().getSystemProfile().getOsRelease());
+  }
+
+  @Test
+  void ensureUnchangedHostsArePublishedWhenSkippingIsDisabled() {
+    InventoryServiceProperties props = new InventoryServiceProperties();
+    props.setKafkaHostIngressTopic("placeholder");
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(props, producer, meterRegistry, retryTemplate);
+
+    service.sendHostUpdate(List.of(hostFacts("host1", "6.3")));
+    assertEquals(
+        new HostUpdateSummary(1, 0, 0), service.sendHostUpdate(List.of(hostFacts("host1", "6.3"))));
+  }
+
+  @Test
+  void ensureFailedHostsAreNotSkipped() {
+    InventoryServiceProperties props = new InventoryServiceProperties();
+    props.setKafkaHostIngressTopic("placeholder");
+    props.setUnchangedHostRepublishInterval(Duration.ofHours(12));
+    KafkaEnabledInventoryService service =
+        new KafkaEnabledInventoryService(props, producer, meterRegistry, retryTemplate);
+    reset(producer);
+    when(producer.send(anyString(), anyString(), any(CreateUpdateHostMessage.class)))
+        .thenReturn(CompletableFuture.failedFuture(new KafkaException("boom")));
+
+    assertEquals(
+        new HostUpdateSummary(0, 0, 1), service.sendHostUpdate(List.of(hostFacts("host1", "6.3"))));
+    assertEquals(
+        new HostUpdateSummary(0, 0, 1), service.sendHostUpdate(List.of(hostFacts("host1", "6.3"))));
+  }
+
+  private static ConduitFacts hostFacts(String subscriptionManagerId, String osVersion) {
+    ConduitFacts facts = new ConduitFacts();
+    facts.setOrgId(ORG_ID);
+    facts.setSubscriptionManagerId(subscriptionManagerId);
+    facts.setOsName("Red Hat Enterprise Linux Server");
+    facts.setOsVersion(osVersion);
+    return facts;
   }
 
   @Test
@@ -25,6 +25,7 @@ import static com.redhat.swatch.utilization.configuration.Channels.NOTIFICATIONS
 import com.redhat.cloud.notifications.ingress.Action;
 import com.redhat.swatch.kafka.EmitterService;
 import com.redhat.swatch.utilization.configuration.FeatureFlags;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.microprofile.reactive.messaging.Channel;
@@ -45,9 +46,11 @@ public class NotificationsProducer {
   private final EmitterService<Action> emitter;
 
   public NotificationsProducer(
-      FeatureFlags featureFlags, @Channel(NOTIFICATIONS_OUT) Emitter<Action> emitter) {
+      FeatureFlags featureFlags,
+      @Channel(NOTIFICATIONS_OUT) Emitter<Action> emitter,
+      MeterRegistry meterRegistry) {
     this.featureFlags = featureFlags;
-    this.emitter = new EmitterService<>(emitter);
+    this.emitter = new EmitterService<>(emitter, NOTIFICATIONS_OUT, meterRegistry);
   }
 
   /**
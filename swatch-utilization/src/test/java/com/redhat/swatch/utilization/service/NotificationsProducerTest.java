@@ -28,6 +28,7 @@ import static org.mockito.Mockito.when;
 
 import com.redhat.cloud.notifications.ingress.Action;
 import com.redhat.swatch.utilization.configuration.FeatureFlags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.eclipse.microprofile.reactive.messaging.Emitter;
 import org.eclipse.microprofile.reactive.messaging.Message;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,7 +53,7 @@ class NotificationsProducerTest {
   @BeforeEach
   void setUp() {
     lenient().when(emitter.hasRequests()).thenReturn(true);
-    producer = new NotificationsProducer(featureFlags, emitter);
+    producer = new NotificationsProducer(featureFlags, emitter, new SimpleMeterRegistry());
   }
 
   @Test